@@ -0,0 +1,63 @@
+package library;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Liste en ajout seul : un seul écrivain (synchronisé par l'appelant),
+ * lecteurs concurrents sans verrou.
+ *
+ * L'écrivain remplit la case puis publie la nouvelle taille (écriture volatile) :
+ * un lecteur qui lit d'abord size() voit donc toutes les cases d'indice inférieur.
+ * En cas d'agrandissement, le nouveau tableau est une copie complète publiée
+ * avant la case suivante, les anciennes cases restent donc valides.
+ */
+class AppendOnlyList<T> {
+    private volatile Object[] values = new Object[16];
+    private volatile int size;
+
+    /**
+     * Ajoute un élément et retourne sa position. Réservé à l'écrivain.
+     */
+    int add(T value) {
+        Object[] current = values;
+        int n = size;
+        if (n == current.length) {
+            current = Arrays.copyOf(current, n * 2);
+            values = current;
+        }
+        current[n] = value;
+        size = n + 1;
+        return n;
+    }
+
+    /**
+     * Ajoute un lot d'éléments et ne publie la nouvelle taille qu'une fois.
+     * Retourne la position du premier élément. Réservé à l'écrivain.
+     */
+    int addAll(List<? extends T> batch) {
+        Object[] current = values;
+        int n = size;
+        if (n + batch.size() > current.length) {
+            current = Arrays.copyOf(current, Math.max(current.length * 2, n + batch.size()));
+            values = current;
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            current[n + i] = batch.get(i);
+        }
+        size = n + batch.size();
+        return n;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Lit l'élément à une position déjà publiée (index < size() lu auparavant).
+     */
+    @SuppressWarnings("unchecked")
+    T get(int index) {
+        return (T) values[index];
+    }
+}
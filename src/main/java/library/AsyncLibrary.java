@@ -0,0 +1,173 @@
+package library;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Façade asynchrone sur un moteur : chaque opération est exécutée sur un
+ * exécuteur et retourne un CompletableFuture, pour enchaîner ou mener de
+ * front de nombreuses opérations sans bloquer l'appelant pendant
+ * l'attente du journal (WriteAheadLog.sync) ou du disque.
+ *
+ * Exécuteur par défaut : un thread virtuel par opération quand la JVM en
+ * fournit (Java 21 et plus), sinon un pool de threads démons créés à la
+ * demande. Le nombre d'opérations en cours est borné (maxInFlight) : au-delà,
+ * la soumission attend qu'une opération se termine, ce qui retient un
+ * producteur trop rapide au lieu d'accumuler des tâches sans limite.
+ *
+ * Les erreurs du moteur (IllegalStateException d'une limite d'emprunts,
+ * IllegalArgumentException...) terminent le future en échec.
+ */
+public class AsyncLibrary implements AutoCloseable {
+    /** Opérations en cours au plus, par défaut. */
+    public static final int DEFAULT_MAX_IN_FLIGHT = 1024;
+
+    private final LibraryEngine engine;
+    private final Executor executor;
+    // Exécuteur créé par la façade, arrêté par close ; null s'il est fourni
+    private final ExecutorService owned;
+    private final Semaphore permits;
+    private final int maxInFlight;
+
+    /**
+     * Façade sur l'exécuteur par défaut, avec DEFAULT_MAX_IN_FLIGHT opérations en cours au plus.
+     */
+    public AsyncLibrary(LibraryEngine engine) {
+        this(engine, null, DEFAULT_MAX_IN_FLIGHT);
+    }
+
+    /**
+     * @param executor exécuteur des opérations (null : exécuteur par défaut) ;
+     *                 un exécuteur fourni n'est pas arrêté par close
+     * @param maxInFlight nombre maximal d'opérations soumises et non terminées
+     */
+    public AsyncLibrary(LibraryEngine engine, Executor executor, int maxInFlight) {
+        if (engine == null) {
+            throw new IllegalArgumentException("Le moteur ne peut pas être null");
+        }
+        if (maxInFlight <= 0) {
+            throw new IllegalArgumentException("La limite d'opérations en cours doit être positive");
+        }
+        this.engine = engine;
+        this.owned = (executor == null) ? newThreadPerTaskExecutor("library-async-") : null;
+        this.executor = (executor != null) ? executor : owned;
+        this.permits = new Semaphore(maxInFlight);
+        this.maxInFlight = maxInFlight;
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    // Opérations
+    // ═══════════════════════════════════════════════════════════
+
+    public CompletableFuture<Book> byIsbn(String isbn) {
+        return submit(() -> engine.byIsbn(isbn));
+    }
+
+    public CompletableFuture<List<Book>> findByAuthor(String author) {
+        return submit(() -> engine.findByAuthor(author));
+    }
+
+    /**
+     * Termine en échec (IllegalStateException) si l'emprunteur a atteint sa limite.
+     */
+    public CompletableFuture<Boolean> borrowBook(String isbn, String borrowerName) {
+        return submit(() -> engine.borrowBook(isbn, borrowerName));
+    }
+
+    /**
+     * Nom de l'emprunteur si le retour est réussi, null sinon.
+     */
+    public CompletableFuture<String> returnBook(String isbn) {
+        return submit(() -> engine.returnBook(isbn));
+    }
+
+    public CompletableFuture<LoanBatchReport> borrowBooks(String borrowerName, List<String> isbns) {
+        return submit(() -> engine.borrowBooks(borrowerName, isbns));
+    }
+
+    public CompletableFuture<LoanBatchReport> returnBooks(List<String> isbns) {
+        return submit(() -> engine.returnBooks(isbns));
+    }
+
+    /**
+     * Exécute operation sur l'exécuteur dans la limite des opérations en
+     * cours : attend une place si la limite est atteinte. Un appelant
+     * interrompu pendant l'attente, ou un exécuteur qui refuse la tâche,
+     * donne un future en échec.
+     */
+    <T> CompletableFuture<T> submit(Supplier<T> operation) {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return CompletableFuture.failedFuture(e);
+        }
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    return operation.get();
+                } finally {
+                    permits.release();
+                }
+            }, executor);
+        } catch (RejectedExecutionException e) {
+            permits.release();
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    // État
+    // ═══════════════════════════════════════════════════════════
+
+    public LibraryEngine getEngine() {
+        return engine;
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    /** Opérations soumises et pas encore terminées. */
+    public int getInFlight() {
+        return maxInFlight - permits.availablePermits();
+    }
+
+    /**
+     * Arrête l'exécuteur par défaut après les opérations en cours ; un
+     * exécuteur fourni reste à la charge de l'appelant.
+     */
+    @Override
+    public void close() {
+        if (owned != null) owned.shutdown();
+    }
+
+    /**
+     * Un thread par tâche : virtuel si la JVM en a (Java 21+), sans en
+     * dépendre à la compilation ; sinon thread démon nommé prefix + numéro,
+     * réutilisé s'il est libre.
+     */
+    static ExecutorService newThreadPerTaskExecutor(String prefix) {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            AtomicInteger count = new AtomicInteger();
+            ThreadFactory threads = task -> {
+                Thread thread = new Thread(task, prefix + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            };
+            return Executors.newCachedThreadPool(threads);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package library;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Dictionnaire des auteurs : chaque auteur distinct reçoit un identifiant
+ * entier (0, 1, 2...) et n'est stocké qu'une fois, avec sa forme en
+ * minuscules (Locale.ROOT) pour les recherches.
+ *
+ * Un seul écrivain (intern), lecteurs concurrents sans verrou : l'auteur et
+ * sa forme convertie sont publiés avant que l'identifiant soit retourné ou
+ * trouvable dans la table.
+ */
+final class AuthorDictionary {
+    /** Identifiant d'un auteur null. */
+    static final int NULL_ID = -1;
+
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private final AppendOnlyList<String> authors = new AppendOnlyList<>();
+    private final AppendOnlyList<String> foldedAuthors = new AppendOnlyList<>();
+
+    /**
+     * Retourne l'identifiant de l'auteur, en l'ajoutant s'il est nouveau.
+     * Réservé à l'écrivain.
+     */
+    int intern(String author) {
+        if (author == null) return NULL_ID;
+        Integer id = ids.get(author);
+        if (id != null) return id;
+        foldedAuthors.add(author.toLowerCase(Locale.ROOT));
+        int added = authors.add(author);
+        ids.put(author, added);
+        return added;
+    }
+
+    /** Nombre d'auteurs distincts publiés. */
+    int size() {
+        return authors.size();
+    }
+
+    /** Auteur d'un identifiant publié (null pour NULL_ID). */
+    String get(int id) {
+        return (id != NULL_ID) ? authors.get(id) : null;
+    }
+
+    /** Forme en minuscules d'un identifiant publié (null pour NULL_ID). */
+    String folded(int id) {
+        return (id != NULL_ID) ? foldedAuthors.get(id) : null;
+    }
+}
@@ -0,0 +1,198 @@
+package library;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Index inversé de trigrammes sur les auteurs (mis en minuscules avec Locale.ROOT).
+ *
+ * L'index porte sur les auteurs distincts du dictionnaire (AuthorDictionary),
+ * pas sur les livres : les trigrammes d'un auteur ne sont indexés qu'une fois,
+ * et chaque auteur garde la liste des positions de ses livres.
+ *
+ * Pour une recherche partielle, on intersecte les listes d'auteurs des
+ * trigrammes de la requête, on vérifie chaque auteur candidat une seule fois
+ * avec contains, puis on réunit les positions de ceux qui correspondent :
+ * le résultat est donc exactement celui de l'ancien parcours complet.
+ * Les requêtes plus courtes qu'un trigramme parcourent le dictionnaire,
+ * pas les livres.
+ *
+ * Un seul écrivain (add), recherches concurrentes sans verrou : la liste
+ * des positions d'un auteur est publiée avant ses trigrammes, et une
+ * position avant d'être indexée.
+ */
+class AuthorTrigramIndex {
+    static final int GRAM_LENGTH = 3;
+
+    private final AuthorDictionary dictionary;
+    // Positions (croissantes) des livres de chaque auteur, par identifiant
+    private final AppendOnlyList<IntList> positionsByAuthor = new AppendOnlyList<>();
+    // Trigramme -> identifiants (croissants) des auteurs qui le contiennent
+    private final Map<Long, IntList> postings = new ConcurrentHashMap<>();
+
+    AuthorTrigramIndex() {
+        this(new AuthorDictionary());
+    }
+
+    /**
+     * Index sur un dictionnaire partagé (celui des colonnes du catalogue).
+     */
+    AuthorTrigramIndex(AuthorDictionary dictionary) {
+        this.dictionary = dictionary;
+    }
+
+    /**
+     * Indexe l'auteur du livre ajouté à la position donnée.
+     * Les positions sont croissantes d'un appel à l'autre.
+     */
+    void add(int position, String author) {
+        add(position, dictionary.intern(author));
+    }
+
+    /**
+     * Indexe un auteur déjà présent dans le dictionnaire.
+     */
+    void add(int position, int authorId) {
+        if (authorId == AuthorDictionary.NULL_ID) return;
+        register(authorId);
+        positionsByAuthor.get(authorId).add(position);
+    }
+
+    /**
+     * Indexe un lot d'auteurs aux positions consécutives à partir de firstPosition.
+     */
+    void addAll(int firstPosition, List<String> authors) {
+        int[] ids = new int[authors.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = dictionary.intern(authors.get(i));
+        }
+        addAll(firstPosition, ids);
+    }
+
+    /**
+     * Indexe un lot d'identifiants d'auteur aux positions consécutives.
+     * Les positions de chaque auteur sont regroupées localement puis ajoutées
+     * d'un bloc : une seule publication par auteur pour tout le lot.
+     */
+    void addAll(int firstPosition, int[] authorIds) {
+        Map<Integer, IntList> batch = new HashMap<>();
+        for (int i = 0; i < authorIds.length; i++) {
+            int id = authorIds[i];
+            if (id == AuthorDictionary.NULL_ID) continue;
+            register(id);
+            batch.computeIfAbsent(id, k -> new IntList()).add(firstPosition + i);
+        }
+        for (Map.Entry<Integer, IntList> entry : batch.entrySet()) {
+            positionsByAuthor.get(entry.getKey()).addAll(entry.getValue());
+        }
+    }
+
+    // Indexe les trigrammes des auteurs du dictionnaire jusqu'à authorId inclus
+    private void register(int authorId) {
+        for (int id = positionsByAuthor.size(); id <= authorId; id++) {
+            positionsByAuthor.add(new IntList());
+            String folded = dictionary.folded(id);
+            for (int i = 0; i + GRAM_LENGTH <= folded.length(); i++) {
+                IntList list = postings.computeIfAbsent(gram(folded, i), k -> new IntList());
+                if (list.isEmpty() || list.last() != id) {
+                    list.add(id);
+                }
+            }
+        }
+    }
+
+    /**
+     * Retourne, dans l'ordre croissant, les positions des livres dont
+     * l'auteur contient la requête (insensible à la casse).
+     */
+    int[] search(String query) {
+        if (query == null || query.isEmpty()) return new int[0];
+        String folded = query.toLowerCase(Locale.ROOT);
+
+        List<int[]> lists = new ArrayList<>();
+        int total = 0;
+        if (folded.length() < GRAM_LENGTH) {
+            // Pas de trigramme : tous les auteurs indexés, sans tableau d'identifiants
+            for (int id = 0, authors = positionsByAuthor.size(); id < authors; id++) {
+                total += collect(id, folded, lists);
+            }
+        } else {
+            for (int id : candidates(folded)) {
+                total += collect(id, folded, lists);
+            }
+        }
+        if (lists.size() == 1) return lists.get(0);
+
+        int[] result = new int[total];
+        int offset = 0;
+        for (int[] positions : lists) {
+            System.arraycopy(positions, 0, result, offset, positions.length);
+            offset += positions.length;
+        }
+        Arrays.sort(result);
+        return result;
+    }
+
+    // Ajoute les positions de l'auteur id s'il contient la requête ; retourne leur nombre
+    private int collect(int id, String folded, List<int[]> lists) {
+        if (!dictionary.folded(id).contains(folded)) return 0;
+        int[] positions = positionsByAuthor.get(id).toArray();
+        lists.add(positions);
+        return positions.length;
+    }
+
+    /**
+     * Majorant du nombre de positions que retournerait search : somme des
+     * livres des auteurs candidats, sans la vérification par contains.
+     */
+    int estimate(String query) {
+        if (query == null || query.isEmpty()) return 0;
+        String folded = query.toLowerCase(Locale.ROOT);
+        int total = 0;
+        if (folded.length() < GRAM_LENGTH) {
+            for (int id = 0, authors = positionsByAuthor.size(); id < authors; id++) {
+                total += positionsByAuthor.get(id).size();
+            }
+        } else {
+            for (int id : candidates(folded)) {
+                total += positionsByAuthor.get(id).size();
+            }
+        }
+        return total;
+    }
+
+    // Intersection des listes d'auteurs, de la plus courte à la plus longue
+    private int[] candidates(String folded) {
+        List<IntList> lists = new ArrayList<>();
+        for (int i = 0; i + GRAM_LENGTH <= folded.length(); i++) {
+            IntList list = postings.get(gram(folded, i));
+            if (list == null) return new int[0];
+            lists.add(list);
+        }
+        lists.sort((a, b) -> Integer.compare(a.size(), b.size()));
+
+        int[] result = lists.get(0).toArray();
+        int count = result.length;
+        for (int l = 1; l < lists.size() && count > 0; l++) {
+            IntList other = lists.get(l);
+            int kept = 0;
+            for (int i = 0; i < count; i++) {
+                if (other.contains(result[i])) {
+                    result[kept++] = result[i];
+                }
+            }
+            count = kept;
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    // Un trigramme = trois caractères UTF-16 empaquetés dans un long
+    private static long gram(String s, int start) {
+        return ((long) s.charAt(start) << 32) | ((long) s.charAt(start + 1) << 16) | s.charAt(start + 2);
+    }
+}
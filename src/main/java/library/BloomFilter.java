@@ -0,0 +1,138 @@
+package library;
+
+/**
+ * Filtre de Bloom par blocs sur les ISBN d'un catalogue : "absent" est
+ * certain, "peut-être présent" se vérifie dans l'index.
+ *
+ * Les bits sont rangés en blocs de BLOCK_WORDS mots (512 bits, une ligne
+ * de cache) ; toutes les sondes d'un ISBN tombent dans le même bloc. Un
+ * test coûte donc un seul accès mémoire, ou une seule page pour un filtre
+ * projeté depuis le fichier catalogue, au prix d'un taux de faux positifs
+ * un peu plus élevé qu'un filtre classique de même taille.
+ *
+ * La clé est la forme canonique de l'ISBN (Isbn.pack), ou la chaîne telle
+ * quelle pour un ISBN invalide : deux écritures d'un même ISBN valide sont
+ * le même élément. Les hachages ne dépendent que de la clé, pas de la JVM :
+ * le filtre est écrit tel quel dans le fichier catalogue (MappedCatalog)
+ * et interrogé sur place (mightContain(Words, ...)), sans reconstruction.
+ */
+final class BloomFilter {
+    static final int BLOCK_WORDS = 8;
+    static final int BLOCK_BITS = BLOCK_WORDS * 64;
+    /** Taux de faux positifs visé par défaut à la construction. */
+    static final double DEFAULT_FALSE_POSITIVE_RATE = 0.01;
+
+    /** Accès aux mots du filtre (tableau ou fichier projeté). */
+    interface Words {
+        long get(int index);
+    }
+
+    private final long[] words;
+    private final int hashes;
+
+    private BloomFilter(int blocks, int hashes) {
+        this.words = new long[blocks * BLOCK_WORDS];
+        this.hashes = hashes;
+    }
+
+    /**
+     * Filtre dimensionné pour count ISBN au taux de faux positifs visé :
+     * -count * ln(rate) / ln(2)^2 bits, ln(2) * bits / count sondes.
+     */
+    static BloomFilter forCapacity(long count, double falsePositiveRate) {
+        if (!(falsePositiveRate > 0 && falsePositiveRate < 1)) {
+            throw new IllegalArgumentException("Taux de faux positifs invalide : " + falsePositiveRate);
+        }
+        long n = Math.max(1, count);
+        double bits = -n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2));
+        long blocks = Math.max(1, (long) Math.ceil(bits / BLOCK_BITS));
+        if (blocks * BLOCK_WORDS > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Filtre trop grand pour " + count + " ISBN");
+        }
+        int hashes = (int) Math.max(1, Math.min(16, Math.round(Math.log(2) * blocks * BLOCK_BITS / n)));
+        return new BloomFilter((int) blocks, hashes);
+    }
+
+    void add(String isbn) {
+        if (isbn == null) return;
+        long key = key(isbn);
+        int base = block(key, words.length / BLOCK_WORDS) * BLOCK_WORDS;
+        int h = (int) key;
+        int step = (int) (key >>> 32) | 1;
+        for (int i = 0; i < hashes; i++, h += step) {
+            int bit = h & (BLOCK_BITS - 1);
+            words[base + (bit >>> 6)] |= 1L << bit;
+        }
+    }
+
+    boolean mightContain(String isbn) {
+        return mightContain(i -> words[i], words.length / BLOCK_WORDS, hashes, isbn);
+    }
+
+    /**
+     * Test sur des mots lus ailleurs (filtre du fichier catalogue).
+     */
+    static boolean mightContain(Words words, int blocks, int hashes, String isbn) {
+        if (isbn == null) return false;
+        long key = key(isbn);
+        int base = block(key, blocks) * BLOCK_WORDS;
+        int h = (int) key;
+        int step = (int) (key >>> 32) | 1;
+        for (int i = 0; i < hashes; i++, h += step) {
+            int bit = h & (BLOCK_BITS - 1);
+            if ((words.get(base + (bit >>> 6)) & (1L << bit)) == 0) return false;
+        }
+        return true;
+    }
+
+    /** Mots du filtre, à écrire dans le fichier catalogue. */
+    long[] words() {
+        return words;
+    }
+
+    int blocks() {
+        return words.length / BLOCK_WORDS;
+    }
+
+    int hashes() {
+        return hashes;
+    }
+
+    /**
+     * Taux de faux positifs attendu pour count ISBN distincts dans un filtre
+     * de cette taille : (1 - e^(-hashes * count / bits))^hashes.
+     */
+    static double expectedFalsePositiveRate(long bits, int hashes, long count) {
+        if (bits <= 0 || count <= 0) return 0;
+        return Math.pow(1 - Math.exp(-(double) hashes * count / bits), hashes);
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    // Hachage
+    // ═══════════════════════════════════════════════════════════
+
+    // Les sondes viennent des deux moitiés de la clé (double hachage),
+    // le bloc d'un second mélange
+    private static long key(String isbn) {
+        long packed = Isbn.pack(isbn);
+        if (packed != Isbn.INVALID) return mix(packed);
+        long h = 0xCBF29CE484222325L;
+        for (int i = 0; i < isbn.length(); i++) {
+            h = (h ^ isbn.charAt(i)) * 0x100000001B3L;
+        }
+        return mix(h);
+    }
+
+    private static int block(long key, int blocks) {
+        return (int) Long.remainderUnsigned(mix(key), blocks);
+    }
+
+    // Finaliseur de MurmurHash3
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB93FE1A85EC3L;
+        return h ^ (h >>> 33);
+    }
+}
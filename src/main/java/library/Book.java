@@ -1,6 +1,13 @@
 
 package library;
 
+import java.util.Objects;
+
+/**
+ * Livre du catalogue. Les catalogues le stockent en colonnes et en
+ * matérialisent une nouvelle instance à chaque lecture : l'égalité porte
+ * donc sur les valeurs, pas sur l'identité.
+ */
 public class Book {
     private String isbn;
     private String title;
@@ -19,6 +26,20 @@ public class Book {
     public String getAuthor() { return author; }
     public int getYear() { return year; }
 
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Book)) return false;
+        Book other = (Book) o;
+        return year == other.year && Objects.equals(isbn, other.isbn)
+                && Objects.equals(title, other.title) && Objects.equals(author, other.author);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(isbn, title, author, year);
+    }
+
     @Override
     public String toString() {
         return "[" + isbn + "] " + title + " - " + author + " (" + year + ")";
@@ -0,0 +1,195 @@
+package library;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Stockage en colonnes (struct-of-arrays) des livres d'un catalogue :
+ * une colonne par champ, dont un int[] pour l'année.
+ *
+ * Les chaînes sont encodées :
+ * - auteurs : dictionnaire (AuthorDictionary), la colonne ne contient que
+ *   l'identifiant de l'auteur ; chaque auteur distinct n'est stocké qu'une fois ;
+ * - ISBN et titres : UTF-8 codé par préfixe, par blocs (FrontCodedStrings).
+ * Environ 8 octets fixes par livre plus ses octets UTF-8, au lieu d'un objet
+ * Book et de trois objets String. Les Book sont matérialisés à la demande (get).
+ *
+ * Hors tas (constructeur avec un OffHeapArena), les trois colonnes d'octets et
+ * les colonnes fixes (auteur, année : 8 octets par livre) sont dans des pages
+ * directes ; il ne reste sur le tas que le dictionnaire des auteurs et un
+ * décalage par bloc de FrontCodedStrings.BLOCK_SIZE livres.
+ *
+ * Même protocole que AppendOnlyList : un seul écrivain, lecteurs sans verrou
+ * qui lisent size() avant les colonnes. Les colonnes primitives sont agrandies
+ * ensemble et publiées d'un bloc, avant la taille.
+ */
+final class BookColumns {
+
+    private static final class Columns {
+        final int[] authorIds;
+        final int[] years;
+
+        Columns(int[] authorIds, int[] years) {
+            this.authorIds = authorIds;
+            this.years = years;
+        }
+
+        Columns grow(int capacity) {
+            return new Columns(Arrays.copyOf(authorIds, capacity), Arrays.copyOf(years, capacity));
+        }
+    }
+
+    private static final int FIXED_WIDTH = 8;
+
+    private final FrontCodedStrings isbns;
+    private final FrontCodedStrings titles;
+    private final AuthorDictionary authors = new AuthorDictionary();
+    // Sur le tas : colonnes primitives ; hors tas : (auteur, année) par livre
+    private volatile Columns columns;
+    private final ByteStore fixed;
+    private final OffHeapByteStore[] offHeapStores;
+    private volatile int size;
+
+    BookColumns() {
+        isbns = new FrontCodedStrings();
+        titles = new FrontCodedStrings();
+        columns = new Columns(new int[16], new int[16]);
+        fixed = null;
+        offHeapStores = new OffHeapByteStore[0];
+    }
+
+    /**
+     * Colonnes hors tas, dans des pages prises dans arena.
+     */
+    BookColumns(OffHeapArena arena) {
+        OffHeapByteStore isbnBytes = new OffHeapByteStore(arena);
+        OffHeapByteStore titleBytes = new OffHeapByteStore(arena);
+        OffHeapByteStore fixedBytes = new OffHeapByteStore(arena);
+        isbns = new FrontCodedStrings(isbnBytes);
+        titles = new FrontCodedStrings(titleBytes);
+        columns = null;
+        fixed = fixedBytes;
+        offHeapStores = new OffHeapByteStore[] {isbnBytes, titleBytes, fixedBytes};
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    // Écriture (un seul écrivain)
+    // ═══════════════════════════════════════════════════════════
+
+    /**
+     * Ajoute un livre et retourne sa position.
+     */
+    int add(Book book) {
+        int n = size;
+        Columns current = (fixed == null) ? ensureCapacity(n + 1) : null;
+        set(current, n, book);
+        size = n + 1;
+        return n;
+    }
+
+    /**
+     * Ajoute un lot et ne publie la nouvelle taille qu'une fois.
+     * Retourne la position du premier livre.
+     */
+    int addAll(List<Book> batch) {
+        int n = size;
+        Columns current = (fixed == null) ? ensureCapacity(n + batch.size()) : null;
+        for (int i = 0; i < batch.size(); i++) {
+            set(current, n + i, batch.get(i));
+        }
+        size = n + batch.size();
+        return n;
+    }
+
+    private Columns ensureCapacity(int capacity) {
+        Columns current = columns;
+        if (capacity > current.years.length) {
+            current = current.grow(Math.max(current.years.length * 2, capacity));
+            columns = current;
+        }
+        return current;
+    }
+
+    private void set(Columns columns, int position, Book book) {
+        isbns.add(book.getIsbn());
+        titles.add(book.getTitle());
+        int authorId = authors.intern(book.getAuthor());
+        if (fixed != null) {
+            fixed.appendInt(authorId);
+            fixed.appendInt(book.getYear());
+        } else {
+            columns.authorIds[position] = authorId;
+            columns.years[position] = book.getYear();
+        }
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    // Lecture (positions publiées)
+    // ═══════════════════════════════════════════════════════════
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Matérialise le livre à une position publiée.
+     */
+    Book get(int position) {
+        return new Book(isbns.get(position), titles.get(position),
+                authors.get(authorId(position)), year(position));
+    }
+
+    String isbn(int position) {
+        return isbns.get(position);
+    }
+
+    String title(int position) {
+        return titles.get(position);
+    }
+
+    String author(int position) {
+        return authors.get(authorId(position));
+    }
+
+    int authorId(int position) {
+        if (fixed != null) return fixed.getInt((long) position * FIXED_WIDTH);
+        return columns.authorIds[position];
+    }
+
+    /** Identifiants d'auteur des positions [from, to) publiées. */
+    int[] authorIds(int from, int to) {
+        if (fixed == null) return Arrays.copyOfRange(columns.authorIds, from, to);
+        int[] ids = new int[to - from];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = authorId(from + i);
+        }
+        return ids;
+    }
+
+    int year(int position) {
+        if (fixed != null) return fixed.getInt((long) position * FIXED_WIDTH + 4);
+        return columns.years[position];
+    }
+
+    /** Dictionnaire des auteurs, partagé avec l'index des trigrammes. */
+    AuthorDictionary authors() {
+        return authors;
+    }
+
+    /**
+     * Première position de [from, to) dont le titre est égal à title sans
+     * tenir compte de la casse, ou -1. Parcourt la seule colonne des titres.
+     */
+    int indexOfTitleIgnoreCase(String title, int from, int to) {
+        return titles.indexOfIgnoreCase(title, from, to);
+    }
+
+    /** Octets hors tas retenus par les colonnes (0 sur le tas). */
+    long offHeapBytes() {
+        long total = 0;
+        for (OffHeapByteStore store : offHeapStores) {
+            total += store.reservedBytes();
+        }
+        return total;
+    }
+}
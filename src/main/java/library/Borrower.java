@@ -1,17 +1,77 @@
 package library;
 
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Emprunteur. Ceux qu'utilise le moteur sont enregistrés (BorrowerRegistry) :
+ * une seule instance par nom, avec un identifiant stable et l'ensemble des
+ * ISBN (clés Isbn.loanKey) qu'il a en cours. Le nom sert de clé au registre :
+ * setName est refusé sur un emprunteur enregistré.
+ */
 public class Borrower {
-    private String name;
-    
+    /** Identifiant d'un emprunteur créé hors du registre. */
+    public static final int UNREGISTERED = -1;
+
+    private volatile String name;
+    private final int id;
+    // Emprunts en cours (index inverse), et leur nombre réservé avant l'ajout
+    final Set<Object> loans = ConcurrentHashMap.newKeySet();
+    final AtomicInteger loanCount = new AtomicInteger();
+
     public Borrower(String name) {
+        this(UNREGISTERED, name);
+    }
+
+    Borrower(int id, String name) {
+        this.id = id;
         this.name = name;
     }
-    
+
     public String getName() {
         return name;
     }
-    
+
+    /**
+     * Renomme un emprunteur créé hors du registre. Un emprunteur enregistré
+     * est partagé par tous ses emprunts et indexé par son nom : le renommer
+     * changerait le nom de tous ses emprunts et fausserait le registre.
+     */
     public void setName(String name) {
+        if (id != UNREGISTERED) {
+            throw new IllegalStateException("Un emprunteur enregistré ne peut pas être renommé : " + this.name);
+        }
         this.name = name;
     }
+
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Réserve une place d'emprunt si la limite (0 : aucune) n'est pas atteinte.
+     */
+    boolean reserveLoan(int limit) {
+        while (true) {
+            int count = loanCount.get();
+            if (limit > 0 && count >= limit) return false;
+            if (loanCount.compareAndSet(count, count + 1)) return true;
+        }
+    }
+
+    /**
+     * Réserve count places d'un coup, ou aucune si la limite serait dépassée.
+     */
+    boolean reserveLoans(int count, int limit) {
+        while (true) {
+            int current = loanCount.get();
+            if (limit > 0 && current + count > limit) return false;
+            if (loanCount.compareAndSet(current, current + count)) return true;
+        }
+    }
+
+    void releaseLoan() {
+        loanCount.decrementAndGet();
+    }
 }
@@ -0,0 +1,69 @@
+package library;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Registre des emprunteurs d'un moteur : une instance de Borrower par nom,
+ * créée au premier emprunt, avec un identifiant stable (0, 1, 2...).
+ *
+ * Chaque emprunteur porte l'index inverse de ses emprunts en cours, tenu à
+ * jour par le shard sous le verrou de l'ISBN emprunté ou rendu : « que
+ * détient X ? » coûte O(k) et une limite d'emprunts O(1), au lieu d'un
+ * parcours de tous les emprunts.
+ */
+final class BorrowerRegistry {
+    private final Map<String, Borrower> byName = new ConcurrentHashMap<>();
+    // ConcurrentHashMap refuse la clé null : emprunteur sans nom à part
+    private volatile Borrower anonymous;
+    private final AtomicInteger nextId = new AtomicInteger();
+
+    /**
+     * Retourne l'emprunteur de ce nom, en l'enregistrant s'il est nouveau.
+     */
+    Borrower intern(String name) {
+        if (name == null) {
+            Borrower current = anonymous;
+            if (current == null) {
+                synchronized (this) {
+                    current = anonymous;
+                    if (current == null) {
+                        current = new Borrower(nextId.getAndIncrement(), null);
+                        anonymous = current;
+                    }
+                }
+            }
+            return current;
+        }
+        Borrower existing = byName.get(name);
+        return (existing != null) ? existing
+                : byName.computeIfAbsent(name, n -> new Borrower(nextId.getAndIncrement(), n));
+    }
+
+    /** Emprunteur déjà enregistré sous ce nom, ou null. */
+    Borrower find(String name) {
+        return (name != null) ? byName.get(name) : anonymous;
+    }
+
+    int size() {
+        return byName.size() + (anonymous != null ? 1 : 0);
+    }
+
+    /**
+     * Vide les index inverses (les identités sont conservées). Non atomique
+     * vis-à-vis des emprunts concurrents, comme LibraryEngine.clearLoans.
+     */
+    void clearLoans() {
+        for (Borrower borrower : byName.values()) {
+            clear(borrower);
+        }
+        Borrower current = anonymous;
+        if (current != null) clear(current);
+    }
+
+    private static void clear(Borrower borrower) {
+        borrower.loans.clear();
+        borrower.loanCount.set(0);
+    }
+}
@@ -0,0 +1,30 @@
+package library;
+
+/**
+ * Zone d'octets en ajout seul, adressée par position (long).
+ *
+ * Implémentée sur le tas (HeapByteStore, un tableau agrandi par copie) et
+ * hors tas (OffHeapByteStore, pages directes d'un OffHeapArena).
+ * Un seul écrivain ; la publication aux lecteurs est faite par le
+ * propriétaire (écriture volatile de sa taille après les octets).
+ */
+interface ByteStore {
+
+    /** Nombre d'octets écrits (vu par l'écrivain). */
+    long length();
+
+    /** Ajoute source[offset, offset + count) à la fin de la zone. */
+    void append(byte[] source, int offset, int count);
+
+    /** Ajoute un entier (big-endian). */
+    void appendInt(int value);
+
+    /** Octet à une adresse publiée. */
+    byte get(long address);
+
+    /** Copie count octets à partir d'une adresse publiée. */
+    void get(long address, byte[] target, int offset, int count);
+
+    /** Entier (big-endian) écrit par appendInt à cette adresse. */
+    int getInt(long address);
+}
@@ -0,0 +1,232 @@
+package library;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Catalogue de livres avec ses index (ISBN, trigrammes d'auteur, année,
+ * et sur demande livres presque identiques).
+ * Chaque livre garde son numéro d'ordre global d'ajout, ce qui permet de
+ * fusionner plusieurs catalogues (shards) dans l'ordre du catalogue.
+ *
+ * Un seul écrivain à la fois (add, synchronisé par l'appelant) et lecteurs
+ * concurrents sans verrou. Le livre est publié avant d'être indexé : une
+ * position lue dans un index désigne toujours un livre visible.
+ * Vider le catalogue revient à le remplacer par une nouvelle instance.
+ *
+ * Les livres sont rangés en colonnes encodées (BookColumns) : get matérialise
+ * un Book à chaque appel, les parcours ne lisent que la colonne utile, et
+ * l'index des auteurs partage le dictionnaire de la colonne des auteurs.
+ */
+class Catalog implements CatalogReader {
+    private final BookColumns books;
+    private final LongList sequences = new LongList();
+    private final IsbnIndex isbnIndex = new IsbnIndex();
+    private final AuthorTrigramIndex authorIndex;
+    private final YearIndex yearIndex = new YearIndex();
+    // Index des livres presque identiques, null tant qu'il n'est pas demandé
+    private volatile SimilarityIndex similarityIndex;
+    // Position du premier livre d'un ISBN -> positions de ses doublons
+    private final Map<Integer, IntList> duplicates = new ConcurrentHashMap<>();
+    private volatile RoaringBitmap borrowed = RoaringBitmap.EMPTY;
+    private final Object borrowedLock = new Object();
+
+    /**
+     * Catalogue dont les colonnes sont hors tas, dans arena (sur le tas si null).
+     */
+    Catalog(OffHeapArena arena) {
+        books = (arena != null) ? new BookColumns(arena) : new BookColumns();
+        authorIndex = new AuthorTrigramIndex(books.authors());
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    // Écriture (un seul écrivain)
+    // ═══════════════════════════════════════════════════════════
+
+    int add(Book book, long sequence) {
+        sequences.add(sequence);
+        int position = books.add(book);
+        index(book.getIsbn(), position);
+        authorIndex.add(position, books.authorId(position));
+        yearIndex.add(position, book.getYear());
+        SimilarityIndex similar = similarityIndex;
+        if (similar != null) similar.add(position, book.getTitle(), book.getAuthor());
+        return position;
+    }
+
+    /**
+     * Ajout en lot : les livres sont publiés d'un bloc, puis les index sont
+     * construits pour tout le lot en une passe.
+     */
+    void addAll(List<Book> batch, long[] batchSequences) {
+        if (batch.isEmpty()) return;
+        sequences.addAll(batchSequences, 0, batch.size());
+        int first = books.addAll(batch);
+        int[] years = new int[batch.size()];
+        for (int i = 0; i < batch.size(); i++) {
+            index(batch.get(i).getIsbn(), first + i);
+            years[i] = batch.get(i).getYear();
+        }
+        authorIndex.addAll(first, books.authorIds(first, first + batch.size()));
+        yearIndex.addAll(first, years);
+        SimilarityIndex similar = similarityIndex;
+        if (similar != null) similar.addAll(first, batch);
+    }
+
+    /**
+     * Construit l'index des livres presque identiques sur les livres déjà
+     * présents, puis le tient à jour ; false l'abandonne. Réservé à l'écrivain.
+     */
+    @Override
+    public void setSimilarityIndex(boolean enabled) {
+        if (!enabled) {
+            similarityIndex = null;
+        } else if (similarityIndex == null) {
+            SimilarityIndex similar = new SimilarityIndex();
+            for (int i = 0; i < books.size(); i++) {
+                similar.add(i, books.title(i), books.author(i));
+            }
+            similarityIndex = similar;
+        }
+    }
+
+    private void index(String isbn, int position) {
+        if (!isbnIndex.put(isbn, position) && isbn != null) {
+            duplicates.computeIfAbsent(isbnIndex.get(isbn), k -> new IntList()).add(position);
+        }
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    // Lecture (sans verrou)
+    // ═══════════════════════════════════════════════════════════
+
+    /** Octets hors tas retenus par les colonnes (0 sur le tas). */
+    long offHeapBytes() {
+        return books.offHeapBytes();
+    }
+
+    @Override
+    public int size() {
+        return books.size();
+    }
+
+    @Override
+    public Book get(int position) {
+        return books.get(position);
+    }
+
+    @Override
+    public long sequence(int position) {
+        return sequences.get(position);
+    }
+
+    @Override
+    public int firstPositionAfter(long sequence, int size) {
+        return sequences.firstGreaterThan(sequence, size);
+    }
+
+    @Override
+    public Book byIsbn(String isbn) {
+        int position = isbnIndex.get(isbn);
+        return (position != IsbnIndex.ABSENT) ? books.get(position) : null;
+    }
+
+    @Override
+    public int positionOf(String isbn) {
+        return isbnIndex.get(isbn);
+    }
+
+    @Override
+    public int[] positionsOf(String isbn) {
+        int first = isbnIndex.get(isbn);
+        if (first == IsbnIndex.ABSENT) return new int[0];
+        IntList others = duplicates.get(first);
+        if (others == null) return new int[]{first};
+        int[] rest = others.toArray();
+        int[] all = new int[rest.length + 1];
+        all[0] = first;
+        System.arraycopy(rest, 0, all, 1, rest.length);
+        return all;
+    }
+
+    @Override
+    public boolean hasBookWithTitle(String title) {
+        if (title == null) return false;
+        return books.indexOfTitleIgnoreCase(title, 0, books.size()) >= 0;
+    }
+
+    @Override
+    public int indexOfTitle(String title, int from, int to) {
+        if (title == null) return -1;
+        return books.indexOfTitleIgnoreCase(title, from, to);
+    }
+
+    @Override
+    public int[] findByAuthor(String author) {
+        return authorIndex.search(author);
+    }
+
+    @Override
+    public int estimateByAuthor(String author) {
+        return authorIndex.estimate(author);
+    }
+
+    @Override
+    public int[] findSimilar(String title, String author) {
+        SimilarityIndex similar = similarityIndex;
+        if (similar == null) return SimilarityIndex.scan(title, author, books.size(), this::get);
+        return similar.search(title, author, this::get);
+    }
+
+    @Override
+    public int year(int position) {
+        return books.year(position);
+    }
+
+    @Override
+    public int[] findByYearRange(int from, int to) {
+        return yearIndex.range(from, to);
+    }
+
+    @Override
+    public int countByYearRange(int from, int to) {
+        return yearIndex.count(from, to);
+    }
+
+    @Override
+    public RoaringBitmap borrowedPositions() {
+        return borrowed;
+    }
+
+    @Override
+    public void markBorrowed(String isbn, boolean value) {
+        synchronized (borrowedLock) {
+            RoaringBitmap bits = borrowed;
+            for (int position : positionsOf(isbn)) {
+                bits = value ? bits.with(position) : bits.without(position);
+            }
+            borrowed = bits;
+        }
+    }
+
+    @Override
+    public void markBorrowed(List<String> isbns, boolean value) {
+        synchronized (borrowedLock) {
+            RoaringBitmap bits = borrowed;
+            for (String isbn : isbns) {
+                for (int position : positionsOf(isbn)) {
+                    bits = value ? bits.with(position) : bits.without(position);
+                }
+            }
+            borrowed = bits;
+        }
+    }
+
+    @Override
+    public void clearBorrowed() {
+        synchronized (borrowedLock) {
+            borrowed = RoaringBitmap.EMPTY;
+        }
+    }
+}
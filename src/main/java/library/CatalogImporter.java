@@ -0,0 +1,297 @@
+package library;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Import en lot d'un catalogue depuis un fichier CSV ou JSON Lines.
+ *
+ * Le fichier est découpé en blocs alignés sur les fins de ligne ; les blocs
+ * sont lus, analysés et validés en parallèle, puis les livres valides sont
+ * ajoutés d'un seul coup (LibraryEngine.addBooks) pour que les index soient
+ * construits par lot plutôt qu'à chaque insertion.
+ *
+ * Formats (une notice par ligne, UTF-8) :
+ * - CSV : isbn,title,author,year ; en-tête facultatif ; champs entre guillemets
+ *   autorisés ("" pour un guillemet).
+ * - JSON Lines : {"isbn": "...", "title": "...", "author": "...", "year": 1999}
+ */
+public class CatalogImporter {
+    public enum Format {
+        CSV, JSON_LINES;
+
+        /**
+         * Format déduit de l'extension (.csv, .jsonl, .ndjson).
+         */
+        public static Format of(Path file) {
+            String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+            if (name.endsWith(".csv")) return CSV;
+            if (name.endsWith(".jsonl") || name.endsWith(".ndjson")) return JSON_LINES;
+            throw new IllegalArgumentException("Format de fichier inconnu : " + name);
+        }
+    }
+
+    static final int DEFAULT_CHUNK_SIZE = 4 * 1024 * 1024;
+    private static final String BYTE_ORDER_MARK = "\uFEFF";
+
+    private final LibraryEngine engine;
+    private final int chunkSize;
+
+    public CatalogImporter(LibraryEngine engine) {
+        this(engine, DEFAULT_CHUNK_SIZE);
+    }
+
+    CatalogImporter(LibraryEngine engine, int chunkSize) {
+        this.engine = engine;
+        this.chunkSize = chunkSize;
+    }
+
+    public ImportReport importFile(Path file) throws IOException {
+        return importFile(file, Format.of(file));
+    }
+
+    public ImportReport importFile(Path file, Format format) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long[] bounds = chunkBounds(channel);
+            ChunkResult[] chunks = new ChunkResult[bounds.length - 1];
+            IntStream.range(0, chunks.length).parallel().forEach(i -> {
+                chunks[i] = parseChunk(channel, bounds[i], bounds[i + 1], format, i == 0);
+            });
+
+            // Numéros de ligne globaux et concaténation dans l'ordre du fichier
+            List<Book> books = new ArrayList<>();
+            Map<Book, Long> lineOf = new IdentityHashMap<>();
+            List<ImportReport.RejectedRow> rejected = new ArrayList<>();
+            long firstLine = 1;
+            for (ChunkResult chunk : chunks) {
+                for (int i = 0; i < chunk.books.size(); i++) {
+                    books.add(chunk.books.get(i));
+                    lineOf.put(chunk.books.get(i), firstLine + chunk.bookLines.get(i));
+                }
+                for (ImportReport.RejectedRow row : chunk.rejected) {
+                    rejected.add(new ImportReport.RejectedRow(firstLine + row.getLineNumber(),
+                            row.getLine(), row.getReason()));
+                }
+                firstLine += chunk.lineCount;
+            }
+
+            List<Book> duplicates = engine.addBooks(books);
+            for (Book duplicate : duplicates) {
+                rejected.add(new ImportReport.RejectedRow(lineOf.get(duplicate),
+                        duplicate.toString(), "ISBN déjà présent"));
+            }
+            rejected.sort((a, b) -> Long.compare(a.getLineNumber(), b.getLineNumber()));
+            return new ImportReport(books.size() - duplicates.size(), rejected);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    // Découpage en blocs
+    // ═══════════════════════════════════════════════════════════
+
+    /**
+     * Bornes des blocs : chaque borne intérieure est placée juste après un
+     * saut de ligne, une ligne appartient donc à un seul bloc.
+     */
+    private long[] chunkBounds(FileChannel channel) throws IOException {
+        long size = channel.size();
+        List<Long> bounds = new ArrayList<>();
+        bounds.add(0L);
+        long next = chunkSize;
+        ByteBuffer buffer = ByteBuffer.allocate(8192);
+        while (next < size) {
+            long position = next;
+            long boundary = size;
+            search:
+            while (position < size) {
+                buffer.clear();
+                int read = channel.read(buffer, position);
+                if (read <= 0) break;
+                for (int i = 0; i < read; i++) {
+                    if (buffer.get(i) == '\n') {
+                        boundary = position + i + 1;
+                        break search;
+                    }
+                }
+                position += read;
+            }
+            if (boundary >= size) break;
+            bounds.add(boundary);
+            next = boundary + chunkSize;
+        }
+        bounds.add(size);
+        long[] result = new long[bounds.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = bounds.get(i);
+        }
+        return result;
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    // Analyse d'un bloc
+    // ═══════════════════════════════════════════════════════════
+
+    /** Résultat d'un bloc ; les numéros de ligne y sont relatifs au bloc (à partir de 0). */
+    private static final class ChunkResult {
+        final List<Book> books = new ArrayList<>();
+        final List<Long> bookLines = new ArrayList<>();
+        final List<ImportReport.RejectedRow> rejected = new ArrayList<>();
+        long lineCount;
+    }
+
+    private static ChunkResult parseChunk(FileChannel channel, long start, long end, Format format, boolean firstChunk) {
+        byte[] bytes = new byte[(int) (end - start)];
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        try {
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, start + buffer.position()) < 0) break;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        ChunkResult result = new ChunkResult();
+        int lineStart = 0;
+        while (lineStart < bytes.length) {
+            int lineEnd = lineStart;
+            while (lineEnd < bytes.length && bytes[lineEnd] != '\n') {
+                lineEnd++;
+            }
+            int contentEnd = (lineEnd > lineStart && bytes[lineEnd - 1] == '\r') ? lineEnd - 1 : lineEnd;
+            String line = new String(bytes, lineStart, contentEnd - lineStart, StandardCharsets.UTF_8);
+            long lineIndex = result.lineCount++;
+            if (firstChunk && lineIndex == 0 && line.startsWith(BYTE_ORDER_MARK)) {
+                line = line.substring(1);
+            }
+
+            boolean header = firstChunk && lineIndex == 0 && format == Format.CSV && isCsvHeader(line);
+            if (!header && !line.isBlank()) {
+                try {
+                    result.books.add(format == Format.CSV ? parseCsv(line) : parseJson(line));
+                    result.bookLines.add(lineIndex);
+                } catch (IllegalArgumentException e) {
+                    result.rejected.add(new ImportReport.RejectedRow(lineIndex, line, e.getMessage()));
+                }
+            }
+            lineStart = lineEnd + 1;
+        }
+        return result;
+    }
+
+    private static boolean isCsvHeader(String line) {
+        return line.replace(" ", "").equalsIgnoreCase("isbn,title,author,year");
+    }
+
+    static Book parseCsv(String line) {
+        List<String> fields = new ArrayList<>(4);
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Guillemet non fermé");
+        }
+        fields.add(field.toString());
+        if (fields.size() != 4) {
+            throw new IllegalArgumentException("4 champs attendus, " + fields.size() + " trouvés");
+        }
+        return toBook(fields.get(0), fields.get(1), fields.get(2), fields.get(3));
+    }
+
+    static Book parseJson(String line) {
+        Map<String, String> object = Json.parseFlatObject(line);
+        return toBook(object.get("isbn"), object.get("title"), object.get("author"), object.get("year"));
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    // Validation et normalisation
+    // ═══════════════════════════════════════════════════════════
+
+    private static Book toBook(String isbn, String title, String author, String year) {
+        String normalizedIsbn = collapseSpaces(isbn, "");
+        if (normalizedIsbn.isEmpty()) {
+            throw new IllegalArgumentException("ISBN manquant");
+        }
+        String normalizedTitle = normalizeText(title);
+        if (normalizedTitle.isEmpty()) {
+            throw new IllegalArgumentException("Titre manquant");
+        }
+        String normalizedAuthor = normalizeText(author);
+        if (normalizedAuthor.isEmpty()) {
+            throw new IllegalArgumentException("Auteur manquant");
+        }
+        int parsedYear;
+        try {
+            parsedYear = Integer.parseInt((year != null) ? year.trim() : "");
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Année invalide : " + year);
+        }
+        return new Book(normalizedIsbn, normalizedTitle, normalizedAuthor, parsedYear);
+    }
+
+    private static String normalizeText(String text) {
+        return collapseSpaces(text, " ");
+    }
+
+    /**
+     * Supprime les blancs en début et fin, remplace chaque suite de blancs
+     * intérieurs par separator. Sans allocation si la chaîne est déjà propre.
+     */
+    private static String collapseSpaces(String text, String separator) {
+        if (text == null) return "";
+        String stripped = text.strip();
+        boolean clean = true;
+        for (int i = 0; i < stripped.length() && clean; i++) {
+            char c = stripped.charAt(i);
+            if (Character.isWhitespace(c)) {
+                clean = separator.equals(" ") && c == ' ' && !Character.isWhitespace(stripped.charAt(i + 1));
+            }
+        }
+        if (clean) return stripped;
+
+        StringBuilder sb = new StringBuilder(stripped.length());
+        boolean inSpace = false;
+        for (int i = 0; i < stripped.length(); i++) {
+            char c = stripped.charAt(i);
+            if (Character.isWhitespace(c)) {
+                inSpace = true;
+            } else {
+                if (inSpace) sb.append(separator);
+                inSpace = false;
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,57 @@
+package library;
+
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Une page du catalogue, dans l'ordre d'ajout.
+ *
+ * Le curseur est le numéro d'ordre du dernier livre de la page : la page
+ * suivante reprend juste après lui (pagination par clé, sans décalage),
+ * même si des livres ont été ajoutés entre-temps. Une page s'arrête avant
+ * le premier livre dont l'ajout n'est pas terminé (voir Sequencer) : elle
+ * peut donc compter moins de livres que demandé pendant des ajouts.
+ *
+ * Le statut d'emprunt de chaque livre est relevé avec la page, dans les
+ * cartes des emprunts des catalogues : l'afficher ne coûte aucune recherche.
+ */
+public class CatalogPage {
+    /** Curseur à passer pour obtenir la première page. */
+    public static final long FIRST = -1L;
+
+    private final List<Book> books;
+    private final long nextCursor;
+    private final boolean hasNext;
+    private final BitSet borrowed;
+
+    CatalogPage(List<Book> books, long nextCursor, boolean hasNext, BitSet borrowed) {
+        this.books = Collections.unmodifiableList(books);
+        this.nextCursor = nextCursor;
+        this.hasNext = hasNext;
+        this.borrowed = borrowed;
+    }
+
+    public List<Book> getBooks() {
+        return books;
+    }
+
+    public long getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean hasNext() {
+        return hasNext;
+    }
+
+    /**
+     * Vrai si le livre d'indice index de la page était emprunté quand la
+     * page a été lue.
+     */
+    public boolean isBorrowed(int index) {
+        if (index < 0 || index >= books.size()) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + books.size());
+        }
+        return borrowed.get(index);
+    }
+}
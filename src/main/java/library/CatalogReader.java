@@ -0,0 +1,105 @@
+package library;
+
+import java.util.List;
+
+/**
+ * Lecture d'un segment de catalogue : livres rangés par position croissante,
+ * chacun avec son numéro d'ordre global (croissant avec la position).
+ *
+ * Implémenté par Catalog (en mémoire, un par shard) et par MappedCatalog
+ * (fichier projeté en mémoire, en lecture seule).
+ */
+interface CatalogReader {
+
+    /** Nombre de livres publiés. */
+    int size();
+
+    /** Livre à une position publiée. */
+    Book get(int position);
+
+    /** Numéro d'ordre global du livre à cette position. */
+    long sequence(int position);
+
+    /**
+     * Première position (parmi les size premières) dont le numéro d'ordre
+     * dépasse sequence : point de reprise d'une pagination par curseur.
+     */
+    int firstPositionAfter(long sequence, int size);
+
+    /** Premier livre portant cet ISBN, ou null. */
+    Book byIsbn(String isbn);
+
+    /** Position du premier livre portant cet ISBN, ou IsbnIndex.ABSENT. */
+    int positionOf(String isbn);
+
+    /** Positions (croissantes) de tous les livres portant cet ISBN. */
+    int[] positionsOf(String isbn);
+
+    boolean hasBookWithTitle(String title);
+
+    /**
+     * Première position de [from, to) dont le titre est égal à title sans
+     * tenir compte de la casse, ou -1 : un morceau de parcours parallèle.
+     */
+    int indexOfTitle(String title, int from, int to);
+
+    /** Positions (croissantes) des livres dont l'auteur contient la requête. */
+    int[] findByAuthor(String author);
+
+    /**
+     * Majorant du nombre de livres que retournerait findByAuthor, calculé
+     * sur l'index sans vérifier les auteurs candidats.
+     */
+    int estimateByAuthor(String author);
+
+    /**
+     * Positions (croissantes) des livres probablement identiques à ce titre
+     * et cet auteur (voir SimilarityIndex).
+     */
+    int[] findSimilar(String title, String author);
+
+    /**
+     * Active ou abandonne l'index de findSimilar ; sans index, findSimilar
+     * vérifie tous les livres du segment. Réservé à l'écrivain du segment.
+     */
+    void setSimilarityIndex(boolean enabled);
+
+    /** Année de publication du livre à cette position, sans le matérialiser. */
+    int year(int position);
+
+    /**
+     * Positions des livres publiés entre from et to inclus, triées par année
+     * puis par position.
+     */
+    int[] findByYearRange(int from, int to);
+
+    /** Nombre exact de livres que retournerait findByYearRange. */
+    int countByYearRange(int from, int to);
+
+    // ═══════════════════════════════════════════════════════════
+    // Emprunts
+    // ═══════════════════════════════════════════════════════════
+
+    /**
+     * Positions des livres empruntés (version courante, immuable). Seul état
+     * modifiable d'un segment en dehors de ses ajouts : il suit les emprunts
+     * du moteur pour que listes et filtres de disponibilité ne consultent
+     * pas la table des emprunts livre par livre.
+     */
+    RoaringBitmap borrowedPositions();
+
+    /**
+     * Marque (ou démarque) tous les livres de cet ISBN comme empruntés.
+     * Appelé sous le verrou d'emprunt de l'ISBN.
+     */
+    void markBorrowed(String isbn, boolean borrowed);
+
+    /**
+     * Marque (ou démarque) les livres de plusieurs ISBN, avec une seule
+     * publication de la carte. Appelé sous les verrous d'emprunt des ISBN.
+     */
+    void markBorrowed(List<String> isbns, boolean borrowed);
+
+    /** Démarque tous les livres (vidage des emprunts). */
+    void clearBorrowed();
+}
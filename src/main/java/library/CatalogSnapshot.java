@@ -0,0 +1,129 @@
+package library;
+
+import java.util.AbstractList;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+
+/**
+ * Vue immuable du catalogue à un instant donné, dans l'ordre d'ajout.
+ *
+ * Les catalogues étant en ajout seul, l'instantané ne retient que la taille
+ * de chaque shard au moment de sa création : O(shards), aucune copie.
+ * Le parcours fusionne les shards selon le numéro d'ordre global. L'accès
+ * par index sur plusieurs shards cherche par dichotomie le numéro d'ordre du
+ * livre demandé, en comptant dans chaque shard (firstPositionAfter) les
+ * livres qui le précèdent : O(shards · log² n), sans allocation. Pour un
+ * parcours complet, l'itérateur reste linéaire.
+ */
+final class CatalogSnapshot extends AbstractList<Book> {
+    private final CatalogReader[] catalogs;
+    private final int[] sizes;
+    private final int size;
+
+    CatalogSnapshot(CatalogReader[] catalogs) {
+        this.catalogs = catalogs;
+        this.sizes = new int[catalogs.length];
+        int total = 0;
+        for (int i = 0; i < catalogs.length; i++) {
+            sizes[i] = catalogs[i].size();
+            total += sizes[i];
+        }
+        this.size = total;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Book get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        if (catalogs.length == 1) {
+            return catalogs[0].get(index);
+        }
+        // Plus petit numéro d'ordre précédé (lui compris) de index + 1 livres
+        long low = Long.MAX_VALUE;
+        long high = Long.MIN_VALUE;
+        for (int i = 0; i < catalogs.length; i++) {
+            if (sizes[i] > 0) {
+                low = Math.min(low, catalogs[i].sequence(0));
+                high = Math.max(high, catalogs[i].sequence(sizes[i] - 1));
+            }
+        }
+        while (low < high) {
+            long middle = low + (high - low) / 2;
+            if (countAtMost(middle) > index) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        for (int i = 0; i < catalogs.length; i++) {
+            int position = catalogs[i].firstPositionAfter(low - 1, sizes[i]);
+            if (position < sizes[i] && catalogs[i].sequence(position) == low) {
+                return catalogs[i].get(position);
+            }
+        }
+        throw new IllegalStateException("Numéro d'ordre introuvable : " + low);
+    }
+
+    // Livres de l'instantané dont le numéro d'ordre est au plus sequence
+    private int countAtMost(long sequence) {
+        int count = 0;
+        for (int i = 0; i < catalogs.length; i++) {
+            count += catalogs[i].firstPositionAfter(sequence, sizes[i]);
+        }
+        return count;
+    }
+
+    @Override
+    public Iterator<Book> iterator() {
+        return new MergeIterator();
+    }
+
+    @Override
+    public Spliterator<Book> spliterator() {
+        return Spliterators.spliterator(iterator(), size,
+                Spliterator.ORDERED | Spliterator.IMMUTABLE | Spliterator.NONNULL);
+    }
+
+    private final class MergeIterator implements Iterator<Book> {
+        private final int[] heads = new int[catalogs.length];
+        private int returned;
+
+        @Override
+        public boolean hasNext() {
+            return returned < size;
+        }
+
+        @Override
+        public Book next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            int shard = nextShard();
+            return catalogs[shard].get(heads[shard] - 1);
+        }
+
+        // Avance le shard dont le prochain livre a le plus petit numéro d'ordre
+        private int nextShard() {
+            int best = -1;
+            long bestSequence = Long.MAX_VALUE;
+            for (int i = 0; i < catalogs.length; i++) {
+                if (heads[i] < sizes[i]) {
+                    long s = catalogs[i].sequence(heads[i]);
+                    if (s < bestSequence) {
+                        bestSequence = s;
+                        best = i;
+                    }
+                }
+            }
+            heads[best]++;
+            returned++;
+            return best;
+        }
+    }
+}
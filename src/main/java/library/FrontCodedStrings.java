@@ -0,0 +1,220 @@
+package library;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Colonne de chaînes encodées en UTF-8 avec codage par préfixe (front coding)
+ * dans des blocs de BLOCK_SIZE entrées, à la suite dans une même zone d'octets.
+ *
+ * Chaque entrée est codée par rapport à la précédente du même bloc :
+ * varint(octets communs), varint(longueur du suffixe + 1, 0 pour null), suffixe.
+ * La première entrée d'un bloc est complète. Des ISBN voisins (même préfixe
+ * éditeur) ne coûtent ainsi que quelques octets, et un titre latin un octet
+ * par caractère, sans en-tête d'objet par chaîne. La zone (ByteStore) est
+ * sur le tas ou hors tas.
+ *
+ * Lire une entrée décode au plus BLOCK_SIZE entrées de son bloc (en octets,
+ * une seule String est créée) ; le parcours complet (indexOfIgnoreCase)
+ * reconstitue les entrées à la suite dans un même tampon et les compare
+ * en octets, sans créer de String.
+ *
+ * Un seul écrivain. La publication est faite par le propriétaire (BookColumns) :
+ * les octets sont écrits avant sa taille volatile.
+ */
+final class FrontCodedStrings {
+    static final int BLOCK_SIZE = 16;
+    private static final int BLOCK_SHIFT = 4;
+
+    private final ByteStore store;
+    private volatile long[] blockOffsets = new long[16];
+    // État de l'écrivain
+    private final byte[] header = new byte[10];
+    private int size;
+    private byte[] previous;
+
+    FrontCodedStrings() {
+        this(new HeapByteStore());
+    }
+
+    FrontCodedStrings(ByteStore store) {
+        this.store = store;
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    // Écriture (un seul écrivain)
+    // ═══════════════════════════════════════════════════════════
+
+    void add(String value) {
+        byte[] encoded = (value != null) ? value.getBytes(StandardCharsets.UTF_8) : null;
+        int shared = 0;
+        if ((size & (BLOCK_SIZE - 1)) == 0) {
+            startBlock(size >>> BLOCK_SHIFT);
+        } else if (encoded != null && previous != null) {
+            int max = Math.min(encoded.length, previous.length);
+            while (shared < max && encoded[shared] == previous[shared]) {
+                shared++;
+            }
+        }
+        int suffix = (encoded != null) ? encoded.length - shared : 0;
+        int headerLength = writeVarint(header, 0, shared);
+        headerLength = writeVarint(header, headerLength, (encoded != null) ? suffix + 1 : 0);
+        store.append(header, 0, headerLength);
+        if (suffix > 0) {
+            store.append(encoded, shared, suffix);
+        }
+        previous = encoded;
+        size++;
+    }
+
+    private void startBlock(int block) {
+        long[] offsets = blockOffsets;
+        if (block == offsets.length) {
+            offsets = Arrays.copyOf(offsets, block * 2);
+            blockOffsets = offsets;
+        }
+        offsets[block] = store.length();
+    }
+
+    private static int writeVarint(byte[] target, int offset, int value) {
+        while ((value & ~0x7F) != 0) {
+            target[offset++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        target[offset++] = (byte) value;
+        return offset;
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    // Lecture (positions publiées par le propriétaire)
+    // ═══════════════════════════════════════════════════════════
+
+    /**
+     * Décode l'entrée à une position publiée.
+     */
+    String get(int position) {
+        Cursor cursor = new Cursor(store, blockOffsets[position >>> BLOCK_SHIFT]);
+        for (int i = position & ~(BLOCK_SIZE - 1); i < position; i++) {
+            cursor.next();
+        }
+        cursor.next();
+        return cursor.string();
+    }
+
+    /**
+     * Première position de [from, to) dont la chaîne est égale à value sans
+     * tenir compte de la casse, ou -1. Le décodage part du bloc de from.
+     */
+    int indexOfIgnoreCase(String value, int from, int to) {
+        if (from >= to || value == null) return -1;
+        Cursor cursor = new Cursor(store, blockOffsets[from >>> BLOCK_SHIFT]);
+        for (int i = from & ~(BLOCK_SIZE - 1); i < from; i++) {
+            cursor.next();
+        }
+        for (int position = from; position < to; position++) {
+            cursor.next();
+            if (cursor.equalsIgnoreCase(value)) {
+                return position;
+            }
+        }
+        return -1;
+    }
+
+    /** Nombre d'octets utilisés (mesure de l'encodage). */
+    long byteSize() {
+        return store.length();
+    }
+
+    // Reconstitue les entrées successives dans un tampon d'octets
+    private static final class Cursor {
+        private final ByteStore source;
+        private long offset;
+        private byte[] buffer = new byte[64];
+        private int length;
+        private boolean isNull;
+
+        Cursor(ByteStore source, long offset) {
+            this.source = source;
+            this.offset = offset;
+        }
+
+        void next() {
+            int shared = readVarint();
+            int suffixPlusOne = readVarint();
+            isNull = suffixPlusOne == 0;
+            if (isNull) {
+                length = 0;
+                return;
+            }
+            int suffix = suffixPlusOne - 1;
+            if (shared + suffix > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, shared + suffix));
+            }
+            source.get(offset, buffer, shared, suffix);
+            offset += suffix;
+            length = shared + suffix;
+        }
+
+        String string() {
+            return isNull ? null : new String(buffer, 0, length, StandardCharsets.UTF_8);
+        }
+
+        /**
+         * Comme string().equalsIgnoreCase(value), caractère par caractère,
+         * en décodant l'UTF-8 du tampon à la volée.
+         */
+        boolean equalsIgnoreCase(String value) {
+            // Un caractère UTF-16 occupe de 1 à 3 octets
+            int chars = value.length();
+            if (isNull || length < chars || length > 3 * chars) return false;
+            int i = 0;
+            int j = 0;
+            while (i < length) {
+                int b = buffer[i] & 0xFF;
+                char c;
+                if (b < 0x80) {
+                    c = (char) b;
+                    i++;
+                } else if (b < 0xE0) {
+                    c = (char) (((b & 0x1F) << 6) | (buffer[i + 1] & 0x3F));
+                    i += 2;
+                } else if (b < 0xF0) {
+                    c = (char) (((b & 0x0F) << 12) | ((buffer[i + 1] & 0x3F) << 6) | (buffer[i + 2] & 0x3F));
+                    i += 3;
+                } else {
+                    int codePoint = ((b & 0x07) << 18) | ((buffer[i + 1] & 0x3F) << 12)
+                            | ((buffer[i + 2] & 0x3F) << 6) | (buffer[i + 3] & 0x3F);
+                    i += 4;
+                    if (j + 2 > chars || !sameIgnoreCase(Character.highSurrogate(codePoint), value.charAt(j))) {
+                        return false;
+                    }
+                    c = Character.lowSurrogate(codePoint);
+                    j++;
+                }
+                if (j >= chars || !sameIgnoreCase(c, value.charAt(j))) return false;
+                j++;
+            }
+            return j == chars;
+        }
+
+        // Règle de String.equalsIgnoreCase pour une paire de caractères
+        private static boolean sameIgnoreCase(char a, char b) {
+            if (a == b) return true;
+            char upperA = Character.toUpperCase(a);
+            char upperB = Character.toUpperCase(b);
+            return upperA == upperB || Character.toLowerCase(upperA) == Character.toLowerCase(upperB);
+        }
+
+        private int readVarint() {
+            int value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = source.get(offset++);
+                value |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            return value;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package library;
+
+import java.util.Arrays;
+
+/**
+ * Zone d'octets sur le tas : un tableau agrandi par copie, publié avant
+ * d'être rempli (même protocole que AppendOnlyList). Limitée à 2 Go.
+ */
+final class HeapByteStore implements ByteStore {
+    private volatile byte[] bytes = new byte[256];
+    private int length;
+
+    @Override
+    public long length() {
+        return length;
+    }
+
+    @Override
+    public void append(byte[] source, int offset, int count) {
+        byte[] current = ensureCapacity(count);
+        System.arraycopy(source, offset, current, length, count);
+        length += count;
+    }
+
+    @Override
+    public void appendInt(int value) {
+        byte[] current = ensureCapacity(4);
+        current[length] = (byte) (value >>> 24);
+        current[length + 1] = (byte) (value >>> 16);
+        current[length + 2] = (byte) (value >>> 8);
+        current[length + 3] = (byte) value;
+        length += 4;
+    }
+
+    private byte[] ensureCapacity(int extra) {
+        byte[] current = bytes;
+        if (length + extra > current.length || length + extra < 0) {
+            if (length > Integer.MAX_VALUE - 16 - extra) {
+                throw new IllegalStateException("Catalogue trop volumineux pour un shard");
+            }
+            long grown = Math.max((long) current.length * 2, (long) length + extra);
+            current = Arrays.copyOf(current, (int) Math.min(grown, Integer.MAX_VALUE - 16));
+            bytes = current;
+        }
+        return current;
+    }
+
+    @Override
+    public byte get(long address) {
+        return bytes[(int) address];
+    }
+
+    @Override
+    public void get(long address, byte[] target, int offset, int count) {
+        System.arraycopy(bytes, (int) address, target, offset, count);
+    }
+
+    @Override
+    public int getInt(long address) {
+        byte[] current = bytes;
+        int i = (int) address;
+        return (current[i] << 24) | ((current[i + 1] & 0xFF) << 16)
+                | ((current[i + 2] & 0xFF) << 8) | (current[i + 3] & 0xFF);
+    }
+}
@@ -0,0 +1,54 @@
+package library;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Bilan d'un import en lot : nombre de livres ajoutés et lignes refusées.
+ */
+public class ImportReport {
+    private final int importedCount;
+    private final List<RejectedRow> rejectedRows;
+
+    ImportReport(int importedCount, List<RejectedRow> rejectedRows) {
+        this.importedCount = importedCount;
+        this.rejectedRows = Collections.unmodifiableList(rejectedRows);
+    }
+
+    public int getImportedCount() {
+        return importedCount;
+    }
+
+    public List<RejectedRow> getRejectedRows() {
+        return rejectedRows;
+    }
+
+    @Override
+    public String toString() {
+        return importedCount + " book(s) imported, " + rejectedRows.size() + " row(s) rejected";
+    }
+
+    /**
+     * Ligne refusée, avec son numéro (à partir de 1) et la raison du refus.
+     */
+    public static class RejectedRow {
+        private final long lineNumber;
+        private final String line;
+        private final String reason;
+
+        RejectedRow(long lineNumber, String line, String reason) {
+            this.lineNumber = lineNumber;
+            this.line = line;
+            this.reason = reason;
+        }
+
+        public long getLineNumber() { return lineNumber; }
+        public String getLine() { return line; }
+        public String getReason() { return reason; }
+
+        @Override
+        public String toString() {
+            return "line " + lineNumber + ": " + reason;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package library;
+
+import java.util.Arrays;
+
+/**
+ * Liste d'entiers primitifs extensible (évite le boxing des positions).
+ * Les éléments sont ajoutés dans l'ordre croissant, ce qui permet
+ * une recherche dichotomique dans contains.
+ *
+ * Même protocole que AppendOnlyList : un seul écrivain, lecteurs sans verrou
+ * qui lisent la taille avant le tableau.
+ */
+class IntList {
+    private volatile int[] values = new int[4];
+    private volatile int size;
+
+    void add(int value) {
+        int[] current = values;
+        int n = size;
+        if (n == current.length) {
+            current = Arrays.copyOf(current, n * 2);
+            values = current;
+        }
+        current[n] = value;
+        size = n + 1;
+    }
+
+    /**
+     * Ajoute tous les éléments d'une autre liste avec une seule publication.
+     */
+    void addAll(IntList other) {
+        int count = other.size;
+        int[] source = other.values;
+        int[] current = values;
+        int n = size;
+        if (n + count > current.length) {
+            current = Arrays.copyOf(current, Math.max(current.length * 2, n + count));
+            values = current;
+        }
+        System.arraycopy(source, 0, current, n, count);
+        size = n + count;
+    }
+
+    int last() {
+        int n = size;
+        return values[n - 1];
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    boolean contains(int value) {
+        int n = size;
+        return Arrays.binarySearch(values, 0, n, value) >= 0;
+    }
+
+    int[] toArray() {
+        int n = size;
+        return Arrays.copyOf(values, n);
+    }
+}
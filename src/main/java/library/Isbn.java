@@ -0,0 +1,111 @@
+package library;
+
+/**
+ * Normalisation des ISBN.
+ *
+ * Un ISBN-10 ou ISBN-13 valide (tirets et espaces ignorés, clé de contrôle
+ * vérifiée) est ramené à sa forme ISBN-13, puis empaqueté dans un long :
+ * "0-306-40615-2", "978-0-306-40615-7" et "9780306406157" ont la même clé.
+ * Les index et la répartition en shards utilisent cette clé, sans hachage de
+ * chaîne ni objet par entrée.
+ *
+ * Les identifiants qui ne sont pas des ISBN valides ("978-BIBLE-001") restent
+ * comparés comme des chaînes exactes.
+ */
+final class Isbn {
+    /** Clé des identifiants qui ne sont pas des ISBN valides. */
+    static final long INVALID = -1L;
+
+    private Isbn() {
+    }
+
+    /**
+     * Forme ISBN-13 empaquetée (treize chiffres), ou INVALID.
+     */
+    static long pack(String isbn) {
+        if (isbn == null) return INVALID;
+        int length = isbn.length();
+        if (length < 10 || length > 17) return INVALID;
+
+        long digits = 0;
+        int count = 0;
+        int sum10 = 0;
+        boolean checkX = false;
+        for (int i = 0; i < length; i++) {
+            char c = isbn.charAt(i);
+            if (c == '-' || c == ' ') continue;
+            if (c >= '0' && c <= '9' && !checkX) {
+                count++;
+                if (count > 13) return INVALID;
+                digits = digits * 10 + (c - '0');
+                sum10 += (11 - count) * (c - '0');
+            } else if ((c == 'X' || c == 'x') && count == 9 && !checkX) {
+                checkX = true;
+                count++;
+                sum10 += 10;
+            } else {
+                return INVALID;
+            }
+        }
+
+        if (count == 10) {
+            if (sum10 % 11 != 0) return INVALID;
+            long body = checkX ? digits : digits / 10; // Les 9 chiffres, sans la clé
+            long isbn13 = 9_780_000_000_000L + body * 10;
+            return isbn13 + ean13Check(isbn13 / 10);
+        }
+        if (count == 13) {
+            long prefix = digits / 10_000_000_000L;
+            if (prefix != 978 && prefix != 979) return INVALID;
+            return (ean13Check(digits / 10) == digits % 10) ? digits : INVALID;
+        }
+        return INVALID;
+    }
+
+    /**
+     * Forme canonique : les treize chiffres pour un ISBN valide, la chaîne
+     * inchangée sinon.
+     */
+    static String canonical(String isbn) {
+        long packed = pack(isbn);
+        return (packed != INVALID) ? Long.toString(packed) : isbn;
+    }
+
+    /**
+     * Clé des tables d'emprunts : l'ISBN empaqueté (Long) pour un ISBN
+     * valide, l'identifiant tel quel sinon (null pour null). Comme pour
+     * canonical, deux formes d'un même ISBN ont la même clé, mais sans
+     * Long.toString ni hachage de chaîne.
+     */
+    static Object loanKey(String isbn) {
+        long packed = pack(isbn);
+        return (packed != INVALID) ? (Object) packed : isbn;
+    }
+
+    /**
+     * Forme canonique de l'ISBN d'une clé d'emprunt (inverse de loanKey).
+     */
+    static String fromLoanKey(Object key) {
+        return (key instanceof Long) ? Long.toString((Long) key) : (String) key;
+    }
+
+    /**
+     * Hachage compatible avec l'équivalence des ISBN (même valeur pour deux
+     * formes d'un même ISBN valide).
+     */
+    static int hash(String isbn) {
+        long packed = pack(isbn);
+        return (packed != INVALID) ? Long.hashCode(packed) : isbn.hashCode();
+    }
+
+    // Clé EAN-13 des douze premiers chiffres (poids 1 et 3 en alternance)
+    private static long ean13Check(long twelveDigits) {
+        int sum = 0;
+        for (int i = 0; i < 12; i++) {
+            int digit = (int) (twelveDigits % 10);
+            sum += (i % 2 == 0) ? 3 * digit : digit;
+            twelveDigits /= 10;
+        }
+        return (10 - sum % 10) % 10;
+    }
+}
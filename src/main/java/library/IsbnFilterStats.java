@@ -0,0 +1,53 @@
+package library;
+
+/**
+ * Statistiques du filtre de Bloom des ISBN du catalogue de base
+ * (voir LibraryEngine.getIsbnFilterStats).
+ */
+public class IsbnFilterStats {
+    private final long bits;
+    private final int hashFunctions;
+    private final long isbnCount;
+    private final double expectedFalsePositiveRate;
+    private final long lookups;
+    private final long definiteNegatives;
+    private final long falsePositives;
+
+    IsbnFilterStats(long bits, int hashFunctions, long isbnCount, double expectedFalsePositiveRate,
+                    long lookups, long definiteNegatives, long falsePositives) {
+        this.bits = bits;
+        this.hashFunctions = hashFunctions;
+        this.isbnCount = isbnCount;
+        this.expectedFalsePositiveRate = expectedFalsePositiveRate;
+        this.lookups = lookups;
+        this.definiteNegatives = definiteNegatives;
+        this.falsePositives = falsePositives;
+    }
+
+    /** Taille du filtre en bits (0 sans filtre). */
+    public long getBits() { return bits; }
+    public int getHashFunctions() { return hashFunctions; }
+    /** ISBN distincts inscrits dans le filtre. */
+    public long getIsbnCount() { return isbnCount; }
+    /** Taux de faux positifs attendu d'après la taille et le remplissage du filtre. */
+    public double getExpectedFalsePositiveRate() { return expectedFalsePositiveRate; }
+    public long getLookups() { return lookups; }
+    /** Recherches écartées par le filtre, sans toucher à l'index du fichier. */
+    public long getDefiniteNegatives() { return definiteNegatives; }
+    /** Recherches que le filtre a laissé passer pour un ISBN absent du fichier. */
+    public long getFalsePositives() { return falsePositives; }
+
+    /** Part des ISBN absents que le filtre n'a pas écartés (0 sans recherche d'absent). */
+    public double getObservedFalsePositiveRate() {
+        long absent = definiteNegatives + falsePositives;
+        return (absent == 0) ? 0 : (double) falsePositives / absent;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d bits, %d hash(es), %d ISBN, expected FPR %.4f, %d lookup(s), "
+                        + "%d filtered, %d false positive(s), observed FPR %.4f",
+                bits, hashFunctions, isbnCount, expectedFalsePositiveRate, lookups,
+                definiteNegatives, falsePositives, getObservedFalsePositiveRate());
+    }
+}
@@ -0,0 +1,53 @@
+package library;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Index primaire des livres par ISBN.
+ *
+ * Associe chaque ISBN à la position (dans la liste des livres) du PREMIER
+ * livre ajouté avec cet ISBN : on garde ainsi le comportement historique de
+ * Library.byIsbn qui retourne le premier livre trouvé en cas de doublon.
+ *
+ * Les ISBN valides sont indexés par leur clé empaquetée (Isbn.pack) dans une
+ * table primitive (LongIntMap) : les différentes écritures d'un même ISBN
+ * désignent le même livre. Les autres identifiants restent des chaînes exactes
+ * (ConcurrentHashMap). Les lectures sont sans verrou.
+ */
+class IsbnIndex {
+    static final int ABSENT = -1;
+
+    private final LongIntMap packed = new LongIntMap();
+    private final Map<String, Integer> others = new ConcurrentHashMap<>();
+
+    /**
+     * Retourne la position du premier livre portant cet ISBN, ou ABSENT.
+     */
+    int get(String isbn) {
+        if (isbn == null) return ABSENT;
+        long key = Isbn.pack(isbn);
+        if (key != Isbn.INVALID) return packed.get(key);
+        Integer position = others.get(isbn);
+        return (position != null) ? position : ABSENT;
+    }
+
+    boolean contains(String isbn) {
+        return get(isbn) != ABSENT;
+    }
+
+    /**
+     * Indexe un livre à la position donnée.
+     * Retourne false si l'ISBN était déjà indexé (la première position est conservée).
+     */
+    boolean put(String isbn, int position) {
+        if (isbn == null) return false;
+        long key = Isbn.pack(isbn);
+        if (key != Isbn.INVALID) return packed.putIfAbsent(key, position);
+        return others.putIfAbsent(isbn, position) == null;
+    }
+
+    int size() {
+        return packed.size() + others.size();
+    }
+}
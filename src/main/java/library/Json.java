@@ -0,0 +1,124 @@
+package library;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Lecture minimale d'objets JSON plats : {"clé": "texte" | nombre | true | false | null, ...}.
+ * Suffisant pour les lignes d'un fichier JSON Lines de catalogue, sans dépendance externe.
+ * Les valeurs sont retournées sous forme de texte (null pour null).
+ */
+final class Json {
+
+    private Json() {
+    }
+
+    /**
+     * @throws IllegalArgumentException si la ligne n'est pas un objet plat valide
+     */
+    static Map<String, String> parseFlatObject(String text) {
+        Parser p = new Parser(text);
+        Map<String, String> result = new LinkedHashMap<>();
+        p.skipSpaces();
+        p.expect('{');
+        p.skipSpaces();
+        if (p.peek() == '}') {
+            p.pos++;
+        } else {
+            while (true) {
+                p.skipSpaces();
+                String key = p.readString();
+                p.skipSpaces();
+                p.expect(':');
+                p.skipSpaces();
+                result.put(key, p.readValue());
+                p.skipSpaces();
+                if (p.peek() == ',') {
+                    p.pos++;
+                    continue;
+                }
+                p.expect('}');
+                break;
+            }
+        }
+        p.skipSpaces();
+        if (p.pos != text.length()) {
+            throw new IllegalArgumentException("Caractères inattendus après l'objet JSON");
+        }
+        return result;
+    }
+
+    private static final class Parser {
+        private final String text;
+        private int pos;
+
+        Parser(String text) {
+            this.text = text;
+        }
+
+        char peek() {
+            if (pos >= text.length()) throw new IllegalArgumentException("Fin de JSON inattendue");
+            return text.charAt(pos);
+        }
+
+        void expect(char c) {
+            if (peek() != c) {
+                throw new IllegalArgumentException("'" + c + "' attendu en position " + pos);
+            }
+            pos++;
+        }
+
+        void skipSpaces() {
+            while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+                pos++;
+            }
+        }
+
+        String readValue() {
+            char c = peek();
+            if (c == '"') return readString();
+            int start = pos;
+            while (pos < text.length() && ",}] \t\r\n".indexOf(text.charAt(pos)) < 0) {
+                pos++;
+            }
+            String literal = text.substring(start, pos);
+            if (literal.equals("null")) return null;
+            if (literal.equals("true") || literal.equals("false")) return literal;
+            if (literal.matches("-?\\d+(\\.\\d+)?([eE][+-]?\\d+)?")) return literal;
+            throw new IllegalArgumentException("Valeur JSON non prise en charge : " + literal);
+        }
+
+        String readString() {
+            expect('"');
+            StringBuilder sb = new StringBuilder();
+            while (true) {
+                char c = peek();
+                pos++;
+                if (c == '"') return sb.toString();
+                if (c != '\\') {
+                    sb.append(c);
+                    continue;
+                }
+                char escaped = peek();
+                pos++;
+                switch (escaped) {
+                    case '"': sb.append('"'); break;
+                    case '\\': sb.append('\\'); break;
+                    case '/': sb.append('/'); break;
+                    case 'b': sb.append('\b'); break;
+                    case 'f': sb.append('\f'); break;
+                    case 'n': sb.append('\n'); break;
+                    case 'r': sb.append('\r'); break;
+                    case 't': sb.append('\t'); break;
+                    case 'u':
+                        if (pos + 4 > text.length()) throw new IllegalArgumentException("Échappement \\u incomplet");
+                        sb.append((char) Integer.parseInt(text.substring(pos, pos + 4), 16));
+                        pos += 4;
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Échappement invalide : \\" + escaped);
+                }
+            }
+        }
+    }
+}
@@ -1,153 +1,340 @@
 package library;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.*;
+import java.util.stream.Stream;
 
+/**
+ * Façade statique sur le moteur de bibliothèque par défaut.
+ *
+ * Conserve l'API historique utilisée par LibraryApp ; pour faire tourner
+ * plusieurs catalogues dans le même processus, instancier LibraryEngine.
+ * Utilisable depuis plusieurs threads (voir LibraryEngine).
+ */
 public class Library {
-    private static List<Book> books = new ArrayList<>();
-    private static Map<String, Borrower> loans = new HashMap<>();
+    private static final LibraryEngine engine = new LibraryEngine();
+
+    /**
+     * Moteur derrière la façade.
+     */
+    public static LibraryEngine getEngine() {
+        return engine;
+    }
+
+    /**
+     * Façade asynchrone sur le moteur par défaut (exécuteur par défaut),
+     * créée au premier appel et partagée.
+     */
+    public static AsyncLibrary async() {
+        return AsyncHolder.INSTANCE;
+    }
+
+    private static final class AsyncHolder {
+        static final AsyncLibrary INSTANCE = new AsyncLibrary(engine);
+    }
 
     // ═══════════════════════════════════════════════════════════
     // Les Getters
     // ═══════════════════════════════════════════════════════════
-    
+
     public static List<Book> getBooks() {
-        return new ArrayList<>(books); // Copie défensive pour protéger la liste
+        return engine.getBooks(); // Instantané immuable, sans copie
     }
-    
+
+    /**
+     * Flux des livres dans l'ordre d'ajout, sans copie du catalogue.
+     */
+    public static Stream<Book> streamBooks() {
+        return engine.streamBooks();
+    }
+
+    /**
+     * Première page du catalogue.
+     */
+    public static CatalogPage listBooks(int limit) {
+        return engine.listBooks(limit);
+    }
+
+    /**
+     * Page suivante du catalogue, à partir du curseur de la page précédente.
+     */
+    public static CatalogPage listBooks(long afterCursor, int limit) {
+        return engine.listBooks(afterCursor, limit);
+    }
+
     public static Map<String, Borrower> getLoans() {
-        return new HashMap<>(loans); // Copie défensive
+        return engine.getLoans(); // Instantané immuable, sans copie
     }
-    
+
     // ═══════════════════════════════════════════════════════════
     // Les méthodes métiers
     // ═══════════════════════════════════════════════════════════
-    
+
     /**
      * Ajoute un livre à la bibliothèque.
-     * cette version n'empêche pas les doublons.
+     * Par défaut les doublons d'ISBN sont acceptés (voir setRejectDuplicateIsbn).
      */
     public static void addBook(Book book) {
-        if (book == null) {
-            throw new IllegalArgumentException("Le livre ne peut pas être null");
-        }
-        books.add(book);
+        engine.addBook(book);
+    }
+
+    /**
+     * Ajoute un lot de livres ; les index sont construits pour tout le lot.
+     * Retourne les livres refusés comme doublons.
+     */
+    public static List<Book> addBooks(List<Book> books) {
+        return engine.addBooks(books);
+    }
+
+    /**
+     * Importe en lot un fichier CSV ou JSON Lines.
+     */
+    public static ImportReport importCatalog(Path file) throws IOException {
+        return engine.importCatalog(file);
+    }
+
+    /**
+     * Remplace le catalogue par un fichier binaire, projeté en mémoire.
+     */
+    public static void openCatalog(Path file) throws IOException {
+        engine.openCatalog(file);
+    }
+
+    /**
+     * Rejoue puis active le journal des mutations (voir LibraryEngine.openJournal).
+     */
+    public static void openJournal(Path file) throws IOException {
+        engine.openJournal(file);
+    }
+
+    /**
+     * Ferme le journal des mutations.
+     */
+    public static void closeJournal() throws IOException {
+        engine.closeJournal();
+    }
+
+    /**
+     * Ouvre un répertoire de données avec points de reprise périodiques
+     * (voir LibraryEngine.openStore).
+     */
+    public static void openStore(Path directory, Duration checkpointInterval) throws IOException {
+        engine.openStore(directory, checkpointInterval);
+    }
+
+    /**
+     * Écrit un point de reprise du répertoire de données.
+     */
+    public static void checkpoint() throws IOException {
+        engine.checkpoint();
+    }
+
+    /**
+     * Erreur du dernier point de reprise planifié, ou null.
+     */
+    public static IOException getCheckpointFailure() {
+        return engine.getCheckpointFailure();
+    }
+
+    /**
+     * Ferme le répertoire de données.
+     */
+    public static void closeStore() throws IOException {
+        engine.closeStore();
+    }
+
+    /**
+     * Enregistre le catalogue dans un fichier binaire (voir openCatalog).
+     */
+    public static void saveCatalog(Path file) throws IOException {
+        engine.saveCatalog(file);
+    }
+
+    /**
+     * ISBN des livres empruntés par cette personne (voir LibraryEngine.getLoansOf).
+     */
+    public static List<String> getLoansOf(String borrowerName) {
+        return engine.getLoansOf(borrowerName);
+    }
+
+    public static int getLoanCount(String borrowerName) {
+        return engine.getLoanCount(borrowerName);
+    }
+
+    /**
+     * Limite le nombre d'emprunts en cours par personne (0 : aucune limite).
+     */
+    public static void setMaxLoansPerBorrower(int max) {
+        engine.setMaxLoansPerBorrower(max);
+    }
+
+    /**
+     * Active ou désactive le refus des ISBN dupliqués dans addBook.
+     */
+    public static void setRejectDuplicateIsbn(boolean reject) {
+        engine.setRejectDuplicateIsbn(reject);
     }
-    
+
+    /**
+     * Active ou libère l'index de findSimilar (désactivé par défaut : la
+     * recherche parcourt alors le catalogue). La console (LibraryApp)
+     * l'active au démarrage.
+     */
+    public static void setSimilarityIndex(boolean enabled) {
+        engine.setSimilarityIndex(enabled);
+    }
+
     /**
      * Vérifie si un livre avec cet ISBN existe déjà.
      */
     public static boolean hasBookWithIsbn(String isbn) {
-        return byIsbn(isbn) != null;
+        return engine.hasBookWithIsbn(isbn);
     }
-    
+
     /**
      * Vérifie si un livre avec ce titre existe déjà.
      */
     public static boolean hasBookWithTitle(String title) {
-        if (title == null) return false;
-        for (Book b : books) {
-            if (b.getTitle().equalsIgnoreCase(title)) {
-                return true;
-            }
-        }
-        return false;
+        return engine.hasBookWithTitle(title);
     }
-    
+
     /**
      * Supprime tous les livres de la bibliothèque.
      */
     public static void clearBooks() {
-        books.clear();
+        engine.clearBooks();
     }
-    
+
     // ═══════════════════════════════════════════════════════════
     // MÉTHODES MÉTIER - RECHERCHE
     // ═══════════════════════════════════════════════════════════
-    
+
     /**
-     * Recherche un livre par ISBN.
+     * Recherche un livre par ISBN (accès direct via l'index).
      * Retourne le premier livre trouvé, ou null si aucun.
      */
     public static Book byIsbn(String isbn) {
-        for (Book b : books) {
-            if (b.getIsbn().equals(isbn)) {
-                return b;
-            }
-        }
-        return null;
+        return engine.byIsbn(isbn);
     }
-    
+
     /**
      * Recherche tous les livres d'un auteur (recherche partielle, insensible à la casse).
      */
     public static List<Book> findByAuthor(String author) {
-        List<Book> results = new ArrayList<>();
-        if (author == null || author.isEmpty()) {
-            return results;
-        }
-        
-        String searchLower = author.toLowerCase(Locale.ROOT);
-        for (Book b : books) {
-            if (b.getAuthor().toLowerCase(Locale.ROOT).contains(searchLower)) {
-                results.add(b);
-            }
-        }
-        return results;
-    }
-    
+        return engine.findByAuthor(author);
+    }
+
+    /**
+     * Livres probablement identiques à ce titre et cet auteur (mêmes mots
+     * dans le désordre, article ou ponctuation près).
+     */
+    public static List<Book> findSimilar(String title, String author) {
+        return engine.findSimilar(title, author);
+    }
+
+    /**
+     * Recherche les livres publiés entre deux années incluses, triés par année.
+     */
+    public static List<Book> findByYearRange(int from, int to) {
+        return engine.findByYearRange(from, to);
+    }
+
+    /**
+     * Recherche composée (auteur, titre, années, disponibilité).
+     */
+    public static List<Book> find(Query query) {
+        return engine.find(query);
+    }
+
+    /**
+     * Page de résultats d'une recherche composée, avec le statut d'emprunt.
+     */
+    public static CatalogPage find(Query query, long afterCursor, int limit) {
+        return engine.find(query, afterCursor, limit);
+    }
+
+    /**
+     * Décrit le plan d'exécution d'une recherche composée.
+     */
+    public static String explain(Query query) {
+        return engine.explain(query);
+    }
+
     // ═══════════════════════════════════════════════════════════
     // MÉTHODES MÉTIER - EMPRUNTS
     // ═══════════════════════════════════════════════════════════
-    
+
     /**
      * Vérifie si un livre est emprunté.
      */
     public static boolean isBorrowed(String isbn) {
-        return loans.containsKey(isbn);
+        return engine.isBorrowed(isbn);
+    }
+
+    /**
+     * Nombre de livres disponibles (non empruntés).
+     */
+    public static int getAvailableCount() {
+        return engine.getAvailableCount();
+    }
+
+    /**
+     * Statistiques du cache des recherches par auteur et par titre.
+     */
+    public static SearchCacheStats getSearchCacheStats() {
+        return engine.getSearchCacheStats();
     }
-    
+
+    /**
+     * Statistiques du filtre de Bloom des ISBN du catalogue ouvert.
+     */
+    public static IsbnFilterStats getIsbnFilterStats() {
+        return engine.getIsbnFilterStats();
+    }
+
     /**
      * Emprunte un livre.
      * Retourne true si l'emprunt est réussi, false sinon.
      */
     public static boolean borrowBook(String isbn, String borrowerName) {
-        // Validation : livre existe ?
-        Book book = byIsbn(isbn);
-        if (book == null) {
-            return false; // Livre non trouvé
-        }
-        
-        // Validation : déjà emprunté ?
-        if (isBorrowed(isbn)) {
-            return false; // Déjà emprunté
-        }
-        
-        // Emprunt
-        Borrower borrower = new Borrower(borrowerName);
-        loans.put(isbn, borrower);
-        return true;
-    }
-    
+        return engine.borrowBook(isbn, borrowerName);
+    }
+
     /**
      * Retourne un livre.
      * Retourne le nom de l'emprunteur si le retour est réussi, null sinon.
      */
     public static String returnBook(String isbn) {
-        Borrower borrower = loans.remove(isbn);
-        return (borrower != null) ? borrower.getName() : null;
+        return engine.returnBook(isbn);
     }
-    
+
+    /**
+     * Emprunt de plusieurs livres d'un coup, tout ou rien (voir LibraryEngine.borrowBooks).
+     */
+    public static LoanBatchReport borrowBooks(String borrowerName, List<String> isbns) {
+        return engine.borrowBooks(borrowerName, isbns);
+    }
+
+    /**
+     * Retour de plusieurs livres d'un coup, tout ou rien.
+     */
+    public static LoanBatchReport returnBooks(List<String> isbns) {
+        return engine.returnBooks(isbns);
+    }
+
     /**
      * Récupère l'emprunteur d'un livre.
      */
     public static Borrower getBorrower(String isbn) {
-        return loans.get(isbn);
+        return engine.getBorrower(isbn);
     }
-    
+
     /**
      * Supprime tous les emprunts.
      */
     public static void clearLoans() {
-        loans.clear();
+        engine.clearLoans();
     }
 }
@@ -1,31 +1,158 @@
 package library;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.*;
 
 /**
  * Console app for a tiny library.
- * 
+ * Usage : LibraryApp [--store=repertoire | bibliotheque.catalog] [--serve=port] [catalogue.csv | catalogue.jsonl ...]
+ * Avec --store, l'état est restauré depuis le répertoire de données puis
+ * chaque mutation y est journalisée, avec un point de reprise par minute.
+ * Un fichier .catalog (format binaire) est ouvert au démarrage s'il existe et
+ * réenregistré à la sortie ; les autres fichiers sont importés en lot avant
+ * l'affichage du menu.
+ * Avec --serve, la bibliothèque est servie sur le port local donné
+ * (LibraryServer) au lieu du menu, jusqu'à une ligne vide sur l'entrée.
  */
 public class LibraryApp {
+    private static final int PAGE_SIZE = 20;
+    private static final int MAX_REJECTS_SHOWN = 20;
+    private static final String CATALOG_EXTENSION = ".catalog";
+    private static final String STORE_OPTION = "--store=";
+    private static final String SERVE_OPTION = "--serve=";
+    private static final Duration CHECKPOINT_INTERVAL = Duration.ofMinutes(1);
     private static Scanner scanner;
 
     public static void main(String[] args) {
         System.out.println("Welcome to Library v1.0");
+        // Chaque ajout cherche les doublons probables : index plutôt que
+        // parcours du catalogue, construit dès les imports ci-dessous
+        Library.setSimilarityIndex(true);
+        Path catalogFile = null;
+        boolean store = false;
+        Integer servePort = null;
+        for (String file : args) {
+            if (file.startsWith(SERVE_OPTION)) {
+                servePort = readPort(file.substring(SERVE_OPTION.length()));
+            } else if (file.startsWith(STORE_OPTION)) {
+                store = openStore(Path.of(file.substring(STORE_OPTION.length())));
+            } else if (file.endsWith(CATALOG_EXTENSION)) {
+                catalogFile = Path.of(file);
+                openCatalog(catalogFile);
+            } else {
+                importCatalog(file);
+            }
+        }
         scanner = new Scanner(System.in);
 
-        while (true) {
-            displayMenu();
-            String choice = scanner.nextLine();
+        if (servePort != null) {
+            serve(servePort);
+        } else {
+            while (true) {
+                warnCheckpointFailure();
+                displayMenu();
+                String choice = scanner.nextLine();
 
-            if (!handleChoice(choice)) {
-                break; // Exit
+                if (!handleChoice(choice)) {
+                    break; // Exit
+                }
             }
         }
 
+        if (catalogFile != null) {
+            saveCatalog(catalogFile);
+        }
+        if (store) {
+            closeStore();
+        }
         System.out.println("Bye.");
         scanner.close();
     }
 
+    private static Integer readPort(String port) {
+        try {
+            return Integer.parseInt(port);
+        } catch (NumberFormatException ex) {
+            System.out.println("Invalid port: " + port);
+            return null;
+        }
+    }
+
+    // Mode serveur : les postes passent par le réseau, la console ne sert qu'à arrêter
+    private static void serve(int port) {
+        try (LibraryServer server = new LibraryServer(Library.getEngine(), port)) {
+            System.out.println("Serving on 127.0.0.1:" + server.getPort() + " (Enter to stop)");
+            if (scanner.hasNextLine()) {
+                scanner.nextLine();
+            }
+        } catch (IOException | IllegalArgumentException ex) {
+            System.out.println("Server failed on port " + port + ": " + ex.getMessage());
+        }
+    }
+
+    private static void openCatalog(Path file) {
+        if (!Files.exists(file)) {
+            return; // Créé à la sortie
+        }
+        try {
+            Library.openCatalog(file);
+            System.out.println(file + ": " + Library.getBooks().size() + " book(s) loaded");
+        } catch (IOException ex) {
+            System.out.println("Open failed for " + file + ": " + ex.getMessage());
+        }
+    }
+
+    private static boolean openStore(Path directory) {
+        try {
+            Library.openStore(directory, CHECKPOINT_INTERVAL);
+            System.out.println(directory + ": " + Library.getBooks().size() + " book(s), "
+                    + Library.getLoans().size() + " loan(s) restored");
+            return true;
+        } catch (IOException | IllegalStateException ex) {
+            System.out.println("Open failed for " + directory + ": " + ex.getMessage());
+            return false;
+        }
+    }
+
+    // Le journal grandit tant que les points de reprise échouent
+    private static void warnCheckpointFailure() {
+        IOException failure = Library.getCheckpointFailure();
+        if (failure != null) {
+            System.out.println("Warning: background checkpoint failed: " + failure.getMessage());
+        }
+    }
+
+    private static void closeStore() {
+        try {
+            Library.checkpoint();
+            Library.closeStore();
+        } catch (IOException | UncheckedIOException ex) {
+            System.out.println("Checkpoint failed: " + ex.getMessage());
+        }
+    }
+
+    private static void saveCatalog(Path file) {
+        try {
+            Library.saveCatalog(file);
+        } catch (IOException | IllegalArgumentException ex) {
+            System.out.println("Save failed for " + file + ": " + ex.getMessage());
+        }
+    }
+
+    private static void importCatalog(String file) {
+        try {
+            ImportReport report = Library.importCatalog(Path.of(file));
+            System.out.println(file + ": " + report);
+            report.getRejectedRows().stream().limit(MAX_REJECTS_SHOWN).forEach(row -> System.out.println("  " + row));
+        } catch (IOException | IllegalArgumentException ex) {
+            System.out.println("Import failed for " + file + ": " + ex.getMessage());
+        }
+    }
+
     private static void displayMenu() {
         System.out.println("\n1) Add book  2) List books  3) Borrow  4) Return  5) Find by author  6) Exit");
         System.out.print("> ");
@@ -66,7 +193,7 @@ public class LibraryApp {
         System.out.print("Year? ");
         int year = readYear(scanner.nextLine());
 
-        checkForDuplicates(isbn, title);
+        checkForDuplicates(isbn, title, author);
 
         Book book = new Book(isbn, title, author, year);
         Library.addBook(book);
@@ -82,21 +209,30 @@ public class LibraryApp {
         }
     }
 
-    private static void checkForDuplicates(String isbn, String title) {
-        for (Book b : Library.getBooks()) {
-            if (b.getIsbn().equals(isbn) || b.getTitle().equalsIgnoreCase(title)) {
-                System.out.println("Warning: similar book already exists.");
-                break;
-            }
+    // Index ISBN et index des livres presque identiques : pas de copie du catalogue
+    private static void checkForDuplicates(String isbn, String title, String author) {
+        if (Library.hasBookWithIsbn(isbn) || !Library.findSimilar(title, author).isEmpty()) {
+            System.out.println("Warning: similar book already exists.");
         }
     }
 
+    // Affichage page par page : une seule page en mémoire à la fois
     private static void handleListBooks() {
-        for (Book b : Library.getBooks()) {
-            displayBookWithStatus(b);
+        CatalogPage page = Library.listBooks(PAGE_SIZE);
+        while (true) {
+            displayPage(page);
+            if (!page.hasNext() || !askNextPage()) {
+                break;
+            }
+            page = Library.listBooks(page.getNextCursor(), PAGE_SIZE);
         }
     }
 
+    private static boolean askNextPage() {
+        System.out.print("-- Enter: next page, q: stop -- ");
+        return !scanner.nextLine().trim().equalsIgnoreCase("q");
+    }
+
     private static void handleBorrowBook() {
         System.out.print("Borrower name? ");
         String borrowerName = scanner.nextLine();
@@ -110,8 +246,12 @@ public class LibraryApp {
         } else if (Library.isBorrowed(isbn)) {
             System.out.println("Already borrowed.");
         } else {
-            Library.borrowBook(isbn, borrowerName);
-            System.out.println("OK.");
+            try {
+                Library.borrowBook(isbn, borrowerName);
+                System.out.println("OK.");
+            } catch (IllegalStateException ex) {
+                System.out.println(ex.getMessage());
+            }
         }
     }
 
@@ -141,4 +281,13 @@ public class LibraryApp {
         String status = Library.isBorrowed(book.getIsbn()) ? " [BORROWED]" : "";
         System.out.println(book + status);
     }
+
+    // Le statut vient de la page (cartes des emprunts), sans recherche par livre
+    private static void displayPage(CatalogPage page) {
+        List<Book> books = page.getBooks();
+        for (int i = 0; i < books.size(); i++) {
+            String status = page.isBorrowed(i) ? " [BORROWED]" : "";
+            System.out.println(books.get(i) + status);
+        }
+    }
 }
@@ -0,0 +1,1263 @@
+package library;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Moteur de bibliothèque instanciable, partitionné par ISBN.
+ *
+ * Les livres et emprunts sont répartis en N shards selon le hachage de l'ISBN :
+ * les opérations ponctuelles (byIsbn, borrowBook, returnBook...) ne touchent
+ * qu'un shard, les recherches (findByAuthor, hasBookWithTitle) interrogent
+ * tous les shards, en parallèle sur les gros catalogues, puis fusionnent les
+ * résultats dans l'ordre d'ajout (par année d'abord pour findByYearRange).
+ *
+ * Le catalogue peut reposer sur un fichier binaire projeté en mémoire
+ * (openCatalog) : ses livres précèdent ceux ajoutés ensuite dans les shards.
+ * Les mutations peuvent être journalisées (openJournal) : chacune ne rend la
+ * main qu'une fois écrite sur disque, les écritures concurrentes partageant
+ * la même synchronisation. Avec un répertoire de données (openStore), des
+ * points de reprise réguliers bornent le journal à relire au démarrage.
+ *
+ * Plusieurs moteurs indépendants peuvent coexister dans le même processus ;
+ * la classe Library est une façade statique sur un moteur par défaut.
+ */
+public class LibraryEngine {
+    /** Taille de catalogue à partir de laquelle les recherches sont parallélisées. */
+    static final int PARALLEL_SCAN_THRESHOLD = 50_000;
+
+    private final LibraryShard[] shards;
+    // Allocateur des catalogues hors tas, ou null
+    private final OffHeapArena arena;
+    private final Sequencer sequencer = new Sequencer();
+    // Partagé par les ajouts unitaires, exclusif pour les chargements en lot
+    private final ReadWriteLock loadLock = new ReentrantReadWriteLock();
+    private volatile boolean rejectDuplicateIsbn = false;
+    // Index des livres presque identiques (findSimilar), désactivé par défaut
+    private volatile boolean similarityIndex = false;
+    private final BorrowerRegistry borrowers = new BorrowerRegistry();
+    // Nombre maximal d'emprunts en cours par emprunteur, 0 : aucune limite
+    private volatile int maxLoansPerBorrower = 0;
+    // Catalogue de base ouvert depuis un fichier, ou null
+    private volatile MappedCatalog base;
+    // Journal des mutations, ou null
+    private volatile WriteAheadLog journal;
+    // Partagé par les mutations journalisées, exclusif pendant la bascule
+    // de journal d'un point de reprise (coupe cohérente état / journal)
+    private final ReadWriteLock checkpointGate = new ReentrantReadWriteLock();
+    // Répertoire de données, ou null
+    private volatile LibraryStore store;
+    private final SearchCache searchCache = new SearchCache(SearchCache.DEFAULT_CAPACITY);
+
+    /**
+     * Crée un moteur avec un shard par cœur disponible.
+     */
+    public LibraryEngine() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public LibraryEngine(int shardCount) {
+        this(shardCount, false);
+    }
+
+    /**
+     * Avec offHeap, les livres des shards sont stockés hors du tas Java (pages
+     * directes) : le tas et les pauses du ramasse-miettes ne dépendent plus
+     * du nombre de livres, seuls les index restent sur le tas. Les Book
+     * sont reconstitués à chaque lecture.
+     */
+    public LibraryEngine(int shardCount, boolean offHeap) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("Le nombre de shards doit être au moins 1");
+        }
+        arena = offHeap ? new OffHeapArena() : null;
+        shards = new LibraryShard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new LibraryShard(arena);
+        }
+    }
+
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    /**
+     * Octets hors tas retenus par les catalogues (0 si le moteur est sur le tas).
+     */
+    public long getOffHeapBytes() {
+        long total = 0;
+        for (LibraryShard shard : shards) {
+            total += shard.catalog().offHeapBytes();
+        }
+        return total;
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    // Les Getters
+    // ═══════════════════════════════════════════════════════════
+
+    /**
+     * Instantané immuable des livres, dans l'ordre d'ajout.
+     * Coût O(shards) : aucun livre n'est copié, les ajouts ultérieurs n'y
+     * apparaissent pas.
+     */
+    public List<Book> getBooks() {
+        return new CatalogSnapshot(catalogs());
+    }
+
+    /**
+     * Flux des livres de l'instantané courant, dans l'ordre d'ajout,
+     * parcouru sans copie du catalogue.
+     */
+    public Stream<Book> streamBooks() {
+        return getBooks().stream();
+    }
+
+    /**
+     * Première page du catalogue (voir listBooks(long, int)).
+     */
+    public CatalogPage listBooks(int limit) {
+        return listBooks(CatalogPage.FIRST, limit);
+    }
+
+    /**
+     * Page d'au plus limit livres situés après le curseur, dans l'ordre d'ajout.
+     * Chaque shard reprend par recherche dichotomique sur les numéros d'ordre :
+     * le coût d'une page ne dépend pas de sa profondeur dans le catalogue.
+     * La page s'arrête avant le premier livre en cours d'ajout dans un autre
+     * shard (Sequencer.publishedBound) : le curseur ne le dépasse jamais.
+     */
+    public CatalogPage listBooks(long afterCursor, int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("La taille de page doit être au moins 1");
+        }
+        long bound = sequencer.publishedBound();
+        CatalogReader[] catalogs = catalogs();
+        int[] sizes = new int[catalogs.length];
+        int[] heads = new int[catalogs.length];
+        RoaringBitmap[] borrowed = new RoaringBitmap[catalogs.length];
+        for (int i = 0; i < catalogs.length; i++) {
+            sizes[i] = catalogs[i].size();
+            heads[i] = catalogs[i].firstPositionAfter(afterCursor, sizes[i]);
+            borrowed[i] = catalogs[i].borrowedPositions();
+        }
+
+        List<Book> books = new ArrayList<>(limit);
+        BitSet status = new BitSet(limit);
+        long cursor = afterCursor;
+        while (books.size() < limit) {
+            int best = -1;
+            long bestSequence = Long.MAX_VALUE;
+            for (int i = 0; i < catalogs.length; i++) {
+                if (heads[i] < sizes[i] && catalogs[i].sequence(heads[i]) < bestSequence) {
+                    bestSequence = catalogs[i].sequence(heads[i]);
+                    best = i;
+                }
+            }
+            if (best < 0 || bestSequence >= bound) break;
+            status.set(books.size(), borrowed[best].contains(heads[best]));
+            books.add(catalogs[best].get(heads[best]++));
+            cursor = bestSequence;
+        }
+
+        boolean hasNext = false;
+        for (int i = 0; i < catalogs.length; i++) {
+            hasNext |= heads[i] < sizes[i];
+        }
+        return new CatalogPage(books, cursor, hasNext, status);
+    }
+
+    /**
+     * Nombre de livres disponibles (non empruntés), calculé sur les cartes
+     * des emprunts sans parcourir le catalogue.
+     */
+    public int getAvailableCount() {
+        int available = 0;
+        for (CatalogReader catalog : catalogs()) {
+            int size = catalog.size();
+            available += size - catalog.borrowedPositions().rank(size);
+        }
+        return available;
+    }
+
+    /**
+     * Instantané immuable des emprunts (ISBN vers emprunteur), en O(shards).
+     */
+    public Map<String, Borrower> getLoans() {
+        return new LoansSnapshot(loanVersions(), this::shardIndex);
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    // Catalogue
+    // ═══════════════════════════════════════════════════════════
+
+    /**
+     * Ajoute un livre. Par défaut les doublons d'ISBN sont acceptés
+     * (voir setRejectDuplicateIsbn).
+     */
+    public void addBook(Book book) {
+        if (book == null) {
+            throw new IllegalArgumentException("Le livre ne peut pas être null");
+        }
+        WriteAheadLog log;
+        Lock gate = enterMutation();
+        try {
+            loadLock.readLock().lock();
+            try {
+                if (rejectDuplicateIsbn && inBase(book.getIsbn())) {
+                    throw new IllegalArgumentException("Un livre avec l'ISBN " + book.getIsbn() + " existe déjà");
+                }
+                log = journal;
+                shardFor(book.getIsbn()).addBook(book, sequencer, rejectDuplicateIsbn, log);
+                searchCache.booksAdded(List.of(book));
+            } finally {
+                loadLock.readLock().unlock();
+            }
+        } finally {
+            exitMutation(gate);
+        }
+        if (log != null) log.sync();
+    }
+
+    /**
+     * Ajout en lot, dans l'ordre de la liste.
+     *
+     * Les livres sont répartis par shard puis chaque shard les ajoute et
+     * construit ses index en une passe, les shards travaillant en parallèle.
+     * Les ajouts unitaires attendent la fin du lot, ce qui garantit des numéros
+     * d'ordre croissants dans chaque shard.
+     *
+     * Avec un journal, le lot y est écrit puis synchronisé une seule fois.
+     *
+     * @return les livres refusés comme doublons (si setRejectDuplicateIsbn est actif)
+     */
+    public List<Book> addBooks(List<Book> books) {
+        for (Book book : books) {
+            if (book == null) {
+                throw new IllegalArgumentException("Le livre ne peut pas être null");
+            }
+        }
+        List<Book> rejected;
+        WriteAheadLog log;
+        Lock gate = enterMutation();
+        try {
+            rejected = addBooksLocked(books);
+            log = journal;
+        } finally {
+            exitMutation(gate);
+        }
+        if (log != null) log.sync();
+        return rejected;
+    }
+
+    private List<Book> addBooksLocked(List<Book> books) {
+        loadLock.writeLock().lock();
+        try {
+            WriteAheadLog log = journal;
+            List<Book> allRejected = new ArrayList<>();
+            if (rejectDuplicateIsbn && base != null) {
+                List<Book> fresh = new ArrayList<>(books.size());
+                for (Book book : books) {
+                    (inBase(book.getIsbn()) ? allRejected : fresh).add(book);
+                }
+                books = fresh;
+            }
+            if (books.isEmpty()) return allRejected;
+
+            List<List<Book>> perShard = new ArrayList<>(shards.length);
+            List<LongList> perShardSequences = new ArrayList<>(shards.length);
+            for (int i = 0; i < shards.length; i++) {
+                perShard.add(new ArrayList<>());
+                perShardSequences.add(new LongList());
+            }
+            long first = sequencer.take(books.size());
+            for (int i = 0; i < books.size(); i++) {
+                int shard = shardIndex(books.get(i).getIsbn());
+                perShard.get(shard).add(books.get(i));
+                perShardSequences.get(shard).add(first + i);
+            }
+
+            List<List<Book>> rejected = new ArrayList<>(shards.length);
+            for (int i = 0; i < shards.length; i++) {
+                rejected.add(List.of());
+            }
+            IntStream stream = IntStream.range(0, shards.length);
+            try {
+                (books.size() >= PARALLEL_SCAN_THRESHOLD ? stream.parallel() : stream).forEach(i -> rejected.set(i,
+                        shards[i].addBooks(perShard.get(i), perShardSequences.get(i).toArray(), rejectDuplicateIsbn)));
+            } finally {
+                sequencer.published(first);
+            }
+
+            rejected.forEach(allRejected::addAll);
+            searchCache.booksAdded(books);
+            if (log != null) {
+                // Seuls les livres acceptés sont journalisés, dans l'ordre du lot
+                Set<Book> refused = Collections.newSetFromMap(new IdentityHashMap<>());
+                refused.addAll(allRejected);
+                for (Book book : books) {
+                    if (!refused.contains(book)) log.append(WriteAheadLog.addBook(book));
+                }
+            }
+            return allRejected;
+        } finally {
+            loadLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Importe un fichier CSV ou JSON Lines (voir CatalogImporter).
+     */
+    public ImportReport importCatalog(Path file) throws IOException {
+        return new CatalogImporter(this).importFile(file);
+    }
+
+    /**
+     * Remplace le catalogue par un fichier binaire (voir saveCatalog), projeté
+     * en mémoire : seul l'en-tête est lu, les livres sont décodés à l'accès.
+     * Les emprunts en cours sont conservés. À appeler avant openJournal :
+     * l'ouverture d'un catalogue n'est pas journalisée.
+     */
+    public void openCatalog(Path file) throws IOException {
+        if (journal != null) {
+            throw new IllegalStateException("Le catalogue doit être ouvert avant le journal");
+        }
+        MappedCatalog opened = MappedCatalog.open(file);
+        loadLock.writeLock().lock();
+        try {
+            for (LibraryShard shard : shards) {
+                shard.clearBooks();
+            }
+            // Les numéros 0..n-1 sont ceux du fichier
+            sequencer.advanceTo(opened.size());
+            opened.setSimilarityIndex(similarityIndex);
+            base = opened;
+            for (LibraryShard shard : shards) {
+                shard.attachBase(opened);
+            }
+            searchCache.clear();
+        } finally {
+            loadLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Rejoue le journal (s'il existe) sur l'état courant, puis y enregistre
+     * toutes les mutations suivantes : addBook(s), borrowBook, returnBook,
+     * clearBooks, clearLoans. Une fin de journal incomplète (arrêt brutal
+     * pendant une écriture) est ignorée et tronquée.
+     */
+    public void openJournal(Path file) throws IOException {
+        attachJournal(WriteAheadLog.open(file, replayHandler()));
+    }
+
+    /**
+     * Ferme le journal après avoir attendu ses dernières écritures ;
+     * les mutations suivantes ne sont plus journalisées. Le journal d'un
+     * répertoire de données se ferme avec closeStore.
+     */
+    public void closeJournal() throws IOException {
+        if (store != null) {
+            throw new IllegalStateException("Le journal appartient au répertoire de données : utiliser closeStore");
+        }
+        detachJournal();
+    }
+
+    private void detachJournal() throws IOException {
+        WriteAheadLog log;
+        checkpointGate.writeLock().lock();
+        try {
+            log = journal;
+            journal = null;
+        } finally {
+            checkpointGate.writeLock().unlock();
+        }
+        if (log != null) log.close();
+    }
+
+    /**
+     * Ouvre (ou crée) un répertoire de données : restaure le dernier point de
+     * reprise, rejoue les mutations journalisées depuis, puis journalise les
+     * suivantes. Remplace openCatalog + openJournal.
+     */
+    public void openStore(Path directory) throws IOException {
+        if (store != null || journal != null) {
+            throw new IllegalStateException("Un journal est déjà ouvert");
+        }
+        store = LibraryStore.open(directory, this);
+    }
+
+    /**
+     * Comme openStore(Path), avec un point de reprise en tâche de fond
+     * toutes les interval (s'il y a eu des mutations).
+     */
+    public void openStore(Path directory, Duration interval) throws IOException {
+        openStore(directory);
+        store.schedule(interval);
+    }
+
+    /**
+     * Écrit un point de reprise (livres et emprunts) puis supprime les
+     * journaux et instantanés qu'il remplace. Les mutations ne sont
+     * suspendues que le temps de capturer l'état et de changer de journal.
+     */
+    public void checkpoint() throws IOException {
+        LibraryStore current = store;
+        if (current == null) {
+            throw new IllegalStateException("Aucun répertoire de données ouvert");
+        }
+        current.checkpoint();
+    }
+
+    /**
+     * Erreur du dernier point de reprise planifié, ou null : tant qu'il
+     * échoue, le journal grandit. Aussi levée par closeStore.
+     */
+    public IOException getCheckpointFailure() {
+        LibraryStore current = store;
+        return (current != null) ? current.getLastFailure() : null;
+    }
+
+    /**
+     * Arrête les points de reprise planifiés (après la fin de celui en
+     * cours) et ferme le journal.
+     *
+     * @throws IOException aussi si le dernier point de reprise planifié a
+     *         échoué (voir getCheckpointFailure) ; le journal est fermé
+     */
+    public void closeStore() throws IOException {
+        LibraryStore current = store;
+        store = null;
+        try {
+            if (current != null) current.close();
+        } finally {
+            detachJournal();
+        }
+    }
+
+    /**
+     * Enregistre un instantané du catalogue (sans les emprunts) au format
+     * binaire lu par openCatalog. Le fichier est remplacé atomiquement.
+     */
+    public void saveCatalog(Path file) throws IOException {
+        MappedCatalog.write(file, getBooks());
+    }
+
+    public void setRejectDuplicateIsbn(boolean reject) {
+        rejectDuplicateIsbn = reject;
+    }
+
+    /**
+     * Active l'index de findSimilar : chaque recherche ne vérifie plus qu'un
+     * nombre borné de candidats, au prix de quelques centaines d'octets par
+     * livre sur le tas (voir SimilarityIndex). Sans index (par défaut),
+     * findSimilar vérifie tous les livres. L'activation indexe les livres
+     * déjà présents ; false libère l'index.
+     */
+    public void setSimilarityIndex(boolean enabled) {
+        loadLock.writeLock().lock();
+        try {
+            similarityIndex = enabled;
+            MappedCatalog file = base;
+            if (file != null) file.setSimilarityIndex(enabled);
+            for (LibraryShard shard : shards) {
+                shard.setSimilarityIndex(enabled);
+            }
+        } finally {
+            loadLock.writeLock().unlock();
+        }
+    }
+
+    public boolean hasBookWithIsbn(String isbn) {
+        return byIsbn(isbn) != null;
+    }
+
+    /**
+     * Titre égal sans tenir compte de la casse. Aucun index ne sert : les
+     * catalogues sont parcourus par morceaux en parallèle (ParallelScan),
+     * jusqu'au premier trouvé. Le résultat est mis en cache
+     * (voir getSearchCacheStats).
+     */
+    public boolean hasBookWithTitle(String title) {
+        if (title == null) return false;
+        Boolean cached = searchCache.getTitle(title);
+        if (cached != null) return cached;
+        long stamp = searchCache.stamp();
+        CatalogReader[] catalogs = catalogs();
+        int[] sizes = new int[catalogs.length];
+        for (int i = 0; i < catalogs.length; i++) {
+            sizes[i] = catalogs[i].size();
+        }
+        boolean found = ParallelScan.anyMatch(sizes,
+                (segment, from, to) -> catalogs[segment].indexOfTitle(title, from, to) >= 0);
+        searchCache.putTitle(title, found, stamp);
+        return found;
+    }
+
+    /**
+     * Nombre maximal de recherches (auteur, titre) gardées en cache ;
+     * 0 désactive le cache. Par défaut SearchCache.DEFAULT_CAPACITY.
+     */
+    public void setSearchCacheCapacity(int capacity) {
+        searchCache.setCapacity(capacity);
+    }
+
+    public SearchCacheStats getSearchCacheStats() {
+        return searchCache.stats();
+    }
+
+    /**
+     * Statistiques du filtre de Bloom des ISBN du catalogue de base : taille,
+     * taux de faux positifs attendu et observé. Filtre vide sans catalogue de
+     * base, ou pour un fichier écrit avant le filtre (version 1 ou 2).
+     */
+    public IsbnFilterStats getIsbnFilterStats() {
+        MappedCatalog file = base;
+        return (file != null) ? file.filterStats() : new IsbnFilterStats(0, 0, 0, 0, 0, 0, 0);
+    }
+
+    /**
+     * Vide tous les shards (shard par shard : un lecteur concurrent peut
+     * observer un vidage partiel) et détache le catalogue de base.
+     */
+    public void clearBooks() {
+        WriteAheadLog log;
+        Lock gate = enterMutation();
+        try {
+            loadLock.writeLock().lock();
+            try {
+                log = journal;
+                if (log != null) log.append(WriteAheadLog.clearBooks());
+                clearAllBooks();
+            } finally {
+                loadLock.writeLock().unlock();
+            }
+        } finally {
+            exitMutation(gate);
+        }
+        if (log != null) log.sync();
+    }
+
+    private void clearAllBooks() {
+        base = null;
+        for (LibraryShard shard : shards) {
+            shard.attachBase(null);
+            shard.clearBooks();
+        }
+        searchCache.clear();
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    // Recherche
+    // ═══════════════════════════════════════════════════════════
+
+    /**
+     * Le catalogue de base est consulté d'abord : ses livres sont les plus anciens.
+     * Son filtre de Bloom écarte la plupart des ISBN qu'il ne contient pas
+     * sans toucher à ses notices ni à son index.
+     */
+    public Book byIsbn(String isbn) {
+        MappedCatalog file = base;
+        if (file != null) {
+            Book book = file.byIsbn(isbn);
+            if (book != null) return book;
+        }
+        return shardFor(isbn).catalog().byIsbn(isbn);
+    }
+
+    /**
+     * Recherche partielle et insensible à la casse sur l'auteur,
+     * résultats dans l'ordre d'ajout. Les résultats sont mis en cache
+     * par requête normalisée et invalidés par les ajouts qui les changent.
+     */
+    public List<Book> findByAuthor(String author) {
+        if (author == null || author.isEmpty()) return new ArrayList<>();
+        List<Book> cached = searchCache.getAuthor(author);
+        if (cached != null) return new ArrayList<>(cached);
+        long stamp = searchCache.stamp();
+        List<Book> result = searchByAuthor(author);
+        searchCache.putAuthor(author, List.copyOf(result), stamp);
+        return result;
+    }
+
+    private List<Book> searchByAuthor(String author) {
+        CatalogReader[] catalogs = catalogs();
+        int[][] positions = new int[catalogs.length][];
+        shardStream(catalogs).forEach(i -> positions[i] = catalogs[i].findByAuthor(author));
+        return mergeBySequence(catalogs, positions);
+    }
+
+    /**
+     * Livres probablement identiques à ce titre et cet auteur, dans l'ordre
+     * d'ajout : titre aux mêmes mots ("Hobbit, The" pour "The Hobbit"), ou
+     * mots du titre et de l'auteur assez proches (voir SimilarityIndex).
+     * Avec l'index (setSimilarityIndex), chaque segment répond en un temps
+     * qui ne dépend pas de sa taille ; sans lui, chaque segment est parcouru,
+     * par morceaux en parallèle sur les gros segments.
+     */
+    public List<Book> findSimilar(String title, String author) {
+        CatalogReader[] catalogs = catalogs();
+        int[][] positions = new int[catalogs.length][];
+        for (int i = 0; i < catalogs.length; i++) {
+            positions[i] = catalogs[i].findSimilar(title, author);
+        }
+        return mergeBySequence(catalogs, positions);
+    }
+
+    /**
+     * Livres publiés entre from et to inclus, triés par année puis dans
+     * l'ordre d'ajout. Chaque segment répond par son index des années, sans
+     * parcourir ses livres. Liste vide si from > to.
+     */
+    public List<Book> findByYearRange(int from, int to) {
+        CatalogReader[] catalogs = catalogs();
+        int[][] positions = new int[catalogs.length][];
+        shardStream(catalogs).forEach(i -> positions[i] = catalogs[i].findByYearRange(from, to));
+        return mergeByYearAndSequence(catalogs, positions);
+    }
+
+    /**
+     * Recherche composée : livres qui satisfont tous les critères de la
+     * requête, dans l'ordre d'ajout. Le plan (voir explain) est établi sur un
+     * instantané des catalogues et des emprunts, puis exécuté sur chaque
+     * segment, en parallèle sur les gros catalogues.
+     */
+    public List<Book> find(Query query) {
+        if (query == null) {
+            throw new IllegalArgumentException("La requête ne peut pas être null");
+        }
+        CatalogReader[] catalogs = catalogs();
+        QueryPlan plan = QueryPlan.plan(query, catalogs);
+        int[][] positions = new int[catalogs.length][];
+        shardStream(catalogs).forEach(i -> positions[i] = plan.execute(i));
+        return mergeBySequence(catalogs, positions);
+    }
+
+    /**
+     * Page d'au plus limit résultats de la requête situés après le curseur,
+     * dans l'ordre d'ajout, avec leur statut d'emprunt et la même borne
+     * que listBooks.
+     */
+    public CatalogPage find(Query query, long afterCursor, int limit) {
+        if (query == null) {
+            throw new IllegalArgumentException("La requête ne peut pas être null");
+        }
+        if (limit < 1) {
+            throw new IllegalArgumentException("La taille de page doit être au moins 1");
+        }
+        long bound = sequencer.publishedBound();
+        CatalogReader[] catalogs = catalogs();
+        QueryPlan plan = QueryPlan.plan(query, catalogs);
+        int[][] positions = new int[catalogs.length][];
+        shardStream(catalogs).forEach(i -> positions[i] = plan.execute(i));
+
+        int[] heads = new int[catalogs.length];
+        for (int i = 0; i < catalogs.length; i++) {
+            heads[i] = firstAfter(catalogs[i], positions[i], afterCursor);
+        }
+        List<Book> books = new ArrayList<>(limit);
+        BitSet status = new BitSet(limit);
+        long cursor = afterCursor;
+        while (books.size() < limit) {
+            int best = -1;
+            long bestSequence = Long.MAX_VALUE;
+            for (int i = 0; i < catalogs.length; i++) {
+                if (heads[i] < positions[i].length && catalogs[i].sequence(positions[i][heads[i]]) < bestSequence) {
+                    bestSequence = catalogs[i].sequence(positions[i][heads[i]]);
+                    best = i;
+                }
+            }
+            if (best < 0 || bestSequence >= bound) break;
+            int position = positions[best][heads[best]++];
+            status.set(books.size(), plan.isBorrowed(best, position));
+            books.add(catalogs[best].get(position));
+            cursor = bestSequence;
+        }
+
+        boolean hasNext = false;
+        for (int i = 0; i < catalogs.length; i++) {
+            hasNext |= heads[i] < positions[i].length;
+        }
+        return new CatalogPage(books, cursor, hasNext, status);
+    }
+
+    // Premier indice de positions (croissantes) dont le numéro d'ordre dépasse sequence
+    private static int firstAfter(CatalogReader catalog, int[] positions, long sequence) {
+        int low = 0;
+        int high = positions.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (catalog.sequence(positions[mid]) <= sequence) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Plan que suivrait find pour cette requête : estimations par index,
+     * accès choisi, intersections et filtres restants.
+     */
+    public String explain(Query query) {
+        if (query == null) {
+            throw new IllegalArgumentException("La requête ne peut pas être null");
+        }
+        return QueryPlan.plan(query, catalogs()).explain();
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    // Emprunts
+    // ═══════════════════════════════════════════════════════════
+
+    public boolean isBorrowed(String isbn) {
+        return shardFor(isbn).isBorrowed(isbn);
+    }
+
+    /**
+     * @throws IllegalStateException si l'emprunteur a atteint la limite
+     *         fixée par setMaxLoansPerBorrower
+     */
+    public boolean borrowBook(String isbn, String borrowerName) {
+        if (byIsbn(isbn) == null) {
+            return false; // Livre non trouvé
+        }
+        Borrower borrower = borrowers.intern(borrowerName);
+        WriteAheadLog log;
+        boolean borrowed;
+        Lock gate = enterMutation();
+        try {
+            log = journal;
+            borrowed = shardFor(isbn).borrowBook(isbn, borrower, maxLoansPerBorrower, log);
+        } finally {
+            exitMutation(gate);
+        }
+        if (borrowed && log != null) log.sync();
+        return borrowed;
+    }
+
+    /**
+     * Retourne le nom de l'emprunteur si le retour est réussi, null sinon.
+     */
+    public String returnBook(String isbn) {
+        WriteAheadLog log;
+        Borrower borrower;
+        Lock gate = enterMutation();
+        try {
+            log = journal;
+            borrower = shardFor(isbn).returnBook(isbn, log);
+        } finally {
+            exitMutation(gate);
+        }
+        if (borrower != null && log != null) log.sync();
+        return (borrower != null) ? borrower.getName() : null;
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    // Emprunts et retours en lot
+    // ═══════════════════════════════════════════════════════════
+
+    /**
+     * Emprunt en lot, tout ou rien. Les ISBN sont résolus en une passe sur
+     * les index, les verrous de leurs bandes pris une seule fois (shard par
+     * shard dans l'ordre des numéros, bande par bande dans chaque shard), et
+     * le lot est journalisé en une trame, synchronisée une fois. Si un ISBN
+     * est introuvable, déjà emprunté ou en double, ou si le lot dépasse la
+     * limite d'emprunts, rien n'est enregistré ; le bilan donne le résultat
+     * de chaque ISBN.
+     */
+    public LoanBatchReport borrowBooks(String borrowerName, List<String> isbns) {
+        if (isbns == null) {
+            throw new IllegalArgumentException("La liste des ISBN ne peut pas être null");
+        }
+        int n = isbns.size();
+        Object[] keys = new Object[n];
+        LoanBatchReport.Outcome[] outcomes = new LoanBatchReport.Outcome[n];
+        Set<Object> batchKeys = new HashSet<>();
+        for (int i = 0; i < n; i++) {
+            String isbn = isbns.get(i);
+            keys[i] = Isbn.loanKey(isbn);
+            if (isbn == null || !exists(isbn)) {
+                outcomes[i] = LoanBatchReport.Outcome.NOT_FOUND;
+            } else if (!batchKeys.add(keys[i])) {
+                outcomes[i] = LoanBatchReport.Outcome.DUPLICATE;
+            }
+        }
+        Borrower borrower = borrowers.intern(borrowerName);
+
+        WriteAheadLog log = null;
+        boolean applied;
+        Lock gate = enterMutation();
+        try {
+            ReentrantLock[][] held = lockLoans(isbns, keys, outcomes);
+            try {
+                for (int i = 0; i < n; i++) {
+                    if (outcomes[i] == null && shardFor(isbns.get(i)).loans().containsKey(keys[i])) {
+                        outcomes[i] = LoanBatchReport.Outcome.ALREADY_BORROWED;
+                    }
+                }
+                applied = allPending(outcomes);
+                if (applied && !borrower.reserveLoans(n, maxLoansPerBorrower)) {
+                    fill(outcomes, LoanBatchReport.Outcome.LOAN_LIMIT);
+                    applied = false;
+                }
+                if (applied) {
+                    log = journal;
+                    try {
+                        if (log != null && n > 0) log.append(WriteAheadLog.borrowBatch(borrower.getName(), isbns));
+                    } catch (RuntimeException e) {
+                        for (int i = 0; i < n; i++) {
+                            borrower.releaseLoan();
+                        }
+                        throw e;
+                    }
+                    forEachShard(isbns, keys, (shard, shardIsbns, shardKeys) ->
+                            shard.borrowAllLocked(shardIsbns, shardKeys, borrower));
+                    fill(outcomes, LoanBatchReport.Outcome.BORROWED);
+                }
+            } finally {
+                unlockLoans(held);
+            }
+        } finally {
+            exitMutation(gate);
+        }
+        if (applied && log != null && n > 0) log.sync();
+        return report(applied, isbns, outcomes, null);
+    }
+
+    /**
+     * Retour en lot, tout ou rien, comme borrowBooks : si un ISBN n'est pas
+     * emprunté ou figure deux fois, rien n'est enregistré. Le bilan donne,
+     * pour chaque ISBN rendu, l'emprunteur qui l'avait.
+     */
+    public LoanBatchReport returnBooks(List<String> isbns) {
+        if (isbns == null) {
+            throw new IllegalArgumentException("La liste des ISBN ne peut pas être null");
+        }
+        int n = isbns.size();
+        Object[] keys = new Object[n];
+        LoanBatchReport.Outcome[] outcomes = new LoanBatchReport.Outcome[n];
+        String[] names = new String[n];
+        Set<Object> batchKeys = new HashSet<>();
+        for (int i = 0; i < n; i++) {
+            keys[i] = Isbn.loanKey(isbns.get(i));
+            if (keys[i] == null) {
+                outcomes[i] = LoanBatchReport.Outcome.NOT_BORROWED;
+            } else if (!batchKeys.add(keys[i])) {
+                outcomes[i] = LoanBatchReport.Outcome.DUPLICATE;
+            }
+        }
+
+        WriteAheadLog log = null;
+        boolean applied;
+        Lock gate = enterMutation();
+        try {
+            ReentrantLock[][] held = lockLoans(isbns, keys, outcomes);
+            try {
+                for (int i = 0; i < n; i++) {
+                    if (outcomes[i] == null && !shardFor(isbns.get(i)).loans().containsKey(keys[i])) {
+                        outcomes[i] = LoanBatchReport.Outcome.NOT_BORROWED;
+                    }
+                }
+                applied = allPending(outcomes);
+                if (applied) {
+                    log = journal;
+                    if (log != null && n > 0) log.append(WriteAheadLog.returnBatch(isbns));
+                    Map<Object, String> returned = new HashMap<>();
+                    forEachShard(isbns, keys, (shard, shardIsbns, shardKeys) -> {
+                        List<Borrower> previous = shard.returnAllLocked(shardIsbns, shardKeys);
+                        for (int j = 0; j < shardKeys.size(); j++) {
+                            returned.put(shardKeys.get(j), previous.get(j).getName());
+                        }
+                    });
+                    for (int i = 0; i < n; i++) {
+                        names[i] = returned.get(keys[i]);
+                    }
+                    fill(outcomes, LoanBatchReport.Outcome.RETURNED);
+                }
+            } finally {
+                unlockLoans(held);
+            }
+        } finally {
+            exitMutation(gate);
+        }
+        if (applied && log != null && n > 0) log.sync();
+        return report(applied, isbns, outcomes, names);
+    }
+
+    // Existence sans matérialiser le livre : index ISBN (et filtre du fichier de base)
+    private boolean exists(String isbn) {
+        MappedCatalog file = base;
+        if (file != null && file.positionOf(isbn) != IsbnIndex.ABSENT) return true;
+        return shardFor(isbn).catalog().positionOf(isbn) != IsbnIndex.ABSENT;
+    }
+
+    private interface ShardBatch {
+        void apply(LibraryShard shard, List<String> isbns, List<Object> keys);
+    }
+
+    // Regroupe les ISBN du lot par shard, dans l'ordre des numéros de shard
+    private void forEachShard(List<String> isbns, Object[] keys, ShardBatch batch) {
+        List<List<Integer>> byShard = groupByShard(isbns, keys, null);
+        for (int s = 0; s < shards.length; s++) {
+            List<Integer> items = byShard.get(s);
+            if (items.isEmpty()) continue;
+            List<String> shardIsbns = new ArrayList<>(items.size());
+            List<Object> shardKeys = new ArrayList<>(items.size());
+            for (int i : items) {
+                shardIsbns.add(isbns.get(i));
+                shardKeys.add(keys[i]);
+            }
+            batch.apply(shards[s], shardIsbns, shardKeys);
+        }
+    }
+
+    private List<List<Integer>> groupByShard(List<String> isbns, Object[] keys, LoanBatchReport.Outcome[] outcomes) {
+        List<List<Integer>> byShard = new ArrayList<>(shards.length);
+        for (int s = 0; s < shards.length; s++) {
+            byShard.add(new ArrayList<>());
+        }
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != null && (outcomes == null || outcomes[i] == null)) {
+                byShard.get(shardIndex(isbns.get(i))).add(i);
+            }
+        }
+        return byShard;
+    }
+
+    // Verrous des ISBN retenus, shard par shard dans l'ordre des numéros
+    private ReentrantLock[][] lockLoans(List<String> isbns, Object[] keys, LoanBatchReport.Outcome[] outcomes) {
+        List<List<Integer>> byShard = groupByShard(isbns, keys, outcomes);
+        ReentrantLock[][] held = new ReentrantLock[shards.length][];
+        try {
+            for (int s = 0; s < shards.length; s++) {
+                List<Object> shardKeys = new ArrayList<>();
+                for (int i : byShard.get(s)) {
+                    shardKeys.add(keys[i]);
+                }
+                held[s] = shards[s].lockLoans(shardKeys);
+            }
+        } catch (RuntimeException | Error e) {
+            unlockLoans(held);
+            throw e;
+        }
+        return held;
+    }
+
+    private static void unlockLoans(ReentrantLock[][] held) {
+        for (int s = held.length - 1; s >= 0; s--) {
+            if (held[s] != null) StripedLocks.unlockAll(held[s]);
+        }
+    }
+
+    private static boolean allPending(LoanBatchReport.Outcome[] outcomes) {
+        for (LoanBatchReport.Outcome outcome : outcomes) {
+            if (outcome != null) return false;
+        }
+        return true;
+    }
+
+    // Donne ce résultat aux ISBN qui n'en ont pas encore
+    private static void fill(LoanBatchReport.Outcome[] outcomes, LoanBatchReport.Outcome outcome) {
+        for (int i = 0; i < outcomes.length; i++) {
+            if (outcomes[i] == null) outcomes[i] = outcome;
+        }
+    }
+
+    private static LoanBatchReport report(boolean applied, List<String> isbns,
+                                          LoanBatchReport.Outcome[] outcomes, String[] names) {
+        fill(outcomes, LoanBatchReport.Outcome.NOT_APPLIED);
+        List<LoanBatchReport.Item> items = new ArrayList<>(isbns.size());
+        for (int i = 0; i < outcomes.length; i++) {
+            items.add(new LoanBatchReport.Item(isbns.get(i), outcomes[i], (names != null) ? names[i] : null));
+        }
+        return new LoanBatchReport(applied, items);
+    }
+
+    public Borrower getBorrower(String isbn) {
+        return shardFor(isbn).getBorrower(isbn);
+    }
+
+    /**
+     * ISBN (forme canonique, triés) des livres que cet emprunteur a en cours,
+     * en O(k) grâce à l'index inverse du registre des emprunteurs.
+     */
+    public List<String> getLoansOf(String borrowerName) {
+        Borrower borrower = borrowers.find(borrowerName);
+        if (borrower == null) return List.of();
+        List<String> isbns = new ArrayList<>(borrower.loans.size());
+        for (Object key : borrower.loans) {
+            isbns.add(Isbn.fromLoanKey(key));
+        }
+        Collections.sort(isbns);
+        return isbns;
+    }
+
+    /**
+     * Nombre d'emprunts en cours de cet emprunteur, en O(1).
+     */
+    public int getLoanCount(String borrowerName) {
+        Borrower borrower = borrowers.find(borrowerName);
+        return (borrower != null) ? borrower.loanCount.get() : 0;
+    }
+
+    /**
+     * Limite le nombre d'emprunts en cours par emprunteur (0 : aucune limite).
+     * Les emprunts déjà en cours ne sont pas remis en cause.
+     */
+    public void setMaxLoansPerBorrower(int max) {
+        if (max < 0) {
+            throw new IllegalArgumentException("La limite d'emprunts ne peut pas être négative");
+        }
+        maxLoansPerBorrower = max;
+    }
+
+    /**
+     * Non atomique vis-à-vis des emprunts concurrents, comme clearBooks.
+     */
+    public void clearLoans() {
+        WriteAheadLog log;
+        Lock gate = enterMutation();
+        try {
+            log = journal;
+            if (log != null) log.append(WriteAheadLog.clearLoans());
+            clearAllLoans();
+        } finally {
+            exitMutation(gate);
+        }
+        if (log != null) log.sync();
+    }
+
+    private void clearAllLoans() {
+        for (LibraryShard shard : shards) {
+            shard.clearLoans();
+        }
+        MappedCatalog file = base;
+        if (file != null) file.clearBorrowed();
+        borrowers.clearLoans();
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    // Journal et points de reprise
+    // ═══════════════════════════════════════════════════════════
+
+    WriteAheadLog journal() {
+        return journal;
+    }
+
+    LibraryStore store() {
+        return store;
+    }
+
+    void attachJournal(WriteAheadLog log) throws IOException {
+        checkpointGate.writeLock().lock();
+        try {
+            if (journal == null) {
+                journal = log;
+                return;
+            }
+        } finally {
+            checkpointGate.writeLock().unlock();
+        }
+        log.close();
+        throw new IllegalStateException("Un journal est déjà ouvert");
+    }
+
+    /**
+     * Capture l'état (livres et emprunts, sans copie) et bascule sur next,
+     * sous exclusion des mutations journalisées : tout ce qui est dans
+     * l'ancien journal est dans la capture, rien de ce qui ira dans next.
+     */
+    LibraryStore.Cut cut(WriteAheadLog next) {
+        checkpointGate.writeLock().lock();
+        try {
+            if (journal == null) {
+                throw new IllegalStateException("Aucun journal ouvert");
+            }
+            LibraryStore.Cut cut = new LibraryStore.Cut(getBooks(), getLoans(), journal);
+            journal = next;
+            return cut;
+        } finally {
+            checkpointGate.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Application des enregistrements relus (journal ou instantané), sans
+     * journalisation ni refus des doublons.
+     */
+    WriteAheadLog.Handler replayHandler() {
+        return new WriteAheadLog.Handler() {
+            @Override
+            public void addBook(Book book) {
+                shardFor(book.getIsbn()).addBook(book, sequencer, false, null);
+                searchCache.booksAdded(List.of(book));
+            }
+
+            @Override
+            public void borrow(String isbn, String borrowerName) {
+                shardFor(isbn).borrowBook(isbn, borrowers.intern(borrowerName), 0, null);
+            }
+
+            @Override
+            public void returnBook(String isbn) {
+                shardFor(isbn).returnBook(isbn, null);
+            }
+
+            @Override
+            public void clearBooks() {
+                clearAllBooks();
+            }
+
+            @Override
+            public void clearLoans() {
+                clearAllLoans();
+            }
+        };
+    }
+
+    // Sans journal, les mutations ne prennent pas le verrou des points de reprise
+    private Lock enterMutation() {
+        if (journal == null) return null;
+        Lock gate = checkpointGate.readLock();
+        gate.lock();
+        return gate;
+    }
+
+    private static void exitMutation(Lock gate) {
+        if (gate != null) gate.unlock();
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    // Répartition et fusion
+    // ═══════════════════════════════════════════════════════════
+
+    LibraryShard shardFor(String isbn) {
+        return shards[shardIndex(isbn)];
+    }
+
+    int shardIndex(String isbn) {
+        if (isbn == null || shards.length == 1) return 0;
+        // Bits de poids fort d'un hachage mélangé : indépendant des bandes de verrous.
+        // Les écritures d'un même ISBN vont dans le même shard.
+        int mixed = Isbn.hash(isbn) * 0x9E3779B9;
+        return (int) (((mixed & 0xFFFFFFFFL) * shards.length) >>> 32);
+    }
+
+    private boolean inBase(String isbn) {
+        MappedCatalog file = base;
+        return file != null && file.byIsbn(isbn) != null;
+    }
+
+    /**
+     * Segments du catalogue à fusionner : le fichier de base éventuel, puis les shards.
+     */
+    private CatalogReader[] catalogs() {
+        MappedCatalog file = base;
+        int offset = (file != null) ? 1 : 0;
+        CatalogReader[] catalogs = new CatalogReader[shards.length + offset];
+        if (file != null) {
+            catalogs[0] = file;
+        }
+        for (int i = 0; i < shards.length; i++) {
+            catalogs[i + offset] = shards[i].catalog();
+        }
+        return catalogs;
+    }
+
+    private static IntStream shardStream(CatalogReader[] catalogs) {
+        IntStream stream = IntStream.range(0, catalogs.length);
+        long total = Arrays.stream(catalogs).mapToLong(CatalogReader::size).sum();
+        return (catalogs.length > 1 && total >= PARALLEL_SCAN_THRESHOLD) ? stream.parallel() : stream;
+    }
+
+    /**
+     * Versions courantes (immuables) des tables d'emprunts, par shard.
+     */
+    private PersistentMap<Object, Borrower>[] loanVersions() {
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        PersistentMap<Object, Borrower>[] versions = new PersistentMap[shards.length];
+        for (int i = 0; i < shards.length; i++) {
+            versions[i] = shards[i].loans();
+        }
+        return versions;
+    }
+
+    /**
+     * Fusion k-voies des positions de chaque shard selon le numéro d'ordre global.
+     * Les positions d'un shard sont croissantes, donc leurs numéros aussi.
+     */
+    private static List<Book> mergeBySequence(CatalogReader[] catalogs, int[][] positions) {
+        int total = 0;
+        for (int[] p : positions) {
+            total += p.length;
+        }
+        List<Book> result = new ArrayList<>(total);
+        int[] heads = new int[catalogs.length];
+        for (int n = 0; n < total; n++) {
+            int best = -1;
+            long bestSequence = Long.MAX_VALUE;
+            for (int i = 0; i < catalogs.length; i++) {
+                if (heads[i] < positions[i].length) {
+                    long s = catalogs[i].sequence(positions[i][heads[i]]);
+                    if (s < bestSequence) {
+                        bestSequence = s;
+                        best = i;
+                    }
+                }
+            }
+            result.add(catalogs[best].get(positions[best][heads[best]++]));
+        }
+        return result;
+    }
+
+    /**
+     * Fusion k-voies des positions de chaque shard selon l'année puis le numéro
+     * d'ordre global. Les positions d'un shard sont triées de la même façon.
+     */
+    private static List<Book> mergeByYearAndSequence(CatalogReader[] catalogs, int[][] positions) {
+        int total = 0;
+        for (int[] p : positions) {
+            total += p.length;
+        }
+        List<Book> result = new ArrayList<>(total);
+        int[] heads = new int[catalogs.length];
+        for (int n = 0; n < total; n++) {
+            int best = -1;
+            int bestYear = Integer.MAX_VALUE;
+            long bestSequence = Long.MAX_VALUE;
+            for (int i = 0; i < catalogs.length; i++) {
+                if (heads[i] < positions[i].length) {
+                    int position = positions[i][heads[i]];
+                    int year = catalogs[i].year(position);
+                    if (best < 0 || year < bestYear
+                            || (year == bestYear && catalogs[i].sequence(position) < bestSequence)) {
+                        best = i;
+                        bestYear = year;
+                        bestSequence = catalogs[i].sequence(position);
+                    }
+                }
+            }
+            result.add(catalogs[best].get(positions[best][heads[best]++]));
+        }
+        return result;
+    }
+}
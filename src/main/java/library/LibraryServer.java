@@ -0,0 +1,369 @@
+package library;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Serveur TCP local devant un moteur : plusieurs postes (banques de prêt,
+ * bornes) utilisent la même bibliothèque en même temps.
+ *
+ * Protocole en lignes UTF-8, champs séparés par des tabulations. Une
+ * réponse commence par OK ou ERR, suivi d'une tabulation et de la raison :
+ * - ADD isbn titre auteur année -> OK
+ * - LIST [curseur [nombre]] -> OK n curseurSuivant, puis n lignes
+ *   isbn titre auteur année statut (AVAILABLE ou BORROWED) ;
+ *   curseurSuivant vaut - sur la dernière page
+ * - FIND auteur [curseur [nombre]] -> comme LIST ; les résultats viennent
+ *   de LibraryEngine.findByAuthor (mis en cache) et le curseur est le
+ *   rang du dernier résultat lu
+ * - BORROW isbn emprunteur -> OK, ERR NOT_FOUND, ERR ALREADY_BORROWED,
+ *   ou ERR et le message de la limite d'emprunts
+ * - RETURN isbn -> OK emprunteur, ou ERR NOT_BORROWED
+ * - PING -> OK ; QUIT -> OK, puis fermeture de la connexion
+ *
+ * Les connexions restent ouvertes entre les requêtes (jusqu'à QUIT, la
+ * fermeture par le client ou idleTimeout sans requête). Les requêtes
+ * peuvent être envoyées à la suite sans attendre les réponses : elles
+ * sont traitées et répondues dans l'ordre, et les réponses ne sont
+ * envoyées que lorsque plus aucune requête n'attend dans le tampon.
+ *
+ * Un thread par connexion (AsyncLibrary.newThreadPerTaskExecutor) :
+ * virtuel si la JVM en a, sinon thread démon. Au-delà de maxConnections
+ * connexions ouvertes, une nouvelle connexion reçoit ERR et est fermée. Une
+ * requête de plus de MAX_LINE_LENGTH caractères reçoit ERR et ferme la
+ * connexion. Une erreur du journal (UncheckedIOException) est répondue par
+ * ERR ; la connexion reste ouverte. Les tabulations et fins de ligne des
+ * champs d'un livre sont remplacées par des espaces dans les réponses.
+ */
+public class LibraryServer implements AutoCloseable {
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 1000;
+    /** Délai sans requête après lequel une connexion est fermée, par défaut. */
+    public static final int DEFAULT_IDLE_TIMEOUT_MILLIS = 5 * 60 * 1000;
+    /** Connexions ouvertes au plus, par défaut. */
+    public static final int DEFAULT_MAX_CONNECTIONS = 256;
+    /** Longueur maximale d'une requête, fin de ligne exclue. */
+    public static final int MAX_LINE_LENGTH = 8 * 1024;
+
+    private final LibraryEngine engine;
+    private final ServerSocket serverSocket;
+    private final ExecutorService connections;
+    private final Set<Socket> clients = ConcurrentHashMap.newKeySet();
+    private final int idleTimeoutMillis;
+    private final Semaphore permits;
+    private final Thread acceptor;
+    private volatile boolean closed;
+
+    /**
+     * Écoute sur l'adresse locale (port 0 : port libre, voir getPort).
+     */
+    public LibraryServer(LibraryEngine engine, int port) throws IOException {
+        this(engine, port, DEFAULT_IDLE_TIMEOUT_MILLIS);
+    }
+
+    public LibraryServer(LibraryEngine engine, int port, int idleTimeoutMillis) throws IOException {
+        this(engine, port, idleTimeoutMillis, DEFAULT_MAX_CONNECTIONS);
+    }
+
+    public LibraryServer(LibraryEngine engine, int port, int idleTimeoutMillis, int maxConnections)
+            throws IOException {
+        if (engine == null) {
+            throw new IllegalArgumentException("Le moteur ne peut pas être null");
+        }
+        if (idleTimeoutMillis < 0) {
+            throw new IllegalArgumentException("Le délai d'inactivité ne peut pas être négatif");
+        }
+        if (maxConnections <= 0) {
+            throw new IllegalArgumentException("Le nombre de connexions doit être positif");
+        }
+        this.engine = engine;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.permits = new Semaphore(maxConnections);
+        this.serverSocket = new ServerSocket();
+        serverSocket.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+        this.connections = AsyncLibrary.newThreadPerTaskExecutor("library-connection-");
+        this.acceptor = new Thread(this::acceptLoop, "library-server-" + getPort());
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /** Connexions ouvertes. */
+    public int getConnectionCount() {
+        return clients.size();
+    }
+
+    /**
+     * Cesse d'accepter des connexions et ferme celles qui sont ouvertes.
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        serverSocket.close();
+        for (Socket client : clients) {
+            client.close();
+        }
+        connections.shutdown();
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    // Connexions
+    // ═══════════════════════════════════════════════════════════
+
+    private void acceptLoop() {
+        while (!closed) {
+            Socket client;
+            try {
+                client = serverSocket.accept();
+            } catch (IOException e) {
+                if (closed) return;
+                continue; // Connexion avortée : on accepte la suivante
+            }
+            if (!permits.tryAcquire()) {
+                refuse(client, "Trop de connexions");
+                continue;
+            }
+            clients.add(client);
+            if (closed) {
+                release(client);
+                closeQuietly(client);
+                return;
+            }
+            try {
+                connections.execute(() -> serve(client));
+            } catch (RejectedExecutionException e) {
+                release(client);
+                closeQuietly(client);
+            }
+        }
+    }
+
+    private void serve(Socket client) {
+        try (client;
+             BufferedReader in = new BufferedReader(new InputStreamReader(client.getInputStream(), StandardCharsets.UTF_8));
+             Writer out = new BufferedWriter(new OutputStreamWriter(client.getOutputStream(), StandardCharsets.UTF_8))) {
+            client.setSoTimeout(idleTimeoutMillis);
+            client.setTcpNoDelay(true);
+            StringBuilder buffer = new StringBuilder();
+            String line;
+            while ((line = readLine(in, buffer)) != null) {
+                if (line.length() > MAX_LINE_LENGTH) {
+                    error(out, "Requête trop longue (plus de " + MAX_LINE_LENGTH + " caractères)");
+                    out.flush();
+                    break;
+                }
+                boolean quit = handle(line, out);
+                // Requêtes enchaînées : une seule écriture réseau pour toutes celles déjà reçues
+                if (quit || !in.ready()) out.flush();
+                if (quit) break;
+            }
+        } catch (SocketTimeoutException | SocketException e) {
+            // Connexion inactive, fermée par le client ou par close
+        } catch (IOException e) {
+            // Connexion perdue : les autres continuent
+        } finally {
+            release(client);
+        }
+    }
+
+    private void release(Socket client) {
+        if (clients.remove(client)) permits.release();
+    }
+
+    // Connexion refusée avant d'être servie : ERR, puis fermeture
+    private static void refuse(Socket client, String reason) {
+        try (client; Writer out = new OutputStreamWriter(client.getOutputStream(), StandardCharsets.UTF_8)) {
+            error(out, reason);
+        } catch (IOException e) {
+            // Client déjà parti
+        }
+    }
+
+    /**
+     * Ligne suivante sans sa fin (\n ou \r\n), null en fin de flux. Au-delà
+     * de MAX_LINE_LENGTH caractères, la lecture s'arrête : la ligne retournée
+     * est plus longue que la limite et le reste n'est pas lu.
+     */
+    static String readLine(Reader in, StringBuilder buffer) throws IOException {
+        buffer.setLength(0);
+        int c;
+        while ((c = in.read()) != -1) {
+            if (c == '\n') break;
+            buffer.append((char) c);
+            if (buffer.length() > MAX_LINE_LENGTH) return buffer.toString();
+        }
+        if (c == -1 && buffer.length() == 0) return null;
+        int end = buffer.length();
+        if (end > 0 && buffer.charAt(end - 1) == '\r') end--;
+        return buffer.substring(0, end);
+    }
+
+    private static void closeQuietly(Socket client) {
+        try {
+            client.close();
+        } catch (IOException e) {
+            // Déjà fermée
+        }
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    // Requêtes
+    // ═══════════════════════════════════════════════════════════
+
+    /**
+     * Traite une requête et écrit sa réponse. Retourne vrai pour QUIT.
+     */
+    boolean handle(String line, Writer out) throws IOException {
+        String[] fields = line.split("\t", -1);
+        String command = fields[0].trim().toUpperCase(Locale.ROOT);
+        try {
+            switch (command) {
+                case "ADD":
+                    require(fields, 5);
+                    engine.addBook(new Book(fields[1], fields[2], fields[3], parseInt(fields[4], "année")));
+                    ok(out, "");
+                    return false;
+                case "LIST":
+                    writePage(out, engine.listBooks(cursor(fields, 1), limit(fields, 2)));
+                    return false;
+                case "FIND":
+                    require(fields, 2);
+                    findByAuthor(out, fields[1], cursor(fields, 2), limit(fields, 3));
+                    return false;
+                case "BORROW":
+                    require(fields, 3);
+                    borrow(out, fields[1], fields[2]);
+                    return false;
+                case "RETURN":
+                    require(fields, 2);
+                    String borrower = engine.returnBook(fields[1]);
+                    if (borrower != null) {
+                        ok(out, clean(borrower));
+                    } else {
+                        error(out, "NOT_BORROWED");
+                    }
+                    return false;
+                case "PING":
+                    ok(out, "");
+                    return false;
+                case "QUIT":
+                    ok(out, "");
+                    return true;
+                default:
+                    error(out, "Commande inconnue : " + clean(fields[0]));
+                    return false;
+            }
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            error(out, clean(e.getMessage()));
+            return false;
+        } catch (UncheckedIOException e) {
+            // Journal : la mutation n'est pas confirmée, la connexion reste utilisable
+            error(out, clean("Erreur du journal : " + e.getCause().getMessage()));
+            return false;
+        }
+    }
+
+    // Page de la liste mise en cache par le moteur : O(limit) par page tant
+    // que le catalogue ne change pas ; le curseur compte les résultats lus
+    private void findByAuthor(Writer out, String author, long cursor, int limit) throws IOException {
+        List<Book> results = engine.findByAuthor(author);
+        int from = (int) Math.max(0, Math.min(results.size(), cursor + 1));
+        int to = Math.min(results.size(), from + limit);
+        ok(out, (to - from) + "\t" + ((to < results.size()) ? Long.toString(to - 1) : "-"));
+        for (Book book : results.subList(from, to)) {
+            writeBook(out, book, engine.isBorrowed(book.getIsbn()));
+        }
+    }
+
+    private void borrow(Writer out, String isbn, String borrowerName) throws IOException {
+        if (engine.byIsbn(isbn) == null) {
+            error(out, "NOT_FOUND");
+        } else if (engine.borrowBook(isbn, borrowerName)) {
+            ok(out, "");
+        } else {
+            error(out, "ALREADY_BORROWED");
+        }
+    }
+
+    private static void writePage(Writer out, CatalogPage page) throws IOException {
+        List<Book> books = page.getBooks();
+        ok(out, books.size() + "\t" + (page.hasNext() ? Long.toString(page.getNextCursor()) : "-"));
+        for (int i = 0; i < books.size(); i++) {
+            writeBook(out, books.get(i), page.isBorrowed(i));
+        }
+    }
+
+    private static void writeBook(Writer out, Book book, boolean borrowed) throws IOException {
+        out.write(clean(book.getIsbn()) + "\t" + clean(book.getTitle()) + "\t" + clean(book.getAuthor())
+                + "\t" + book.getYear() + "\t" + (borrowed ? "BORROWED" : "AVAILABLE") + "\n");
+    }
+
+    private static void ok(Writer out, String detail) throws IOException {
+        out.write(detail.isEmpty() ? "OK\n" : "OK\t" + detail + "\n");
+    }
+
+    private static void error(Writer out, String reason) throws IOException {
+        out.write("ERR\t" + reason + "\n");
+    }
+
+    private static void require(String[] fields, int count) {
+        if (fields.length < count) {
+            throw new IllegalArgumentException(fields[0].trim().toUpperCase(Locale.ROOT) + " attend " + (count - 1) + " champ(s)");
+        }
+    }
+
+    private static long cursor(String[] fields, int index) {
+        if (fields.length <= index || fields[index].isEmpty() || fields[index].equals("-")) return CatalogPage.FIRST;
+        try {
+            return Long.parseLong(fields[index].trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Curseur invalide : " + fields[index]);
+        }
+    }
+
+    private static int limit(String[] fields, int index) {
+        if (fields.length <= index || fields[index].isEmpty()) return DEFAULT_PAGE_SIZE;
+        int limit = parseInt(fields[index], "nombre");
+        if (limit <= 0 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Nombre de livres par page invalide : " + limit);
+        }
+        return limit;
+    }
+
+    private static int parseInt(String value, String name) {
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Champ " + name + " invalide : " + value);
+        }
+    }
+
+    // Un champ ne doit pas couper la ligne de réponse
+    private static String clean(String value) {
+        if (value == null) return "";
+        return value.replace('\t', ' ').replace('\r', ' ').replace('\n', ' ');
+    }
+}
@@ -0,0 +1,338 @@
+package library;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Une partition de la bibliothèque : les livres et emprunts dont l'ISBN
+ * tombe dans ce shard, avec leur propre catalogue, index et verrous.
+ *
+ * Même modèle de concurrence que l'ancienne Library statique : un écrivain
+ * à la fois pour le catalogue, verrous répartis par ISBN pour les emprunts,
+ * lectures sans verrou.
+ *
+ * Les emprunts sont une table persistante publiée par référence atomique :
+ * en conserver la version courante suffit à obtenir un instantané. Ils sont
+ * indexés par l'ISBN empaqueté (Isbn.loanKey) : un livre
+ * emprunté sous une écriture de son ISBN est rendu sous une autre.
+ *
+ * Chaque catalogue tient la carte des positions empruntées (RoaringBitmap),
+ * mise à jour sous le verrou de l'ISBN avec la table : celle du catalogue du
+ * shard et celle du catalogue de base éventuel (attachBase), qui porte des
+ * livres de tous les shards.
+ *
+ * Avec un journal (paramètre journal non null), chaque mutation y est ajoutée
+ * sous le verrou qui l'ordonne, avant d'être appliquée ; l'appelant attend la
+ * synchronisation disque (WriteAheadLog.sync) après avoir relâché le verrou.
+ */
+class LibraryShard {
+    // Allocateur des catalogues hors tas, ou null (catalogues sur le tas)
+    private final OffHeapArena arena;
+    private volatile Catalog catalog;
+    private final Object catalogWriteLock = new Object();
+    // Index des livres presque identiques demandé (LibraryEngine.setSimilarityIndex)
+    private boolean similarityIndex;
+    private final AtomicReference<PersistentMap<Object, Borrower>> loans =
+            new AtomicReference<>(PersistentMap.empty());
+    private final StripedLocks loanLocks = new StripedLocks(16);
+    // Catalogue de base du moteur, ou null
+    private volatile CatalogReader base;
+
+    LibraryShard(OffHeapArena arena) {
+        this.arena = arena;
+        this.catalog = new Catalog(arena);
+    }
+
+    Catalog catalog() {
+        return catalog;
+    }
+
+    /**
+     * Version courante (immuable) de la table des emprunts.
+     */
+    PersistentMap<Object, Borrower> loans() {
+        return loans.get();
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    // Catalogue
+    // ═══════════════════════════════════════════════════════════
+
+    /**
+     * Ajoute un livre en lui attribuant le prochain numéro d'ordre global.
+     * Le numéro est pris sous le verrou du shard : les numéros d'un même
+     * shard sont donc croissants. Il est signalé publié une fois le livre
+     * visible (voir Sequencer).
+     */
+    void addBook(Book book, Sequencer sequencer, boolean rejectDuplicateIsbn, WriteAheadLog journal) {
+        byte[] record = (journal != null) ? WriteAheadLog.addBook(book) : null;
+        synchronized (catalogWriteLock) {
+            if (rejectDuplicateIsbn && catalog.byIsbn(book.getIsbn()) != null) {
+                throw new IllegalArgumentException("Un livre avec l'ISBN " + book.getIsbn() + " existe déjà");
+            }
+            if (journal != null) journal.append(record);
+            long number = sequencer.take(1);
+            try {
+                catalog.add(book, number);
+            } finally {
+                sequencer.published(number);
+            }
+            markIfBorrowed(catalog, book.getIsbn());
+        }
+    }
+
+    /**
+     * Ajoute un lot de livres avec leurs numéros d'ordre (croissants).
+     * Retourne les livres refusés comme doublons quand rejectDuplicateIsbn est actif.
+     */
+    List<Book> addBooks(List<Book> books, long[] sequences, boolean rejectDuplicateIsbn) {
+        synchronized (catalogWriteLock) {
+            if (!rejectDuplicateIsbn) {
+                catalog.addAll(books, sequences);
+                markIfBorrowed(catalog, books);
+                return List.of();
+            }
+            List<Book> accepted = new ArrayList<>(books.size());
+            long[] acceptedSequences = new long[books.size()];
+            List<Book> rejected = new ArrayList<>();
+            Set<String> batchIsbns = new HashSet<>();
+            for (int i = 0; i < books.size(); i++) {
+                Book book = books.get(i);
+                if (catalog.byIsbn(book.getIsbn()) != null || !batchIsbns.add(Isbn.canonical(book.getIsbn()))) {
+                    rejected.add(book);
+                } else {
+                    acceptedSequences[accepted.size()] = sequences[i];
+                    accepted.add(book);
+                }
+            }
+            catalog.addAll(accepted, acceptedSequences);
+            markIfBorrowed(catalog, accepted);
+            return rejected;
+        }
+    }
+
+    // Un livre ajouté alors que son ISBN est emprunté est marqué. Le livre est
+    // publié avant la lecture de la table : un emprunt concurrent le voit, ou
+    // bien son emprunt est vu ici et confirmé sous le verrou de l'ISBN.
+    private void markIfBorrowed(Catalog target, String isbn) {
+        if (isbn == null) return;
+        Object key = Isbn.loanKey(isbn);
+        if (!loans.get().containsKey(key)) return;
+        ReentrantLock lock = loanLocks.forKey(key);
+        lock.lock();
+        try {
+            if (loans.get().containsKey(key)) {
+                target.markBorrowed(isbn, true);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void markIfBorrowed(Catalog target, List<Book> books) {
+        if (loans.get().isEmpty()) return;
+        for (Book book : books) {
+            markIfBorrowed(target, book.getIsbn());
+        }
+    }
+
+    /**
+     * Les lecteurs en cours terminent sur l'ancien catalogue.
+     */
+    void clearBooks() {
+        synchronized (catalogWriteLock) {
+            Catalog empty = new Catalog(arena);
+            empty.setSimilarityIndex(similarityIndex);
+            catalog = empty;
+        }
+    }
+
+    /**
+     * Construit (ou abandonne) l'index des livres presque identiques du
+     * catalogue du shard ; les catalogues suivants (clearBooks) en héritent.
+     */
+    void setSimilarityIndex(boolean enabled) {
+        synchronized (catalogWriteLock) {
+            similarityIndex = enabled;
+            catalog.setSimilarityIndex(enabled);
+        }
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    // Emprunts
+    // ═══════════════════════════════════════════════════════════
+
+    boolean isBorrowed(String isbn) {
+        return isbn != null && loans.get().containsKey(Isbn.loanKey(isbn));
+    }
+
+    /**
+     * L'existence du livre est vérifiée par le moteur (le livre peut venir
+     * du catalogue de base).
+     * La vérification et l'enregistrement se font sous le verrou de l'ISBN :
+     * deux emprunts simultanés du même livre ne peuvent pas réussir tous les deux.
+     * Les ISBN d'autres bandes peuvent modifier la table en même temps, d'où
+     * la mise à jour par compare-and-set. L'index inverse de l'emprunteur est
+     * mis à jour sous le même verrou, après réservation d'une place.
+     *
+     * @param loanLimit nombre maximal d'emprunts en cours par emprunteur (0 : aucun)
+     * @throws IllegalStateException si l'emprunteur a atteint loanLimit
+     */
+    boolean borrowBook(String isbn, Borrower borrower, int loanLimit, WriteAheadLog journal) {
+        byte[] record = (journal != null) ? WriteAheadLog.borrow(isbn, borrower.getName()) : null;
+        Object key = Isbn.loanKey(isbn);
+        ReentrantLock lock = loanLocks.forKey(key);
+        lock.lock();
+        try {
+            if (key != null && loans.get().containsKey(key)) {
+                return false; // Déjà emprunté
+            }
+            if (!borrower.reserveLoan(loanLimit)) {
+                throw new IllegalStateException("Limite de " + loanLimit + " emprunts atteinte pour "
+                        + borrower.getName());
+            }
+            try {
+                if (journal != null) journal.append(record);
+            } catch (RuntimeException e) {
+                borrower.releaseLoan();
+                throw e;
+            }
+            loans.updateAndGet(current -> current.put(key, borrower));
+            borrower.loans.add(key);
+            mark(isbn, true);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    Borrower returnBook(String isbn, WriteAheadLog journal) {
+        if (isbn == null) return null;
+        Object key = Isbn.loanKey(isbn);
+        ReentrantLock lock = loanLocks.forKey(key);
+        lock.lock();
+        try {
+            Borrower borrower = loans.get().get(key);
+            if (borrower != null) {
+                if (journal != null) journal.append(WriteAheadLog.returnBook(isbn));
+                loans.updateAndGet(current -> current.remove(key));
+                if (borrower.loans.remove(key)) {
+                    borrower.releaseLoan();
+                }
+                mark(isbn, false);
+            }
+            return borrower;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    // Emprunts en lot
+    // ═══════════════════════════════════════════════════════════
+
+    /**
+     * Verrouille les bandes des clés (Isbn.loanKey) d'un lot, dans
+     * l'ordre des bandes ; à relâcher par StripedLocks.unlockAll. Le moteur
+     * verrouille les shards dans l'ordre de leurs numéros.
+     */
+    ReentrantLock[] lockLoans(Collection<?> keys) {
+        return loanLocks.lockAll(keys);
+    }
+
+    /**
+     * Enregistre les emprunts d'un lot déjà vérifié, sous les verrous pris par
+     * lockLoans : une seule mise à jour de la table et de chaque carte.
+     * Les places de l'emprunteur sont réservées par le moteur.
+     */
+    void borrowAllLocked(List<String> isbns, List<Object> keys, Borrower borrower) {
+        loans.updateAndGet(current -> {
+            for (Object key : keys) {
+                current = current.put(key, borrower);
+            }
+            return current;
+        });
+        borrower.loans.addAll(keys);
+        mark(isbns, true);
+    }
+
+    /**
+     * Enregistre les retours d'un lot déjà vérifié (toutes les clés sont
+     * empruntées), sous les verrous pris par lockLoans. Retourne les
+     * emprunteurs, dans l'ordre des clés.
+     */
+    List<Borrower> returnAllLocked(List<String> isbns, List<Object> keys) {
+        PersistentMap<Object, Borrower> before = loans.get();
+        List<Borrower> borrowers = new ArrayList<>(keys.size());
+        for (Object key : keys) {
+            borrowers.add(before.get(key));
+        }
+        loans.updateAndGet(current -> {
+            for (Object key : keys) {
+                current = current.remove(key);
+            }
+            return current;
+        });
+        for (int i = 0; i < keys.size(); i++) {
+            if (borrowers.get(i).loans.remove(keys.get(i))) {
+                borrowers.get(i).releaseLoan();
+            }
+        }
+        mark(isbns, false);
+        return borrowers;
+    }
+
+    private void mark(List<String> isbns, boolean borrowed) {
+        catalog.markBorrowed(isbns, borrowed);
+        CatalogReader file = base;
+        if (file != null) file.markBorrowed(isbns, borrowed);
+    }
+
+    // Sous le verrou de l'ISBN, après la mise à jour de la table
+    private void mark(String isbn, boolean borrowed) {
+        catalog.markBorrowed(isbn, borrowed);
+        CatalogReader file = base;
+        if (file != null) file.markBorrowed(isbn, borrowed);
+    }
+
+    /**
+     * Rattache le catalogue de base (null pour le détacher) et y marque les
+     * emprunts en cours du shard, chacun sous le verrou de son ISBN.
+     */
+    void attachBase(CatalogReader file) {
+        base = file;
+        if (file == null) return;
+        Iterator<Map.Entry<Object, Borrower>> entries = loans.get().iterator();
+        while (entries.hasNext()) {
+            Object key = entries.next().getKey();
+            ReentrantLock lock = loanLocks.forKey(key);
+            lock.lock();
+            try {
+                if (loans.get().containsKey(key)) {
+                    file.markBorrowed(Isbn.fromLoanKey(key), true);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    Borrower getBorrower(String isbn) {
+        return (isbn != null) ? loans.get().get(Isbn.loanKey(isbn)) : null;
+    }
+
+    /**
+     * La carte du catalogue de base est vidée par le moteur.
+     */
+    void clearLoans() {
+        loans.set(PersistentMap.empty());
+        catalog.clearBorrowed();
+    }
+}
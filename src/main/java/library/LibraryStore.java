@@ -0,0 +1,366 @@
+package library;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.LongPredicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Répertoire de données d'un moteur : points de reprise et journaux.
+ *
+ * Contenu, par génération N :
+ * - catalog-N.catalog : les livres (format MappedCatalog, projeté à l'ouverture) ;
+ * - loans-N.snapshot : les emprunts ;
+ * - journal-N.wal : les mutations postérieures au point de reprise N ;
+ * - CURRENT : numéro du dernier point de reprise complet.
+ *
+ * Un point de reprise capture l'état (O(shards), sans copie) et bascule sur un
+ * nouveau journal pendant une courte exclusion des mutations ; les fichiers
+ * sont ensuite écrits sans rien bloquer. Une fois CURRENT mis à jour, les
+ * générations précédentes sont supprimées : la reprise ne relit qu'un
+ * instantané et les mutations écrites depuis, quelle que soit l'ancienneté
+ * de la bibliothèque.
+ *
+ * Chaque fichier est écrit sous un nom temporaire, mis sur disque (force),
+ * puis renommé atomiquement ; le répertoire est mis sur disque après les
+ * renommages. Les générations précédentes ne sont supprimées qu'ensuite :
+ * après une panne, CURRENT désigne des fichiers complets, ou l'ancienne
+ * génération et ses journaux sont encore là. Le catalogue restauré à
+ * l'ouverture reste projeté comme base du moteur : il n'est supprimé qu'à
+ * la prochaine ouverture (Windows refuse de supprimer un fichier projeté).
+ */
+final class LibraryStore implements AutoCloseable {
+    private static final Pattern GENERATION = Pattern.compile("(catalog|loans|journal)-(\\d+)\\.(catalog|snapshot|wal)");
+    private static final String CURRENT = "CURRENT";
+    private static final int LOANS_MAGIC = 0x4C4F4E32; // "LON2"
+    // Instantanés antérieurs, chaînes en writeUTF : relus seulement
+    private static final int LOANS_MAGIC_UTF = 0x4C4F414E; // "LOAN"
+
+    /**
+     * État capturé par LibraryEngine.cut, cohérent avec la bascule de journal.
+     */
+    static final class Cut {
+        final List<Book> books;
+        final Map<String, Borrower> loans;
+        final WriteAheadLog previous;
+
+        Cut(List<Book> books, Map<String, Borrower> loans, WriteAheadLog previous) {
+            this.books = books;
+            this.loans = loans;
+            this.previous = previous;
+        }
+    }
+
+    private final Path directory;
+    private final LibraryEngine engine;
+    private long journalGeneration;
+    // Génération du catalogue projeté par le moteur, -1 si aucun
+    private final long baseGeneration;
+    private ScheduledExecutorService scheduler;
+    private boolean closed;
+    private volatile IOException lastFailure;
+    // Appelé après chaque mise sur disque d'un fichier ou du répertoire (tests)
+    volatile Consumer<Path> onForce = path -> {};
+
+    private LibraryStore(Path directory, LibraryEngine engine, long journalGeneration, long baseGeneration) {
+        this.directory = directory;
+        this.engine = engine;
+        this.journalGeneration = journalGeneration;
+        this.baseGeneration = baseGeneration;
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    // Reprise
+    // ═══════════════════════════════════════════════════════════
+
+    /**
+     * Restaure le dernier point de reprise puis rejoue, dans l'ordre, les
+     * journaux écrits depuis ; le dernier reste ouvert en écriture.
+     */
+    static LibraryStore open(Path directory, LibraryEngine engine) throws IOException {
+        Files.createDirectories(directory);
+        long current = readCurrent(directory);
+        removeGenerations(directory, g -> g < current, "catalog", "loans", "journal");
+        removeGenerations(directory, g -> g > current, "catalog", "loans");
+
+        Path catalog = file(directory, "catalog", current);
+        long base = -1;
+        if (Files.exists(catalog)) {
+            engine.openCatalog(catalog);
+            base = current;
+        }
+        Path loans = file(directory, "loans", current);
+        if (Files.exists(loans)) {
+            readLoans(loans, engine);
+        }
+
+        List<Long> journals = generations(directory, "journal");
+        if (journals.isEmpty()) {
+            journals.add(current);
+        }
+        for (int i = 0; i < journals.size() - 1; i++) {
+            WriteAheadLog.open(file(directory, "journal", journals.get(i)), engine.replayHandler()).close();
+        }
+        long last = journals.get(journals.size() - 1);
+        engine.attachJournal(WriteAheadLog.open(file(directory, "journal", last), engine.replayHandler()));
+        return new LibraryStore(directory, engine, last, base);
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    // Points de reprise
+    // ═══════════════════════════════════════════════════════════
+
+    /**
+     * Écrit un point de reprise et supprime l'historique qu'il remplace.
+     * Les emprunts et retours ne sont suspendus que le temps de la bascule.
+     *
+     * @throws IllegalStateException si le répertoire ou le journal est fermé
+     */
+    synchronized void checkpoint() throws IOException {
+        if (closed) {
+            throw new IllegalStateException("Répertoire de données fermé");
+        }
+        WriteAheadLog current = engine.journal();
+        if (current == null) {
+            throw new IllegalStateException("Aucun journal ouvert");
+        }
+        long next = journalGeneration + 1;
+        Path nextFile = file(directory, "journal", next);
+        WriteAheadLog nextLog = WriteAheadLog.create(nextFile, current);
+        Cut cut;
+        try {
+            cut = engine.cut(nextLog);
+        } catch (IllegalStateException e) {
+            // Journal fermé entre-temps : le nouveau journal n'a rien reçu
+            nextLog.close();
+            Files.deleteIfExists(nextFile);
+            throw e;
+        }
+        journalGeneration = next;
+        cut.previous.close();
+
+        MappedCatalog.write(file(directory, "catalog", next), cut.books);
+        writeLoans(file(directory, "loans", next), cut.loans);
+        writeCurrent(next);
+        forceDirectory();
+        removeGenerations(directory, g -> g < next && g != baseGeneration, "catalog");
+        removeGenerations(directory, g -> g < next, "loans", "journal");
+        lastFailure = null;
+    }
+
+    /**
+     * Point de reprise en tâche de fond toutes les period, si le journal a
+     * reçu des mutations depuis le précédent.
+     */
+    synchronized void schedule(Duration period) {
+        if (scheduler != null) {
+            throw new IllegalStateException("Points de reprise déjà planifiés");
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "library-checkpoint");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long millis = Math.max(1, period.toMillis());
+        scheduler.scheduleWithFixedDelay(this::checkpointIfNeeded, millis, millis, TimeUnit.MILLISECONDS);
+    }
+
+    private void checkpointIfNeeded() {
+        try {
+            WriteAheadLog log = engine.journal();
+            if (log != null && log.getRecordCount() > 0) {
+                checkpoint();
+            }
+        } catch (IOException e) {
+            lastFailure = e;
+        } catch (UncheckedIOException e) {
+            lastFailure = e.getCause();
+        } catch (RuntimeException e) {
+            // Une exception non rattrapée annulerait les points de reprise suivants
+            lastFailure = new IOException("Point de reprise impossible : " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Erreur du dernier point de reprise planifié, ou null s'il a réussi
+     * (ou si un point de reprise a réussi depuis).
+     */
+    IOException getLastFailure() {
+        return lastFailure;
+    }
+
+    /**
+     * Arrête les points de reprise planifiés, après la fin de celui en
+     * cours ; le journal reste à fermer par le moteur.
+     *
+     * @throws IOException si le dernier point de reprise planifié a échoué :
+     *         le journal n'a pas été compacté depuis
+     */
+    @Override
+    public void close() throws IOException {
+        ScheduledExecutorService running;
+        // Le moniteur est tenu pendant tout point de reprise
+        synchronized (this) {
+            closed = true;
+            running = scheduler;
+            scheduler = null;
+        }
+        if (running != null) running.shutdown();
+        IOException failure = lastFailure;
+        if (failure != null) {
+            throw new IOException("Dernier point de reprise planifié en échec : " + failure.getMessage(), failure);
+        }
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    // Fichiers
+    // ═══════════════════════════════════════════════════════════
+
+    private static Path file(Path directory, String kind, long generation) {
+        String extension = kind.equals("catalog") ? "catalog" : kind.equals("loans") ? "snapshot" : "wal";
+        return directory.resolve(kind + "-" + generation + "." + extension);
+    }
+
+    // Contenu du fichier sur disque avant son renommage
+    private void force(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        onForce.accept(file);
+    }
+
+    // Renommages et créations de fichiers sur disque. Windows ne permet pas
+    // d'ouvrir un répertoire : ses renommages sont déjà durables.
+    private void forceDirectory() throws IOException {
+        if (!System.getProperty("os.name", "").startsWith("Windows")) {
+            try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+                channel.force(true);
+            }
+        }
+        onForce.accept(directory);
+    }
+
+    private static List<Long> generations(Path directory, String kind) throws IOException {
+        List<Long> result = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path path : files) {
+                Matcher m = GENERATION.matcher(path.getFileName().toString());
+                if (m.matches() && m.group(1).equals(kind)) {
+                    result.add(Long.parseLong(m.group(2)));
+                }
+            }
+        }
+        result.sort(null);
+        return result;
+    }
+
+    private static void removeGenerations(Path directory, LongPredicate filter, String... kinds) throws IOException {
+        for (String kind : kinds) {
+            for (long generation : generations(directory, kind)) {
+                if (filter.test(generation)) {
+                    Files.deleteIfExists(file(directory, kind, generation));
+                }
+            }
+        }
+    }
+
+    private static long readCurrent(Path directory) throws IOException {
+        Path current = directory.resolve(CURRENT);
+        if (!Files.exists(current)) return 0;
+        try {
+            return Long.parseLong(Files.readString(current, StandardCharsets.UTF_8).trim());
+        } catch (NumberFormatException e) {
+            throw new IOException("Fichier CURRENT invalide dans " + directory);
+        }
+    }
+
+    private void writeCurrent(long generation) throws IOException {
+        Path temp = Files.createTempFile(directory, CURRENT, ".tmp");
+        try {
+            Files.writeString(temp, Long.toString(generation), StandardCharsets.UTF_8);
+            force(temp);
+            Files.move(temp, directory.resolve(CURRENT), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Emprunts : magic, nombre, paires (isbn, emprunteur), puis CRC32C du tout.
+     * Chaînes en longueur int puis UTF-8 (WriteAheadLog.writeText).
+     */
+    private void writeLoans(Path file, Map<String, Borrower> loans) throws IOException {
+        Path temp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try {
+            CRC32C crc = new CRC32C();
+            try (DataOutputStream out = new DataOutputStream(new CheckedOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(temp)), crc))) {
+                out.writeInt(LOANS_MAGIC);
+                out.writeInt(loans.size());
+                for (Map.Entry<String, Borrower> loan : loans.entrySet()) {
+                    WriteAheadLog.writeText(out, loan.getKey());
+                    String name = loan.getValue().getName();
+                    out.writeBoolean(name != null);
+                    if (name != null) WriteAheadLog.writeText(out, name);
+                }
+                out.flush();
+                out.writeInt((int) crc.getValue());
+            }
+            force(temp);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static void readLoans(Path file, LibraryEngine engine) throws IOException {
+        CRC32C crc = new CRC32C();
+        try (DataInputStream in = new DataInputStream(new CheckedInputStream(
+                new BufferedInputStream(Files.newInputStream(file)), crc))) {
+            int magic = in.readInt();
+            if (magic != LOANS_MAGIC && magic != LOANS_MAGIC_UTF) {
+                throw new IOException("Instantané des emprunts invalide : " + file);
+            }
+            boolean utf = magic == LOANS_MAGIC_UTF;
+            int count = in.readInt();
+            List<String[]> loans = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                String isbn = utf ? in.readUTF() : WriteAheadLog.readText(in);
+                String name = !in.readBoolean() ? null : utf ? in.readUTF() : WriteAheadLog.readText(in);
+                loans.add(new String[] {isbn, name});
+            }
+            int expected = (int) crc.getValue();
+            if (in.readInt() != expected) {
+                throw new IOException("Instantané des emprunts corrompu : " + file);
+            }
+            WriteAheadLog.Handler handler = engine.replayHandler();
+            for (String[] loan : loans) {
+                handler.borrow(loan[0], loan[1]);
+            }
+        }
+    }
+}
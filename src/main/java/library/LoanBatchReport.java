@@ -0,0 +1,75 @@
+package library;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Bilan d'un emprunt ou d'un retour en lot (LibraryEngine.borrowBooks,
+ * returnBooks) : le lot est appliqué en entier ou pas du tout, avec le
+ * résultat de chaque ISBN, dans l'ordre de la demande.
+ */
+public class LoanBatchReport {
+
+    /**
+     * Résultat d'un ISBN du lot.
+     */
+    public enum Outcome {
+        BORROWED,
+        RETURNED,
+        NOT_FOUND,
+        ALREADY_BORROWED,
+        NOT_BORROWED,
+        /** ISBN déjà présent plus haut dans le lot (sous cette écriture ou une autre). */
+        DUPLICATE,
+        /** Le lot dépasserait la limite d'emprunts de l'emprunteur. */
+        LOAN_LIMIT,
+        /** ISBN valable, mais le lot a été refusé à cause d'un autre. */
+        NOT_APPLIED
+    }
+
+    private final boolean applied;
+    private final List<Item> items;
+
+    LoanBatchReport(boolean applied, List<Item> items) {
+        this.applied = applied;
+        this.items = Collections.unmodifiableList(items);
+    }
+
+    /** Vrai si tout le lot a été appliqué. */
+    public boolean isApplied() {
+        return applied;
+    }
+
+    public List<Item> getItems() {
+        return items;
+    }
+
+    @Override
+    public String toString() {
+        return (applied ? "applied: " : "rejected: ") + items;
+    }
+
+    /**
+     * Un ISBN du lot, son résultat et, pour un retour, l'emprunteur qui l'avait.
+     */
+    public static class Item {
+        private final String isbn;
+        private final Outcome outcome;
+        private final String borrowerName;
+
+        Item(String isbn, Outcome outcome, String borrowerName) {
+            this.isbn = isbn;
+            this.outcome = outcome;
+            this.borrowerName = borrowerName;
+        }
+
+        public String getIsbn() { return isbn; }
+        public Outcome getOutcome() { return outcome; }
+        public String getBorrowerName() { return borrowerName; }
+
+        @Override
+        public String toString() {
+            return isbn + ": " + outcome;
+        }
+    }
+}
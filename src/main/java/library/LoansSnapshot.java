@@ -0,0 +1,84 @@
+package library;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.ToIntFunction;
+
+/**
+ * Vue immuable des emprunts à un instant donné.
+ *
+ * Retient la table persistante de chaque shard (O(shards), aucune copie) ;
+ * les emprunts et retours ultérieurs n'y sont pas visibles. Les tables sont
+ * indexées par Isbn.loanKey ; la vue présente les formes canoniques des ISBN
+ * (Isbn.canonical) et une recherche accepte toute écriture équivalente.
+ */
+final class LoansSnapshot extends AbstractMap<String, Borrower> {
+    private final PersistentMap<Object, Borrower>[] shards;
+    private final ToIntFunction<String> router;
+    private final int size;
+
+    LoansSnapshot(PersistentMap<Object, Borrower>[] shards, ToIntFunction<String> router) {
+        this.shards = shards;
+        this.router = router;
+        int total = 0;
+        for (PersistentMap<Object, Borrower> shard : shards) {
+            total += shard.size();
+        }
+        this.size = total;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Borrower get(Object key) {
+        return (key instanceof String)
+                ? shards[router.applyAsInt((String) key)].get(Isbn.loanKey((String) key)) : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return (key instanceof String)
+                && shards[router.applyAsInt((String) key)].containsKey(Isbn.loanKey((String) key));
+    }
+
+    @Override
+    public Set<Entry<String, Borrower>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public int size() {
+                return size;
+            }
+
+            @Override
+            public Iterator<Entry<String, Borrower>> iterator() {
+                return new Iterator<>() {
+                    private int shard;
+                    private Iterator<Entry<Object, Borrower>> current = shards.length > 0
+                            ? shards[0].iterator() : null;
+
+                    @Override
+                    public boolean hasNext() {
+                        while (current != null && !current.hasNext()) {
+                            shard++;
+                            current = (shard < shards.length) ? shards[shard].iterator() : null;
+                        }
+                        return current != null;
+                    }
+
+                    @Override
+                    public Entry<String, Borrower> next() {
+                        if (!hasNext()) throw new NoSuchElementException();
+                        Entry<Object, Borrower> entry = current.next();
+                        return new SimpleImmutableEntry<>(Isbn.fromLoanKey(entry.getKey()), entry.getValue());
+                    }
+                };
+            }
+        };
+    }
+}
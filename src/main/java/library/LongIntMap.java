@@ -0,0 +1,122 @@
+package library;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * Table long -> int à adressage ouvert (sondage linéaire), sans objet par
+ * entrée ni boxing : deux tableaux primitifs.
+ *
+ * La clé 0 est réservée (case vide) ; les clés ISBN empaquetées ne la
+ * prennent jamais. Pas de suppression : les index sont reconstruits en
+ * remplaçant le catalogue.
+ *
+ * Un seul écrivain, lecteurs concurrents sans verrou : la valeur est écrite
+ * avant la clé (écriture release), qu'un lecteur lit en acquire ; un
+ * agrandissement construit une nouvelle table complète, publiée d'un bloc.
+ */
+final class LongIntMap {
+    static final int ABSENT = -1;
+    // Plus grande table : au-delà, la capacité ne tient plus dans un int
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    private static final VarHandle KEYS = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final VarHandle VALUES = MethodHandles.arrayElementVarHandle(int[].class);
+
+    private static final class Table {
+        final long[] keys;
+        final int[] values;
+        final int mask;
+
+        Table(int capacity) {
+            keys = new long[capacity];
+            values = new int[capacity];
+            mask = capacity - 1;
+        }
+    }
+
+    private volatile Table table = new Table(16);
+    private volatile int size;
+
+    /**
+     * Valeur associée à key, ou ABSENT.
+     */
+    int get(long key) {
+        Table current = table;
+        for (int slot = slot(key, current.mask); ; slot = (slot + 1) & current.mask) {
+            long k = (long) KEYS.getAcquire(current.keys, slot);
+            if (k == key) return (int) VALUES.getAcquire(current.values, slot);
+            if (k == 0) return ABSENT;
+        }
+    }
+
+    /**
+     * Associe value à key si key est absente. Retourne false sinon (la
+     * première valeur est conservée). Réservé à l'écrivain.
+     */
+    boolean putIfAbsent(long key, int value) {
+        if (key == 0) throw new IllegalArgumentException("Clé 0 réservée");
+        Table current = table;
+        // En long : (size + 1) * 4 dépasserait un int au-delà de 536 millions d'entrées
+        if ((size + 1L) * 4 > current.keys.length * 3L) {
+            current = grow(current);
+        }
+        int slot = slot(key, current.mask);
+        while (true) {
+            long k = current.keys[slot];
+            if (k == key) return false;
+            if (k == 0) break;
+            slot = (slot + 1) & current.mask;
+        }
+        current.values[slot] = value;
+        KEYS.setRelease(current.keys, slot, key);
+        size++;
+        return true;
+    }
+
+    /**
+     * Associe value à key, en remplaçant la valeur précédente. Réservé à
+     * l'écrivain ; la nouvelle valeur est publiée en release : ce que
+     * l'écrivain a écrit avant est visible de qui la lit.
+     */
+    void put(long key, int value) {
+        Table current = table;
+        for (int slot = slot(key, current.mask); ; slot = (slot + 1) & current.mask) {
+            long k = current.keys[slot];
+            if (k == key) {
+                VALUES.setRelease(current.values, slot, value);
+                return;
+            }
+            if (k == 0) break;
+        }
+        putIfAbsent(key, value);
+    }
+
+    int size() {
+        return size;
+    }
+
+    private Table grow(Table current) {
+        if (current.keys.length >= MAX_CAPACITY) {
+            throw new IllegalStateException("Table pleine (" + size + " entrées)");
+        }
+        Table grown = new Table(current.keys.length * 2);
+        for (int i = 0; i < current.keys.length; i++) {
+            long key = current.keys[i];
+            if (key == 0) continue;
+            int slot = slot(key, grown.mask);
+            while (grown.keys[slot] != 0) {
+                slot = (slot + 1) & grown.mask;
+            }
+            grown.keys[slot] = key;
+            grown.values[slot] = current.values[i];
+        }
+        table = grown;
+        return grown;
+    }
+
+    private static int slot(long key, int mask) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+}
@@ -0,0 +1,70 @@
+package library;
+
+import java.util.Arrays;
+
+/**
+ * Liste de long primitifs en ajout seul.
+ * Même protocole que AppendOnlyList : un seul écrivain, lecteurs sans verrou.
+ */
+class LongList {
+    private volatile long[] values = new long[16];
+    private volatile int size;
+
+    void add(long value) {
+        long[] current = values;
+        int n = size;
+        if (n == current.length) {
+            current = Arrays.copyOf(current, n * 2);
+            values = current;
+        }
+        current[n] = value;
+        size = n + 1;
+    }
+
+    /**
+     * Ajoute values[from, to) avec une seule publication de la taille.
+     */
+    void addAll(long[] batch, int from, int to) {
+        long[] current = values;
+        int n = size;
+        int count = to - from;
+        if (n + count > current.length) {
+            current = Arrays.copyOf(current, Math.max(current.length * 2, n + count));
+            values = current;
+        }
+        System.arraycopy(batch, from, current, n, count);
+        size = n + count;
+    }
+
+    long get(int index) {
+        return values[index];
+    }
+
+    int size() {
+        return size;
+    }
+
+    long[] toArray() {
+        int n = size;
+        return Arrays.copyOf(values, n);
+    }
+
+    /**
+     * Première position de [0, limit) dont la valeur dépasse strictement value
+     * (les valeurs sont croissantes), ou limit si aucune.
+     */
+    int firstGreaterThan(long value, int limit) {
+        long[] current = values;
+        int low = 0;
+        int high = limit;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (current[mid] <= value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,732 @@
+package library;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Catalogue binaire sur disque, ouvert par projection en mémoire (FileChannel.map).
+ *
+ * L'ouverture ne lit que l'en-tête : les notices, la table des positions et
+ * l'index ISBN restent sur disque et ne sont chargés par le système qu'au
+ * premier accès à leurs pages. Les livres sont décodés à la demande, champ par
+ * champ quand un seul suffit (auteur, titre). Le temps de démarrage ne dépend
+ * donc plus de la taille du catalogue.
+ *
+ * Format (big-endian) :
+ * - en-tête de 64 octets : magic, version, nombre de livres, décalage d'un
+ *   segment, début de la table des positions, début et taille de l'index ISBN ;
+ * - notices : isbn, titre, auteur (longueur sur 2 octets puis UTF-8, 0xFFFF
+ *   pour null), année (4 octets). Une notice ne chevauche jamais deux segments ;
+ * - table des positions : un long par livre, décalage de sa notice ;
+ * - index ISBN : table à adressage ouvert (numéro de livre + 1, 0 = vide),
+ *   le premier livre d'un ISBN y est seul référencé, comme dans IsbnIndex.
+ *   Depuis la version 2, le hachage porte sur la forme canonique de l'ISBN
+ *   (Isbn.canonical) ; les fichiers de version 1 restent lisibles ;
+ * - depuis la version 3, filtre de Bloom des ISBN (BloomFilter), décrit dans
+ *   l'en-tête (début, nombre de blocs, de sondes et d'ISBN distincts) : un
+ *   ISBN absent du filtre est absent du fichier sans sonder l'index.
+ *   Les fichiers de version 1 et 2 restent lisibles, sans filtre ;
+ * - depuis la version 4, les doublons d'ISBN : un long par livre qui n'est
+ *   pas le premier de son ISBN (position du premier sur 32 bits, puis la
+ *   sienne), triés ; leur nombre est dans l'en-tête. Les fichiers plus
+ *   anciens les retrouvent en sondant l'index pour chaque livre, une fois.
+ *
+ * Le fichier est en lecture seule ; la position d'un livre est aussi son
+ * numéro d'ordre, les livres ajoutés ensuite au moteur viennent après.
+ */
+final class MappedCatalog implements CatalogReader {
+    static final long MAGIC = 0x4C49424341543031L; // "LIBCAT01"
+    static final int VERSION = 4;
+    static final int HEADER_SIZE = 64;
+    /** Segments de 1 Go : un MappedByteBuffer est limité à 2 Go. */
+    static final int DEFAULT_SEGMENT_SHIFT = 30;
+
+    private static final int NULL_LENGTH = 0xFFFF;
+    private static final int MAX_FIELD_LENGTH = NULL_LENGTH - 1;
+
+    private final MappedByteBuffer[] segments;
+    private final int segmentShift;
+    private final long segmentMask;
+    private final int size;
+    private final long offsetsStart;
+    private final long hashStart;
+    private final int hashMask;
+    // Version 1 : index haché sur l'ISBN tel qu'écrit
+    private final boolean canonicalKeys;
+    // Filtre de Bloom des ISBN (version 3), 0 bloc sans filtre
+    private final long bloomStart;
+    private final int bloomBlocks;
+    private final int bloomHashes;
+    private final int distinctIsbns;
+    // Doublons d'ISBN (version 4), -1 pour un fichier plus ancien
+    private final long duplicatesStart;
+    private final int duplicateCount;
+    private final LongAdder isbnLookups = new LongAdder();
+    private final LongAdder filteredLookups = new LongAdder();
+    private final LongAdder falsePositives = new LongAdder();
+    // Index des auteurs du fichier, construit à la première recherche par auteur
+    private volatile AuthorTrigramIndex authorIndex;
+    // Index des années du fichier, construit à la première recherche par année
+    private volatile YearIndex yearIndex;
+    // Index des livres presque identiques, s'il est activé : construit à la
+    // première recherche
+    private volatile boolean similarityEnabled;
+    private volatile SimilarityIndex similarityIndex;
+    // Fichiers de version 1 à 3 : position du premier livre d'un ISBN ->
+    // positions de ses doublons, construit au premier besoin
+    private volatile Map<Integer, IntList> legacyDuplicates;
+    private volatile RoaringBitmap borrowed = RoaringBitmap.EMPTY;
+    private final Object borrowedLock = new Object();
+
+    private MappedCatalog(MappedByteBuffer[] segments, int segmentShift, int size,
+                          long offsetsStart, long hashStart, int hashSlots, boolean canonicalKeys,
+                          long bloomStart, int bloomBlocks, int bloomHashes, int distinctIsbns,
+                          long duplicatesStart, int duplicateCount) {
+        this.segments = segments;
+        this.segmentShift = segmentShift;
+        this.segmentMask = (1L << segmentShift) - 1;
+        this.size = size;
+        this.offsetsStart = offsetsStart;
+        this.hashStart = hashStart;
+        this.hashMask = hashSlots - 1;
+        this.canonicalKeys = canonicalKeys;
+        this.bloomStart = bloomStart;
+        this.bloomBlocks = bloomBlocks;
+        this.bloomHashes = bloomHashes;
+        this.distinctIsbns = distinctIsbns;
+        this.duplicatesStart = duplicatesStart;
+        this.duplicateCount = duplicateCount;
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    // Ouverture
+    // ═══════════════════════════════════════════════════════════
+
+    /**
+     * Projette le fichier en mémoire et lit son en-tête.
+     * Les projections restent valides après la fermeture du canal.
+     */
+    static MappedCatalog open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long length = channel.size();
+            if (length < HEADER_SIZE) {
+                throw new IOException("Fichier catalogue invalide : " + file);
+            }
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+            if (header.getLong(0) != MAGIC) {
+                throw new IOException("Fichier catalogue invalide : " + file);
+            }
+            int version = header.getInt(8);
+            if (version < 1 || version > VERSION) {
+                throw new IOException("Version de catalogue non prise en charge : " + version);
+            }
+            int size = header.getInt(12);
+            int segmentShift = header.getInt(16);
+            long offsetsStart = header.getLong(24);
+            long hashStart = header.getLong(32);
+            int hashSlots = header.getInt(40);
+            long bloomStart = (version >= 3) ? header.getLong(48) : length;
+            int bloomBlocks = (version >= 3) ? header.getInt(56) : 0;
+            int bloomHashes = (version >= 3) ? header.getInt(60) : 0;
+            int distinctIsbns = (version >= 3) ? header.getInt(44) : size;
+            long duplicatesStart = (version >= 4) ? bloomStart + 8L * BloomFilter.BLOCK_WORDS * bloomBlocks : length;
+            int duplicateCount = (version >= 4) ? header.getInt(20) : 0;
+            if (segmentShift < 6 || segmentShift > DEFAULT_SEGMENT_SHIFT
+                    || hashStart + 4L * hashSlots != bloomStart
+                    || bloomStart + 8L * BloomFilter.BLOCK_WORDS * bloomBlocks != duplicatesStart
+                    || duplicateCount < 0 || duplicatesStart + 8L * duplicateCount != length) {
+                throw new IOException("Fichier catalogue tronqué ou corrompu : " + file);
+            }
+
+            long segmentSize = 1L << segmentShift;
+            MappedByteBuffer[] segments = new MappedByteBuffer[(int) ((length + segmentSize - 1) >>> segmentShift)];
+            for (int i = 0; i < segments.length; i++) {
+                long start = (long) i << segmentShift;
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(segmentSize, length - start));
+            }
+            return new MappedCatalog(segments, segmentShift, size, offsetsStart, hashStart, hashSlots, version >= 2,
+                    bloomStart, bloomBlocks, bloomHashes, distinctIsbns,
+                    (version >= 4) ? duplicatesStart : -1, duplicateCount);
+        }
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    // Lecture
+    // ═══════════════════════════════════════════════════════════
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Book get(int position) {
+        long offset = recordOffset(position);
+        byte[][] fields = new byte[3][];
+        for (int i = 0; i < 3; i++) {
+            fields[i] = readField(offset);
+            offset += 2 + fieldLength(offset);
+        }
+        return new Book(decode(fields[0]), decode(fields[1]), decode(fields[2]), getInt(offset));
+    }
+
+    /** Position = numéro d'ordre : le fichier précède tout ajout ultérieur. */
+    @Override
+    public long sequence(int position) {
+        return position;
+    }
+
+    @Override
+    public int firstPositionAfter(long sequence, int size) {
+        return (int) Math.max(0, Math.min(sequence + 1, size));
+    }
+
+    @Override
+    public Book byIsbn(String isbn) {
+        int position = positionOf(isbn);
+        return (position != IsbnIndex.ABSENT) ? get(position) : null;
+    }
+
+    /**
+     * Consulte d'abord le filtre de Bloom : un ISBN absent du filtre coûte
+     * un bloc du filtre, ni notice ni index. Sinon, sonde l'index ISBN du
+     * fichier en comparant les octets sur place ; un ISBN valide écrit
+     * autrement n'est décodé que si les octets diffèrent.
+     */
+    @Override
+    public int positionOf(String isbn) {
+        if (isbn == null || size == 0) return IsbnIndex.ABSENT;
+        if (bloomBlocks > 0) {
+            isbnLookups.increment();
+            if (!BloomFilter.mightContain(this::bloomWord, bloomBlocks, bloomHashes, isbn)) {
+                filteredLookups.increment();
+                return IsbnIndex.ABSENT;
+            }
+            int position = probe(isbn);
+            if (position == IsbnIndex.ABSENT) falsePositives.increment();
+            return position;
+        }
+        return probe(isbn);
+    }
+
+    private long bloomWord(int index) {
+        return getLong(bloomStart + 8L * index);
+    }
+
+    /**
+     * Statistiques du filtre de Bloom (filtre vide pour un fichier de version 1 ou 2).
+     */
+    IsbnFilterStats filterStats() {
+        long bits = (long) bloomBlocks * BloomFilter.BLOCK_BITS;
+        return new IsbnFilterStats(bits, bloomHashes, (bloomBlocks > 0) ? distinctIsbns : 0,
+                BloomFilter.expectedFalsePositiveRate(bits, bloomHashes, distinctIsbns),
+                isbnLookups.sum(), filteredLookups.sum(), falsePositives.sum());
+    }
+
+    private int probe(String isbn) {
+        byte[] key = isbn.getBytes(StandardCharsets.UTF_8);
+        long packed = canonicalKeys ? Isbn.pack(isbn) : Isbn.INVALID;
+        for (int slot = slotOf(isbn); ; slot = (slot + 1) & hashMask) {
+            int entry = getInt(hashStart + 4L * slot);
+            if (entry == 0) return IsbnIndex.ABSENT;
+            long record = recordOffset(entry - 1);
+            if (fieldEquals(record, key)
+                    || (packed != Isbn.INVALID && Isbn.pack(decode(readField(record))) == packed)) {
+                return entry - 1;
+            }
+        }
+    }
+
+    String isbn(int position) {
+        return decode(readField(recordOffset(position)));
+    }
+
+    /**
+     * Les doublons sont lus dans la liste triée du fichier (recherche
+     * dichotomique) : aucun parcours, même au premier appel.
+     */
+    @Override
+    public int[] positionsOf(String isbn) {
+        int first = positionOf(isbn);
+        if (first == IsbnIndex.ABSENT) return new int[0];
+        if (duplicatesStart >= 0) return withDuplicates(first);
+        IntList others = legacyDuplicates().get(first);
+        if (others == null) return new int[]{first};
+        int[] rest = others.toArray();
+        int[] all = new int[rest.length + 1];
+        all[0] = first;
+        System.arraycopy(rest, 0, all, 1, rest.length);
+        return all;
+    }
+
+    @Override
+    public boolean hasBookWithTitle(String title) {
+        return indexOfTitle(title, 0, size) >= 0;
+    }
+
+    @Override
+    public int indexOfTitle(String title, int from, int to) {
+        for (int i = from; i < to; i++) {
+            String candidate = title(i);
+            if (candidate != null && candidate.equalsIgnoreCase(title)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * La première recherche construit l'index des trigrammes en décodant les
+     * seuls auteurs ; les suivantes l'utilisent comme pour un Catalog.
+     */
+    @Override
+    public int[] findByAuthor(String author) {
+        return authorIndex().search(author);
+    }
+
+    @Override
+    public int estimateByAuthor(String author) {
+        return authorIndex().estimate(author);
+    }
+
+    @Override
+    public int year(int position) {
+        long offset = recordOffset(position);
+        offset += 2 + fieldLength(offset);
+        offset += 2 + fieldLength(offset);
+        offset += 2 + fieldLength(offset);
+        return getInt(offset);
+    }
+
+    /**
+     * La première recherche construit l'index des années en ne lisant que
+     * la colonne des années.
+     */
+    @Override
+    public int[] findByYearRange(int from, int to) {
+        return yearIndex().range(from, to);
+    }
+
+    @Override
+    public int countByYearRange(int from, int to) {
+        return yearIndex().count(from, to);
+    }
+
+    @Override
+    public int[] findSimilar(String title, String author) {
+        if (!similarityEnabled) return SimilarityIndex.scan(title, author, size, this::get);
+        return similarityIndex().search(title, author, this::get);
+    }
+
+    @Override
+    public void setSimilarityIndex(boolean enabled) {
+        similarityEnabled = enabled;
+        if (!enabled) similarityIndex = null;
+    }
+
+    String title(int position) {
+        long offset = recordOffset(position);
+        offset += 2 + fieldLength(offset);
+        return decode(readField(offset));
+    }
+
+    String author(int position) {
+        long offset = recordOffset(position);
+        offset += 2 + fieldLength(offset);
+        offset += 2 + fieldLength(offset);
+        return decode(readField(offset));
+    }
+
+    private AuthorTrigramIndex authorIndex() {
+        AuthorTrigramIndex index = authorIndex;
+        if (index == null) {
+            synchronized (this) {
+                index = authorIndex;
+                if (index == null) {
+                    List<String> authors = new ArrayList<>(size);
+                    for (int i = 0; i < size; i++) {
+                        authors.add(author(i));
+                    }
+                    index = new AuthorTrigramIndex();
+                    index.addAll(0, authors);
+                    authorIndex = index;
+                }
+            }
+        }
+        return index;
+    }
+
+    // first suivi des positions de ses doublons, lues dans le fichier
+    private int[] withDuplicates(int first) {
+        long key = (long) first << 32;
+        int low = 0;
+        int high = duplicateCount;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (duplicate(middle) < key) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        IntList all = new IntList();
+        all.add(first);
+        for (int i = low; i < duplicateCount && (duplicate(i) >>> 32) == first; i++) {
+            all.add((int) duplicate(i));
+        }
+        return all.toArray();
+    }
+
+    private long duplicate(int index) {
+        return getLong(duplicatesStart + 8L * index);
+    }
+
+    /**
+     * Fichiers de version 1 à 3 : le premier appel sonde l'index ISBN pour
+     * chaque livre du fichier ; un livre qui n'est pas le premier de son
+     * ISBN est un doublon. Le point de reprise suivant écrit la version 4.
+     */
+    private Map<Integer, IntList> legacyDuplicates() {
+        Map<Integer, IntList> map = legacyDuplicates;
+        if (map == null) {
+            synchronized (this) {
+                map = legacyDuplicates;
+                if (map == null) {
+                    map = new HashMap<>();
+                    for (int i = 0; i < size; i++) {
+                        String isbn = isbn(i);
+                        int first = (isbn != null) ? positionOf(isbn) : i;
+                        if (first != i) {
+                            map.computeIfAbsent(first, k -> new IntList()).add(i);
+                        }
+                    }
+                    legacyDuplicates = map;
+                }
+            }
+        }
+        return map;
+    }
+
+    private YearIndex yearIndex() {
+        YearIndex index = yearIndex;
+        if (index == null) {
+            synchronized (this) {
+                index = yearIndex;
+                if (index == null) {
+                    int[] years = new int[size];
+                    for (int i = 0; i < size; i++) {
+                        years[i] = year(i);
+                    }
+                    index = new YearIndex();
+                    index.addAll(0, years);
+                    yearIndex = index;
+                }
+            }
+        }
+        return index;
+    }
+
+    private SimilarityIndex similarityIndex() {
+        SimilarityIndex index = similarityIndex;
+        if (index == null) {
+            synchronized (this) {
+                index = similarityIndex;
+                if (index == null) {
+                    index = new SimilarityIndex();
+                    for (int i = 0; i < size; i++) {
+                        index.add(i, title(i), author(i));
+                    }
+                    similarityIndex = index;
+                }
+            }
+        }
+        return index;
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    // Emprunts
+    // ═══════════════════════════════════════════════════════════
+
+    @Override
+    public RoaringBitmap borrowedPositions() {
+        return borrowed;
+    }
+
+    @Override
+    public void markBorrowed(String isbn, boolean value) {
+        synchronized (borrowedLock) {
+            RoaringBitmap bits = borrowed;
+            for (int position : positionsOf(isbn)) {
+                bits = value ? bits.with(position) : bits.without(position);
+            }
+            borrowed = bits;
+        }
+    }
+
+    @Override
+    public void markBorrowed(List<String> isbns, boolean value) {
+        synchronized (borrowedLock) {
+            RoaringBitmap bits = borrowed;
+            for (String isbn : isbns) {
+                for (int position : positionsOf(isbn)) {
+                    bits = value ? bits.with(position) : bits.without(position);
+                }
+            }
+            borrowed = bits;
+        }
+    }
+
+    @Override
+    public void clearBorrowed() {
+        synchronized (borrowedLock) {
+            borrowed = RoaringBitmap.EMPTY;
+        }
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    // Accès aux octets
+    // ═══════════════════════════════════════════════════════════
+
+    private long recordOffset(int position) {
+        if (position < 0 || position >= size) {
+            throw new IndexOutOfBoundsException("Index: " + position + ", Size: " + size);
+        }
+        return getLong(offsetsStart + 8L * position);
+    }
+
+    private int getInt(long offset) {
+        return segments[(int) (offset >>> segmentShift)].getInt((int) (offset & segmentMask));
+    }
+
+    private long getLong(long offset) {
+        return segments[(int) (offset >>> segmentShift)].getLong((int) (offset & segmentMask));
+    }
+
+    private int fieldLength(long offset) {
+        int length = segments[(int) (offset >>> segmentShift)].getShort((int) (offset & segmentMask)) & 0xFFFF;
+        return (length == NULL_LENGTH) ? 0 : length;
+    }
+
+    private byte[] readField(long offset) {
+        MappedByteBuffer segment = segments[(int) (offset >>> segmentShift)];
+        int index = (int) (offset & segmentMask);
+        int length = segment.getShort(index) & 0xFFFF;
+        if (length == NULL_LENGTH) return null;
+        byte[] bytes = new byte[length];
+        segment.get(index + 2, bytes);
+        return bytes;
+    }
+
+    private boolean fieldEquals(long offset, byte[] key) {
+        MappedByteBuffer segment = segments[(int) (offset >>> segmentShift)];
+        int index = (int) (offset & segmentMask);
+        if ((segment.getShort(index) & 0xFFFF) != key.length) return false;
+        for (int i = 0; i < key.length; i++) {
+            if (segment.get(index + 2 + i) != key[i]) return false;
+        }
+        return true;
+    }
+
+    private static String decode(byte[] bytes) {
+        return (bytes != null) ? new String(bytes, StandardCharsets.UTF_8) : null;
+    }
+
+    private int slotOf(String isbn) {
+        return hashSlot(canonicalKeys ? Isbn.canonical(isbn) : isbn, hashMask);
+    }
+
+    // String.hashCode est fixé par la spécification : stable d'une JVM à l'autre
+    private static int hashSlot(String isbn, int mask) {
+        int h = isbn.hashCode() * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    // Écriture
+    // ═══════════════════════════════════════════════════════════
+
+    static void write(Path file, Collection<Book> books) throws IOException {
+        write(file, books, DEFAULT_SEGMENT_SHIFT);
+    }
+
+    /**
+     * Écrit le catalogue dans un fichier temporaire puis le renomme
+     * atomiquement : un fichier ouvert par ailleurs n'est jamais modifié en place.
+     */
+    static void write(Path file, Collection<Book> books, int segmentShift) throws IOException {
+        int count = books.size();
+        long segmentSize = 1L << segmentShift;
+        long[] offsets = new long[count];
+        String[] isbns = new String[count];
+        int slots = Integer.highestOneBit(Math.max(2, count) * 2 - 1) << 1;
+        int[] table = new int[slots];
+        BloomFilter filter = BloomFilter.forCapacity(count, BloomFilter.DEFAULT_FALSE_POSITIVE_RATE);
+        int distinct = 0;
+        LongList duplicates = new LongList();
+
+        Path absolute = file.toAbsolutePath();
+        Path temp = Files.createTempFile(absolute.getParent(), absolute.getFileName().toString(), ".tmp");
+        try {
+            long offsetsStart;
+            long hashStart;
+            long bloomStart;
+            CountingStream counter = new CountingStream(new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16));
+            try (DataOutputStream out = new DataOutputStream(counter)) {
+                out.write(new byte[HEADER_SIZE]);
+
+                int n = 0;
+                for (Book book : books) {
+                    if (n == count) {
+                        throw new IllegalStateException("Le catalogue a changé pendant l'écriture");
+                    }
+                    byte[] isbn = encode(book.getIsbn());
+                    byte[] title = encode(book.getTitle());
+                    byte[] author = encode(book.getAuthor());
+                    int recordLength = 6 + length(isbn) + length(title) + length(author) + 4;
+                    if (recordLength > segmentSize) {
+                        throw new IllegalArgumentException("Notice trop longue pour le fichier catalogue : " + book);
+                    }
+                    long position = counter.count;
+                    if ((position >>> segmentShift) != ((position + recordLength - 1) >>> segmentShift)) {
+                        padTo(out, counter, (position | (segmentSize - 1)) + 1);
+                    }
+                    offsets[n] = counter.count;
+                    isbns[n] = Isbn.canonical(book.getIsbn());
+                    writeField(out, isbn);
+                    writeField(out, title);
+                    writeField(out, author);
+                    out.writeInt(book.getYear());
+                    int first = insertFirst(table, isbns, n);
+                    if (first == n) {
+                        filter.add(isbns[n]);
+                        distinct++;
+                    } else if (first >= 0) {
+                        duplicates.add(((long) first << 32) | n);
+                    }
+                    n++;
+                }
+                if (n != count) {
+                    throw new IllegalStateException("Le catalogue a changé pendant l'écriture");
+                }
+
+                padTo(out, counter, (counter.count + 7) & ~7L);
+                offsetsStart = counter.count;
+                for (long offset : offsets) {
+                    out.writeLong(offset);
+                }
+                hashStart = counter.count;
+                for (int entry : table) {
+                    out.writeInt(entry);
+                }
+                bloomStart = counter.count;
+                for (long word : filter.words()) {
+                    out.writeLong(word);
+                }
+                // Premier puis doublon : l'ordre des long est celui des premiers
+                long[] pairs = duplicates.toArray();
+                Arrays.sort(pairs);
+                for (long pair : pairs) {
+                    out.writeLong(pair);
+                }
+            }
+
+            // En-tête écrit en dernier : un fichier interrompu n'a pas de magic valide
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+                header.putLong(0, MAGIC).putInt(8, VERSION).putInt(12, count).putInt(16, segmentShift)
+                        .putInt(20, duplicates.size())
+                        .putLong(24, offsetsStart).putLong(32, hashStart).putInt(40, slots).putInt(44, distinct)
+                        .putLong(48, bloomStart).putInt(56, filter.blocks()).putInt(60, filter.hashes());
+                channel.write(header, 0);
+                channel.force(true);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    // Seul le premier livre d'un ISBN est indexé (comme IsbnIndex.put) ;
+    // position du premier livre de l'ISBN (n s'il est nouveau), -1 sans ISBN
+    private static int insertFirst(int[] table, String[] isbns, int n) {
+        String isbn = isbns[n];
+        if (isbn == null) return -1;
+        int mask = table.length - 1;
+        for (int slot = hashSlot(isbn, mask); ; slot = (slot + 1) & mask) {
+            int entry = table[slot];
+            if (entry == 0) {
+                table[slot] = n + 1;
+                return n;
+            }
+            if (isbns[entry - 1].equals(isbn)) {
+                return entry - 1;
+            }
+        }
+    }
+
+    private static void padTo(DataOutputStream out, CountingStream counter, long target) throws IOException {
+        while (counter.count < target) {
+            out.write(0);
+        }
+    }
+
+    private static byte[] encode(String text) {
+        if (text == null) return null;
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_FIELD_LENGTH) {
+            throw new IllegalArgumentException("Champ trop long pour le fichier catalogue (" + bytes.length + " octets)");
+        }
+        return bytes;
+    }
+
+    private static int length(byte[] bytes) {
+        return (bytes != null) ? bytes.length : 0;
+    }
+
+    private static void writeField(DataOutputStream out, byte[] bytes) throws IOException {
+        if (bytes == null) {
+            out.writeShort(NULL_LENGTH);
+        } else {
+            out.writeShort(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    private static final class CountingStream extends FilterOutputStream {
+        long count;
+
+        CountingStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
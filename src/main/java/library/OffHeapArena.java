@@ -0,0 +1,53 @@
+package library;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Allocateur de mémoire hors tas pour les catalogues : distribue des pages
+ * directes (ByteBuffer.allocateDirect) de taille fixe, une puissance de deux.
+ *
+ * Les zones (OffHeapByteStore) ne font qu'ajouter des octets : elles prennent
+ * une page quand la précédente est pleine et ne rendent jamais de mémoire
+ * individuellement. Une page est libérée par le ramasse-miettes avec la
+ * zone qui la référence (catalogue vidé) : le tas ne porte que quelques
+ * objets par page, quel que soit le nombre de livres.
+ *
+ * Partagé par tous les shards d'un moteur : allocate est sûr entre threads.
+ */
+final class OffHeapArena {
+    /** Taille de page par défaut : 1 Mio. */
+    static final int DEFAULT_PAGE_SHIFT = 20;
+
+    private final int pageShift;
+    private final AtomicLong reservedBytes = new AtomicLong();
+
+    OffHeapArena() {
+        this(DEFAULT_PAGE_SHIFT);
+    }
+
+    OffHeapArena(int pageShift) {
+        if (pageShift < 4 || pageShift > 30) {
+            throw new IllegalArgumentException("Taille de page invalide : 2^" + pageShift);
+        }
+        this.pageShift = pageShift;
+    }
+
+    int pageShift() {
+        return pageShift;
+    }
+
+    /**
+     * Réserve une nouvelle page directe.
+     */
+    ByteBuffer allocate() {
+        ByteBuffer page = ByteBuffer.allocateDirect(1 << pageShift);
+        reservedBytes.addAndGet(page.capacity());
+        return page;
+    }
+
+    /** Octets hors tas alloués depuis la création, pages déjà libérées comprises. */
+    long getReservedBytes() {
+        return reservedBytes.get();
+    }
+}
@@ -0,0 +1,105 @@
+package library;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Zone d'octets hors tas, en pages directes prises dans un OffHeapArena.
+ *
+ * L'adresse d'un octet est (page << pageShift) | décalage ; une donnée peut
+ * chevaucher deux pages, les lectures la recomposent. La table des pages est
+ * agrandie par copie et publiée avant l'écriture dans une nouvelle page,
+ * comme dans AppendOnlyList. Les lectures sont absolues (sans position
+ * partagée) : plusieurs lecteurs peuvent lire la même page sans verrou.
+ */
+final class OffHeapByteStore implements ByteStore {
+    private final OffHeapArena arena;
+    private final int pageShift;
+    private final int pageMask;
+    private volatile ByteBuffer[] pages = new ByteBuffer[4];
+    private volatile int pageCount;
+    private long length;
+
+    OffHeapByteStore(OffHeapArena arena) {
+        this.arena = arena;
+        this.pageShift = arena.pageShift();
+        this.pageMask = (1 << pageShift) - 1;
+    }
+
+    @Override
+    public long length() {
+        return length;
+    }
+
+    /** Octets hors tas retenus par cette zone. */
+    long reservedBytes() {
+        return (long) pageCount << pageShift;
+    }
+
+    @Override
+    public void append(byte[] source, int offset, int count) {
+        while (count > 0) {
+            ByteBuffer page = pageForWrite();
+            int inPage = (int) (length & pageMask);
+            int chunk = Math.min(count, page.capacity() - inPage);
+            page.put(inPage, source, offset, chunk);
+            offset += chunk;
+            count -= chunk;
+            length += chunk;
+        }
+    }
+
+    @Override
+    public void appendInt(int value) {
+        if ((length & pageMask) <= pageMask - 3) {
+            pageForWrite().putInt((int) (length & pageMask), value);
+            length += 4;
+        } else {
+            append(new byte[] {(byte) (value >>> 24), (byte) (value >>> 16), (byte) (value >>> 8), (byte) value}, 0, 4);
+        }
+    }
+
+    // Page qui contient l'octet d'adresse length, allouée si besoin
+    private ByteBuffer pageForWrite() {
+        int index = (int) (length >>> pageShift);
+        ByteBuffer[] current = pages;
+        if (index < pageCount) return current[index];
+        if (index == current.length) {
+            current = Arrays.copyOf(current, index * 2);
+        }
+        current[index] = arena.allocate();
+        pages = current;
+        pageCount = index + 1;
+        return current[index];
+    }
+
+    @Override
+    public byte get(long address) {
+        return pages[(int) (address >>> pageShift)].get((int) (address & pageMask));
+    }
+
+    @Override
+    public void get(long address, byte[] target, int offset, int count) {
+        ByteBuffer[] current = pages;
+        while (count > 0) {
+            ByteBuffer page = current[(int) (address >>> pageShift)];
+            int inPage = (int) (address & pageMask);
+            int chunk = Math.min(count, page.capacity() - inPage);
+            page.get(inPage, target, offset, chunk);
+            address += chunk;
+            offset += chunk;
+            count -= chunk;
+        }
+    }
+
+    @Override
+    public int getInt(long address) {
+        int inPage = (int) (address & pageMask);
+        if (inPage <= pageMask - 3) {
+            return pages[(int) (address >>> pageShift)].getInt(inPage);
+        }
+        byte[] bytes = new byte[4];
+        get(address, bytes, 0, 4);
+        return (bytes[0] << 24) | ((bytes[1] & 0xFF) << 16) | ((bytes[2] & 0xFF) << 8) | (bytes[3] & 0xFF);
+    }
+}
@@ -0,0 +1,138 @@
+package library;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Parcours des catalogues par morceaux, en parallèle sur le ForkJoinPool
+ * commun, pour les recherches qu'aucun index ne sert (titre, requêtes
+ * sans critère indexé).
+ *
+ * Les segments sont découpés en morceaux de CHUNK_SIZE positions ; les
+ * morceaux sont répartis par division récursive (RecursiveTask), chaque
+ * moitié pouvant être volée par un autre cœur. Les recherches d'existence
+ * s'arrêtent dès qu'un morceau a trouvé : les morceaux non commencés sont
+ * sautés. Les filtres concatènent les résultats des morceaux dans l'ordre,
+ * donc dans l'ordre du catalogue.
+ *
+ * En dessous de LibraryEngine.PARALLEL_SCAN_THRESHOLD positions, le
+ * parcours reste séquentiel : le découpage coûterait plus qu'il ne rapporte.
+ */
+final class ParallelScan {
+    static final int CHUNK_SIZE = 16_384;
+
+    /** Vrai si une position de [from, to) du segment correspond. */
+    interface RangeTest {
+        boolean anyIn(int segment, int from, int to);
+    }
+
+    /** Positions (croissantes) de [from, to) qui correspondent. */
+    interface RangeFilter {
+        int[] filter(int from, int to);
+    }
+
+    private ParallelScan() {
+    }
+
+    /**
+     * Vrai si un morceau d'un des segments (sizes[i] positions pour le
+     * segment i) satisfait test ; s'arrête au premier trouvé.
+     */
+    static boolean anyMatch(int[] sizes, RangeTest test) {
+        long total = 0;
+        List<int[]> chunks = new ArrayList<>();
+        for (int segment = 0; segment < sizes.length; segment++) {
+            total += sizes[segment];
+            for (int from = 0; from < sizes[segment]; from += CHUNK_SIZE) {
+                chunks.add(new int[]{segment, from, Math.min(sizes[segment], from + CHUNK_SIZE)});
+            }
+        }
+        if (total < LibraryEngine.PARALLEL_SCAN_THRESHOLD) {
+            for (int[] chunk : chunks) {
+                if (test.anyIn(chunk[0], chunk[1], chunk[2])) return true;
+            }
+            return false;
+        }
+        return ForkJoinPool.commonPool().invoke(new AnyMatch(chunks, 0, chunks.size(), test, new AtomicBoolean()));
+    }
+
+    /**
+     * Positions de [0, size) retenues par filter, dans l'ordre.
+     */
+    static int[] filter(int size, RangeFilter filter) {
+        if (size < LibraryEngine.PARALLEL_SCAN_THRESHOLD) {
+            return filter.filter(0, size);
+        }
+        int chunks = (size + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        return ForkJoinPool.commonPool().invoke(new Filter(size, 0, chunks, filter));
+    }
+
+    @SuppressWarnings("serial")
+    private static final class AnyMatch extends RecursiveTask<Boolean> {
+        private final List<int[]> chunks;
+        private final int low;
+        private final int high;
+        private final RangeTest test;
+        private final AtomicBoolean found;
+
+        AnyMatch(List<int[]> chunks, int low, int high, RangeTest test, AtomicBoolean found) {
+            this.chunks = chunks;
+            this.low = low;
+            this.high = high;
+            this.test = test;
+            this.found = found;
+        }
+
+        @Override
+        protected Boolean compute() {
+            if (found.get()) return true;
+            if (high - low == 1) {
+                int[] chunk = chunks.get(low);
+                if (test.anyIn(chunk[0], chunk[1], chunk[2])) {
+                    found.set(true);
+                    return true;
+                }
+                return false;
+            }
+            int mid = (low + high) >>> 1;
+            AnyMatch right = new AnyMatch(chunks, mid, high, test, found);
+            right.fork();
+            boolean left = new AnyMatch(chunks, low, mid, test, found).compute();
+            return right.join() || left;
+        }
+    }
+
+    @SuppressWarnings("serial")
+    private static final class Filter extends RecursiveTask<int[]> {
+        private final int size;
+        private final int low;
+        private final int high;
+        private final RangeFilter filter;
+
+        Filter(int size, int low, int high, RangeFilter filter) {
+            this.size = size;
+            this.low = low;
+            this.high = high;
+            this.filter = filter;
+        }
+
+        @Override
+        protected int[] compute() {
+            if (high - low == 1) {
+                return filter.filter(low * CHUNK_SIZE, Math.min(size, (low + 1) * CHUNK_SIZE));
+            }
+            int mid = (low + high) >>> 1;
+            Filter right = new Filter(size, mid, high, filter);
+            right.fork();
+            int[] left = new Filter(size, low, mid, filter).compute();
+            int[] rest = right.join();
+            int[] result = new int[left.length + rest.length];
+            System.arraycopy(left, 0, result, 0, left.length);
+            System.arraycopy(rest, 0, result, left.length, rest.length);
+            return result;
+        }
+    }
+}
@@ -0,0 +1,334 @@
+package library;
+
+import java.util.AbstractMap;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * Table de hachage persistante (hash array mapped trie) : chaque modification
+ * retourne une nouvelle table qui partage la quasi-totalité de ses nœuds avec
+ * l'ancienne. Une table n'est jamais modifiée, donc la conserver coûte O(1) :
+ * c'est ce qui sert d'instantané pour Library.getLoans.
+ *
+ * Nœuds à 32 branches (5 bits de hachage par niveau) ; les clés de même
+ * hachage complet sont rangées dans un nœud de collision.
+ */
+final class PersistentMap<K, V> {
+    private static final PersistentMap<?, ?> EMPTY = new PersistentMap<>(null, 0);
+
+    private final Node root;
+    private final int size;
+
+    private PersistentMap(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <K, V> PersistentMap<K, V> empty() {
+        return (PersistentMap<K, V>) EMPTY;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    V get(Object key) {
+        Entry entry = (root != null) ? root.find(hash(key), key, 0) : null;
+        return (entry != null) ? (V) entry.value : null;
+    }
+
+    boolean containsKey(Object key) {
+        return root != null && root.find(hash(key), key, 0) != null;
+    }
+
+    PersistentMap<K, V> put(K key, V value) {
+        Entry entry = new Entry(hash(key), key, value);
+        if (root == null) {
+            return new PersistentMap<>(Node.single(entry, 0), 1);
+        }
+        boolean[] added = new boolean[1];
+        Node newRoot = root.put(entry, 0, added);
+        if (newRoot == root) return this;
+        return new PersistentMap<>(newRoot, added[0] ? size + 1 : size);
+    }
+
+    PersistentMap<K, V> remove(Object key) {
+        if (root == null) return this;
+        Object newRoot = root.remove(hash(key), key, 0);
+        if (newRoot == root) return this;
+        if (newRoot == null) return empty();
+        Node node = (newRoot instanceof Node) ? (Node) newRoot : Node.single((Entry) newRoot, 0);
+        return new PersistentMap<>(node, size - 1);
+    }
+
+    /**
+     * Parcourt les entrées de cette version de la table.
+     */
+    Iterator<Map.Entry<K, V>> iterator() {
+        return new EntryIterator<>(root);
+    }
+
+    private static int hash(Object key) {
+        int h = Objects.hashCode(key);
+        return h ^ (h >>> 16);
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    // Nœuds
+    // ═══════════════════════════════════════════════════════════
+
+    private static final class Entry {
+        final int hash;
+        final Object key;
+        final Object value;
+
+        Entry(int hash, Object key, Object value) {
+            this.hash = hash;
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+    /** Clés distinctes ayant exactement le même hachage. */
+    private static final class Collision {
+        final int hash;
+        final Entry[] entries;
+
+        Collision(int hash, Entry[] entries) {
+            this.hash = hash;
+            this.entries = entries;
+        }
+
+        int indexOf(Object key) {
+            for (int i = 0; i < entries.length; i++) {
+                if (Objects.equals(entries[i].key, key)) return i;
+            }
+            return -1;
+        }
+    }
+
+    /** Nœud interne : un bit par branche occupée, slots compactés (Entry, Collision ou Node). */
+    private static final class Node {
+        final int bitmap;
+        final Object[] slots;
+
+        Node(int bitmap, Object[] slots) {
+            this.bitmap = bitmap;
+            this.slots = slots;
+        }
+
+        static Node single(Entry entry, int shift) {
+            return new Node(bit(entry.hash, shift), new Object[] { entry });
+        }
+
+        Entry find(int hash, Object key, int shift) {
+            Node node = this;
+            while (true) {
+                int bit = bit(hash, shift);
+                if ((node.bitmap & bit) == 0) return null;
+                Object slot = node.slots[Integer.bitCount(node.bitmap & (bit - 1))];
+                if (slot instanceof Entry) {
+                    Entry e = (Entry) slot;
+                    return (e.hash == hash && Objects.equals(e.key, key)) ? e : null;
+                }
+                if (slot instanceof Collision) {
+                    Collision c = (Collision) slot;
+                    int i = (c.hash == hash) ? c.indexOf(key) : -1;
+                    return (i >= 0) ? c.entries[i] : null;
+                }
+                node = (Node) slot;
+                shift += 5;
+            }
+        }
+
+        Node put(Entry entry, int shift, boolean[] added) {
+            int bit = bit(entry.hash, shift);
+            int index = Integer.bitCount(bitmap & (bit - 1));
+            if ((bitmap & bit) == 0) {
+                added[0] = true;
+                Object[] newSlots = new Object[slots.length + 1];
+                System.arraycopy(slots, 0, newSlots, 0, index);
+                newSlots[index] = entry;
+                System.arraycopy(slots, index, newSlots, index + 1, slots.length - index);
+                return new Node(bitmap | bit, newSlots);
+            }
+
+            Object slot = slots[index];
+            Object replacement;
+            if (slot instanceof Node) {
+                replacement = ((Node) slot).put(entry, shift + 5, added);
+            } else if (slot instanceof Entry) {
+                Entry existing = (Entry) slot;
+                if (existing.hash == entry.hash && Objects.equals(existing.key, entry.key)) {
+                    if (existing.value == entry.value) return this;
+                    replacement = entry;
+                } else {
+                    added[0] = true;
+                    replacement = merge(existing, existing.hash, entry, shift + 5);
+                }
+            } else {
+                Collision c = (Collision) slot;
+                if (c.hash == entry.hash) {
+                    int i = c.indexOf(entry.key);
+                    Entry[] entries;
+                    if (i >= 0) {
+                        if (c.entries[i].value == entry.value) return this;
+                        entries = c.entries.clone();
+                        entries[i] = entry;
+                    } else {
+                        added[0] = true;
+                        entries = Arrays.copyOf(c.entries, c.entries.length + 1);
+                        entries[c.entries.length] = entry;
+                    }
+                    replacement = new Collision(c.hash, entries);
+                } else {
+                    added[0] = true;
+                    replacement = merge(c, c.hash, entry, shift + 5);
+                }
+            }
+            if (replacement == slot) return this;
+            Object[] newSlots = slots.clone();
+            newSlots[index] = replacement;
+            return new Node(bitmap, newSlots);
+        }
+
+        /**
+         * Retourne this si la clé est absente, null si le nœud devient vide,
+         * une Entry si une seule entrée subsiste (remontée d'un niveau).
+         */
+        Object remove(int hash, Object key, int shift) {
+            int bit = bit(hash, shift);
+            if ((bitmap & bit) == 0) return this;
+            int index = Integer.bitCount(bitmap & (bit - 1));
+            Object slot = slots[index];
+
+            Object replacement;
+            if (slot instanceof Entry) {
+                Entry e = (Entry) slot;
+                if (e.hash != hash || !Objects.equals(e.key, key)) return this;
+                replacement = null;
+            } else if (slot instanceof Collision) {
+                Collision c = (Collision) slot;
+                int i = (c.hash == hash) ? c.indexOf(key) : -1;
+                if (i < 0) return this;
+                if (c.entries.length == 2) {
+                    replacement = c.entries[1 - i];
+                } else {
+                    Entry[] entries = new Entry[c.entries.length - 1];
+                    System.arraycopy(c.entries, 0, entries, 0, i);
+                    System.arraycopy(c.entries, i + 1, entries, i, entries.length - i);
+                    replacement = new Collision(c.hash, entries);
+                }
+            } else {
+                replacement = ((Node) slot).remove(hash, key, shift + 5);
+                if (replacement == slot) return this;
+            }
+
+            if (replacement == null) {
+                if (slots.length == 1) return null;
+                if (slots.length == 2 && shift > 0 && slots[1 - index] instanceof Entry) {
+                    return slots[1 - index];
+                }
+                Object[] newSlots = new Object[slots.length - 1];
+                System.arraycopy(slots, 0, newSlots, 0, index);
+                System.arraycopy(slots, index + 1, newSlots, index, newSlots.length - index);
+                return new Node(bitmap & ~bit, newSlots);
+            }
+            if (slots.length == 1 && shift > 0 && replacement instanceof Entry) {
+                return replacement;
+            }
+            Object[] newSlots = slots.clone();
+            newSlots[index] = replacement;
+            return new Node(bitmap, newSlots);
+        }
+
+        private static Object merge(Object existing, int existingHash, Entry entry, int shift) {
+            if (shift >= 32) {
+                Entry[] entries = (existing instanceof Entry)
+                        ? new Entry[] { (Entry) existing, entry }
+                        : append(((Collision) existing).entries, entry);
+                return new Collision(entry.hash, entries);
+            }
+            int existingBit = bit(existingHash, shift);
+            int newBit = bit(entry.hash, shift);
+            if (existingBit == newBit) {
+                return new Node(existingBit, new Object[] { merge(existing, existingHash, entry, shift + 5) });
+            }
+            Object[] slots = (Integer.compareUnsigned(existingBit, newBit) < 0)
+                    ? new Object[] { existing, entry }
+                    : new Object[] { entry, existing };
+            return new Node(existingBit | newBit, slots);
+        }
+
+        private static Entry[] append(Entry[] entries, Entry entry) {
+            Entry[] copy = Arrays.copyOf(entries, entries.length + 1);
+            copy[entries.length] = entry;
+            return copy;
+        }
+
+        private static int bit(int hash, int shift) {
+            return 1 << ((hash >>> shift) & 31);
+        }
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    // Parcours
+    // ═══════════════════════════════════════════════════════════
+
+    private static final class EntryIterator<K, V> implements Iterator<Map.Entry<K, V>> {
+        private final Deque<Object[]> stack = new ArrayDeque<>();
+        private final Deque<Integer> indexes = new ArrayDeque<>();
+        private Object[] pending = new Object[0];
+        private int pendingIndex;
+
+        EntryIterator(Node root) {
+            if (root != null) {
+                stack.push(root.slots);
+                indexes.push(0);
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (pendingIndex < pending.length) return true;
+            while (!stack.isEmpty()) {
+                Object[] slots = stack.peek();
+                int index = indexes.pop();
+                if (index == slots.length) {
+                    stack.pop();
+                    continue;
+                }
+                indexes.push(index + 1);
+                Object slot = slots[index];
+                if (slot instanceof Node) {
+                    stack.push(((Node) slot).slots);
+                    indexes.push(0);
+                } else {
+                    pending = (slot instanceof Entry) ? new Object[] { slot } : ((Collision) slot).entries;
+                    pendingIndex = 0;
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Map.Entry<K, V> next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            Entry e = (Entry) pending[pendingIndex++];
+            return new AbstractMap.SimpleImmutableEntry<>((K) e.key, (V) e.value);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package library;
+
+/**
+ * Critères d'une recherche composée (LibraryEngine.find) : chaque méthode
+ * ajoute un critère au même objet, un livre doit les satisfaire tous.
+ *
+ * Exemple : new Query().authorContains("tolkien").publishedBetween(1950, 1960).availableOnly()
+ *
+ * Le choix des index utilisés revient au moteur (voir LibraryEngine.explain).
+ */
+public class Query {
+
+    enum Availability { ANY, AVAILABLE, BORROWED }
+
+    String author;
+    String title;
+    boolean hasYears;
+    int yearFrom;
+    int yearTo;
+    Availability availability = Availability.ANY;
+
+    /**
+     * Auteur contenant le texte donné, sans tenir compte de la casse
+     * (comme findByAuthor).
+     */
+    public Query authorContains(String author) {
+        if (author == null || author.isEmpty()) {
+            throw new IllegalArgumentException("L'auteur recherché ne peut pas être vide");
+        }
+        this.author = author;
+        return this;
+    }
+
+    /**
+     * Titre égal au texte donné, sans tenir compte de la casse
+     * (comme hasBookWithTitle).
+     */
+    public Query title(String title) {
+        if (title == null) {
+            throw new IllegalArgumentException("Le titre recherché ne peut pas être null");
+        }
+        this.title = title;
+        return this;
+    }
+
+    /**
+     * Année de publication entre from et to inclus.
+     */
+    public Query publishedBetween(int from, int to) {
+        if (from > to) {
+            throw new IllegalArgumentException("Intervalle d'années invalide : " + from + "-" + to);
+        }
+        this.hasYears = true;
+        this.yearFrom = from;
+        this.yearTo = to;
+        return this;
+    }
+
+    /** Livres non empruntés. */
+    public Query availableOnly() {
+        availability = Availability.AVAILABLE;
+        return this;
+    }
+
+    /** Livres empruntés. */
+    public Query borrowedOnly() {
+        availability = Availability.BORROWED;
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        if (author != null) sb.append(", auteur contient \"").append(author).append('"');
+        if (title != null) sb.append(", titre = \"").append(title).append('"');
+        if (hasYears) sb.append(", années ").append(yearFrom).append('-').append(yearTo);
+        if (availability == Availability.AVAILABLE) sb.append(", disponibles");
+        if (availability == Availability.BORROWED) sb.append(", empruntés");
+        return (sb.length() == 0) ? "tous les livres" : sb.substring(2);
+    }
+}
@@ -0,0 +1,297 @@
+package library;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Plan d'exécution d'une recherche composée (Query) sur un instantané des
+ * segments du catalogue et des tables d'emprunts.
+ *
+ * Le planificateur estime, pour chaque critère indexé, le nombre de livres
+ * candidats sur l'ensemble des segments : index des auteurs (majorant),
+ * index des années et carte des emprunts (exacts). Le plus sélectif fournit
+ * les candidats ; l'index des auteurs, s'il n'a pas été choisi et reste
+ * assez sélectif, est intersecté avec eux. La disponibilité est ensuite
+ * filtrée d'un bloc par la carte des emprunts (RoaringBitmap.filter), puis
+ * les autres critères sont vérifiés candidat par candidat, des moins
+ * coûteux (colonne des années) aux plus coûteux (livre matérialisé pour
+ * l'auteur et le titre). Sans critère indexé, le plan parcourt les segments,
+ * par morceaux en parallèle sur les gros segments (ParallelScan).
+ *
+ * Les cartes des emprunts sont celles de l'instantané pris à la
+ * planification : filtre et statut (isBorrowed) sont cohérents entre eux.
+ *
+ * explain décrit le chemin choisi et les estimations qui l'ont décidé.
+ */
+final class QueryPlan {
+    /** Un index non choisi est intersecté s'il retourne au plus ce facteur fois plus de candidats. */
+    static final int INTERSECT_FACTOR = 4;
+
+    enum Access {
+        SCAN("parcours complet"),
+        AUTHOR_INDEX("index des auteurs"),
+        YEAR_INDEX("index des années"),
+        BORROWED("carte des emprunts");
+
+        final String label;
+
+        Access(String label) {
+            this.label = label;
+        }
+    }
+
+    private final String description;
+    private final String author;
+    private final String foldedAuthor;
+    private final String title;
+    private final boolean hasYears;
+    private final int yearFrom;
+    private final int yearTo;
+    private final Query.Availability availability;
+
+    private final CatalogReader[] catalogs;
+    // Carte des emprunts de chaque segment, à l'instant de la planification
+    private final RoaringBitmap[] borrowed;
+
+    private final long totalBooks;
+    private final long authorEstimate;
+    private final long yearEstimate;
+    private final long borrowedEstimate;
+    private final Access access;
+    private final long accessEstimate;
+    private final boolean intersectAuthor;
+    private final boolean filterYears;
+    private final boolean filterAvailability;
+    private final boolean filterAuthor;
+
+    private QueryPlan(Query query, CatalogReader[] catalogs) {
+        this.description = query.toString();
+        this.author = query.author;
+        this.foldedAuthor = (author != null) ? author.toLowerCase(Locale.ROOT) : null;
+        this.title = query.title;
+        this.hasYears = query.hasYears;
+        this.yearFrom = query.yearFrom;
+        this.yearTo = query.yearTo;
+        this.availability = query.availability;
+        this.catalogs = catalogs;
+        this.borrowed = new RoaringBitmap[catalogs.length];
+
+        long total = 0;
+        long authors = -1;
+        long years = -1;
+        long lent = 0;
+        for (int i = 0; i < catalogs.length; i++) {
+            total += catalogs[i].size();
+            borrowed[i] = catalogs[i].borrowedPositions();
+            lent += borrowed[i].cardinality();
+        }
+        if (author != null) {
+            authors = 0;
+            for (CatalogReader catalog : catalogs) {
+                authors += catalog.estimateByAuthor(author);
+            }
+        }
+        if (hasYears) {
+            years = 0;
+            for (CatalogReader catalog : catalogs) {
+                years += catalog.countByYearRange(yearFrom, yearTo);
+            }
+        }
+        if (availability != Query.Availability.BORROWED) {
+            lent = -1;
+        }
+        this.totalBooks = total;
+        this.authorEstimate = authors;
+        this.yearEstimate = years;
+        this.borrowedEstimate = lent;
+
+        Access best = Access.SCAN;
+        long bestEstimate = total;
+        if (authors >= 0 && authors < bestEstimate) {
+            best = Access.AUTHOR_INDEX;
+            bestEstimate = authors;
+        }
+        if (years >= 0 && years < bestEstimate) {
+            best = Access.YEAR_INDEX;
+            bestEstimate = years;
+        }
+        if (lent >= 0 && lent < bestEstimate) {
+            best = Access.BORROWED;
+            bestEstimate = lent;
+        }
+        this.access = best;
+        this.accessEstimate = bestEstimate;
+        this.intersectAuthor = author != null && best != Access.AUTHOR_INDEX && best != Access.SCAN
+                && authors <= INTERSECT_FACTOR * Math.max(1, bestEstimate);
+        this.filterYears = hasYears && best != Access.YEAR_INDEX;
+        this.filterAvailability = availability != Query.Availability.ANY && best != Access.BORROWED;
+        this.filterAuthor = author != null && best != Access.AUTHOR_INDEX && !intersectAuthor;
+    }
+
+    /**
+     * Planifie la requête sur les segments donnés (le fichier de base éventuel
+     * puis les shards).
+     */
+    static QueryPlan plan(Query query, CatalogReader[] catalogs) {
+        return new QueryPlan(query, catalogs);
+    }
+
+    Access access() {
+        return access;
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    // Exécution
+    // ═══════════════════════════════════════════════════════════
+
+    /**
+     * Positions (croissantes) des livres du segment qui satisfont la requête.
+     */
+    int[] execute(int segment) {
+        CatalogReader catalog = catalogs[segment];
+        int[] candidates = candidates(segment);
+        if (intersectAuthor) {
+            candidates = intersect(candidates, catalog.findByAuthor(author));
+        }
+        if (candidates == null) {
+            // Parcours : par morceaux, en parallèle sur les gros segments
+            return ParallelScan.filter(catalog.size(), (from, to) -> scan(segment, from, to));
+        }
+        if (filterAvailability) {
+            candidates = borrowed[segment].filter(candidates, wantBorrowed());
+        }
+        int[] result = new int[candidates.length];
+        int kept = 0;
+        for (int position : candidates) {
+            if (matches(catalog, position)) {
+                result[kept++] = position;
+            }
+        }
+        return Arrays.copyOf(result, kept);
+    }
+
+    // Positions de [from, to) qui satisfont tous les critères
+    private int[] scan(int segment, int from, int to) {
+        CatalogReader catalog = catalogs[segment];
+        int[] result = new int[Math.min(to - from, 1024)];
+        int kept = 0;
+        for (int position = from; position < to; position++) {
+            if (filterAvailability && borrowed[segment].contains(position) != wantBorrowed()) continue;
+            if (matches(catalog, position)) {
+                if (kept == result.length) {
+                    result = Arrays.copyOf(result, Math.min(to - from, kept * 2));
+                }
+                result[kept++] = position;
+            }
+        }
+        return Arrays.copyOf(result, kept);
+    }
+
+    // Candidats triés fournis par l'accès choisi, null pour un parcours
+    private int[] candidates(int segment) {
+        CatalogReader catalog = catalogs[segment];
+        switch (access) {
+            case AUTHOR_INDEX:
+                return catalog.findByAuthor(author);
+            case YEAR_INDEX: {
+                int[] positions = catalog.findByYearRange(yearFrom, yearTo);
+                Arrays.sort(positions);
+                return positions;
+            }
+            case BORROWED:
+                return borrowed[segment].toArray(catalog.size());
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Statut du livre du segment dans l'instantané du plan.
+     */
+    boolean isBorrowed(int segment, int position) {
+        return borrowed[segment].contains(position);
+    }
+
+    private boolean wantBorrowed() {
+        return availability == Query.Availability.BORROWED;
+    }
+
+    // Filtres du moins coûteux au plus coûteux : le livre n'est matérialisé qu'en dernier
+    private boolean matches(CatalogReader catalog, int position) {
+        if (filterYears) {
+            int year = catalog.year(position);
+            if (year < yearFrom || year > yearTo) return false;
+        }
+        if (!filterAuthor && title == null) return true;
+        Book book = catalog.get(position);
+        if (filterAuthor) {
+            String candidate = book.getAuthor();
+            if (candidate == null || !candidate.toLowerCase(Locale.ROOT).contains(foldedAuthor)) return false;
+        }
+        return title == null || title.equalsIgnoreCase(book.getTitle());
+    }
+
+    // Intersection de deux tableaux triés
+    private static int[] intersect(int[] a, int[] b) {
+        if (a == null) return b;
+        int[] result = new int[Math.min(a.length, b.length)];
+        int i = 0;
+        int j = 0;
+        int kept = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                result[kept++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, kept);
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    // Explication
+    // ═══════════════════════════════════════════════════════════
+
+    /**
+     * Description lisible du plan : critères, estimations, accès choisi,
+     * intersections et filtres.
+     */
+    String explain() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Requête : ").append(description).append('\n');
+        sb.append("Segments : ").append(catalogs.length).append(" (").append(totalBooks).append(" livres)\n");
+
+        List<String> estimates = new ArrayList<>();
+        if (authorEstimate >= 0) estimates.add(Access.AUTHOR_INDEX.label + " ≤ " + authorEstimate);
+        if (yearEstimate >= 0) estimates.add(Access.YEAR_INDEX.label + " = " + yearEstimate);
+        if (borrowedEstimate >= 0) estimates.add(Access.BORROWED.label + " = " + borrowedEstimate);
+        sb.append("Estimations : ").append(estimates.isEmpty() ? "aucun index applicable" : String.join(", ", estimates))
+                .append('\n');
+
+        sb.append("Accès : ").append(access.label);
+        if (access == Access.SCAN && totalBooks >= LibraryEngine.PARALLEL_SCAN_THRESHOLD) {
+            sb.append(", par morceaux en parallèle");
+        }
+        sb.append(" (").append(accessEstimate).append(" candidats)\n");
+        sb.append("Intersection : ").append(intersectAuthor ? Access.AUTHOR_INDEX.label : "aucune").append('\n');
+
+        List<String> filters = new ArrayList<>();
+        if (filterYears) filters.add("année (colonne des années)");
+        if (filterAvailability) filters.add("disponibilité (carte des emprunts)");
+        if (filterAuthor) filters.add("auteur (livre matérialisé)");
+        if (title != null) filters.add("titre (livre matérialisé)");
+        sb.append("Filtres : ").append(filters.isEmpty() ? "aucun" : String.join(", ", filters));
+        return sb.toString();
+    }
+
+    @Override
+    public String toString() {
+        return explain();
+    }
+}
@@ -0,0 +1,233 @@
+package library;
+
+import java.util.Arrays;
+
+/**
+ * Ensemble compressé d'entiers positifs, à la manière des Roaring bitmaps.
+ *
+ * Les entiers sont regroupés par tranche de 2^16 (16 bits de poids fort).
+ * Chaque tranche non vide est un conteneur : tableau trié des 16 bits de
+ * poids faible tant qu'il a au plus ARRAY_MAX éléments (2 octets par
+ * élément), carte de 2^16 bits au-delà (8 Ko, quel que soit le nombre
+ * d'éléments).
+ *
+ * Persistant, comme PersistentMap : with et without retournent un nouvel
+ * ensemble qui ne recopie que le conteneur modifié et les tableaux de tête.
+ * Une version publiée n'est jamais modifiée : les lecteurs n'ont besoin
+ * d'aucun verrou et un instantané coûte une référence.
+ */
+final class RoaringBitmap {
+    /** Au-delà, un conteneur tableau devient une carte de bits. */
+    static final int ARRAY_MAX = 4096;
+
+    static final RoaringBitmap EMPTY = new RoaringBitmap(new char[0], new Container[0], 0);
+
+    // Conteneur d'une tranche : exactement un des deux tableaux est non null
+    private static final class Container {
+        final char[] values;
+        final long[] bits;
+        final int cardinality;
+
+        Container(char[] values, long[] bits, int cardinality) {
+            this.values = values;
+            this.bits = bits;
+            this.cardinality = cardinality;
+        }
+
+        boolean contains(char low) {
+            if (bits != null) return (bits[low >>> 6] & (1L << low)) != 0;
+            return Arrays.binarySearch(values, low) >= 0;
+        }
+
+        // Nombre d'éléments strictement inférieurs à low
+        int rank(char low) {
+            if (bits == null) {
+                int index = Arrays.binarySearch(values, low);
+                return (index >= 0) ? index : -index - 1;
+            }
+            int word = low >>> 6;
+            int count = 0;
+            for (int i = 0; i < word; i++) {
+                count += Long.bitCount(bits[i]);
+            }
+            return count + Long.bitCount(bits[word] & ((1L << low) - 1));
+        }
+
+        Container with(char low) {
+            if (bits != null) {
+                long[] copy = bits.clone();
+                copy[low >>> 6] |= 1L << low;
+                return new Container(null, copy, cardinality + 1);
+            }
+            int index = -Arrays.binarySearch(values, low) - 1;
+            if (values.length < ARRAY_MAX) {
+                char[] copy = new char[values.length + 1];
+                System.arraycopy(values, 0, copy, 0, index);
+                copy[index] = low;
+                System.arraycopy(values, index, copy, index + 1, values.length - index);
+                return new Container(copy, null, cardinality + 1);
+            }
+            long[] map = new long[1 << 10];
+            for (char value : values) {
+                map[value >>> 6] |= 1L << value;
+            }
+            map[low >>> 6] |= 1L << low;
+            return new Container(null, map, cardinality + 1);
+        }
+
+        // null si le conteneur devient vide
+        Container without(char low) {
+            if (cardinality == 1) return null;
+            if (bits == null) {
+                int index = Arrays.binarySearch(values, low);
+                char[] copy = new char[values.length - 1];
+                System.arraycopy(values, 0, copy, 0, index);
+                System.arraycopy(values, index + 1, copy, index, values.length - index - 1);
+                return new Container(copy, null, cardinality - 1);
+            }
+            long[] copy = bits.clone();
+            copy[low >>> 6] &= ~(1L << low);
+            if (cardinality - 1 > ARRAY_MAX) {
+                return new Container(null, copy, cardinality - 1);
+            }
+            char[] values = new char[cardinality - 1];
+            int n = 0;
+            for (int word = 0; word < copy.length; word++) {
+                for (long w = copy[word]; w != 0; w &= w - 1) {
+                    values[n++] = (char) ((word << 6) + Long.numberOfTrailingZeros(w));
+                }
+            }
+            return new Container(values, null, cardinality - 1);
+        }
+    }
+
+    // Tranches non vides, triées, et leurs conteneurs
+    private final char[] keys;
+    private final Container[] containers;
+    private final int cardinality;
+
+    private RoaringBitmap(char[] keys, Container[] containers, int cardinality) {
+        this.keys = keys;
+        this.containers = containers;
+        this.cardinality = cardinality;
+    }
+
+    int cardinality() {
+        return cardinality;
+    }
+
+    boolean isEmpty() {
+        return cardinality == 0;
+    }
+
+    boolean contains(int value) {
+        int index = Arrays.binarySearch(keys, (char) (value >>> 16));
+        return index >= 0 && containers[index].contains((char) value);
+    }
+
+    /**
+     * Nombre d'éléments strictement inférieurs à limit.
+     */
+    int rank(int limit) {
+        if (limit <= 0) return 0;
+        char high = (char) (limit >>> 16);
+        int count = 0;
+        for (int i = 0; i < keys.length && keys[i] <= high; i++) {
+            count += (keys[i] < high) ? containers[i].cardinality : containers[i].rank((char) limit);
+        }
+        return count;
+    }
+
+    RoaringBitmap with(int value) {
+        checkValue(value);
+        char high = (char) (value >>> 16);
+        int index = Arrays.binarySearch(keys, high);
+        if (index >= 0) {
+            Container container = containers[index];
+            if (container.contains((char) value)) return this;
+            Container[] copy = containers.clone();
+            copy[index] = container.with((char) value);
+            return new RoaringBitmap(keys, copy, cardinality + 1);
+        }
+        int insert = -index - 1;
+        char[] newKeys = new char[keys.length + 1];
+        Container[] newContainers = new Container[keys.length + 1];
+        System.arraycopy(keys, 0, newKeys, 0, insert);
+        System.arraycopy(containers, 0, newContainers, 0, insert);
+        newKeys[insert] = high;
+        newContainers[insert] = new Container(new char[]{(char) value}, null, 1);
+        System.arraycopy(keys, insert, newKeys, insert + 1, keys.length - insert);
+        System.arraycopy(containers, insert, newContainers, insert + 1, keys.length - insert);
+        return new RoaringBitmap(newKeys, newContainers, cardinality + 1);
+    }
+
+    RoaringBitmap without(int value) {
+        if (!contains(value)) return this;
+        int index = Arrays.binarySearch(keys, (char) (value >>> 16));
+        Container container = containers[index].without((char) value);
+        if (container != null) {
+            Container[] copy = containers.clone();
+            copy[index] = container;
+            return new RoaringBitmap(keys, copy, cardinality - 1);
+        }
+        char[] newKeys = new char[keys.length - 1];
+        Container[] newContainers = new Container[keys.length - 1];
+        System.arraycopy(keys, 0, newKeys, 0, index);
+        System.arraycopy(containers, 0, newContainers, 0, index);
+        System.arraycopy(keys, index + 1, newKeys, index, keys.length - index - 1);
+        System.arraycopy(containers, index + 1, newContainers, index, keys.length - index - 1);
+        return new RoaringBitmap(newKeys, newContainers, cardinality - 1);
+    }
+
+    /**
+     * Éléments strictement inférieurs à limit, dans l'ordre croissant.
+     */
+    int[] toArray(int limit) {
+        int[] result = new int[rank(limit)];
+        int n = 0;
+        for (int i = 0; i < keys.length && n < result.length; i++) {
+            int base = keys[i] << 16;
+            Container container = containers[i];
+            if (container.bits == null) {
+                for (int j = 0; j < container.values.length && n < result.length; j++) {
+                    result[n++] = base | container.values[j];
+                }
+            } else {
+                for (int word = 0; word < container.bits.length && n < result.length; word++) {
+                    for (long w = container.bits[word]; w != 0 && n < result.length; w &= w - 1) {
+                        result[n++] = base | ((word << 6) + Long.numberOfTrailingZeros(w));
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Éléments de sorted (croissant) présents dans l'ensemble si present,
+     * absents sinon, dans le même ordre. Les conteneurs sont parcourus en
+     * même temps que le tableau : une tranche sans élément ne coûte rien.
+     */
+    int[] filter(int[] sorted, boolean present) {
+        int[] result = new int[sorted.length];
+        int kept = 0;
+        int k = 0;
+        for (int value : sorted) {
+            char high = (char) (value >>> 16);
+            while (k < keys.length && keys[k] < high) {
+                k++;
+            }
+            boolean contained = k < keys.length && keys[k] == high && containers[k].contains((char) value);
+            if (contained == present) {
+                result[kept++] = value;
+            }
+        }
+        return (kept == result.length) ? result : Arrays.copyOf(result, kept);
+    }
+
+    private static void checkValue(int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Valeur négative : " + value);
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package library;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Cache borné (LRU) des résultats de findByAuthor et hasBookWithTitle,
+ * indexé par la requête normalisée : "Tolkien" et "TOLKIEN" partagent
+ * la même entrée.
+ *
+ * Invalidation précise : un livre ajouté ne retire que les entrées dont il
+ * change le résultat (auteur contenant la requête, titre égal à un titre
+ * jusque-là absent) ; un titre présent le reste. Vider le catalogue ou le
+ * remplacer vide le cache. Un lot plus gros que BULK_THRESHOLD vide aussi
+ * le cache, plutôt que de comparer chaque livre à chaque entrée.
+ *
+ * Un résultat calculé pendant une modification n'est pas conservé : chaque
+ * recherche relève le compteur de modifications (stamp) avant de calculer,
+ * put refuse le résultat si une modification a eu lieu depuis. Les
+ * modifications publient les livres avant d'appeler booksAdded ou clear,
+ * sous le même moniteur que put.
+ */
+final class SearchCache {
+    static final int DEFAULT_CAPACITY = 1024;
+    /** Au-delà de ce nombre de livres ajoutés d'un coup, le cache est vidé. */
+    static final int BULK_THRESHOLD = 256;
+
+    // Clés : 'A' + auteur normalisé, 'T' + titre normalisé
+    private final LinkedHashMap<String, Object> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private int capacity;
+    private long mutations;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long invalidations;
+
+    SearchCache(int capacity) {
+        setCapacity(capacity);
+    }
+
+    /**
+     * Nombre maximal d'entrées ; 0 désactive le cache.
+     */
+    synchronized void setCapacity(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("La taille du cache ne peut pas être négative");
+        }
+        this.capacity = capacity;
+        evict();
+    }
+
+    /** Compteur de modifications, à relever avant de calculer un résultat. */
+    synchronized long stamp() {
+        return mutations;
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    // Lecture et écriture des résultats
+    // ═══════════════════════════════════════════════════════════
+
+    @SuppressWarnings("unchecked")
+    synchronized List<Book> getAuthor(String author) {
+        return (List<Book>) lookup(authorKey(author));
+    }
+
+    /** result doit être immuable : il est partagé entre les appelants. */
+    synchronized void putAuthor(String author, List<Book> result, long stamp) {
+        store(authorKey(author), result, stamp);
+    }
+
+    synchronized Boolean getTitle(String title) {
+        return (Boolean) lookup(titleKey(title));
+    }
+
+    synchronized void putTitle(String title, boolean result, long stamp) {
+        store(titleKey(title), result, stamp);
+    }
+
+    private Object lookup(String key) {
+        Object value = entries.get(key);
+        if (value != null) {
+            hits++;
+        } else {
+            misses++;
+        }
+        return value;
+    }
+
+    private void store(String key, Object value, long stamp) {
+        if (stamp != mutations || capacity == 0) return;
+        entries.put(key, value);
+        evict();
+    }
+
+    private void evict() {
+        Iterator<String> eldest = entries.keySet().iterator();
+        while (entries.size() > capacity) {
+            eldest.next();
+            eldest.remove();
+            evictions++;
+        }
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    // Invalidation
+    // ═══════════════════════════════════════════════════════════
+
+    /**
+     * Retire les entrées dont ces livres (déjà publiés) changent le résultat.
+     */
+    synchronized void booksAdded(Collection<Book> books) {
+        mutations++;
+        if (entries.isEmpty() || books.isEmpty()) return;
+        if (books.size() > BULK_THRESHOLD) {
+            invalidations += entries.size();
+            entries.clear();
+            return;
+        }
+        // Une seule normalisation par livre ajouté, quel que soit le nombre d'entrées
+        String[] authors = new String[books.size()];
+        String[] titles = new String[books.size()];
+        int count = 0;
+        for (Book book : books) {
+            authors[count] = (book.getAuthor() != null) ? book.getAuthor().toLowerCase(Locale.ROOT) : null;
+            titles[count] = (book.getTitle() != null) ? foldTitle(book.getTitle()) : null;
+            count++;
+        }
+        Iterator<Map.Entry<String, Object>> it = entries.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, Object> entry = it.next();
+            String key = entry.getKey();
+            boolean author = key.charAt(0) == 'A';
+            boolean affected = false;
+            // Un titre déjà présent le reste : seules les absences sont touchées
+            if (author || entry.getValue() == Boolean.FALSE) {
+                for (int i = 0; i < count && !affected; i++) {
+                    String folded = author ? authors[i] : titles[i];
+                    affected = folded != null && (author ? containsQuery(folded, key) : equalsQuery(folded, key));
+                }
+            }
+            if (affected) {
+                it.remove();
+                invalidations++;
+            }
+        }
+    }
+
+    // Comparaisons avec la requête d'une clé (après son préfixe), sans la copier
+    private static boolean containsQuery(String text, String key) {
+        int length = key.length() - 1;
+        for (int i = 0; i + length <= text.length(); i++) {
+            if (text.regionMatches(i, key, 1, length)) return true;
+        }
+        return false;
+    }
+
+    private static boolean equalsQuery(String text, String key) {
+        return text.length() == key.length() - 1 && text.regionMatches(0, key, 1, text.length());
+    }
+
+    /** Catalogue vidé ou remplacé : toutes les entrées sont retirées. */
+    synchronized void clear() {
+        mutations++;
+        invalidations += entries.size();
+        entries.clear();
+    }
+
+    synchronized SearchCacheStats stats() {
+        return new SearchCacheStats(hits, misses, evictions, invalidations, entries.size(), capacity);
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    // Normalisation
+    // ═══════════════════════════════════════════════════════════
+
+    // Même repli que l'index des auteurs (contains sur les minuscules)
+    private static String authorKey(String author) {
+        return 'A' + author.toLowerCase(Locale.ROOT);
+    }
+
+    private static String titleKey(String title) {
+        return 'T' + foldTitle(title);
+    }
+
+    // Deux titres ont la même forme si et seulement si equalsIgnoreCase
+    // les déclare égaux (même comparaison, caractère par caractère)
+    static String foldTitle(String title) {
+        char[] chars = title.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = Character.toLowerCase(Character.toUpperCase(chars[i]));
+        }
+        return new String(chars);
+    }
+}
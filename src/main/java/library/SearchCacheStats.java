@@ -0,0 +1,43 @@
+package library;
+
+/**
+ * Statistiques du cache des recherches (voir LibraryEngine.getSearchCacheStats).
+ */
+public class SearchCacheStats {
+    private final long hits;
+    private final long misses;
+    private final long evictions;
+    private final long invalidations;
+    private final int size;
+    private final int capacity;
+
+    SearchCacheStats(long hits, long misses, long evictions, long invalidations, int size, int capacity) {
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.invalidations = invalidations;
+        this.size = size;
+        this.capacity = capacity;
+    }
+
+    public long getHits() { return hits; }
+    public long getMisses() { return misses; }
+    /** Entrées retirées pour faire de la place (les moins récemment utilisées). */
+    public long getEvictions() { return evictions; }
+    /** Entrées retirées parce qu'un ajout ou un vidage changeait leur résultat. */
+    public long getInvalidations() { return invalidations; }
+    public int getSize() { return size; }
+    public int getCapacity() { return capacity; }
+
+    /** Part des recherches servies par le cache (0 sans recherche). */
+    public double getHitRate() {
+        long total = hits + misses;
+        return (total == 0) ? 0 : (double) hits / total;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d hit(s), %d miss(es), %d eviction(s), %d invalidation(s), %d/%d entries",
+                hits, misses, evictions, invalidations, size, capacity);
+    }
+}
@@ -0,0 +1,54 @@
+package library;
+
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Numéros d'ordre globaux des livres, et borne des pages par clé.
+ *
+ * Les shards prennent leurs numéros et publient leurs livres chacun sous son
+ * propre verrou : le livre n° 10 d'un shard peut être visible avant le n° 9
+ * d'un autre. Une page qui retournerait le n° 10 (curseur 10) sauterait
+ * alors le n° 9 sur toutes les pages suivantes. Chaque prise de numéros
+ * reste donc en attente jusqu'à la publication de ses livres ; les pages
+ * s'arrêtent avant le plus petit numéro en attente (publishedBound), en
+ * deçà duquel tous les livres sont visibles.
+ */
+final class Sequencer {
+    private long next;
+    // Premier numéro de chaque prise dont les livres ne sont pas encore publiés
+    private final ConcurrentSkipListSet<Long> pending = new ConcurrentSkipListSet<>();
+
+    /**
+     * Réserve count numéros consécutifs (count > 0) et retourne le premier ;
+     * l'appelant signale leur publication par published, même en cas d'échec.
+     */
+    synchronized long take(int count) {
+        long first = next;
+        next += count;
+        pending.add(first);
+        return first;
+    }
+
+    /**
+     * Les livres de la prise qui commence à first sont visibles (ou ne le
+     * seront jamais : leurs numéros restent inutilisés).
+     */
+    void published(long first) {
+        pending.remove(first);
+    }
+
+    /**
+     * Tous les livres de numéro strictement inférieur sont visibles. À lire
+     * avant les catalogues de la page.
+     */
+    synchronized long publishedBound() {
+        // ceiling plutôt que isEmpty puis first : published peut vider l'ensemble entre les deux
+        Long first = pending.ceiling(Long.MIN_VALUE);
+        return (first != null) ? first : next;
+    }
+
+    /** Les numéros suivants dépasseront au moins value - 1 (catalogue de base). */
+    synchronized void advanceTo(long value) {
+        next = Math.max(next, value);
+    }
+}
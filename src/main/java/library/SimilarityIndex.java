@@ -0,0 +1,292 @@
+package library;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+
+/**
+ * Index des livres presque identiques (MinHash et LSH) : "The Hobbit" de
+ * Tolkien et "Hobbit, The" de J.R.R. Tolkien se retrouvent sans parcourir
+ * le catalogue.
+ *
+ * Chaque livre est réduit à l'ensemble des mots normalisés (minuscules,
+ * sans accents ni ponctuation, sans articles) de son titre et de son
+ * auteur, préfixés pour ne pas confondre titre et auteur. Sa signature
+ * MinHash garde, pour SIGNATURE_SIZE fonctions de hachage, le plus petit
+ * hachage de ses mots : deux signatures coïncident sur une fonction avec
+ * une probabilité égale à la similarité de Jaccard des deux ensembles.
+ *
+ * La signature est découpée en BANDS bandes de ROWS valeurs ; chaque bande
+ * donne un seau. Deux livres de similarité s partagent au moins un seau
+ * avec une probabilité 1 - (1 - s^ROWS)^BANDS, plus de 99 % dès le seuil
+ * SIMILARITY_THRESHOLD. Un seau supplémentaire regroupe les titres aux
+ * mêmes mots, quel que soit l'auteur. Les candidats des seaux sont ensuite
+ * vérifiés sur leurs mots : même titre, ou similarité au moins égale au
+ * seuil. Seuls les BUCKET_SCAN livres les plus récents de chaque seau sont
+ * vérifiés : une recherche coûte au plus SLOTS * BUCKET_SCAN vérifications,
+ * quelle que soit la taille du catalogue. Un vrai doublon partage en
+ * général plusieurs seaux, dont des seaux peu peuplés.
+ *
+ * Les seaux sont des listes chaînées dans un seul tableau : case
+ * position * SLOTS + bande = position précédente du même seau, tête du seau
+ * dans une LongIntMap. Un seul écrivain (add), recherches concurrentes sans
+ * verrou : les chaînons sont écrits avant la tête qui les désigne.
+ *
+ * Chaque livre occupe au plus SLOTS cases et SLOTS têtes de seau, presque
+ * toutes distinctes : quelques centaines d'octets sur le tas, même pour un
+ * catalogue hors tas ou projeté. L'index n'est donc construit qu'à la
+ * demande (LibraryEngine.setSimilarityIndex, activé par la console) ; sans
+ * lui, scan vérifie tous les livres d'un segment.
+ */
+class SimilarityIndex {
+    static final int ROWS = 2;
+    static final int BANDS = 12;
+    static final int SIGNATURE_SIZE = ROWS * BANDS;
+    /** Similarité de Jaccard à partir de laquelle deux livres sont des doublons probables. */
+    static final double SIMILARITY_THRESHOLD = 0.6;
+    /** Livres vérifiés au plus par seau, les plus récents d'abord. */
+    static final int BUCKET_SCAN = 32;
+
+    // Bandes MinHash, puis le seau des titres aux mêmes mots : clés stockées
+    // au plus par livre
+    private static final int SLOTS = BANDS + 1;
+    // Livres indexés au plus : le tableau des chaînons reste adressable
+    private static final int MAX_BOOKS = (Integer.MAX_VALUE - 8) / SLOTS;
+    private static final int NONE = -1;
+
+    private static final Set<String> ARTICLES = Set.of("the", "an", "le", "la", "les", "un", "une", "des");
+
+    private static final long[] SEEDS = new long[SIGNATURE_SIZE];
+
+    // Appelé à chaque parcours complet d'un segment par scan, avec sa taille (tests)
+    static volatile IntConsumer onScan = size -> {};
+
+    static {
+        long seed = 0x2545F4914F6CDD1DL;
+        for (int i = 0; i < SEEDS.length; i++) {
+            seed += 0x9E3779B97F4A7C15L;
+            SEEDS[i] = mix(seed);
+        }
+    }
+
+    private final LongIntMap heads = new LongIntMap();
+    private volatile int[] links = new int[SLOTS * 16];
+    private int size;
+
+    // ═══════════════════════════════════════════════════════════
+    // Écriture (un seul écrivain)
+    // ═══════════════════════════════════════════════════════════
+
+    /**
+     * Indexe le livre ajouté à la position donnée.
+     * Les positions sont consécutives d'un appel à l'autre.
+     */
+    void add(int position, String title, String author) {
+        if (position != size) {
+            throw new IllegalStateException("Position " + position + " attendue : " + size);
+        }
+        if (position >= MAX_BOOKS) {
+            throw new IllegalStateException("Index des livres presque identiques plein (" + MAX_BOOKS + " livres)");
+        }
+        int[] current = links;
+        if ((position + 1) * SLOTS > current.length) {
+            long grown = Math.min((long) MAX_BOOKS * SLOTS, Math.max(2L * current.length, (position + 1L) * SLOTS));
+            current = Arrays.copyOf(current, (int) grown);
+            links = current;
+        }
+        long[] keys = bucketKeys(words(title), words(author));
+        for (int slot = 0; slot < SLOTS; slot++) {
+            int index = position * SLOTS + slot;
+            if (keys == null || keys[slot] == 0) {
+                current[index] = NONE;
+                continue;
+            }
+            int head = heads.get(keys[slot]);
+            current[index] = (head == LongIntMap.ABSENT) ? NONE : head;
+            heads.put(keys[slot], position);
+        }
+        size = position + 1;
+    }
+
+    /**
+     * Indexe un lot de livres aux positions consécutives à partir de firstPosition.
+     */
+    void addAll(int firstPosition, List<Book> books) {
+        for (int i = 0; i < books.size(); i++) {
+            Book book = books.get(i);
+            add(firstPosition + i, book.getTitle(), book.getAuthor());
+        }
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    // Recherche (sans verrou)
+    // ═══════════════════════════════════════════════════════════
+
+    /**
+     * Positions (croissantes) des livres probablement identiques à
+     * (title, author) : même titre, ou similarité d'au moins
+     * SIMILARITY_THRESHOLD. books lit les livres candidats.
+     */
+    int[] search(String title, String author, IntFunction<Book> books) {
+        Set<String> titleWords = words(title);
+        Set<String> authorWords = words(author);
+        long[] keys = bucketKeys(titleWords, authorWords);
+        if (keys == null) return new int[0];
+
+        Set<Integer> seen = new HashSet<>();
+        IntList found = new IntList();
+        // Le seau des titres d'abord : ses candidats sont les plus sûrs
+        for (int i = 0; i < SLOTS; i++) {
+            int slot = (i == 0) ? BANDS : i - 1;
+            if (keys[slot] == 0) continue;
+            int position = heads.get(keys[slot]);
+            // Lu après la tête : contient les chaînons de toutes les positions qu'elle précède
+            int[] current = links;
+            for (int scanned = 0; position >= 0 && scanned < BUCKET_SCAN; scanned++) {
+                if (seen.add(position)) {
+                    Book book = books.apply(position);
+                    if (isDuplicate(titleWords, authorWords, words(book.getTitle()), words(book.getAuthor()))) {
+                        found.add(position);
+                    }
+                }
+                position = current[position * SLOTS + slot];
+            }
+        }
+        int[] result = found.toArray();
+        Arrays.sort(result);
+        return result;
+    }
+
+    /**
+     * Même résultat que search, sans index : vérifie les size premiers
+     * livres, par morceaux en parallèle sur les gros segments (ParallelScan).
+     */
+    static int[] scan(String title, String author, int size, IntFunction<Book> books) {
+        Set<String> titleWords = words(title);
+        Set<String> authorWords = words(author);
+        if (titleWords.isEmpty() && authorWords.isEmpty()) return new int[0];
+        onScan.accept(size);
+        return ParallelScan.filter(size, (from, to) -> {
+            IntList found = new IntList();
+            for (int position = from; position < to; position++) {
+                Book book = books.apply(position);
+                if (isDuplicate(titleWords, authorWords, words(book.getTitle()), words(book.getAuthor()))) {
+                    found.add(position);
+                }
+            }
+            return found.toArray();
+        });
+    }
+
+    /**
+     * Vrai si les deux livres sont probablement identiques : titres aux
+     * mêmes mots, ou similarité de Jaccard d'au moins SIMILARITY_THRESHOLD
+     * sur les mots du titre et de l'auteur.
+     */
+    static boolean isDuplicate(Set<String> titleA, Set<String> authorA, Set<String> titleB, Set<String> authorB) {
+        if (!titleA.isEmpty() && titleA.equals(titleB)) return true;
+        int union = titleA.size() + authorA.size() + titleB.size() + authorB.size();
+        int common = 0;
+        for (String word : titleA) {
+            if (titleB.contains(word)) common++;
+        }
+        for (String word : authorA) {
+            if (authorB.contains(word)) common++;
+        }
+        union -= common;
+        return union > 0 && common >= SIMILARITY_THRESHOLD * union;
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    // Normalisation et signatures
+    // ═══════════════════════════════════════════════════════════
+
+    /**
+     * Mots distincts d'un titre ou d'un auteur : minuscules, accents retirés,
+     * séparés par tout ce qui n'est ni lettre ni chiffre, articles ignorés.
+     */
+    static Set<String> words(String text) {
+        if (text == null) return Set.of();
+        String folded = text.toLowerCase(Locale.ROOT);
+        for (int i = 0; i < folded.length(); i++) {
+            if (folded.charAt(i) > 0x7F) {
+                folded = Normalizer.normalize(folded, Normalizer.Form.NFD).replaceAll("\\p{M}", "");
+                break;
+            }
+        }
+        Set<String> words = new HashSet<>();
+        int start = -1;
+        for (int i = 0; i <= folded.length(); i++) {
+            boolean inWord = i < folded.length() && Character.isLetterOrDigit(folded.charAt(i));
+            if (inWord && start < 0) {
+                start = i;
+            } else if (!inWord && start >= 0) {
+                String word = folded.substring(start, i);
+                if (!ARTICLES.contains(word)) words.add(word);
+                start = -1;
+            }
+        }
+        return words;
+    }
+
+    // Clés des seaux (0 : pas de seau), ou null sans aucun mot
+    private static long[] bucketKeys(Set<String> titleWords, Set<String> authorWords) {
+        if (titleWords.isEmpty() && authorWords.isEmpty()) return null;
+        long[] signature = new long[SIGNATURE_SIZE];
+        Arrays.fill(signature, Long.MAX_VALUE);
+        long titleKey = 0;
+        for (String word : titleWords) {
+            long hash = hash(word, 'T');
+            titleKey += mix(hash);
+            minimize(signature, hash);
+        }
+        for (String word : authorWords) {
+            minimize(signature, hash(word, 'A'));
+        }
+        long[] keys = new long[SLOTS];
+        for (int band = 0; band < BANDS; band++) {
+            long key = band + 1;
+            for (int row = 0; row < ROWS; row++) {
+                key = mix(key * 31 + signature[band * ROWS + row]);
+            }
+            keys[band] = nonZero(key);
+        }
+        keys[BANDS] = titleWords.isEmpty() ? 0 : nonZero(mix(titleKey ^ SLOTS));
+        return keys;
+    }
+
+    private static void minimize(long[] signature, long hash) {
+        for (int i = 0; i < signature.length; i++) {
+            long value = mix(hash ^ SEEDS[i]);
+            if (value < signature[i]) signature[i] = value;
+        }
+    }
+
+    // FNV-1a sur les caractères, préfixé par le champ
+    private static long hash(String word, char field) {
+        long h = 0xCBF29CE484222325L ^ field;
+        for (int i = 0; i < word.length(); i++) {
+            h = (h ^ word.charAt(i)) * 0x100000001B3L;
+        }
+        return h;
+    }
+
+    // Finaliseur de MurmurHash3 : chaque bit d'entrée change la moitié des bits de sortie
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB93FE1A85EC3L;
+        return h ^ (h >>> 33);
+    }
+
+    // La clé 0 est réservée par LongIntMap
+    private static long nonZero(long key) {
+        return (key == 0) ? 1 : key;
+    }
+}
@@ -0,0 +1,63 @@
+package library;
+
+import java.util.Collection;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Verrous répartis par ISBN : deux opérations sur le même ISBN sont
+ * sérialisées, deux ISBN de bandes différentes avancent en parallèle.
+ */
+class StripedLocks {
+    private final ReentrantLock[] locks;
+    private final int mask;
+
+    /**
+     * @param stripes nombre de bandes, arrondi à la puissance de deux supérieure
+     */
+    StripedLocks(int stripes) {
+        int size = Integer.highestOneBit(Math.max(1, stripes - 1)) << 1;
+        locks = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        mask = size - 1;
+    }
+
+    /**
+     * Numéro de bande d'une clé (null va dans la bande 0).
+     */
+    int stripeOf(Object key) {
+        if (key == null) return 0;
+        int h = key.hashCode();
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    ReentrantLock forKey(Object key) {
+        return locks[stripeOf(key)];
+    }
+
+    /**
+     * Verrouille les bandes de toutes les clés, chacune une fois, dans l'ordre
+     * croissant des bandes : deux lots qui se recouvrent ne peuvent pas
+     * s'attendre mutuellement. À relâcher par unlockAll.
+     */
+    ReentrantLock[] lockAll(Collection<?> keys) {
+        int[] stripes = keys.stream().mapToInt(this::stripeOf).sorted().distinct().toArray();
+        ReentrantLock[] held = new ReentrantLock[stripes.length];
+        for (int i = 0; i < stripes.length; i++) {
+            held[i] = locks[stripes[i]];
+            held[i].lock();
+        }
+        return held;
+    }
+
+    static void unlockAll(ReentrantLock[] held) {
+        for (int i = held.length - 1; i >= 0; i--) {
+            held[i].unlock();
+        }
+    }
+
+    int stripes() {
+        return locks.length;
+    }
+}
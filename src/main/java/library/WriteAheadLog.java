@@ -0,0 +1,409 @@
+package library;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * Journal des mutations (write-ahead log), en ajout seul.
+ *
+ * Chaque enregistrement est encadré par sa longueur et son CRC32C ; à la
+ * relecture, la première trame incomplète ou corrompue marque la fin du
+ * journal (écriture interrompue par un arrêt brutal) et le fichier y est tronqué.
+ *
+ * Validation groupée (group commit) : append ne fait que placer la trame dans
+ * le tampon commun ; sync attend qu'elle soit sur disque. Un seul thread à la
+ * fois écrit le tampon et appelle force, pour toutes les trames accumulées :
+ * pendant qu'il écrit, les suivantes s'accumulent pour la synchronisation
+ * d'après. Le débit n'est donc pas limité à une synchronisation par opération.
+ *
+ * Après une erreur d'écriture, le journal refuse toute nouvelle opération.
+ *
+ * Un journal créé par rotation (create) synchronise son prédécesseur avant sa
+ * première écriture : le disque contient toujours un préfixe de l'historique.
+ */
+final class WriteAheadLog implements AutoCloseable {
+    static final byte ADD_BOOK = 1;
+    static final byte BORROW = 2;
+    static final byte RETURN = 3;
+    static final byte CLEAR_BOOKS = 4;
+    static final byte CLEAR_LOANS = 5;
+    static final byte BORROW_BATCH = 6;
+    static final byte RETURN_BATCH = 7;
+
+    private static final int FRAME_HEADER = 8;
+
+    // Champ texte : absent, writeUTF (journaux antérieurs, limité à 65535
+    // octets, relu seulement), ou longueur int puis octets UTF-8
+    private static final byte ABSENT = 0;
+    private static final byte SHORT_UTF = 1;
+    private static final byte TEXT = 2;
+
+    /**
+     * Réception des enregistrements relus (voir replay).
+     */
+    interface Handler {
+        void addBook(Book book);
+
+        void borrow(String isbn, String borrowerName);
+
+        void returnBook(String isbn);
+
+        void clearBooks();
+
+        void clearLoans();
+    }
+
+    private final FileChannel channel;
+    private final Object lock = new Object();
+    private ByteArrayOutputStream pending = new ByteArrayOutputStream();
+    private long appended;
+    private long durable;
+    private long syncCount;
+    private boolean flushing;
+    private boolean closed;
+    private IOException failure;
+    // Journal précédent, à synchroniser avant la première écriture de celui-ci
+    private volatile WriteAheadLog predecessor;
+
+    private WriteAheadLog(FileChannel channel, long recordCount) {
+        this.channel = channel;
+        this.appended = recordCount;
+        this.durable = recordCount;
+    }
+
+    /**
+     * Crée un journal vide qui prend la suite de predecessor (rotation).
+     */
+    static WriteAheadLog create(Path file, WriteAheadLog predecessor) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        WriteAheadLog log = new WriteAheadLog(channel, 0);
+        log.predecessor = predecessor;
+        return log;
+    }
+
+    /**
+     * Relit le journal (s'il existe) en transmettant chaque enregistrement
+     * valide au handler, tronque une éventuelle fin incomplète, puis l'ouvre
+     * en écriture à la suite.
+     */
+    static WriteAheadLog open(Path file, Handler handler) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            long[] end = new long[1];
+            long records = replay(channel, handler, end);
+            if (end[0] < channel.size()) {
+                channel.truncate(end[0]);
+                channel.force(true);
+            }
+            channel.position(end[0]);
+            return new WriteAheadLog(channel, records);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    // Écriture
+    // ═══════════════════════════════════════════════════════════
+
+    /**
+     * Ajoute une trame au tampon commun, sans attendre le disque.
+     * L'ordre des appels est l'ordre de relecture : appeler sous le verrou
+     * qui ordonne la mutation, puis sync une fois le verrou relâché.
+     */
+    void append(byte[] payload) {
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+        ByteBuffer frame = ByteBuffer.allocate(FRAME_HEADER + payload.length);
+        frame.putInt(payload.length).putInt((int) crc.getValue()).put(payload);
+        synchronized (lock) {
+            ensureWritable();
+            pending.write(frame.array(), 0, frame.capacity());
+            appended++;
+        }
+    }
+
+    /**
+     * Attend que toutes les trames ajoutées avant l'appel soient sur disque.
+     *
+     * @throws UncheckedIOException si l'écriture ou la synchronisation échoue
+     */
+    void sync() {
+        long target;
+        synchronized (lock) {
+            target = appended;
+        }
+        boolean interrupted = false;
+        try {
+            while (true) {
+                byte[] batch;
+                long batchEnd;
+                synchronized (lock) {
+                    while (durable < target && flushing && failure == null) {
+                        try {
+                            lock.wait();
+                        } catch (InterruptedException e) {
+                            interrupted = true;
+                        }
+                    }
+                    if (failure != null) throw new UncheckedIOException(failure);
+                    if (durable >= target) return;
+                    // Ce thread écrit pour tous ceux qui attendent
+                    flushing = true;
+                    batch = pending.toByteArray();
+                    pending = new ByteArrayOutputStream(Math.max(32, batch.length));
+                    batchEnd = appended;
+                }
+
+                IOException error = null;
+                try {
+                    WriteAheadLog previous = predecessor;
+                    if (previous != null) {
+                        previous.sync();
+                        predecessor = null;
+                    }
+                    ByteBuffer buffer = ByteBuffer.wrap(batch);
+                    while (buffer.hasRemaining()) {
+                        channel.write(buffer);
+                    }
+                    channel.force(false);
+                } catch (IOException e) {
+                    error = e;
+                } catch (UncheckedIOException e) {
+                    error = e.getCause();
+                }
+
+                synchronized (lock) {
+                    flushing = false;
+                    if (error != null) {
+                        failure = error;
+                    } else {
+                        durable = batchEnd;
+                        syncCount++;
+                    }
+                    lock.notifyAll();
+                }
+            }
+        } finally {
+            if (interrupted) Thread.currentThread().interrupt();
+        }
+    }
+
+    /** Nombre d'enregistrements du journal (relus et ajoutés). */
+    long getRecordCount() {
+        synchronized (lock) {
+            return appended;
+        }
+    }
+
+    /** Nombre de synchronisations disque effectuées depuis l'ouverture. */
+    long getSyncCount() {
+        synchronized (lock) {
+            return syncCount;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (lock) {
+            closed = true;
+        }
+        try {
+            sync();
+        } catch (UncheckedIOException e) {
+            // L'erreur a déjà été signalée aux écrivains concernés
+        }
+        channel.close();
+    }
+
+    private void ensureWritable() {
+        if (closed) throw new IllegalStateException("Journal fermé");
+        if (failure != null) throw new UncheckedIOException("Journal en échec", failure);
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    // Enregistrements
+    // ═══════════════════════════════════════════════════════════
+
+    static byte[] addBook(Book book) {
+        return encode(ADD_BOOK, book.getIsbn(), book.getTitle(), book.getAuthor(), book.getYear());
+    }
+
+    static byte[] borrow(String isbn, String borrowerName) {
+        return encode(BORROW, isbn, borrowerName);
+    }
+
+    static byte[] returnBook(String isbn) {
+        return encode(RETURN, isbn);
+    }
+
+    /**
+     * Emprunt en lot : une seule trame, donc relu en entier ou pas du tout.
+     * Relu comme une suite d'emprunts (Handler.borrow).
+     */
+    static byte[] borrowBatch(String borrowerName, List<String> isbns) {
+        Object[] fields = new Object[isbns.size() + 2];
+        fields[0] = borrowerName;
+        fields[1] = isbns.size();
+        for (int i = 0; i < isbns.size(); i++) {
+            fields[i + 2] = isbns.get(i);
+        }
+        return encode(BORROW_BATCH, fields);
+    }
+
+    /** Retour en lot, relu comme une suite de retours. */
+    static byte[] returnBatch(List<String> isbns) {
+        Object[] fields = new Object[isbns.size() + 1];
+        fields[0] = isbns.size();
+        for (int i = 0; i < isbns.size(); i++) {
+            fields[i + 1] = isbns.get(i);
+        }
+        return encode(RETURN_BATCH, fields);
+    }
+
+    static byte[] clearBooks() {
+        return new byte[] {CLEAR_BOOKS};
+    }
+
+    static byte[] clearLoans() {
+        return new byte[] {CLEAR_LOANS};
+    }
+
+    private static byte[] encode(byte type, Object... fields) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(type);
+            for (Object field : fields) {
+                if (field instanceof Integer) {
+                    out.writeInt((Integer) field);
+                } else if (field == null) {
+                    out.writeByte(ABSENT);
+                } else {
+                    out.writeByte(TEXT);
+                    writeText(out, (String) field);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // Impossible en mémoire
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Chaîne de longueur quelconque : longueur en octets (int) puis UTF-8.
+     * writeUTF refuse les chaînes de plus de 65535 octets.
+     */
+    static void writeText(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    static String readText(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) throw new IOException("Longueur de texte invalide : " + length);
+        byte[] bytes = in.readNBytes(length);
+        if (bytes.length < length) throw new EOFException();
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    // Relecture
+    // ═══════════════════════════════════════════════════════════
+
+    private static long replay(FileChannel channel, Handler handler, long[] end) throws IOException {
+        long size = channel.size();
+        long position = 0;
+        long records = 0;
+        ByteBuffer header = ByteBuffer.allocate(FRAME_HEADER);
+        while (position + FRAME_HEADER <= size) {
+            header.clear();
+            readFully(channel, header, position);
+            int length = header.getInt(0);
+            int checksum = header.getInt(4);
+            if (length <= 0 || position + FRAME_HEADER + length > size) break;
+
+            ByteBuffer payload = ByteBuffer.allocate(length);
+            readFully(channel, payload, position + FRAME_HEADER);
+            CRC32C crc = new CRC32C();
+            crc.update(payload.array());
+            if ((int) crc.getValue() != checksum) break;
+
+            dispatch(payload.array(), handler);
+            position += FRAME_HEADER + length;
+            records++;
+        }
+        end[0] = position;
+        return records;
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) throw new EOFException();
+        }
+    }
+
+    private static void dispatch(byte[] payload, Handler handler) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        byte type = in.readByte();
+        switch (type) {
+            case ADD_BOOK:
+                handler.addBook(new Book(readString(in), readString(in), readString(in), in.readInt()));
+                break;
+            case BORROW:
+                handler.borrow(readString(in), readString(in));
+                break;
+            case RETURN:
+                handler.returnBook(readString(in));
+                break;
+            case BORROW_BATCH: {
+                String borrowerName = readString(in);
+                for (int count = in.readInt(); count > 0; count--) {
+                    handler.borrow(readString(in), borrowerName);
+                }
+                break;
+            }
+            case RETURN_BATCH:
+                for (int count = in.readInt(); count > 0; count--) {
+                    handler.returnBook(readString(in));
+                }
+                break;
+            case CLEAR_BOOKS:
+                handler.clearBooks();
+                break;
+            case CLEAR_LOANS:
+                handler.clearLoans();
+                break;
+            default:
+                throw new IOException("Type d'enregistrement inconnu dans le journal : " + type);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte kind = in.readByte();
+        switch (kind) {
+            case ABSENT:
+                return null;
+            case SHORT_UTF:
+                return in.readUTF();
+            case TEXT:
+                return readText(in);
+            default:
+                throw new IOException("Champ texte inconnu dans le journal : " + kind);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package library;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Index trié des livres par année de publication.
+ *
+ * Deux tableaux parallèles : les années distinctes, triées, et pour chacune
+ * la liste (croissante) des positions de ses livres. Une recherche par
+ * intervalle localise la première année par dichotomie puis recopie les
+ * listes des années suivantes : O(log a + k) pour a années distinctes et
+ * k livres trouvés, sans parcourir le catalogue.
+ *
+ * Un seul écrivain (add), recherches concurrentes sans verrou : une année
+ * nouvelle (rare) publie une nouvelle table complète, avant que la position
+ * soit ajoutée à sa liste.
+ */
+class YearIndex {
+
+    private static final class Table {
+        final int[] years;
+        final IntList[] positions;
+
+        Table(int[] years, IntList[] positions) {
+            this.years = years;
+            this.positions = positions;
+        }
+    }
+
+    private volatile Table table = new Table(new int[0], new IntList[0]);
+
+    /**
+     * Indexe le livre ajouté à la position donnée.
+     * Les positions sont croissantes d'un appel à l'autre.
+     */
+    void add(int position, int year) {
+        listFor(year).add(position);
+    }
+
+    /**
+     * Indexe un lot d'années aux positions consécutives à partir de firstPosition,
+     * avec une seule publication par année pour tout le lot.
+     */
+    void addAll(int firstPosition, int[] years) {
+        Map<Integer, IntList> batch = new HashMap<>();
+        for (int i = 0; i < years.length; i++) {
+            batch.computeIfAbsent(years[i], k -> new IntList()).add(firstPosition + i);
+        }
+        for (Map.Entry<Integer, IntList> entry : batch.entrySet()) {
+            listFor(entry.getKey()).addAll(entry.getValue());
+        }
+    }
+
+    /**
+     * Positions des livres publiés entre from et to inclus, triées par année
+     * puis par position.
+     */
+    int[] range(int from, int to) {
+        if (from > to) return new int[0];
+        Table current = table;
+        int start = Arrays.binarySearch(current.years, from);
+        if (start < 0) start = -start - 1;
+
+        List<int[]> lists = new ArrayList<>();
+        int total = 0;
+        for (int i = start; i < current.years.length && current.years[i] <= to; i++) {
+            int[] positions = current.positions[i].toArray();
+            lists.add(positions);
+            total += positions.length;
+        }
+        if (lists.size() == 1) return lists.get(0);
+
+        int[] result = new int[total];
+        int offset = 0;
+        for (int[] positions : lists) {
+            System.arraycopy(positions, 0, result, offset, positions.length);
+            offset += positions.length;
+        }
+        return result;
+    }
+
+    /**
+     * Nombre de livres publiés entre from et to inclus, en O(log a) plus une
+     * lecture de taille par année de l'intervalle.
+     */
+    int count(int from, int to) {
+        if (from > to) return 0;
+        Table current = table;
+        int start = Arrays.binarySearch(current.years, from);
+        if (start < 0) start = -start - 1;
+        int total = 0;
+        for (int i = start; i < current.years.length && current.years[i] <= to; i++) {
+            total += current.positions[i].size();
+        }
+        return total;
+    }
+
+    /** Nombre d'années distinctes indexées. */
+    int distinctYears() {
+        return table.years.length;
+    }
+
+    // Liste des positions de l'année, créée et publiée si l'année est nouvelle
+    private IntList listFor(int year) {
+        Table current = table;
+        int index = Arrays.binarySearch(current.years, year);
+        if (index >= 0) return current.positions[index];
+
+        int insert = -index - 1;
+        int n = current.years.length;
+        int[] years = new int[n + 1];
+        IntList[] positions = new IntList[n + 1];
+        System.arraycopy(current.years, 0, years, 0, insert);
+        System.arraycopy(current.positions, 0, positions, 0, insert);
+        years[insert] = year;
+        positions[insert] = new IntList();
+        System.arraycopy(current.years, insert, years, insert + 1, n - insert);
+        System.arraycopy(current.positions, insert, positions, insert + 1, n - insert);
+        table = new Table(years, positions);
+        return positions[insert];
+    }
+}
@@ -560,8 +560,8 @@ class LibraryTest {
     }
 
     @Test
-    @DisplayName("getLoans retourne une copie défensive - Sécurité")
-    void testGetLoans_ReturnsDefensiveCopy() {
+    @DisplayName("getLoans retourne un instantané immuable - Sécurité")
+    void testGetLoans_ReturnsImmutableSnapshot() {
         // Arrange
         Book book = new Book("978-BIBLE-001", "Bible", "Lenny", 2025);
         Library.addBook(book);
@@ -573,12 +573,13 @@ class LibraryTest {
 
         // Assert
         assertEquals(1, loans1.size(), "getLoans devrait retourner les emprunts");
-        assertNotSame(loans1, loans2, "getLoans devrait retourner une nouvelle copie à chaque appel");
+        assertNotSame(loans1, loans2, "getLoans devrait retourner un nouvel instantané à chaque appel");
 
-        // Modifier la copie ne doit pas affecter l'original
-        loans1.clear();
-        assertEquals(0, loans1.size(), "La copie est vidée");
-        assertEquals(1, Library.getLoans().size(), "L'original n'est pas affecté");
+        // L'instantané ne peut pas être modifié et ne voit pas les modifications ultérieures
+        assertThrows(UnsupportedOperationException.class, loans1::clear);
+        Library.returnBook(book.getIsbn());
+        assertEquals(1, loans1.size(), "L'instantané n'est pas affecté par le retour");
+        assertEquals(0, Library.getLoans().size(), "L'original reflète le retour");
     }
 
 }
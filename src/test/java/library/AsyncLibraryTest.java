@@ -0,0 +1,121 @@
+package library;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Façade asynchrone (CompletableFuture)")
+class AsyncLibraryTest {
+
+    @Test
+    @DisplayName("Les opérations asynchrones donnent les mêmes résultats que le moteur")
+    void testOperations_MirrorEngine() throws Exception {
+        // Arrange
+        LibraryEngine engine = new LibraryEngine(2);
+        engine.addBook(new Book("978-1", "Bible", "Lenny", 2025));
+        engine.addBook(new Book("978-2", "Emma", "Jane Austen", 1815));
+
+        try (AsyncLibrary async = new AsyncLibrary(engine)) {
+            // Act
+            CompletableFuture<Boolean> borrowed = async.borrowBook("978-1", "Roland");
+            CompletableFuture<String> returned = borrowed.thenCompose(ok -> async.returnBook("978-1"));
+            CompletableFuture<Book> found = async.byIsbn("978-2");
+            CompletableFuture<List<Book>> byAuthor = async.findByAuthor("austen");
+            // Après le retour : le lot ne doit pas prendre 978-1 avant Roland
+            CompletableFuture<LoanBatchReport> batch =
+                    returned.thenCompose(name -> async.borrowBooks("Alice", List.of("978-1", "978-2")));
+
+            // Assert
+            assertTrue(borrowed.get(5, TimeUnit.SECONDS));
+            assertEquals("Roland", returned.get(5, TimeUnit.SECONDS));
+            assertEquals("Emma", found.get(5, TimeUnit.SECONDS).getTitle());
+            assertEquals(1, byAuthor.get(5, TimeUnit.SECONDS).size());
+            assertTrue(batch.get(5, TimeUnit.SECONDS).isApplied());
+            assertNull(async.byIsbn("978-404").get(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    @DisplayName("Une erreur du moteur termine le future en échec")
+    void testBorrow_LoanLimit_FailsFuture() {
+        // Arrange
+        LibraryEngine engine = new LibraryEngine(1);
+        engine.addBook(new Book("978-1", "Bible", "Lenny", 2025));
+        engine.addBook(new Book("978-2", "Emma", "Austen", 1815));
+        engine.setMaxLoansPerBorrower(1);
+        engine.borrowBook("978-1", "Roland");
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        AsyncLibrary async = new AsyncLibrary(engine, pool, 4);
+
+        // Act
+        ExecutionException failure = assertThrows(ExecutionException.class,
+                () -> async.borrowBook("978-2", "Roland").get(5, TimeUnit.SECONDS));
+        pool.shutdown();
+
+        // Assert
+        assertInstanceOf(IllegalStateException.class, failure.getCause());
+        assertEquals(0, async.getInFlight(), "La place est rendue après l'échec");
+        assertThrows(IllegalArgumentException.class, () -> new AsyncLibrary(engine, pool, 0));
+    }
+
+    @Test
+    @DisplayName("Le nombre d'opérations en cours ne dépasse pas la limite")
+    void testSubmit_BoundedInFlight() throws Exception {
+        // Arrange
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        AsyncLibrary async = new AsyncLibrary(new LibraryEngine(1), pool, 3);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        List<CompletableFuture<Integer>> futures = new ArrayList<>();
+
+        // Act
+        Thread producer = new Thread(() -> {
+            for (int i = 0; i < 20; i++) {
+                futures.add(async.submit(() -> {
+                    peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    running.decrementAndGet();
+                    return 1;
+                }));
+            }
+        });
+        producer.start();
+        // Attend que trois tâches tournent et que le producteur soit bloqué sur une place
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while ((running.get() < 3 || producer.getState() != Thread.State.WAITING) && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        int inFlightWhileBlocked = async.getInFlight();
+        boolean producerWaiting = producer.getState() == Thread.State.WAITING;
+        release.countDown();
+        producer.join(5_000);
+        int total = 0;
+        for (CompletableFuture<Integer> future : futures) {
+            total += future.get(5, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        // Assert
+        assertEquals(3, inFlightWhileBlocked);
+        assertTrue(producerWaiting, "Le producteur attend une place");
+        assertEquals(20, total);
+        assertTrue(peak.get() <= 3, "Pic : " + peak.get());
+        assertEquals(0, async.getInFlight());
+    }
+}
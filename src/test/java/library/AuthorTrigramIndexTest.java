@@ -0,0 +1,86 @@
+package library;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Index de trigrammes sur les auteurs")
+class AuthorTrigramIndexTest {
+
+    private static final String[] AUTHORS = {
+        "Lenny", "Roland", "roland", "Le R", "Le-R", "Robert Martin", "Martin Fowler",
+        "ÉMILE ZOLA", "Émile", "Kent Beck", "Beckett", "", "Léa Seydoux"
+    };
+
+    @Test
+    @DisplayName("Mêmes résultats que le parcours complet avec toLowerCase/contains")
+    void testSearch_MatchesBruteForce() {
+        // Arrange
+        AuthorTrigramIndex index = new AuthorTrigramIndex();
+        for (int i = 0; i < AUTHORS.length; i++) {
+            index.add(i, AUTHORS[i]);
+        }
+        String[] queries = { "r", "le", "LE R", "rol", "ROLAND", "mart", "martin f", "émi",
+            "zola", "beck", "ck", "xyz", "ea s", "nny", "e" };
+
+        for (String query : queries) {
+            // Act
+            int[] actual = index.search(query);
+
+            // Assert
+            assertArrayEquals(bruteForce(AUTHORS, query), actual, "Requête : " + query);
+        }
+    }
+
+    @Test
+    @DisplayName("Catalogue aléatoire - comparaison avec le parcours complet")
+    void testSearch_RandomCatalog_MatchesBruteForce() {
+        // Arrange
+        Random random = new Random(42);
+        String alphabet = "abcABC -é";
+        String[] authors = new String[500];
+        AuthorTrigramIndex index = new AuthorTrigramIndex();
+        for (int i = 0; i < authors.length; i++) {
+            authors[i] = randomString(random, alphabet, 1 + random.nextInt(12));
+            index.add(i, authors[i]);
+        }
+
+        for (int q = 0; q < 200; q++) {
+            String query = randomString(random, alphabet, 1 + random.nextInt(5));
+
+            // Act & Assert
+            assertArrayEquals(bruteForce(authors, query), index.search(query), "Requête : " + query);
+        }
+    }
+
+    @Test
+    @DisplayName("Requête vide ou null - aucun résultat")
+    void testSearch_EmptyOrNull_ReturnsEmpty() {
+        // Arrange
+        AuthorTrigramIndex index = new AuthorTrigramIndex();
+        index.add(0, "Lenny");
+
+        // Act & Assert
+        assertEquals(0, index.search("").length);
+        assertEquals(0, index.search(null).length);
+    }
+
+    private static int[] bruteForce(String[] authors, String query) {
+        String searchLower = query.toLowerCase(Locale.ROOT);
+        return java.util.stream.IntStream.range(0, authors.length)
+                .filter(i -> authors[i].toLowerCase(Locale.ROOT).contains(searchLower))
+                .toArray();
+    }
+
+    private static String randomString(Random random, String alphabet, int length) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            sb.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return sb.toString();
+    }
+}
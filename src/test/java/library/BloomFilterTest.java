@@ -0,0 +1,110 @@
+package library;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Filtre de Bloom des ISBN")
+class BloomFilterTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Aucun faux négatif, faux positifs proches du taux visé")
+    void testFilter_NoFalseNegatives() {
+        // Arrange
+        BloomFilter filter = BloomFilter.forCapacity(100_000, 0.01);
+
+        // Act
+        for (int i = 0; i < 100_000; i++) {
+            filter.add("978-" + i);
+        }
+        int falsePositives = 0;
+        for (int i = 100_000; i < 200_000; i++) {
+            if (filter.mightContain("978-" + i)) falsePositives++;
+        }
+
+        // Assert
+        for (int i = 0; i < 100_000; i++) {
+            assertTrue(filter.mightContain("978-" + i));
+        }
+        assertTrue(filter.mightContain("9782070368228") == filter.mightContain("978-2-07-036822-8"),
+                "Deux écritures d'un même ISBN sont le même élément");
+        assertTrue(falsePositives < 2_000, "Faux positifs : " + falsePositives);
+        assertFalse(filter.mightContain(null));
+        assertThrows(IllegalArgumentException.class, () -> BloomFilter.forCapacity(10, 0));
+    }
+
+    @Test
+    @DisplayName("Le fichier catalogue écarte les ISBN absents et compte les faux positifs")
+    void testMappedCatalog_FiltersMisses() throws IOException {
+        // Arrange
+        LibraryEngine source = new LibraryEngine(2);
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            books.add(new Book("978-" + i, "Titre " + i, "Auteur", 2000));
+        }
+        books.add(new Book("9782070368228", "L'Étranger", "Camus", 1942));
+        source.addBooks(books);
+        Path file = tempDir.resolve("bibliotheque.catalog");
+        source.saveCatalog(file);
+        LibraryEngine engine = new LibraryEngine(2);
+        engine.openCatalog(file);
+
+        // Act
+        int found = 0;
+        for (int i = 0; i < 20_000; i++) {
+            if (engine.hasBookWithIsbn("978-" + i)) found++;
+        }
+        for (int i = 20_000; i < 40_000; i++) {
+            assertNull(engine.byIsbn("978-" + i));
+        }
+        IsbnFilterStats stats = engine.getIsbnFilterStats();
+
+        // Assert
+        assertEquals(20_000, found, "Aucun faux négatif");
+        assertEquals("L'Étranger", engine.byIsbn("978-2-07-036822-8").getTitle());
+        assertEquals(20_001, stats.getIsbnCount());
+        assertEquals(40_000, stats.getLookups());
+        assertEquals(20_000, stats.getDefiniteNegatives() + stats.getFalsePositives());
+        assertTrue(stats.getObservedFalsePositiveRate() < 0.03, stats.toString());
+        assertTrue(stats.getExpectedFalsePositiveRate() > 0 && stats.getExpectedFalsePositiveRate() < 0.03);
+    }
+
+    @Test
+    @DisplayName("Un fichier de version 2 s'ouvre sans filtre")
+    void testOpen_Version2_WithoutFilter() throws IOException {
+        // Arrange
+        LibraryEngine source = new LibraryEngine(1);
+        source.addBook(new Book("978-1", "Bible", "Lenny", 2025));
+        Path file = tempDir.resolve("ancien.catalog");
+        source.saveCatalog(file);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(MappedCatalog.HEADER_SIZE);
+            channel.read(header, 0);
+            channel.truncate(header.getLong(32) + 4L * header.getInt(40));
+            channel.write(ByteBuffer.allocate(4).putInt(0, 2), 8);
+        }
+        LibraryEngine engine = new LibraryEngine(1);
+
+        // Act
+        engine.openCatalog(file);
+
+        // Assert
+        assertEquals("Bible", engine.byIsbn("978-1").getTitle());
+        assertNull(engine.byIsbn("978-2"));
+        assertEquals(0, engine.getIsbnFilterStats().getBits());
+        assertEquals(0, engine.getIsbnFilterStats().getLookups());
+    }
+}
@@ -0,0 +1,54 @@
+package library;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Stockage des livres en colonnes")
+class BookColumnsTest {
+
+    @Test
+    @DisplayName("Les livres sont restitués à l'identique après agrandissement des colonnes")
+    void testAddAndGet_AcrossGrowth() {
+        // Arrange
+        BookColumns columns = new BookColumns();
+        List<Book> batch = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            batch.add(new Book("978-" + (100 + i), "Lot " + i, "Auteur " + i, 1950 + i));
+        }
+
+        // Act
+        for (int i = 0; i < 20; i++) {
+            columns.add(new Book("978-" + i, "Titre " + i, (i % 2 == 0) ? null : "Auteur " + i, 2000 + i));
+        }
+        int first = columns.addAll(batch);
+
+        // Assert
+        assertEquals(20, first);
+        assertEquals(70, columns.size());
+        assertEquals(new Book("978-7", "Titre 7", "Auteur 7", 2007), columns.get(7));
+        assertNull(columns.author(4), "Les champs null sont conservés");
+        assertEquals(batch.get(49), columns.get(69));
+        assertEquals(1999, columns.year(69));
+        assertNotSame(columns.get(3), columns.get(3), "Chaque lecture matérialise un nouveau livre");
+    }
+
+    @Test
+    @DisplayName("La recherche de titre ne parcourt que les positions demandées")
+    void testIndexOfTitleIgnoreCase() {
+        // Arrange
+        BookColumns columns = new BookColumns();
+        columns.add(new Book("978-1", null, "Lenny", 2025));
+        columns.add(new Book("978-2", "Émile", "Zola", 1880));
+        columns.add(new Book("978-3", "Nana", "Zola", 1880));
+
+        // Act & Assert
+        assertEquals(1, columns.indexOfTitleIgnoreCase("ÉMILE", 0, 3));
+        assertEquals(-1, columns.indexOfTitleIgnoreCase("nana", 0, 2), "Au-delà de la limite, rien n'est lu");
+        assertEquals(-1, columns.indexOfTitleIgnoreCase("Bible", 0, 3));
+    }
+}
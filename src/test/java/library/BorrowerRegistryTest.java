@@ -0,0 +1,135 @@
+package library;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Registre des emprunteurs et index inverse des emprunts")
+class BorrowerRegistryTest {
+
+    @Test
+    @DisplayName("Un même nom donne toujours le même emprunteur, avec un identifiant stable")
+    void testBorrow_InternsBorrowers() {
+        // Arrange
+        LibraryEngine engine = LoanBatchTest.engineWith(3);
+
+        // Act
+        engine.borrowBook("978-0", "Roland");
+        engine.borrowBook("978-1", "Roland");
+        engine.borrowBook("978-2", "Lenny");
+
+        // Assert
+        Borrower first = engine.getBorrower("978-0");
+        assertSame(first, engine.getBorrower("978-1"));
+        assertNotSame(first, engine.getBorrower("978-2"));
+        assertNotEquals(first.getId(), engine.getBorrower("978-2").getId());
+        assertEquals(Borrower.UNREGISTERED, new Borrower("Roland").getId());
+    }
+
+    @Test
+    @DisplayName("Un emprunteur enregistré ne peut pas être renommé")
+    void testSetName_RegisteredBorrower_Throws() {
+        // Arrange
+        LibraryEngine engine = LoanBatchTest.engineWith(2);
+        engine.borrowBook("978-0", "Roland");
+        engine.borrowBook("978-1", "Roland");
+        Borrower registered = engine.getBorrower("978-0");
+        Borrower detached = new Borrower("Roland");
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> registered.setName("X"));
+        detached.setName("X");
+        assertEquals("X", detached.getName());
+        assertEquals("Roland", engine.getBorrower("978-1").getName());
+        assertEquals(2, engine.getLoansOf("Roland").size());
+        assertTrue(engine.getLoansOf("X").isEmpty());
+    }
+
+    @Test
+    @DisplayName("L'index inverse suit les emprunts et retours, quelle que soit l'écriture de l'ISBN")
+    void testLoansOf_TracksBorrowAndReturn() {
+        // Arrange
+        LibraryEngine engine = LoanBatchTest.engineWith(5);
+        engine.addBook(new Book("978-0-306-40615-7", "Signaux", "Proakis", 1995));
+
+        // Act
+        engine.borrowBook("978-3", "Roland");
+        engine.borrowBook("978-1", "Roland");
+        engine.borrowBook("0-306-40615-2", "Roland");
+        engine.borrowBook("978-2", "Lenny");
+        engine.returnBook("978-3");
+        engine.returnBook("9780306406157");
+
+        // Assert
+        assertEquals(List.of("978-1"), engine.getLoansOf("Roland"));
+        assertEquals(1, engine.getLoanCount("Roland"));
+        assertEquals(List.of("978-2"), engine.getLoansOf("Lenny"));
+        assertEquals(List.of(), engine.getLoansOf("Personne"));
+        engine.clearLoans();
+        assertEquals(0, engine.getLoanCount("Roland"));
+        assertTrue(engine.getLoansOf("Lenny").isEmpty());
+    }
+
+    @Test
+    @DisplayName("La limite d'emprunts refuse l'emprunt de trop")
+    void testMaxLoans_RejectsOverLimit() {
+        // Arrange
+        LibraryEngine engine = LoanBatchTest.engineWith(4);
+        engine.setMaxLoansPerBorrower(2);
+
+        // Act
+        engine.borrowBook("978-0", "Roland");
+        engine.borrowBook("978-1", "Roland");
+
+        // Assert
+        assertThrows(IllegalStateException.class, () -> engine.borrowBook("978-2", "Roland"));
+        assertFalse(engine.isBorrowed("978-2"), "Le livre refusé n'est pas emprunté");
+        assertTrue(engine.borrowBook("978-2", "Lenny"), "La limite est propre à chaque emprunteur");
+        engine.returnBook("978-0");
+        assertTrue(engine.borrowBook("978-3", "Roland"), "Un retour libère une place");
+        assertThrows(IllegalArgumentException.class, () -> engine.setMaxLoansPerBorrower(-1));
+    }
+
+    @Test
+    @DisplayName("La limite tient sous emprunts concurrents")
+    void testMaxLoans_Concurrent() throws Exception {
+        // Arrange
+        LibraryEngine engine = LoanBatchTest.engineWith(400);
+        engine.setMaxLoansPerBorrower(10);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        AtomicInteger accepted = new AtomicInteger();
+
+        // Act
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            int first = t * 50;
+            futures.add(pool.submit(() -> {
+                for (int i = first; i < first + 50; i++) {
+                    try {
+                        if (engine.borrowBook("978-" + i, "Roland")) accepted.incrementAndGet();
+                    } catch (IllegalStateException e) {
+                        // Limite atteinte
+                    }
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        pool.shutdown();
+
+        // Assert
+        assertEquals(10, accepted.get());
+        assertEquals(10, engine.getLoanCount("Roland"));
+        assertEquals(10, engine.getLoansOf("Roland").size());
+        assertEquals(10, engine.getLoans().size());
+    }
+}
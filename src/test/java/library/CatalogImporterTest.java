@@ -0,0 +1,129 @@
+package library;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Import en lot CSV / JSON Lines")
+class CatalogImporterTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("CSV avec en-tête, guillemets et lignes invalides")
+    void testImportCsv_ValidAndRejectedRows() throws IOException {
+        // Arrange
+        Path file = tempDir.resolve("catalogue.csv");
+        Files.writeString(file, String.join("\n",
+                "isbn,title,author,year",
+                "978-1,Bible,Lenny,2025",
+                "978-2,\"Les singes, tome 1\",  Le   R ,2024",
+                "978-3,Sans année,Roland,pas_un_nombre",
+                "",
+                "978-4,Incomplet,Moi",
+                "978-5,\"Il a dit \"\"bonjour\"\"\",Roland,1999\r",
+                ""), StandardCharsets.UTF_8);
+        LibraryEngine engine = new LibraryEngine(4);
+
+        // Act
+        ImportReport report = engine.importCatalog(file);
+
+        // Assert
+        assertEquals(3, report.getImportedCount());
+        assertEquals(2, report.getRejectedRows().size());
+        assertEquals(4, report.getRejectedRows().get(0).getLineNumber());
+        assertEquals(6, report.getRejectedRows().get(1).getLineNumber());
+        assertEquals("Les singes, tome 1", engine.byIsbn("978-2").getTitle());
+        assertEquals("Le R", engine.byIsbn("978-2").getAuthor(), "Les blancs sont normalisés");
+        assertEquals("Il a dit \"bonjour\"", engine.byIsbn("978-5").getTitle());
+        assertEquals(1, engine.findByAuthor("le r").size());
+    }
+
+    @Test
+    @DisplayName("JSON Lines avec échappements et champs manquants")
+    void testImportJsonLines() throws IOException {
+        // Arrange
+        Path file = tempDir.resolve("catalogue.jsonl");
+        Files.writeString(file, String.join("\n",
+                "{\"isbn\": \"978-1\", \"title\": \"Bible\", \"author\": \"Lenny\", \"year\": 2025}",
+                "{\"isbn\": \"978-2\", \"title\": \"\\u00c9mile\", \"author\": \"Zola\", \"year\": 1880, \"extra\": true}",
+                "{\"isbn\": \"978-3\", \"author\": \"Sans titre\", \"year\": 2000}",
+                "pas du json"), StandardCharsets.UTF_8);
+        LibraryEngine engine = new LibraryEngine(2);
+
+        // Act
+        ImportReport report = engine.importCatalog(file);
+
+        // Assert
+        assertEquals(2, report.getImportedCount());
+        assertEquals(2, report.getRejectedRows().size());
+        assertEquals("Émile", engine.byIsbn("978-2").getTitle());
+    }
+
+    @Test
+    @DisplayName("Gros fichier découpé en nombreux blocs - ordre et numéros de ligne conservés")
+    void testImport_ManyChunks_KeepsOrderAndLineNumbers() throws IOException {
+        // Arrange
+        StringBuilder content = new StringBuilder();
+        int rows = 20_000;
+        for (int i = 0; i < rows; i++) {
+            if (i % 1000 == 999) {
+                content.append("invalide\n");
+            } else {
+                content.append("978-").append(i).append(",Titre ").append(i).append(",Auteur ").append(i % 10)
+                        .append(',').append(1900 + i % 100).append('\n');
+            }
+        }
+        Path file = tempDir.resolve("gros.csv");
+        Files.writeString(file, content, StandardCharsets.UTF_8);
+        LibraryEngine engine = new LibraryEngine(4);
+
+        // Act
+        ImportReport report = new CatalogImporter(engine, 4096).importFile(file);
+
+        // Assert
+        assertEquals(rows - 20, report.getImportedCount());
+        assertEquals(20, report.getRejectedRows().size());
+        assertEquals(1000, report.getRejectedRows().get(0).getLineNumber());
+        List<Book> books = engine.getBooks();
+        assertEquals("978-0", books.get(0).getIsbn());
+        assertEquals("978-" + (rows - 2), books.get(books.size() - 1).getIsbn());
+        assertEquals(rows / 10 - 20, engine.findByAuthor("auteur 9").size(), "Les lignes invalides sont toutes de l'auteur 9");
+    }
+
+    @Test
+    @DisplayName("Doublons refusés quand l'option est activée")
+    void testImport_RejectDuplicates() throws IOException {
+        // Arrange
+        Path file = tempDir.resolve("doublons.csv");
+        Files.writeString(file, "978-1,Bible,Lenny,2025\n978-2,A,B,2000\n978-1,Copie,Moi,2020\n",
+                StandardCharsets.UTF_8);
+        LibraryEngine engine = new LibraryEngine(2);
+        engine.addBook(new Book("978-2", "Déjà là", "X", 1990));
+        engine.setRejectDuplicateIsbn(true);
+
+        // Act
+        ImportReport report = engine.importCatalog(file);
+
+        // Assert
+        assertEquals(1, report.getImportedCount());
+        assertEquals(2, report.getRejectedRows().size());
+        assertEquals(2, report.getRejectedRows().get(0).getLineNumber());
+        assertEquals(3, report.getRejectedRows().get(1).getLineNumber());
+    }
+
+    @Test
+    @DisplayName("Extension inconnue - Validation")
+    void testFormat_UnknownExtension_Throws() {
+        assertThrows(IllegalArgumentException.class, () -> CatalogImporter.Format.of(Path.of("catalogue.xml")));
+    }
+}
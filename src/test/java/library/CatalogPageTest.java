@@ -0,0 +1,170 @@
+package library;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Parcours en flux et pagination du catalogue")
+class CatalogPageTest {
+
+    private final InputStream originalSystemIn = System.in;
+    private final PrintStream originalSystemOut = System.out;
+
+    @BeforeEach
+    void setUp() {
+        Library.clearBooks();
+        Library.clearLoans();
+    }
+
+    @AfterEach
+    void tearDown() {
+        System.setIn(originalSystemIn);
+        System.setOut(originalSystemOut);
+        Library.clearBooks();
+        Library.clearLoans();
+    }
+
+    @Test
+    @DisplayName("Les pages successives couvrent tout le catalogue, dans l'ordre")
+    void testListBooks_PagesCoverCatalogInOrder() {
+        // Arrange
+        LibraryEngine engine = new LibraryEngine(4);
+        for (int i = 0; i < 95; i++) {
+            engine.addBook(new Book("978-" + i, "Titre " + i, "Auteur", 2000));
+        }
+
+        // Act
+        List<Book> seen = new ArrayList<>();
+        int pages = 0;
+        CatalogPage page = engine.listBooks(10);
+        while (true) {
+            pages++;
+            seen.addAll(page.getBooks());
+            if (!page.hasNext()) break;
+            page = engine.listBooks(page.getNextCursor(), 10);
+        }
+
+        // Assert
+        assertEquals(10, pages);
+        assertEquals(engine.getBooks(), seen);
+    }
+
+    @Test
+    @DisplayName("Un livre ajouté pendant la pagination apparaît en fin de parcours")
+    void testListBooks_ConcurrentAdd_AppearsAtEnd() {
+        // Arrange
+        LibraryEngine engine = new LibraryEngine(2);
+        for (int i = 0; i < 5; i++) {
+            engine.addBook(new Book("978-" + i, "Titre " + i, "Auteur", 2000));
+        }
+        CatalogPage first = engine.listBooks(3);
+
+        // Act
+        engine.addBook(new Book("978-NEW", "Nouveau", "Auteur", 2001));
+        CatalogPage second = engine.listBooks(first.getNextCursor(), 10);
+
+        // Assert
+        assertEquals(List.of("978-3", "978-4", "978-NEW"),
+                second.getBooks().stream().map(Book::getIsbn).collect(Collectors.toList()));
+        assertFalse(second.hasNext());
+    }
+
+    @Test
+    @DisplayName("Ajouts concurrents sur plusieurs shards : un lecteur qui pagine n'en saute aucun")
+    void testListBooks_ConcurrentAddsAcrossShards_NoneSkipped() throws InterruptedException {
+        // Arrange
+        LibraryEngine engine = new LibraryEngine(8);
+        int writers = 4;
+        int perWriter = 5_000;
+        List<Thread> threads = new ArrayList<>();
+        for (int w = 0; w < writers; w++) {
+            int writer = w;
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < perWriter; i++) {
+                    engine.addBook(new Book("978-" + writer + "-" + i, "Titre", "Auteur", 2000));
+                }
+            }));
+        }
+
+        // Act
+        threads.forEach(Thread::start);
+        Set<String> seen = new HashSet<>();
+        int duplicates = 0;
+        long cursor = CatalogPage.FIRST;
+        long deadline = System.nanoTime() + 30_000_000_000L;
+        while (seen.size() + duplicates < writers * perWriter && System.nanoTime() < deadline) {
+            boolean writersDone = threads.stream().noneMatch(Thread::isAlive);
+            CatalogPage page = engine.listBooks(cursor, 100);
+            for (Book book : page.getBooks()) {
+                if (!seen.add(book.getIsbn())) duplicates++;
+            }
+            cursor = page.getNextCursor();
+            if (page.getBooks().isEmpty() && writersDone) break;
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // Assert
+        assertEquals(0, duplicates);
+        assertEquals(writers * perWriter, seen.size(), "Aucun livre sauté par le curseur");
+    }
+
+    @Test
+    @DisplayName("streamBooks parcourt l'instantané dans l'ordre d'ajout")
+    void testStreamBooks_InsertionOrder() {
+        // Arrange
+        Library.addBook(new Book("978-1", "Bible", "Lenny", 2025));
+        Library.addBook(new Book("978-2", "Les singes", "Le R", 2024));
+
+        // Act
+        List<String> isbns = Library.streamBooks().map(Book::getIsbn).collect(Collectors.toList());
+
+        // Assert
+        assertEquals(List.of("978-1", "978-2"), isbns);
+    }
+
+    @Test
+    @DisplayName("Taille de page invalide - Validation")
+    void testListBooks_InvalidLimit_Throws() {
+        assertThrows(IllegalArgumentException.class, () -> Library.listBooks(0));
+    }
+
+    @Test
+    @DisplayName("Option 2 : la console affiche le catalogue page par page")
+    void testLibraryApp_ListBooks_Paged() {
+        // Arrange
+        for (int i = 0; i < 45; i++) {
+            Library.addBook(new Book("978-" + i, "Livre " + i, "Auteur", 2000));
+        }
+        String input = "2\n" + // List books
+                "\n" + // page suivante
+                "q\n" + // arrêt avant la troisième page
+                "6\n";
+        System.setIn(new ByteArrayInputStream(input.getBytes()));
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(outputStream));
+
+        // Act
+        LibraryApp.main(new String[] {});
+
+        // Assert
+        String output = outputStream.toString();
+        assertTrue(output.contains("Livre 39"), "La deuxième page devrait être affichée");
+        assertFalse(output.contains("Livre 40"), "La troisième page ne devrait pas être affichée");
+        assertTrue(output.contains("Bye."));
+    }
+}
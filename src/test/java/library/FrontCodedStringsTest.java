@@ -0,0 +1,104 @@
+package library;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Chaînes codées par préfixe et dictionnaire des auteurs")
+class FrontCodedStringsTest {
+
+    @Test
+    @DisplayName("Toute entrée est restituée à l'identique, y compris null et hors ASCII")
+    void testGet_RoundTripAcrossBlocks() {
+        // Arrange
+        Random random = new Random(7);
+        String[] pieces = { "978-2-07-", "Émile", "Zola", "東京", "", "🙂", "a" };
+        List<String> values = new ArrayList<>();
+        FrontCodedStrings strings = new FrontCodedStrings();
+
+        // Act
+        for (int i = 0; i < 1000; i++) {
+            String value = (random.nextInt(20) == 0) ? null
+                    : pieces[random.nextInt(pieces.length)] + pieces[random.nextInt(pieces.length)] + i;
+            values.add(value);
+            strings.add(value);
+        }
+
+        // Assert
+        for (int i = 0; i < values.size(); i++) {
+            assertEquals(values.get(i), strings.get(i), "Position " + i);
+        }
+        int k = 998;
+        while (values.get(k) == null) k--;
+        assertEquals(k, strings.indexOfIgnoreCase(values.get(k).toUpperCase(Locale.ROOT), 0, 1000));
+    }
+
+    @Test
+    @DisplayName("La comparaison en octets suit String.equalsIgnoreCase, hors ASCII compris")
+    void testIndexOfIgnoreCase_MatchesStringRule() {
+        // Arrange
+        List<String> stored = List.of("Émile", "ÉMILE ", "東京", "🙂 Smile", "Straße", "İstanbul", "ǅ", "ab", "");
+        List<String> queries = List.of("émile", "émile ", "東京", "🙂 SMILE", "STRASSE", "istanbul", "ǆ", "AB", "",
+                "abc", "a", "🙃 Smile", "Émil");
+        FrontCodedStrings strings = new FrontCodedStrings();
+        stored.forEach(strings::add);
+        strings.add(null);
+
+        // Act / Assert
+        for (String query : queries) {
+            int expected = -1;
+            for (int i = 0; i < stored.size() && expected < 0; i++) {
+                if (stored.get(i).equalsIgnoreCase(query)) expected = i;
+            }
+            assertEquals(expected, strings.indexOfIgnoreCase(query, 0, stored.size() + 1), query);
+        }
+        assertEquals(-1, strings.indexOfIgnoreCase(null, 0, stored.size() + 1));
+    }
+
+    @Test
+    @DisplayName("Des ISBN voisins ne coûtent que leur suffixe")
+    void testAdd_SharedPrefixesAreCompressed() {
+        // Arrange
+        FrontCodedStrings strings = new FrontCodedStrings();
+        int raw = 0;
+
+        // Act
+        for (int i = 0; i < 1600; i++) {
+            String isbn = "978-2-07-" + String.format("%06d", i) + "-" + (i % 10);
+            raw += isbn.length();
+            strings.add(isbn);
+        }
+
+        // Assert
+        assertTrue(strings.byteSize() < raw / 2, "Encodé : " + strings.byteSize() + " octets pour " + raw);
+        assertEquals("978-2-07-001599-9", strings.get(1599));
+        assertEquals(1234, strings.indexOfIgnoreCase("978-2-07-001234-4", 0, 1600));
+        assertEquals(-1, strings.indexOfIgnoreCase("978-2-07-001234-4", 0, 1234));
+    }
+
+    @Test
+    @DisplayName("Un auteur répété n'est stocké qu'une fois")
+    void testDictionary_InternsDistinctAuthors() {
+        // Arrange
+        BookColumns columns = new BookColumns();
+
+        // Act
+        for (int i = 0; i < 300; i++) {
+            columns.add(new Book("978-" + i, "Titre " + i, (i % 3 == 0) ? "Zola" : (i % 3 == 1) ? "ZOLA" : null, 1880));
+        }
+
+        // Assert
+        assertEquals(2, columns.authors().size(), "Deux auteurs distincts (la casse compte)");
+        assertEquals(columns.authorId(0), columns.authorId(297));
+        assertEquals(AuthorDictionary.NULL_ID, columns.authorId(2));
+        assertEquals("ZOLA", columns.get(4).getAuthor());
+        assertNull(columns.get(5).getAuthor());
+        assertEquals("zola", columns.authors().folded(columns.authorId(4)));
+    }
+}
@@ -0,0 +1,71 @@
+package library;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Index primaire par ISBN")
+class IsbnIndexTest {
+
+    @BeforeEach
+    void setUp() {
+        Library.clearBooks();
+        Library.clearLoans();
+    }
+
+    @AfterEach
+    void tearDown() {
+        Library.setRejectDuplicateIsbn(false);
+        Library.clearBooks();
+        Library.clearLoans();
+    }
+
+    @Test
+    @DisplayName("L'index conserve la première position pour un ISBN dupliqué")
+    void testPut_DuplicateIsbn_KeepsFirstPosition() {
+        // Arrange
+        IsbnIndex index = new IsbnIndex();
+
+        // Act
+        boolean first = index.put("978-1", 0);
+        boolean second = index.put("978-1", 1);
+
+        // Assert
+        assertTrue(first);
+        assertFalse(second, "Le second ajout ne doit pas remplacer le premier");
+        assertEquals(0, index.get("978-1"));
+        assertEquals(IsbnIndex.ABSENT, index.get("978-2"));
+        assertEquals(IsbnIndex.ABSENT, index.get(null));
+    }
+
+    @Test
+    @DisplayName("clearBooks vide aussi l'index")
+    void testClearBooks_ClearsIndex() {
+        // Arrange
+        Library.addBook(new Book("978-1", "Bible", "Lenny", 2025));
+
+        // Act
+        Library.clearBooks();
+        Library.addBook(new Book("978-2", "Les singes", "Le R", 2024));
+
+        // Assert
+        assertNull(Library.byIsbn("978-1"), "L'ancien ISBN ne doit plus être trouvé");
+        assertEquals("Les singes", Library.byIsbn("978-2").getTitle());
+    }
+
+    @Test
+    @DisplayName("Refus des doublons d'ISBN quand l'option est activée")
+    void testAddBook_RejectDuplicateIsbn_Throws() {
+        // Arrange
+        Library.setRejectDuplicateIsbn(true);
+        Library.addBook(new Book("978-1", "Bible", "Lenny", 2025));
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> Library.addBook(new Book("978-1", "Autre", "Moi", 2020)));
+        assertEquals(1, Library.getBooks().size(), "Le doublon ne doit pas être ajouté");
+    }
+}
@@ -0,0 +1,133 @@
+package library;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Normalisation des ISBN et index primitifs")
+class IsbnTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("ISBN-10 et ISBN-13 équivalents ont la même clé")
+    void testPack_Isbn10AndIsbn13() {
+        // Act & Assert
+        assertEquals(9780306406157L, Isbn.pack("978-0-306-40615-7"));
+        assertEquals(9780306406157L, Isbn.pack("0-306-40615-2"));
+        assertEquals(9780306406157L, Isbn.pack("0306406152"));
+        assertEquals(9780306406157L, Isbn.pack("978 0 306 40615 7"));
+        assertEquals(9780804429573L, Isbn.pack("0-8044-2957-X"), "Clé X de l'ISBN-10");
+        assertEquals(9780804429573L, Isbn.pack("080442957x"));
+        assertEquals(9791090636071L, Isbn.pack("979-10-90636-07-1"));
+        assertEquals("9780306406157", Isbn.canonical("0-306-40615-2"));
+        assertEquals(Isbn.hash("0-306-40615-2"), Isbn.hash("9780306406157"));
+    }
+
+    @Test
+    @DisplayName("Les identifiants invalides restent des chaînes")
+    void testPack_InvalidIdentifiers() {
+        // Act & Assert
+        assertEquals(Isbn.INVALID, Isbn.pack("978-0-306-40615-8"), "Clé de contrôle fausse");
+        assertEquals(Isbn.INVALID, Isbn.pack("0-306-40615-3"));
+        assertEquals(Isbn.INVALID, Isbn.pack("977-0-306-40615-7"), "Préfixe ni 978 ni 979");
+        assertEquals(Isbn.INVALID, Isbn.pack("978-BIBLE-001"));
+        assertEquals(Isbn.INVALID, Isbn.pack("978-1234567890"));
+        assertEquals(Isbn.INVALID, Isbn.pack("X306406152"));
+        assertEquals(Isbn.INVALID, Isbn.pack(null));
+        assertEquals("978-BIBLE-001", Isbn.canonical("978-BIBLE-001"));
+    }
+
+    @Test
+    @DisplayName("La table long -> int garde la première valeur et survit aux agrandissements")
+    void testLongIntMap_PutGetGrow() {
+        // Arrange
+        LongIntMap map = new LongIntMap();
+
+        // Act
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(map.putIfAbsent(9780000000000L + i * 7L, i));
+        }
+        boolean replaced = map.putIfAbsent(9780000000000L, 42);
+
+        // Assert
+        assertFalse(replaced);
+        assertEquals(10_000, map.size());
+        assertEquals(0, map.get(9780000000000L));
+        assertEquals(9_999, map.get(9780000000000L + 9_999 * 7L));
+        assertEquals(LongIntMap.ABSENT, map.get(9780000000001L));
+    }
+
+    @Test
+    @DisplayName("Recherche, doublons et emprunts acceptent toute écriture de l'ISBN")
+    void testEngine_EquivalentIsbnForms() {
+        // Arrange
+        LibraryEngine engine = new LibraryEngine(4);
+        engine.setRejectDuplicateIsbn(true);
+        engine.addBook(new Book("978-0-306-40615-7", "Signaux", "Proakis", 1995));
+
+        // Act
+        List<Book> rejected = engine.addBooks(List.of(new Book("0306406152", "Doublon", "X", 1),
+                new Book("0-8044-2957-X", "Autre", "Y", 2), new Book("9780804429573", "Doublon du lot", "Z", 3)));
+        boolean borrowed = engine.borrowBook("0-306-40615-2", "Roland");
+
+        // Assert
+        assertEquals("Signaux", engine.byIsbn("9780306406157").getTitle());
+        assertEquals(2, rejected.size(), "Les formes équivalentes sont des doublons");
+        assertThrows(IllegalArgumentException.class, () -> engine.addBook(new Book("978 0 306 40615 7", "D", "X", 1)));
+        assertTrue(borrowed);
+        assertTrue(engine.isBorrowed("978-0-306-40615-7"));
+        assertFalse(engine.borrowBook("9780306406157", "Lenny"), "Déjà emprunté sous une autre forme");
+        assertEquals("Roland", engine.getLoans().get("0306406152").getName());
+        assertEquals("Roland", engine.returnBook("978-0-306-40615-7"));
+        assertFalse(engine.isBorrowed("0306406152"));
+    }
+
+    @Test
+    @DisplayName("Les emprunts sont indexés par l'ISBN empaqueté, les identifiants invalides par leur chaîne")
+    void testLoanKey_PackedForValidIsbn() {
+        // Arrange
+        LibraryEngine engine = new LibraryEngine(4);
+        engine.addBook(new Book("0-306-40615-2", "Signaux", "Proakis", 1995));
+        engine.addBook(new Book("978-BIBLE-001", "Bible", "Lenny", 2025));
+
+        // Act
+        engine.borrowBook("9780306406157", "Roland");
+        engine.borrowBook("978-BIBLE-001", "Roland");
+
+        // Assert
+        assertEquals(9_780_306_406_157L, Isbn.loanKey("0-306-40615-2"));
+        assertEquals("978-BIBLE-001", Isbn.loanKey("978-BIBLE-001"));
+        assertNull(Isbn.loanKey(null));
+        assertEquals("9780306406157", Isbn.fromLoanKey(Isbn.loanKey("978-0-306-40615-7")));
+        assertEquals(Set.of("9780306406157", "978-BIBLE-001"), engine.getLoans().keySet(),
+                "L'instantané présente les formes canoniques");
+        assertEquals(List.of("978-BIBLE-001", "9780306406157"), engine.getLoansOf("Roland"));
+    }
+
+    @Test
+    @DisplayName("Le catalogue binaire retrouve un ISBN écrit autrement")
+    void testMappedCatalog_EquivalentIsbnForms() throws IOException {
+        // Arrange
+        Path file = tempDir.resolve("isbn.catalog");
+        MappedCatalog.write(file, List.of(new Book("0-306-40615-2", "Signaux", "Proakis", 1995),
+                new Book("978-BIBLE-001", "Bible", "Lenny", 2025)));
+
+        // Act
+        MappedCatalog catalog = MappedCatalog.open(file);
+
+        // Assert
+        assertEquals("Signaux", catalog.byIsbn("9780306406157").getTitle());
+        assertEquals("Signaux", catalog.byIsbn("0-306-40615-2").getTitle());
+        assertEquals("Bible", catalog.byIsbn("978-BIBLE-001").getTitle());
+        assertNull(catalog.byIsbn("978-bible-001"));
+    }
+}
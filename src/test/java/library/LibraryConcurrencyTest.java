@@ -0,0 +1,111 @@
+package library;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Library en accès concurrent")
+class LibraryConcurrencyTest {
+    private static final int THREADS = 8;
+
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        Library.clearBooks();
+        Library.clearLoans();
+        executor = Executors.newFixedThreadPool(THREADS);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        executor.shutdownNow();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+        Library.clearBooks();
+        Library.clearLoans();
+    }
+
+    @Test
+    @DisplayName("Emprunts simultanés du même ISBN - un seul réussit")
+    void testBorrowBook_ConcurrentSameIsbn_OnlyOneSucceeds() throws Exception {
+        for (int round = 0; round < 50; round++) {
+            // Arrange
+            String isbn = "978-RACE-" + round;
+            Library.addBook(new Book(isbn, "Course", "Lenny", 2025));
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                String name = "Emprunteur " + t;
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return Library.borrowBook(isbn, name);
+                }));
+            }
+
+            // Act
+            start.countDown();
+            int successes = 0;
+            for (Future<Boolean> result : results) {
+                if (result.get()) successes++;
+            }
+
+            // Assert
+            assertEquals(1, successes, "Un seul emprunt doit réussir pour " + isbn);
+            assertTrue(Library.isBorrowed(isbn));
+        }
+    }
+
+    @Test
+    @DisplayName("Trafic mixte ajout/emprunt/retour/recherche - état cohérent")
+    void testMixedTraffic_ConsistentState() throws Exception {
+        // Arrange
+        int booksPerThread = 500;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> results = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            Callable<Integer> task = () -> {
+                start.await();
+                int borrowed = 0;
+                for (int i = 0; i < booksPerThread; i++) {
+                    String isbn = "978-" + thread + "-" + i;
+                    Library.addBook(new Book(isbn, "Titre " + i, "Auteur " + thread, 2000 + i % 20));
+                    assertNotNull(Library.byIsbn(isbn), "Un livre ajouté doit être visible");
+                    assertTrue(Library.borrowBook(isbn, "Lecteur " + thread));
+                    if (i % 2 == 0) {
+                        assertEquals("Lecteur " + thread, Library.returnBook(isbn));
+                    } else {
+                        borrowed++;
+                    }
+                    Library.findByAuthor("auteur " + thread);
+                }
+                return borrowed;
+            };
+            results.add(executor.submit(task));
+        }
+
+        // Act
+        start.countDown();
+        int expectedLoans = 0;
+        for (Future<Integer> result : results) {
+            expectedLoans += result.get();
+        }
+
+        // Assert
+        assertEquals(THREADS * booksPerThread, Library.getBooks().size());
+        assertEquals(expectedLoans, Library.getLoans().size());
+        assertEquals(booksPerThread, Library.findByAuthor("auteur 3").size());
+    }
+}
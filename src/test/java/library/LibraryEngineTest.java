@@ -0,0 +1,129 @@
+package library;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Moteur de bibliothèque partitionné")
+class LibraryEngineTest {
+
+    @Test
+    @DisplayName("Deux moteurs sont indépendants")
+    void testEngines_AreIndependent() {
+        // Arrange
+        LibraryEngine first = new LibraryEngine(4);
+        LibraryEngine second = new LibraryEngine(4);
+
+        // Act
+        first.addBook(new Book("978-1", "Bible", "Lenny", 2025));
+        first.borrowBook("978-1", "Roland");
+
+        // Assert
+        assertEquals(1, first.getBooks().size());
+        assertEquals(0, second.getBooks().size());
+        assertNull(second.byIsbn("978-1"));
+        assertFalse(second.isBorrowed("978-1"));
+    }
+
+    @Test
+    @DisplayName("getBooks et findByAuthor conservent l'ordre d'ajout entre shards")
+    void testGetBooks_MultipleShards_KeepsInsertionOrder() {
+        // Arrange
+        LibraryEngine engine = new LibraryEngine(8);
+        List<Book> added = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            Book book = new Book("978-" + i, "Titre " + i, (i % 3 == 0) ? "Lenny" : "Roland", 2000 + i);
+            engine.addBook(book);
+            added.add(book);
+        }
+
+        // Act
+        List<Book> books = engine.getBooks();
+        List<Book> lenny = engine.findByAuthor("LEN");
+
+        // Assert
+        assertEquals(added, books);
+        List<Book> expected = new ArrayList<>();
+        for (Book b : added) {
+            if (b.getAuthor().equals("Lenny")) expected.add(b);
+        }
+        assertEquals(expected, lenny);
+    }
+
+    @Test
+    @DisplayName("L'accès par index à l'instantané suit l'ordre d'ajout, base projetée comprise")
+    void testGetBooks_RandomAccess_MatchesIteration(@TempDir Path tempDir) throws IOException {
+        // Arrange
+        LibraryEngine source = new LibraryEngine(1);
+        for (int i = 0; i < 50; i++) {
+            source.addBook(new Book("978-B" + i, "Base " + i, "Auteur", 2000));
+        }
+        Path file = tempDir.resolve("base.catalog");
+        source.saveCatalog(file);
+        LibraryEngine engine = new LibraryEngine(8);
+        engine.openCatalog(file);
+        for (int i = 0; i < 150; i++) {
+            engine.addBook(new Book("978-" + i, "Titre " + i, "Auteur", 2000));
+        }
+        List<Book> books = engine.getBooks();
+        List<Book> iterated = new ArrayList<>(books);
+
+        // Act / Assert
+        assertEquals("Titre 99", books.get(149).getTitle(), "Premier accès au milieu");
+        for (int i = books.size() - 1; i >= 0; i--) {
+            assertEquals(iterated.get(i), books.get(i), "Index " + i);
+        }
+        assertThrows(IndexOutOfBoundsException.class, () -> books.get(200));
+    }
+
+    @Test
+    @DisplayName("Les doublons d'ISBN tombent dans le même shard")
+    void testByIsbn_Duplicates_ReturnsFirst() {
+        // Arrange
+        LibraryEngine engine = new LibraryEngine(8);
+        engine.addBook(new Book("978-DUP", "Premier", "Lenny", 2025));
+        engine.addBook(new Book("978-DUP", "Second", "Roland", 2024));
+
+        // Act & Assert
+        assertEquals("Premier", engine.byIsbn("978-DUP").getTitle());
+        engine.setRejectDuplicateIsbn(true);
+        assertThrows(IllegalArgumentException.class,
+                () -> engine.addBook(new Book("978-DUP", "Troisième", "Moi", 2023)));
+    }
+
+    @Test
+    @DisplayName("Recherche parallèle sur un gros catalogue")
+    void testFindByAuthor_LargeCatalog_ParallelFanOut() {
+        // Arrange
+        LibraryEngine engine = new LibraryEngine(4);
+        int count = LibraryEngine.PARALLEL_SCAN_THRESHOLD + 1000;
+        for (int i = 0; i < count; i++) {
+            engine.addBook(new Book("978-" + i, "Titre " + i, "Auteur " + (i % 100), 2000));
+        }
+
+        // Act
+        List<Book> results = engine.findByAuthor("auteur 42");
+
+        // Assert
+        assertEquals(count / 100, results.size());
+        for (int i = 1; i < results.size(); i++) {
+            assertEquals(100, Integer.parseInt(results.get(i).getIsbn().substring(4))
+                    - Integer.parseInt(results.get(i - 1).getIsbn().substring(4)));
+        }
+        assertTrue(engine.hasBookWithTitle("titre 12345"));
+        assertFalse(engine.hasBookWithTitle("Inexistant"));
+    }
+
+    @Test
+    @DisplayName("Nombre de shards invalide - Validation")
+    void testConstructor_InvalidShardCount_Throws() {
+        assertThrows(IllegalArgumentException.class, () -> new LibraryEngine(0));
+    }
+}
@@ -0,0 +1,206 @@
+package library;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Serveur réseau en lignes (un thread par connexion)")
+class LibraryServerTest {
+
+    private static final class Client implements AutoCloseable {
+        final Socket socket;
+        final BufferedReader in;
+        final OutputStream out;
+
+        Client(int port) throws IOException {
+            socket = new Socket(InetAddress.getLoopbackAddress(), port);
+            socket.setSoTimeout(5_000);
+            in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            out = socket.getOutputStream();
+        }
+
+        void send(String... lines) throws IOException {
+            out.write((String.join("\n", lines) + "\n").getBytes(StandardCharsets.UTF_8));
+            out.flush();
+        }
+
+        String read() throws IOException {
+            return in.readLine();
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Requêtes enchaînées sur une connexion gardée ouverte, réponses dans l'ordre")
+    void testPipelinedRequests_KeepAlive() throws IOException {
+        // Arrange
+        LibraryEngine engine = new LibraryEngine(2);
+        try (LibraryServer server = new LibraryServer(engine, 0);
+             Client client = new Client(server.getPort())) {
+
+            // Act
+            client.send("ADD\t978-1\tBible\tLenny\t2025",
+                    "ADD\t978-2\tÉmile\tZola\t1880",
+                    "BORROW\t978-1\tRoland",
+                    "BORROW\t978-1\tAlice",
+                    "BORROW\t978-404\tAlice",
+                    "LIST\t-\t1");
+            List<String> responses = new ArrayList<>();
+            for (int i = 0; i < 7; i++) {
+                responses.add(client.read());
+            }
+            client.send("FIND\tzol", "RETURN\t978-1", "RETURN\t978-1", "ADD\t978-3\tX\tY\tannée", "NOPE", "QUIT");
+            List<String> more = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                more.add(client.read());
+            }
+
+            // Assert
+            assertEquals(List.of("OK", "OK", "OK", "ERR\tALREADY_BORROWED", "ERR\tNOT_FOUND"), responses.subList(0, 5));
+            assertTrue(responses.get(5).startsWith("OK\t1\t"), "Une page d'un livre, avec curseur : " + responses.get(5));
+            assertEquals("978-1\tBible\tLenny\t2025\tBORROWED", responses.get(6));
+            assertEquals("OK\t1\t-", more.get(0));
+            assertEquals("978-2\tÉmile\tZola\t1880\tAVAILABLE", more.get(1));
+            assertEquals("OK\tRoland", more.get(2));
+            assertEquals("ERR\tNOT_BORROWED", more.get(3));
+            assertTrue(more.get(4).startsWith("ERR\t"));
+            assertTrue(more.get(5).startsWith("ERR\tCommande inconnue"));
+            assertEquals("OK", more.get(6));
+            assertNull(more.get(7), "QUIT ferme la connexion");
+            assertEquals(2, engine.getBooks().size());
+        }
+    }
+
+    @Test
+    @DisplayName("Des dizaines de postes en même temps : un seul emprunt réussit par livre")
+    void testConcurrentClients() throws Exception {
+        // Arrange
+        LibraryEngine engine = new LibraryEngine(4);
+        engine.addBook(new Book("978-0", "Convoité", "Auteur", 2000));
+        int desks = 40;
+        ExecutorService pool = Executors.newFixedThreadPool(desks);
+        try (LibraryServer server = new LibraryServer(engine, 0)) {
+            List<Future<String>> results = new ArrayList<>();
+
+            // Act
+            for (int d = 0; d < desks; d++) {
+                int desk = d;
+                results.add(pool.submit(() -> {
+                    try (Client client = new Client(server.getPort())) {
+                        client.send("ADD\t978-" + (desk + 1) + "\tTitre\tAuteur\t2000",
+                                "BORROW\t978-" + (desk + 1) + "\tPoste " + desk,
+                                "BORROW\t978-0\tPoste " + desk);
+                        String add = client.read();
+                        String own = client.read();
+                        String contended = client.read();
+                        assertEquals("OK", add);
+                        assertEquals("OK", own);
+                        return contended;
+                    }
+                }));
+            }
+            long winners = 0;
+            for (Future<String> result : results) {
+                if (result.get(10, TimeUnit.SECONDS).equals("OK")) winners++;
+            }
+            pool.shutdown();
+
+            // Assert
+            assertEquals(1, winners);
+            assertEquals(desks + 1, engine.getLoans().size());
+        }
+    }
+
+    @Test
+    @DisplayName("FIND pagine les résultats mis en cache, le curseur suivant les enchaîne sans trou")
+    void testFind_PagesThroughCachedResults() throws IOException {
+        // Arrange
+        LibraryEngine engine = new LibraryEngine(2);
+        for (int i = 0; i < 5; i++) {
+            engine.addBook(new Book("978-" + i, "Titre " + i, i % 2 == 0 ? "Zola" : "Hugo", 1880 + i));
+        }
+        engine.borrowBook("978-2", "Alice");
+        try (LibraryServer server = new LibraryServer(engine, 0);
+             Client client = new Client(server.getPort())) {
+
+            // Act
+            client.send("FIND\tzol\t-\t2");
+            String first = client.read();
+            List<String> firstBooks = List.of(client.read(), client.read());
+            client.send("FIND\tzol\t" + first.split("\t")[2] + "\t2");
+            String second = client.read();
+            String last = client.read();
+
+            // Assert
+            assertEquals("OK\t2\t1", first);
+            assertEquals(List.of("978-0\tTitre 0\tZola\t1880\tAVAILABLE", "978-2\tTitre 2\tZola\t1882\tBORROWED"),
+                    firstBooks);
+            assertEquals("OK\t1\t-", second);
+            assertEquals("978-4\tTitre 4\tZola\t1884\tAVAILABLE", last);
+        }
+    }
+
+    @Test
+    @DisplayName("Une requête trop longue reçoit ERR et ferme la connexion")
+    void testLineTooLong_ErrorAndClose() throws IOException {
+        // Arrange
+        LibraryEngine engine = new LibraryEngine(2);
+        try (LibraryServer server = new LibraryServer(engine, 0);
+             Client client = new Client(server.getPort())) {
+
+            // Act
+            client.send("ADD\t978-1\t" + "x".repeat(LibraryServer.MAX_LINE_LENGTH) + "\tAuteur\t2000");
+            String response = client.read();
+
+            // Assert
+            assertTrue(response.startsWith("ERR\tRequête trop longue"), response);
+            assertNull(client.read(), "La connexion est fermée");
+            assertTrue(engine.getBooks().isEmpty());
+        }
+    }
+
+    @Test
+    @DisplayName("Au-delà du nombre maximal de connexions, la nouvelle connexion reçoit ERR")
+    void testMaxConnections_ExtraConnectionRefused() throws IOException {
+        // Arrange
+        LibraryEngine engine = new LibraryEngine(2);
+        try (LibraryServer server = new LibraryServer(engine, 0, LibraryServer.DEFAULT_IDLE_TIMEOUT_MILLIS, 1);
+             Client first = new Client(server.getPort())) {
+            first.send("LIST");
+            assertEquals("OK\t0\t-", first.read());
+
+            // Act
+            String refused;
+            String afterRefusal;
+            try (Client second = new Client(server.getPort())) {
+                refused = second.read();
+                afterRefusal = second.read();
+            }
+            first.send("LIST");
+
+            // Assert
+            assertEquals("ERR\tTrop de connexions", refused);
+            assertNull(afterRefusal, "La connexion refusée est fermée");
+            assertEquals("OK\t0\t-", first.read(), "La connexion déjà servie reste ouverte");
+        }
+    }
+}
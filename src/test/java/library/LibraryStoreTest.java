@@ -0,0 +1,335 @@
+package library;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Répertoire de données : points de reprise et compaction")
+class LibraryStoreTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static List<String> fileNames(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString()).sorted().toList();
+        }
+    }
+
+    @Test
+    @DisplayName("La reprise combine le point de reprise et les mutations suivantes")
+    void testOpen_RestoresCheckpointThenJournal() throws IOException {
+        // Arrange
+        LibraryEngine engine = new LibraryEngine(4);
+        engine.openStore(tempDir);
+        engine.addBook(new Book("978-1", "Bible", "Lenny", 2025));
+        engine.addBook(new Book("978-2", "Émile", "Zola", 1880));
+        engine.borrowBook("978-1", "Roland");
+        engine.checkpoint();
+        engine.addBook(new Book("978-3", "Nana", "Zola", 1880));
+        engine.borrowBook("978-3", "Lenny");
+        engine.returnBook("978-1");
+        engine.closeStore();
+
+        // Act
+        LibraryEngine restarted = new LibraryEngine(2);
+        restarted.openStore(tempDir);
+
+        // Assert
+        assertEquals(engine.getBooks().toString(), restarted.getBooks().toString());
+        assertFalse(restarted.isBorrowed("978-1"), "Le retour postérieur au point de reprise est rejoué");
+        assertEquals("Lenny", restarted.getBorrower("978-3").getName());
+        assertEquals(1, restarted.getLoans().size());
+        restarted.closeStore();
+    }
+
+    @Test
+    @DisplayName("Un emprunteur au nom de plus de 64 Ko survit au point de reprise")
+    void testCheckpoint_LongBorrowerName() throws IOException {
+        // Arrange
+        String name = "Lecteur ".repeat(10_000);
+        LibraryEngine engine = new LibraryEngine(2);
+        engine.openStore(tempDir);
+        engine.addBook(new Book("978-1", "Bible", "Lenny", 2025));
+        engine.borrowBook("978-1", name);
+
+        // Act
+        engine.checkpoint();
+        engine.closeStore();
+        LibraryEngine restarted = new LibraryEngine(2);
+        restarted.openStore(tempDir);
+
+        // Assert
+        assertEquals(name, restarted.getBorrower("978-1").getName());
+        restarted.closeStore();
+    }
+
+    @Test
+    @DisplayName("Un point de reprise supprime les générations qu'il remplace")
+    void testCheckpoint_CompactsOlderGenerations() throws IOException {
+        // Arrange
+        LibraryEngine engine = new LibraryEngine(2);
+        engine.openStore(tempDir);
+        for (int i = 0; i < 100; i++) {
+            engine.addBook(new Book("978-" + i, "Titre " + i, "Auteur", 2000));
+            engine.borrowBook("978-" + i, "Lecteur");
+            engine.returnBook("978-" + i);
+        }
+
+        // Act
+        engine.checkpoint();
+        engine.borrowBook("978-5", "Roland");
+        engine.checkpoint();
+        engine.closeStore();
+        LibraryEngine restarted = new LibraryEngine(2);
+        restarted.openStore(tempDir);
+
+        // Assert
+        assertEquals(List.of("CURRENT", "catalog-2.catalog", "journal-2.wal", "loans-2.snapshot"), fileNames(tempDir));
+        assertEquals(0, Files.size(tempDir.resolve("journal-2.wal")), "Rien à rejouer après le point de reprise");
+        assertEquals(100, restarted.getBooks().size());
+        assertEquals("Roland", restarted.getBorrower("978-5").getName());
+        restarted.closeStore();
+    }
+
+    @Test
+    @DisplayName("Un point de reprise interrompu laisse un état restaurable")
+    void testOpen_AfterInterruptedCheckpoint() throws IOException {
+        // Arrange : journal 1 créé, mais CURRENT toujours à 0 et instantanés incomplets
+        LibraryEngine engine = new LibraryEngine(2);
+        engine.openStore(tempDir);
+        engine.addBook(new Book("978-1", "Bible", "Lenny", 2025));
+        engine.borrowBook("978-1", "Roland");
+        engine.closeStore();
+        try (WriteAheadLog next = WriteAheadLog.create(tempDir.resolve("journal-1.wal"), null)) {
+            next.append(WriteAheadLog.addBook(new Book("978-2", "Émile", "Zola", 1880)));
+            next.sync();
+        }
+        Files.writeString(tempDir.resolve("catalog-1.catalog"), "incomplet");
+
+        // Act
+        LibraryEngine restarted = new LibraryEngine(2);
+        restarted.openStore(tempDir);
+        restarted.addBook(new Book("978-3", "Nana", "Zola", 1880));
+        restarted.closeStore();
+        LibraryEngine again = new LibraryEngine(2);
+        again.openStore(tempDir);
+
+        // Assert
+        assertEquals(3, again.getBooks().size(), "Les deux journaux sont rejoués dans l'ordre");
+        assertEquals("978-2", again.getBooks().get(1).getIsbn());
+        assertTrue(again.isBorrowed("978-1"));
+        assertFalse(Files.exists(tempDir.resolve("catalog-1.catalog")), "L'instantané incomplet est supprimé");
+        again.closeStore();
+    }
+
+    @Test
+    @DisplayName("Les points de reprise planifiés s'exécutent en tâche de fond")
+    void testSchedule_CheckpointsPeriodically() throws Exception {
+        // Arrange
+        LibraryEngine engine = new LibraryEngine(2);
+        engine.openStore(tempDir, Duration.ofMillis(20));
+
+        // Act
+        engine.addBook(new Book("978-1", "Bible", "Lenny", 2025));
+        engine.borrowBook("978-1", "Roland");
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (!Files.exists(tempDir.resolve("loans-1.snapshot")) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        engine.addBook(new Book("978-2", "Émile", "Zola", 1880));
+        engine.closeStore();
+        LibraryEngine restarted = new LibraryEngine(2);
+        restarted.openStore(tempDir);
+
+        // Assert
+        assertTrue(Files.readString(tempDir.resolve("CURRENT")).compareTo("1") >= 0, "Au moins un point de reprise");
+        assertEquals(2, restarted.getBooks().size());
+        assertEquals("Roland", restarted.getBorrower("978-1").getName());
+        restarted.closeStore();
+    }
+
+    @Test
+    @DisplayName("Les anciens journaux ne sont supprimés qu'une fois CURRENT sur disque")
+    void testCheckpoint_RemovesJournalsOnlyAfterCurrentIsDurable() throws IOException {
+        // Arrange
+        LibraryEngine engine = new LibraryEngine(2);
+        LibraryStore store = LibraryStore.open(tempDir, engine);
+        engine.addBook(new Book("978-1", "Bible", "Lenny", 2025));
+        store.checkpoint();
+        engine.borrowBook("978-1", "Roland");
+        List<String> forced = new ArrayList<>();
+        store.onForce = path -> {
+            String name = path.equals(tempDir) ? "<répertoire>" : path.getFileName().toString();
+            forced.add(name + (Files.exists(tempDir.resolve("journal-1.wal")) ? "" : " (journal-1 supprimé)"));
+        };
+
+        // Act
+        store.checkpoint();
+        store.close();
+        engine.closeJournal();
+
+        // Assert
+        assertEquals(3, forced.size(), "Instantané des emprunts, CURRENT, puis répertoire : " + forced);
+        assertTrue(forced.get(0).startsWith("loans-2.snapshot") && forced.get(0).endsWith(".tmp"), forced.get(0));
+        assertTrue(forced.get(1).startsWith("CURRENT") && forced.get(1).endsWith(".tmp"), forced.get(1));
+        assertEquals("<répertoire>", forced.get(2));
+        assertFalse(Files.exists(tempDir.resolve("journal-1.wal")), "Supprimé après la mise sur disque");
+        assertEquals("2", Files.readString(tempDir.resolve("CURRENT")));
+    }
+
+    @Test
+    @DisplayName("Fermer le répertoire attend la fin du point de reprise en cours")
+    void testClose_WaitsForRunningCheckpoint() throws Exception {
+        // Arrange
+        LibraryEngine engine = new LibraryEngine(2);
+        LibraryStore store = LibraryStore.open(tempDir, engine);
+        CountDownLatch inCheckpoint = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        store.onForce = path -> {
+            inCheckpoint.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        engine.addBook(new Book("978-1", "Bible", "Lenny", 2025));
+        store.schedule(Duration.ofMillis(1));
+        assertTrue(inCheckpoint.await(10, TimeUnit.SECONDS));
+
+        // Act
+        Thread closer = new Thread(() -> {
+            try {
+                store.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        closer.start();
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (closer.getState() != Thread.State.BLOCKED && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        Thread.State whileCheckpointing = closer.getState();
+        release.countDown();
+        closer.join(10_000);
+        engine.closeJournal();
+
+        // Assert
+        assertEquals(Thread.State.BLOCKED, whileCheckpointing, "close attend le point de reprise");
+        assertFalse(closer.isAlive());
+        assertNull(engine.journal());
+        assertEquals("1", Files.readString(tempDir.resolve("CURRENT")));
+        assertThrows(IllegalStateException.class, store::checkpoint, "Répertoire fermé");
+    }
+
+    @Test
+    @DisplayName("Sans journal, un point de reprise échoue proprement")
+    void testCheckpoint_JournalClosed_Throws() throws IOException {
+        // Arrange
+        LibraryEngine engine = new LibraryEngine(2);
+        engine.openStore(tempDir);
+
+        // Act
+        IllegalStateException owned = assertThrows(IllegalStateException.class, engine::closeJournal);
+        engine.closeStore();
+        LibraryEngine other = new LibraryEngine(2);
+        LibraryStore detached = LibraryStore.open(tempDir, other);
+        other.closeJournal();
+        IllegalStateException noJournal = assertThrows(IllegalStateException.class, detached::checkpoint);
+
+        // Assert
+        assertTrue(owned.getMessage().contains("closeStore"), owned.getMessage());
+        assertEquals("Aucun journal ouvert", noJournal.getMessage());
+        assertFalse(Files.exists(tempDir.resolve("journal-1.wal")), "Aucun journal créé");
+    }
+
+    @Test
+    @DisplayName("L'échec d'un point de reprise planifié est signalé, puis levé à la fermeture")
+    void testSchedule_FailureSurfaced() throws Exception {
+        // Arrange
+        LibraryEngine engine = new LibraryEngine(2);
+        engine.openStore(tempDir, Duration.ofMillis(5));
+        engine.store().onForce = path -> {
+            throw new UncheckedIOException(new IOException("Disque plein"));
+        };
+
+        // Act
+        engine.addBook(new Book("978-1", "Bible", "Lenny", 2025));
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (engine.getCheckpointFailure() == null && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        IOException failure = engine.getCheckpointFailure();
+        engine.store().onForce = path -> {};
+        engine.addBook(new Book("978-2", "Émile", "Zola", 1880));
+        while (engine.getCheckpointFailure() != null && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        IOException afterRecovery = engine.getCheckpointFailure();
+        engine.store().onForce = path -> {
+            throw new UncheckedIOException(new IOException("Disque plein"));
+        };
+        engine.addBook(new Book("978-3", "Nana", "Zola", 1880));
+        while (engine.getCheckpointFailure() == null && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        IOException onClose = assertThrows(IOException.class, engine::closeStore);
+
+        // Assert
+        assertNotNull(failure);
+        assertEquals("Disque plein", failure.getMessage());
+        assertNull(afterRecovery, "Les points de reprise planifiés continuent après un échec");
+        assertTrue(onClose.getMessage().contains("Disque plein"), onClose.getMessage());
+        assertNull(engine.journal(), "Le journal est fermé malgré l'échec");
+        LibraryEngine restarted = new LibraryEngine(2);
+        restarted.openStore(tempDir);
+        assertEquals(3, restarted.getBooks().size(), "Les journaux non compactés sont rejoués");
+        restarted.closeStore();
+    }
+
+    @Test
+    @DisplayName("Le catalogue projeté comme base n'est supprimé qu'à la réouverture")
+    void testCheckpoint_KeepsMappedBaseCatalog() throws IOException {
+        // Arrange
+        LibraryEngine engine = new LibraryEngine(2);
+        engine.openStore(tempDir);
+        engine.addBook(new Book("978-1", "Bible", "Lenny", 2025));
+        engine.checkpoint();
+        engine.closeStore();
+        LibraryEngine restarted = new LibraryEngine(2);
+        restarted.openStore(tempDir);
+
+        // Act
+        restarted.addBook(new Book("978-2", "Émile", "Zola", 1880));
+        restarted.checkpoint();
+        restarted.checkpoint();
+        List<String> whileMapped = fileNames(tempDir);
+        String firstTitle = restarted.getBooks().get(0).getTitle();
+        restarted.closeStore();
+        LibraryEngine again = new LibraryEngine(2);
+        again.openStore(tempDir);
+
+        // Assert
+        assertEquals(List.of("CURRENT", "catalog-1.catalog", "catalog-3.catalog", "journal-3.wal", "loans-3.snapshot"),
+                whileMapped);
+        assertEquals("Bible", firstTitle, "La base projetée reste lisible");
+        assertEquals(List.of("CURRENT", "catalog-3.catalog", "journal-3.wal", "loans-3.snapshot"), fileNames(tempDir));
+        assertEquals(2, again.getBooks().size());
+        again.closeStore();
+    }
+}
@@ -0,0 +1,193 @@
+package library;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Emprunts et retours en lot, tout ou rien")
+class LoanBatchTest {
+
+    @TempDir
+    Path tempDir;
+
+    // Partagé avec BorrowerRegistryTest : livres 978-0 à 978-(books - 1), un même auteur
+    static LibraryEngine engineWith(int books) {
+        LibraryEngine engine = new LibraryEngine(4);
+        List<Book> list = new ArrayList<>();
+        for (int i = 0; i < books; i++) {
+            list.add(new Book("978-" + i, "Titre " + i, "Auteur", 2000));
+        }
+        engine.addBooks(list);
+        return engine;
+    }
+
+    private static List<LoanBatchReport.Outcome> outcomes(LoanBatchReport report) {
+        return report.getItems().stream().map(LoanBatchReport.Item::getOutcome).collect(Collectors.toList());
+    }
+
+    @Test
+    @DisplayName("Un lot valide est appliqué en entier, puis rendu en entier")
+    void testBorrowAndReturn_Applied() {
+        // Arrange
+        LibraryEngine engine = engineWith(20);
+        List<String> isbns = List.of("978-1", "978-5", "978-12", "978-19");
+
+        // Act
+        LoanBatchReport borrowed = engine.borrowBooks("Roland", isbns);
+        int availableAfterBorrow = engine.getAvailableCount();
+        LoanBatchReport returned = engine.returnBooks(List.of("978-12", "978-1", "978-19", "978-5"));
+
+        // Assert
+        assertTrue(borrowed.isApplied());
+        assertEquals(Collections.nCopies(4, LoanBatchReport.Outcome.BORROWED), outcomes(borrowed));
+        assertEquals(16, availableAfterBorrow, "Les cartes des emprunts sont à jour");
+        assertTrue(returned.isApplied());
+        assertEquals("Roland", returned.getItems().get(0).getBorrowerName());
+        assertEquals(0, engine.getLoanCount("Roland"));
+        assertEquals(20, engine.getAvailableCount());
+        assertTrue(engine.getLoans().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Un seul ISBN refusé annule tout le lot, avec la raison de chacun")
+    void testBorrow_AllOrNothing() {
+        // Arrange
+        LibraryEngine engine = engineWith(20);
+        engine.borrowBook("978-3", "Alice");
+        List<String> isbns = Arrays.asList("978-1", "978-3", "978-404", "978-2", "9781", null);
+
+        // Act
+        LoanBatchReport report = engine.borrowBooks("Roland", isbns);
+        engine.setMaxLoansPerBorrower(2);
+        LoanBatchReport limited = engine.borrowBooks("Roland", List.of("978-1", "978-2", "978-4"));
+        LoanBatchReport notBorrowed = engine.returnBooks(List.of("978-3", "978-4"));
+
+        // Assert
+        assertFalse(report.isApplied());
+        assertEquals(List.of(LoanBatchReport.Outcome.NOT_APPLIED, LoanBatchReport.Outcome.ALREADY_BORROWED,
+                LoanBatchReport.Outcome.NOT_FOUND, LoanBatchReport.Outcome.NOT_APPLIED,
+                LoanBatchReport.Outcome.NOT_FOUND, LoanBatchReport.Outcome.NOT_FOUND), outcomes(report));
+        assertEquals(Collections.nCopies(3, LoanBatchReport.Outcome.LOAN_LIMIT), outcomes(limited));
+        assertEquals(List.of(LoanBatchReport.Outcome.NOT_APPLIED, LoanBatchReport.Outcome.NOT_BORROWED),
+                outcomes(notBorrowed));
+        assertEquals(0, engine.getLoanCount("Roland"), "Aucune place réservée");
+        assertEquals("Alice", engine.getBorrower("978-3").getName(), "Le livre d'Alice n'est pas rendu");
+        assertEquals(1, engine.getLoans().size());
+        assertEquals(19, engine.getAvailableCount());
+    }
+
+    @Test
+    @DisplayName("Deux écritures d'un même ISBN dans le lot sont un doublon")
+    void testBorrow_DuplicateInBatch() {
+        // Arrange
+        LibraryEngine engine = new LibraryEngine(2);
+        engine.addBook(new Book("978-2-07-036822-8", "L'Étranger", "Camus", 1942));
+
+        // Act
+        LoanBatchReport report = engine.borrowBooks("Roland", List.of("978-2-07-036822-8", "9782070368228"));
+
+        // Assert
+        assertFalse(report.isApplied());
+        assertEquals(List.of(LoanBatchReport.Outcome.NOT_APPLIED, LoanBatchReport.Outcome.DUPLICATE), outcomes(report));
+        assertFalse(engine.isBorrowed("9782070368228"));
+    }
+
+    @Test
+    @DisplayName("Un ISBN-10 et son ISBN-13 dans le même lot sont un doublon")
+    void testBorrow_DuplicateInBatch_MixedIsbnForms() {
+        // Arrange
+        LibraryEngine engine = new LibraryEngine(2);
+        engine.addBook(new Book("0-306-40615-2", "Signaux", "Proakis", 1995));
+
+        // Act
+        LoanBatchReport report = engine.borrowBooks("Roland", List.of("0-306-40615-2", "9780306406157"));
+
+        // Assert
+        assertFalse(report.isApplied());
+        assertEquals(List.of(LoanBatchReport.Outcome.NOT_APPLIED, LoanBatchReport.Outcome.DUPLICATE), outcomes(report));
+        assertFalse(engine.isBorrowed("0306406152"));
+        assertEquals(0, engine.getLoanCount("Roland"));
+    }
+
+    @Test
+    @DisplayName("Un lot est journalisé en une trame et rejoué au redémarrage")
+    void testBorrowBatch_Journal() throws IOException {
+        // Arrange
+        Path file = tempDir.resolve("journal.wal");
+        LibraryEngine engine = new LibraryEngine(4);
+        engine.openJournal(file);
+        for (int i = 0; i < 10; i++) {
+            engine.addBook(new Book("978-" + i, "Titre " + i, "Auteur", 2000));
+        }
+
+        // Act
+        engine.borrowBooks("Roland", List.of("978-1", "978-2", "978-3"));
+        engine.returnBooks(List.of("978-2"));
+        long records = engine.journal().getRecordCount();
+        engine.closeJournal();
+        LibraryEngine restarted = new LibraryEngine(4);
+        restarted.openJournal(file);
+        restarted.closeJournal();
+
+        // Assert
+        assertEquals(12, records, "10 ajouts, un lot d'emprunts, un lot de retours");
+        assertEquals(List.of("978-1", "978-3"), restarted.getLoansOf("Roland"));
+        assertFalse(restarted.isBorrowed("978-2"));
+    }
+
+    @Test
+    @DisplayName("Deux lots qui se recouvrent en ordre inverse ne se bloquent pas")
+    void testConcurrentBatches_NoDeadlockAndSingleWinner() throws Exception {
+        // Arrange
+        LibraryEngine engine = engineWith(200);
+        List<String> forward = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            forward.add("978-" + i);
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<LoanBatchReport>> futures = new ArrayList<>();
+
+        // Act
+        for (int t = 0; t < 8; t++) {
+            List<String> batch = new ArrayList<>(forward.subList(t * 20, t * 20 + 40 > 200 ? 200 : t * 20 + 40));
+            if (t % 2 == 1) Collections.reverse(batch);
+            String name = "Lecteur " + t;
+            futures.add(pool.submit(() -> {
+                start.await();
+                return engine.borrowBooks(name, batch);
+            }));
+        }
+        start.countDown();
+        int applied = 0;
+        int borrowedBooks = 0;
+        for (Future<LoanBatchReport> future : futures) {
+            LoanBatchReport report = future.get(10, TimeUnit.SECONDS);
+            if (report.isApplied()) {
+                applied++;
+                borrowedBooks += report.getItems().size();
+            }
+        }
+        pool.shutdown();
+
+        // Assert
+        assertTrue(applied >= 1);
+        assertEquals(borrowedBooks, engine.getLoans().size(), "Chaque lot appliqué l'est en entier");
+        assertEquals(200 - borrowedBooks, engine.getAvailableCount());
+    }
+}
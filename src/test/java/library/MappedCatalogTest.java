@@ -0,0 +1,152 @@
+package library;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Catalogue binaire projeté en mémoire")
+class MappedCatalogTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Un catalogue enregistré puis rouvert restitue les livres dans l'ordre")
+    void testSaveAndOpen_RoundTrip() throws IOException {
+        // Arrange
+        LibraryEngine engine = new LibraryEngine(4);
+        engine.addBook(new Book("978-1", "Bible", "Lenny", 2025));
+        engine.addBook(new Book("978-2", "Émile", "Zola", 1880));
+        engine.addBook(new Book("978-1", "Bible (doublon)", "Lenny", 2026));
+        engine.addBook(new Book(null, null, null, 0));
+        Path file = tempDir.resolve("bibliotheque.catalog");
+
+        // Act
+        engine.saveCatalog(file);
+        LibraryEngine restarted = new LibraryEngine(4);
+        restarted.openCatalog(file);
+
+        // Assert
+        assertEquals(engine.getBooks().toString(), restarted.getBooks().toString());
+        assertEquals("Bible", restarted.byIsbn("978-1").getTitle(), "Le premier livre d'un ISBN est retourné");
+        assertEquals("Émile", restarted.byIsbn("978-2").getTitle(), "L'UTF-8 est décodé");
+        assertNull(restarted.byIsbn("978-9"));
+        assertNull(restarted.byIsbn(null));
+        assertNull(restarted.getBooks().get(3).getIsbn(), "Les champs null sont conservés");
+        assertEquals(2, restarted.findByAuthor("lenn").size());
+        assertTrue(restarted.hasBookWithTitle("émile"));
+    }
+
+    @Test
+    @DisplayName("Les livres ajoutés après l'ouverture suivent ceux du fichier")
+    void testOpen_ThenAddBorrowAndPage() throws IOException {
+        // Arrange
+        LibraryEngine engine = new LibraryEngine(2);
+        for (int i = 0; i < 10; i++) {
+            engine.addBook(new Book("978-" + i, "Titre " + i, "Auteur " + i, 2000 + i));
+        }
+        Path file = tempDir.resolve("bibliotheque.catalog");
+        engine.saveCatalog(file);
+        LibraryEngine restarted = new LibraryEngine(2);
+        restarted.setRejectDuplicateIsbn(true);
+
+        // Act
+        restarted.openCatalog(file);
+        restarted.addBook(new Book("978-10", "Titre 10", "Auteur 10", 2010));
+        List<Book> duplicates = restarted.addBooks(List.of(new Book("978-3", "Doublon", "X", 1)));
+        CatalogPage page = restarted.listBooks(9, 5);
+
+        // Assert
+        assertEquals(11, restarted.getBooks().size());
+        assertEquals("978-10", restarted.getBooks().get(10).getIsbn());
+        assertEquals(1, duplicates.size(), "Les ISBN du fichier comptent comme doublons");
+        assertThrows(IllegalArgumentException.class,
+                () -> restarted.addBook(new Book("978-0", "Doublon", "X", 1)));
+        assertEquals(List.of("978-10"), page.getBooks().stream().map(Book::getIsbn).toList());
+        assertTrue(restarted.borrowBook("978-4", "Roland"), "Un livre du fichier peut être emprunté");
+        assertFalse(restarted.borrowBook("978-4", "Lenny"));
+        assertEquals(2, restarted.findByAuthor("auteur 1").size());
+    }
+
+    @Test
+    @DisplayName("Aucune notice ne chevauche deux segments")
+    void testWrite_RecordsAlignedOnSegments() throws IOException {
+        // Arrange : segments de 64 octets, notices d'environ 30 octets
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            books.add(new Book("978-" + i, "Titre " + i, "Auteur " + (i % 7), 1900 + i));
+        }
+        Path file = tempDir.resolve("segments.catalog");
+
+        // Act
+        MappedCatalog.write(file, books, 6);
+        MappedCatalog catalog = MappedCatalog.open(file);
+
+        // Assert
+        assertEquals(200, catalog.size());
+        for (int i = 0; i < 200; i++) {
+            assertEquals(books.get(i).toString(), catalog.get(i).toString());
+            assertEquals(books.get(i).getIsbn(), catalog.byIsbn("978-" + i).getIsbn());
+        }
+        assertEquals(29, catalog.findByAuthor("auteur 3").length);
+    }
+
+    @Test
+    @DisplayName("Un fichier qui n'est pas un catalogue est refusé")
+    void testOpen_InvalidFile() throws IOException {
+        // Arrange
+        Path file = tempDir.resolve("faux.catalog");
+        Files.writeString(file, "ceci n'est pas un catalogue binaire, mais du texte assez long");
+
+        // Act & Assert
+        assertThrows(IOException.class, () -> MappedCatalog.open(file));
+    }
+
+    @Test
+    @DisplayName("Les doublons d'ISBN sont lus dans le fichier, et retrouvés dans une version 3")
+    void testPositionsOf_DuplicatesStoredInFile() throws IOException {
+        // Arrange
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            books.add(new Book("978-" + i, "Titre " + i, "Auteur", 2000));
+        }
+        books.add(new Book("0-306-40615-2", "Exemplaire 1", "Auteur", 2000));
+        books.add(new Book("978-7", "Titre 7 (doublon)", "Auteur", 2000));
+        books.add(new Book("9780306406157", "Exemplaire 2", "Auteur", 2000));
+        books.add(new Book("978-7", "Titre 7 (second doublon)", "Auteur", 2000));
+        Path file = tempDir.resolve("doublons.catalog");
+        MappedCatalog.write(file, books);
+        Path old = tempDir.resolve("ancien.catalog");
+        Files.copy(file, old);
+        try (FileChannel channel = FileChannel.open(old, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(MappedCatalog.HEADER_SIZE);
+            channel.read(header, 0);
+            channel.truncate(channel.size() - 8L * header.getInt(20));
+            channel.write(ByteBuffer.allocate(4).putInt(0, 3), 8);
+            channel.write(ByteBuffer.allocate(4).putInt(0, 0), 20);
+        }
+
+        // Act
+        MappedCatalog catalog = MappedCatalog.open(file);
+        MappedCatalog legacy = MappedCatalog.open(old);
+
+        // Assert
+        for (MappedCatalog c : List.of(catalog, legacy)) {
+            assertArrayEquals(new int[]{7, 101, 103}, c.positionsOf("978-7"));
+            assertArrayEquals(new int[]{100, 102}, c.positionsOf("978-0-306-40615-7"));
+            assertArrayEquals(new int[]{8}, c.positionsOf("978-8"));
+            assertArrayEquals(new int[0], c.positionsOf("978-999"));
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package library;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Stockage des livres hors tas")
+class OffHeapStorageTest {
+
+    @Test
+    @DisplayName("Les données qui chevauchent deux pages sont relues à l'identique")
+    void testByteStore_ValuesSpanningPages() {
+        // Arrange : pages de 16 octets
+        OffHeapArena arena = new OffHeapArena(4);
+        OffHeapByteStore store = new OffHeapByteStore(arena);
+        byte[] bytes = new byte[37];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) i;
+        }
+
+        // Act
+        store.append(bytes, 0, 14);
+        store.appendInt(0x12345678);
+        store.append(bytes, 14, 23);
+        store.appendInt(-2);
+
+        // Assert
+        assertEquals(45, store.length());
+        assertEquals(0x12345678, store.getInt(14), "Entier à cheval sur deux pages");
+        assertEquals(-2, store.getInt(41));
+        byte[] read = new byte[23];
+        store.get(18, read, 0, 23);
+        for (int i = 0; i < read.length; i++) {
+            assertEquals(14 + i, read[i]);
+        }
+        assertEquals(3 * 16, store.reservedBytes());
+        assertEquals(3 * 16, arena.getReservedBytes());
+    }
+
+    @Test
+    @DisplayName("Les colonnes hors tas restituent les livres comme les colonnes sur le tas")
+    void testBookColumns_OffHeapMatchesHeap() {
+        // Arrange
+        BookColumns heap = new BookColumns();
+        BookColumns offHeap = new BookColumns(new OffHeapArena(6));
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            books.add(new Book("978-2-07-" + i, (i % 11 == 0) ? null : "Titre é " + i, "Auteur " + (i % 13), 1800 + i));
+        }
+
+        // Act
+        for (int i = 0; i < 100; i++) {
+            heap.add(books.get(i));
+            offHeap.add(books.get(i));
+        }
+        heap.addAll(books.subList(100, 500));
+        offHeap.addAll(books.subList(100, 500));
+
+        // Assert
+        assertEquals(500, offHeap.size());
+        for (int i = 0; i < 500; i++) {
+            assertEquals(heap.get(i), offHeap.get(i), "Position " + i);
+        }
+        assertArrayEquals(heap.authorIds(90, 130), offHeap.authorIds(90, 130));
+        assertEquals(heap.indexOfTitleIgnoreCase("TITRE É 321", 0, 500), offHeap.indexOfTitleIgnoreCase("TITRE É 321", 0, 500));
+        assertTrue(offHeap.offHeapBytes() > 0);
+        assertEquals(0, heap.offHeapBytes());
+    }
+
+    @Test
+    @DisplayName("Un moteur hors tas se comporte comme un moteur sur le tas")
+    void testEngine_OffHeapBehavesLikeHeap() {
+        // Arrange
+        LibraryEngine heap = new LibraryEngine(3);
+        LibraryEngine offHeap = new LibraryEngine(3, true);
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            books.add(new Book("978-" + i, "Titre " + i, "Auteur " + (i % 17), 1900 + (i % 100)));
+        }
+
+        // Act
+        for (LibraryEngine engine : List.of(heap, offHeap)) {
+            engine.addBook(new Book("978-X", "Bible", "Lenny", 2025));
+            engine.addBooks(books);
+            engine.borrowBook("978-42", "Roland");
+        }
+
+        // Assert
+        assertEquals(heap.getBooks(), offHeap.getBooks());
+        assertEquals(heap.findByAuthor("auteur 1"), offHeap.findByAuthor("auteur 1"));
+        assertEquals(heap.byIsbn("978-1999"), offHeap.byIsbn("978-1999"));
+        assertTrue(offHeap.hasBookWithTitle("bible"));
+        assertTrue(offHeap.isBorrowed("978-42"));
+        assertTrue(offHeap.getOffHeapBytes() > 0);
+        assertEquals(0, heap.getOffHeapBytes());
+        offHeap.clearBooks();
+        assertTrue(offHeap.getBooks().isEmpty());
+    }
+}
@@ -0,0 +1,82 @@
+package library;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Parcours parallèle par morceaux")
+class ParallelScanTest {
+
+    @Test
+    @DisplayName("Le filtre parallèle rend les positions dans l'ordre du catalogue")
+    void testFilter_KeepsCatalogOrder() {
+        // Arrange
+        int size = LibraryEngine.PARALLEL_SCAN_THRESHOLD * 3 + 17;
+
+        // Act
+        int[] multiples = ParallelScan.filter(size,
+                (from, to) -> IntStream.range(from, to).filter(i -> i % 7 == 0).toArray());
+        int[] small = ParallelScan.filter(100, (from, to) -> IntStream.range(from, to).toArray());
+
+        // Assert
+        assertArrayEquals(IntStream.range(0, size).filter(i -> i % 7 == 0).toArray(), multiples);
+        assertEquals(100, small.length);
+    }
+
+    @Test
+    @DisplayName("Sous le seuil, la recherche d'existence s'arrête au premier morceau trouvé")
+    void testAnyMatch_ShortCircuits() {
+        // Arrange
+        AtomicInteger visited = new AtomicInteger();
+        int[] sizes = {ParallelScan.CHUNK_SIZE, ParallelScan.CHUNK_SIZE, 10};
+
+        // Act
+        boolean found = ParallelScan.anyMatch(sizes, (segment, from, to) -> {
+            visited.incrementAndGet();
+            return segment == 0;
+        });
+        boolean absent = ParallelScan.anyMatch(new int[]{LibraryEngine.PARALLEL_SCAN_THRESHOLD * 2, 5},
+                (segment, from, to) -> false);
+        boolean last = ParallelScan.anyMatch(new int[]{LibraryEngine.PARALLEL_SCAN_THRESHOLD * 2, 5},
+                (segment, from, to) -> segment == 1);
+
+        // Assert
+        assertTrue(found);
+        assertEquals(1, visited.get());
+        assertFalse(absent);
+        assertTrue(last);
+    }
+
+    @Test
+    @DisplayName("Titre et requête sans index sur un gros catalogue d'un seul shard")
+    void testEngine_LargeSingleShardScan() {
+        // Arrange
+        LibraryEngine engine = new LibraryEngine(1);
+        engine.setSearchCacheCapacity(0);
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < 120_000; i++) {
+            books.add(new Book("978-" + i, "Titre " + (i % 40_000), "Auteur", 2000));
+        }
+        engine.addBooks(books);
+        engine.borrowBook("978-119999", "Roland");
+
+        // Act
+        boolean lastTitle = engine.hasBookWithTitle("TITRE 39999");
+        boolean absent = engine.hasBookWithTitle("Titre 40000");
+        List<Book> copies = engine.find(new Query().title("titre 39999").availableOnly());
+
+        // Assert
+        assertTrue(lastTitle);
+        assertFalse(absent);
+        assertEquals(List.of("978-39999", "978-79999"),
+                copies.stream().map(Book::getIsbn).collect(Collectors.toList()));
+        assertTrue(engine.explain(new Query().title("x")).contains("parcours complet, par morceaux en parallèle"));
+    }
+}
@@ -0,0 +1,131 @@
+package library;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Table persistante et instantanés")
+class PersistentMapTest {
+
+    /** Clé dont le hachage ne dépend que de value % 7 : force les collisions. */
+    private static final class CollidingKey {
+        final int value;
+
+        CollidingKey(int value) {
+            this.value = value;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof CollidingKey && ((CollidingKey) o).value == value;
+        }
+
+        @Override
+        public int hashCode() {
+            return value % 7;
+        }
+    }
+
+    @Test
+    @DisplayName("Opérations aléatoires - même contenu qu'une HashMap")
+    void testRandomOperations_MatchHashMap() {
+        // Arrange
+        Random random = new Random(7);
+        Map<Integer, Integer> expected = new HashMap<>();
+        PersistentMap<Integer, Integer> map = PersistentMap.empty();
+
+        // Act
+        for (int i = 0; i < 20_000; i++) {
+            int key = random.nextInt(3000);
+            if (random.nextInt(3) == 0) {
+                expected.remove(key);
+                map = map.remove(key);
+            } else {
+                expected.put(key, i);
+                map = map.put(key, i);
+            }
+        }
+
+        // Assert
+        assertEquals(expected.size(), map.size());
+        for (int key = 0; key < 3000; key++) {
+            assertEquals(expected.get(key), map.get(key), "Clé " + key);
+        }
+        assertEquals(expected, toHashMap(map));
+    }
+
+    @Test
+    @DisplayName("Clés de même hachage - nœuds de collision")
+    void testCollidingKeys_PutGetRemove() {
+        // Arrange
+        PersistentMap<CollidingKey, Integer> map = PersistentMap.empty();
+        for (int i = 0; i < 100; i++) {
+            map = map.put(new CollidingKey(i), i);
+        }
+
+        // Act
+        for (int i = 0; i < 100; i += 2) {
+            map = map.remove(new CollidingKey(i));
+        }
+
+        // Assert
+        assertEquals(50, map.size());
+        for (int i = 0; i < 100; i++) {
+            assertEquals((i % 2 == 0) ? null : i, map.get(new CollidingKey(i)));
+        }
+        assertEquals(50, toHashMap(map).size());
+    }
+
+    @Test
+    @DisplayName("Une ancienne version n'est pas modifiée par les suivantes")
+    void testOldVersion_IsUnchanged() {
+        // Arrange
+        PersistentMap<String, String> v1 = PersistentMap.<String, String>empty().put("a", "1").put("b", "2");
+
+        // Act
+        PersistentMap<String, String> v2 = v1.put("a", "3").remove("b").put("c", "4");
+
+        // Assert
+        assertEquals(Map.of("a", "1", "b", "2"), toHashMap(v1));
+        assertEquals(Map.of("a", "3", "c", "4"), toHashMap(v2));
+    }
+
+    @Test
+    @DisplayName("getBooks - instantané immuable, insensible aux ajouts ultérieurs")
+    void testGetBooks_SnapshotIsStableAndImmutable() {
+        // Arrange
+        LibraryEngine engine = new LibraryEngine(4);
+        for (int i = 0; i < 10; i++) {
+            engine.addBook(new Book("978-" + i, "Titre " + i, "Auteur", 2000));
+        }
+
+        // Act
+        List<Book> snapshot = engine.getBooks();
+        engine.addBook(new Book("978-NEW", "Nouveau", "Auteur", 2001));
+        engine.clearBooks();
+
+        // Assert
+        assertEquals(10, snapshot.size());
+        for (int i = 0; i < 10; i++) {
+            assertEquals("978-" + i, snapshot.get(i).getIsbn());
+        }
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.add(new Book("x", "x", "x", 0)));
+        assertEquals(0, engine.getBooks().size());
+    }
+
+    private static <K, V> Map<K, V> toHashMap(PersistentMap<K, V> map) {
+        Map<K, V> copy = new HashMap<>();
+        for (Iterator<Map.Entry<K, V>> it = map.iterator(); it.hasNext();) {
+            Map.Entry<K, V> e = it.next();
+            assertNull(copy.put(e.getKey(), e.getValue()), "Entrée en double dans le parcours");
+        }
+        return copy;
+    }
+}
@@ -0,0 +1,115 @@
+package library;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Recherche composée, planificateur et explain")
+class QueryPlanTest {
+
+    @TempDir
+    Path tempDir;
+
+    // 2000 livres : 20 auteurs, années 1900-1999, un sur dix emprunté
+    private static LibraryEngine engine() {
+        LibraryEngine engine = new LibraryEngine(4);
+        engine.setRejectDuplicateIsbn(true);
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            books.add(new Book("978-" + i, "Titre " + (i % 50), "Auteur " + (i % 20), 1900 + (i * 37) % 100));
+        }
+        engine.addBooks(books);
+        for (int i = 0; i < 2000; i += 10) {
+            engine.borrowBook("978-" + i, "Roland");
+        }
+        return engine;
+    }
+
+    private static List<Book> scan(LibraryEngine engine, Predicate<Book> filter) {
+        return engine.getBooks().stream().filter(filter).collect(Collectors.toList());
+    }
+
+    @Test
+    @DisplayName("Chaque combinaison de critères donne le même résultat qu'un filtrage complet")
+    void testFind_MatchesFullScan() {
+        // Arrange
+        LibraryEngine engine = engine();
+        Predicate<Book> author = b -> b.getAuthor().toLowerCase(Locale.ROOT).contains("teur 1");
+        Predicate<Book> years = b -> b.getYear() >= 1950 && b.getYear() <= 1960;
+        Predicate<Book> title = b -> b.getTitle().equalsIgnoreCase("TITRE 7");
+
+        // Act & Assert
+        assertEquals(scan(engine, author), engine.find(new Query().authorContains("TEUR 1")));
+        assertEquals(scan(engine, author.and(years)),
+                engine.find(new Query().authorContains("teur 1").publishedBetween(1950, 1960)));
+        assertEquals(scan(engine, years.and(b -> !engine.isBorrowed(b.getIsbn()))),
+                engine.find(new Query().publishedBetween(1950, 1960).availableOnly()));
+        assertEquals(scan(engine, author.and(b -> engine.isBorrowed(b.getIsbn()))),
+                engine.find(new Query().authorContains("teur 1").borrowedOnly()));
+        assertEquals(scan(engine, title.and(years)),
+                engine.find(new Query().title("titre 7").publishedBetween(1950, 1960)));
+        assertEquals(scan(engine, title), engine.find(new Query().title("Titre 7")));
+        assertEquals(engine.getBooks(), engine.find(new Query()));
+        assertTrue(engine.find(new Query().authorContains("personne")).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Le planificateur choisit l'index le plus sélectif et explain le montre")
+    void testExplain_PicksMostSelectiveIndex() {
+        // Arrange
+        LibraryEngine engine = engine();
+
+        // Act
+        String byYear = engine.explain(new Query().authorContains("auteur").publishedBetween(1950, 1950));
+        String byAuthor = engine.explain(new Query().authorContains("auteur 7").publishedBetween(1900, 1999));
+        String byLoans = engine.explain(new Query().borrowedOnly().publishedBetween(1900, 1999));
+        String intersect = engine.explain(new Query().authorContains("auteur 7").publishedBetween(1900, 1902));
+        String scan = engine.explain(new Query().title("Titre 3"));
+
+        // Assert
+        assertTrue(byYear.contains("Accès : index des années (20 candidats)"), byYear);
+        assertTrue(byYear.contains("auteur (livre matérialisé)"), byYear);
+        assertTrue(byAuthor.contains("Accès : index des auteurs"), byAuthor);
+        assertTrue(byAuthor.contains("année (colonne des années)"), byAuthor);
+        assertTrue(byLoans.contains("Accès : carte des emprunts (200 candidats)"), byLoans);
+        assertTrue(intersect.contains("Accès : index des années"), intersect);
+        assertTrue(intersect.contains("Intersection : index des auteurs"), intersect);
+        assertTrue(scan.contains("Accès : parcours complet (2000 candidats)"), scan);
+        assertTrue(scan.startsWith("Requête : titre = \"Titre 3\""), scan);
+    }
+
+    @Test
+    @DisplayName("Avec des ISBN en double, tous les exemplaires empruntés sont trouvés")
+    void testFind_DuplicateIsbnsAllMarkedBorrowed() throws IOException {
+        // Arrange : le fichier de base porte deux fois un ISBN, un shard une troisième
+        Path file = tempDir.resolve("base.catalog");
+        MappedCatalog.write(file, List.of(new Book("978-1", "Base", "Lenny", 2000),
+                new Book("978-2", "Autre", "Lenny", 2001), new Book("978-1", "Base bis", "Lenny", 2003)));
+        LibraryEngine engine = new LibraryEngine(2);
+        engine.openCatalog(file);
+        engine.addBook(new Book("978-1", "Copie", "Roland", 2002));
+        engine.borrowBook("978-1", "Roland");
+
+        // Act
+        List<Book> borrowed = engine.find(new Query().borrowedOnly());
+        String plan = engine.explain(new Query().borrowedOnly());
+
+        // Assert
+        assertEquals(List.of("Base", "Base bis", "Copie"), borrowed.stream().map(Book::getTitle).collect(Collectors.toList()));
+        assertTrue(plan.contains("Accès : carte des emprunts (3 candidats)"), plan);
+        assertEquals(List.of("Autre"), engine.find(new Query().availableOnly().authorContains("lenny"))
+                .stream().map(Book::getTitle).collect(Collectors.toList()));
+        assertThrows(IllegalArgumentException.class, () -> new Query().publishedBetween(2000, 1990));
+        assertThrows(IllegalArgumentException.class, () -> new Query().authorContains(""));
+    }
+}
@@ -0,0 +1,120 @@
+package library;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Carte compressée des emprunts")
+class RoaringBitmapTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("La carte suit un ensemble de référence, conteneurs tableau et bits compris")
+    void testBitmap_MatchesReferenceSet() {
+        // Arrange : assez d'éléments dans une tranche pour passer en carte de bits
+        RoaringBitmap bitmap = RoaringBitmap.EMPTY;
+        TreeSet<Integer> expected = new TreeSet<>();
+
+        // Act
+        for (int i = 0; i < 6000; i++) {
+            int value = (i * 7) % 65536;
+            bitmap = bitmap.with(value);
+            expected.add(value);
+        }
+        for (int i = 0; i < 300; i++) {
+            bitmap = bitmap.with(200_000 + i * 3);
+            expected.add(200_000 + i * 3);
+        }
+        RoaringBitmap before = bitmap;
+        for (int i = 0; i < 3000; i++) {
+            int value = (i * 14) % 65536;
+            bitmap = bitmap.without(value);
+            expected.remove(value);
+        }
+
+        // Assert
+        assertEquals(expected.size(), bitmap.cardinality());
+        assertArrayEquals(expected.stream().mapToInt(Integer::intValue).toArray(), bitmap.toArray(Integer.MAX_VALUE));
+        assertEquals(expected.headSet(200_100).size(), bitmap.rank(200_100));
+        assertEquals(6300, before.cardinality(), "Les versions publiées ne changent pas");
+        int[] candidates = {0, 7, 14, 21, 199_999, 200_003, 200_004};
+        assertArrayEquals(new int[]{7, 21, 200_003}, bitmap.filter(candidates, true));
+        assertArrayEquals(new int[]{0, 14, 199_999, 200_004}, bitmap.filter(candidates, false));
+        assertSame(bitmap, bitmap.with(7));
+        assertThrows(IllegalArgumentException.class, () -> RoaringBitmap.EMPTY.with(-1));
+    }
+
+    @Test
+    @DisplayName("Les pages et le compte des disponibles suivent emprunts et retours")
+    void testEngine_PagesAndAvailableCount() {
+        // Arrange
+        LibraryEngine engine = new LibraryEngine(3);
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            books.add(new Book("978-" + i, "Titre " + i, "Auteur " + (i % 4), 2000));
+        }
+        engine.addBooks(books);
+
+        // Act
+        for (int i = 0; i < 100; i += 3) {
+            engine.borrowBook("978-" + i, "Roland");
+        }
+        engine.returnBook("978-0");
+        engine.addBook(new Book("978-3", "Doublon", "Auteur 0", 2001));
+        CatalogPage page = engine.listBooks(100);
+        CatalogPage byAuthor = engine.find(new Query().authorContains("auteur 0").availableOnly(), CatalogPage.FIRST, 5);
+
+        // Assert
+        assertEquals(101 - 33 - 1, engine.getAvailableCount(), "Le doublon d'un livre emprunté est emprunté");
+        for (int i = 0; i < page.getBooks().size(); i++) {
+            assertEquals(engine.isBorrowed(page.getBooks().get(i).getIsbn()), page.isBorrowed(i), "Livre " + i);
+        }
+        assertEquals(List.of("Titre 0", "Titre 4", "Titre 8", "Titre 16", "Titre 20"),
+                byAuthor.getBooks().stream().map(Book::getTitle).collect(Collectors.toList()));
+        assertTrue(byAuthor.hasNext());
+        CatalogPage next = engine.find(new Query().authorContains("auteur 0").availableOnly(), byAuthor.getNextCursor(), 5);
+        assertEquals("Titre 28", next.getBooks().get(0).getTitle());
+        engine.clearLoans();
+        assertEquals(101, engine.getAvailableCount());
+    }
+
+    @Test
+    @DisplayName("Le catalogue de base reçoit les emprunts en cours à son ouverture")
+    void testEngine_BaseCatalogBitmap() throws IOException {
+        // Arrange
+        Path file = tempDir.resolve("base.catalog");
+        MappedCatalog.write(file, List.of(new Book("978-1", "Base", "Lenny", 2000),
+                new Book("978-2", "Autre", "Lenny", 2001)));
+        LibraryEngine engine = new LibraryEngine(2);
+        engine.addBook(new Book("978-2", "Ancien", "Lenny", 1999));
+        engine.borrowBook("978-2", "Roland");
+
+        // Act
+        engine.openCatalog(file);
+        engine.borrowBook("978-1", "Lenny");
+        engine.returnBook("978-1");
+        engine.borrowBook("978-1", "Roland");
+        engine.returnBook("978-2");
+        engine.borrowBook("978-2", "Lenny");
+
+        // Assert
+        CatalogPage page = engine.listBooks(10);
+        assertTrue(page.isBorrowed(0));
+        assertTrue(page.isBorrowed(1));
+        assertEquals(0, engine.getAvailableCount());
+        engine.returnBook("978-2");
+        assertEquals(List.of("Autre"), engine.find(new Query().availableOnly()).stream()
+                .map(Book::getTitle).collect(Collectors.toList()));
+    }
+}
@@ -0,0 +1,134 @@
+package library;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Cache des recherches par auteur et par titre")
+class SearchCacheTest {
+
+    private static List<String> titles(List<Book> books) {
+        return books.stream().map(Book::getTitle).collect(Collectors.toList());
+    }
+
+    @Test
+    @DisplayName("Une recherche répétée, même écrite autrement, est servie par le cache")
+    void testCache_HitsOnNormalizedQuery() {
+        // Arrange
+        LibraryEngine engine = new LibraryEngine(2);
+        engine.addBook(new Book("978-1", "Bilbo", "Tolkien", 1937));
+
+        // Act
+        List<Book> first = engine.findByAuthor("tolk");
+        List<Book> second = engine.findByAuthor("TOLK");
+        second.clear();
+        List<Book> third = engine.findByAuthor("Tolk");
+        boolean title1 = engine.hasBookWithTitle("bilbo");
+        boolean title2 = engine.hasBookWithTitle("BILBO");
+
+        // Assert
+        assertEquals(List.of("Bilbo"), titles(first));
+        assertEquals(List.of("Bilbo"), titles(third), "Le résultat rendu est une copie");
+        assertTrue(title1 && title2);
+        SearchCacheStats stats = engine.getSearchCacheStats();
+        assertEquals(3, stats.getHits());
+        assertEquals(2, stats.getMisses());
+        assertEquals(2, stats.getSize());
+    }
+
+    @Test
+    @DisplayName("Un ajout n'invalide que les recherches dont il change le résultat")
+    void testCache_PreciseInvalidation() {
+        // Arrange
+        LibraryEngine engine = new LibraryEngine(2);
+        engine.addBook(new Book("978-1", "Bilbo", "Tolkien", 1937));
+        engine.findByAuthor("tolkien");
+        engine.findByAuthor("rowling");
+        engine.hasBookWithTitle("Bilbo");
+        engine.hasBookWithTitle("Dune");
+
+        // Act
+        engine.addBook(new Book("978-2", "Silmarillion", "J.R.R. Tolkien", 1977));
+        engine.addBook(new Book("978-3", "BILBO", "Autre", 2000));
+
+        // Assert
+        assertEquals(1, engine.getSearchCacheStats().getInvalidations(), "Seul « tolkien » change");
+        assertEquals(List.of("Bilbo", "Silmarillion"), titles(engine.findByAuthor("Tolkien")));
+        assertFalse(engine.hasBookWithTitle("dune"));
+        engine.addBook(new Book("978-4", "dUNE", "Herbert", 1965));
+        assertTrue(engine.hasBookWithTitle("Dune"), "Un titre absent devenu présent est invalidé");
+        engine.addBooks(List.of(new Book("978-5", "Harry", "J.K. Rowling", 1997)));
+        assertEquals(List.of("Harry"), titles(engine.findByAuthor("rowling")));
+        engine.clearBooks();
+        assertTrue(engine.findByAuthor("tolkien").isEmpty());
+        assertFalse(engine.hasBookWithTitle("Bilbo"));
+    }
+
+    @Test
+    @DisplayName("Le cache est borné et évince les recherches les moins récentes")
+    void testCache_LruEviction() {
+        // Arrange
+        LibraryEngine engine = new LibraryEngine(1);
+        engine.setSearchCacheCapacity(2);
+        engine.addBook(new Book("978-1", "A", "Auteur", 2000));
+
+        // Act
+        engine.hasBookWithTitle("x");
+        engine.hasBookWithTitle("y");
+        engine.hasBookWithTitle("x");
+        engine.hasBookWithTitle("z");
+        engine.hasBookWithTitle("x");
+        engine.hasBookWithTitle("y");
+
+        // Assert
+        SearchCacheStats stats = engine.getSearchCacheStats();
+        assertEquals(2, stats.getHits(), "x reste en cache, y a été évincé");
+        assertEquals(2, stats.getEvictions());
+        assertEquals(2, stats.getSize());
+        engine.setSearchCacheCapacity(0);
+        engine.hasBookWithTitle("x");
+        assertEquals(0, engine.getSearchCacheStats().getSize());
+        assertThrows(IllegalArgumentException.class, () -> engine.setSearchCacheCapacity(-1));
+    }
+
+    @Test
+    @DisplayName("Les recherches concurrentes aux ajouts ne figent pas de résultat périmé")
+    void testCache_ConcurrentAddsStayCorrect() throws Exception {
+        // Arrange
+        LibraryEngine engine = new LibraryEngine(4);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+
+        // Act
+        Future<?> writer = pool.submit(() -> {
+            for (int i = 0; i < 2000; i++) {
+                engine.addBook(new Book("978-" + i, "Titre " + i, "Auteur " + (i % 3), 2000));
+            }
+        });
+        List<Future<?>> readers = new ArrayList<>();
+        for (int r = 0; r < 3; r++) {
+            readers.add(pool.submit(() -> {
+                while (!writer.isDone()) {
+                    engine.findByAuthor("auteur 1");
+                    engine.hasBookWithTitle("Titre 1999");
+                }
+            }));
+        }
+        writer.get();
+        for (Future<?> reader : readers) {
+            reader.get();
+        }
+        pool.shutdown();
+
+        // Assert
+        assertEquals(667, engine.findByAuthor("auteur 1").size());
+        assertTrue(engine.hasBookWithTitle("titre 1999"));
+    }
+}
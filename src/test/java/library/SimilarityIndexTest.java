@@ -0,0 +1,131 @@
+package library;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Index des livres presque identiques (MinHash et LSH)")
+class SimilarityIndexTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Mots dans le désordre, articles, accents et ponctuation sont ignorés")
+    void testSearch_FindsNearDuplicates() {
+        // Arrange
+        List<Book> books = List.of(
+                new Book("1", "The Hobbit", "J.R.R. Tolkien", 1937),
+                new Book("2", "Vingt mille lieues sous les mers", "Jules Verne", 1870),
+                new Book("3", "Livre A", "Auteur A", 2020),
+                new Book("4", "Les Misérables", "Victor Hugo", 1862));
+        SimilarityIndex index = new SimilarityIndex();
+        index.addAll(0, books);
+
+        // Act
+        int[] hobbit = index.search("Hobbit, The", "Tolkien", books::get);
+        int[] verne = index.search("Vingt mille lieues sous les mers, tome 1", "Verne", books::get);
+        int[] hugo = index.search("LES MISERABLES", "Hugo, Victor", books::get);
+        int[] other = index.search("Livre C", "Auteur C", books::get);
+
+        // Assert
+        assertArrayEquals(new int[]{0}, hobbit);
+        assertArrayEquals(new int[]{1}, verne);
+        assertArrayEquals(new int[]{3}, hugo);
+        assertArrayEquals(new int[0], other, "Un mot commun sur trois ne suffit pas");
+        assertArrayEquals(new int[0], index.search(null, null, books::get));
+    }
+
+    @Test
+    @DisplayName("Le même titre est un doublon quel que soit l'auteur")
+    void testIsDuplicate_SameTitleWords() {
+        // Act & Assert
+        assertTrue(SimilarityIndex.isDuplicate(SimilarityIndex.words("Bible"), SimilarityIndex.words("Auteur"),
+                SimilarityIndex.words("bible"), SimilarityIndex.words("Autre auteur")));
+        assertFalse(SimilarityIndex.isDuplicate(SimilarityIndex.words("Dune"), SimilarityIndex.words("Frank Herbert"),
+                SimilarityIndex.words("Emma"), SimilarityIndex.words("Jane Austen")));
+        assertEquals(java.util.Set.of("hobbit"), SimilarityIndex.words("  The HOBBIT!  "));
+    }
+
+    @Test
+    @DisplayName("Le moteur interroge le fichier de base et les shards, résultats dans l'ordre d'ajout")
+    void testEngine_FindSimilarAcrossSegments() throws IOException {
+        // Arrange
+        LibraryEngine source = new LibraryEngine(4);
+        List<Book> filler = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            filler.add(new Book("978-" + i, "Titre " + i, "Auteur " + (i % 500), 2000));
+        }
+        filler.set(7_000, new Book("978-X1", "The Hobbit", "J.R.R. Tolkien", 1937));
+        source.addBooks(filler);
+        Path file = tempDir.resolve("catalogue.bin");
+        source.saveCatalog(file);
+
+        LibraryEngine engine = new LibraryEngine(4);
+        engine.openCatalog(file);
+        engine.addBook(new Book("978-X2", "Hobbit (The)", "Tolkien, J. R. R.", 1951));
+        engine.addBooks(List.of(new Book("978-X3", "Le Hobbit", "Tolkien", 2012)));
+
+        // Act
+        List<String> scanned = engine.findSimilar("hobbit, the", "Tolkien").stream()
+                .map(Book::getIsbn).collect(Collectors.toList());
+        engine.setSimilarityIndex(true);
+        engine.addBook(new Book("978-X4", "The Hobbit", "Tolkien", 2020));
+        List<String> found = engine.findSimilar("hobbit, the", "Tolkien").stream()
+                .map(Book::getIsbn).collect(Collectors.toList());
+
+        // Assert
+        assertEquals(List.of("978-X1", "978-X2", "978-X3"), scanned, "Sans index, le catalogue est parcouru");
+        assertEquals(List.of("978-X1", "978-X2", "978-X3", "978-X4"), found, "L'index couvre les livres déjà présents");
+        assertTrue(engine.findSimilar("Titre 20000", "Personne").isEmpty());
+        assertEquals(1, engine.findSimilar("Titre 123", "Quelqu'un").size());
+    }
+
+    @Test
+    @DisplayName("Ajout en console : les doublons probables sont cherchés dans l'index, sans parcours")
+    void testLibraryApp_AddBook_NoFullScan() {
+        // Arrange
+        Library.clearBooks();
+        List<Book> filler = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            filler.add(new Book("978-" + i, "Titre " + i, "Auteur " + (i % 50), 2000));
+        }
+        filler.add(new Book("978-X1", "The Hobbit", "J.R.R. Tolkien", 1937));
+        Library.addBooks(filler);
+        List<Integer> scans = new ArrayList<>();
+        SimilarityIndex.onScan = scans::add;
+        InputStream originalIn = System.in;
+        PrintStream originalOut = System.out;
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        String input = "1\n978-X2\nHobbit, The\nTolkien\n1951\n6\n";
+
+        // Act
+        try {
+            System.setIn(new ByteArrayInputStream(input.getBytes()));
+            System.setOut(new PrintStream(output));
+            LibraryApp.main(new String[] {});
+        } finally {
+            SimilarityIndex.onScan = size -> {};
+            System.setIn(originalIn);
+            System.setOut(originalOut);
+            Library.setSimilarityIndex(false);
+            Library.clearBooks();
+        }
+
+        // Assert
+        assertTrue(output.toString().contains("Warning: similar book already exists."));
+        assertEquals(List.of(), scans, "Aucun segment parcouru");
+    }
+}
@@ -0,0 +1,225 @@
+package library;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Journal des mutations (write-ahead log)")
+class WriteAheadLogTest {
+
+    @TempDir
+    Path tempDir;
+
+    /** Handler qui compte les enregistrements relus. */
+    private static final class Counter implements WriteAheadLog.Handler {
+        int books;
+        int borrows;
+        int returns;
+
+        @Override public void addBook(Book book) { books++; }
+        @Override public void borrow(String isbn, String borrowerName) { borrows++; }
+        @Override public void returnBook(String isbn) { returns++; }
+        @Override public void clearBooks() { }
+        @Override public void clearLoans() { }
+    }
+
+    @Test
+    @DisplayName("Les mutations sont rejouées au redémarrage")
+    void testReplay_RestoresBooksAndLoans() throws IOException {
+        // Arrange
+        Path file = tempDir.resolve("library.wal");
+        LibraryEngine engine = new LibraryEngine(4);
+        engine.openJournal(file);
+        engine.addBook(new Book("978-1", "Bible", "Lenny", 2025));
+        engine.addBooks(List.of(new Book("978-2", "Émile", "Zola", 1880), new Book("978-3", "Nana", "Zola", 1880)));
+        engine.borrowBook("978-1", "Roland");
+        engine.borrowBook("978-2", "Lenny");
+        engine.returnBook("978-2");
+        engine.borrowBook("978-9", "Personne");
+        engine.closeJournal();
+
+        // Act
+        LibraryEngine restarted = new LibraryEngine(2);
+        restarted.openJournal(file);
+
+        // Assert
+        assertEquals(engine.getBooks().toString(), restarted.getBooks().toString());
+        assertEquals("Roland", restarted.getBorrower("978-1").getName());
+        assertFalse(restarted.isBorrowed("978-2"), "Le retour est rejoué");
+        assertEquals(1, restarted.getLoans().size());
+        restarted.closeJournal();
+    }
+
+    @Test
+    @DisplayName("Un champ de plus de 64 Ko est journalisé et rejoué")
+    void testReplay_FieldOver64KiB() throws IOException {
+        // Arrange
+        Path file = tempDir.resolve("library.wal");
+        String title = "é".repeat(40_000);
+        String name = "Roland ".repeat(10_000);
+        LibraryEngine engine = new LibraryEngine(2);
+        engine.openJournal(file);
+
+        // Act
+        engine.addBook(new Book("978-1", title, "Lenny", 2025));
+        engine.borrowBook("978-1", name);
+        engine.closeJournal();
+        LibraryEngine restarted = new LibraryEngine(2);
+        restarted.openJournal(file);
+
+        // Assert
+        assertEquals(title, restarted.byIsbn("978-1").getTitle());
+        assertEquals(name, restarted.getBorrower("978-1").getName());
+        restarted.closeJournal();
+    }
+
+    @Test
+    @DisplayName("Les vidages sont rejoués dans l'ordre")
+    void testReplay_ClearBooksAndLoans() throws IOException {
+        // Arrange
+        Path file = tempDir.resolve("library.wal");
+        LibraryEngine engine = new LibraryEngine(2);
+        engine.openJournal(file);
+        engine.addBook(new Book("978-1", "Bible", "Lenny", 2025));
+        engine.borrowBook("978-1", "Roland");
+        engine.clearBooks();
+        engine.clearLoans();
+        engine.addBook(new Book("978-2", "Émile", "Zola", 1880));
+        engine.closeJournal();
+
+        // Act
+        LibraryEngine restarted = new LibraryEngine(2);
+        restarted.openJournal(file);
+
+        // Assert
+        assertEquals(1, restarted.getBooks().size());
+        assertEquals("978-2", restarted.getBooks().get(0).getIsbn());
+        assertTrue(restarted.getLoans().isEmpty());
+        restarted.closeJournal();
+    }
+
+    @Test
+    @DisplayName("Une fin de journal incomplète est ignorée puis tronquée")
+    void testReplay_TornTailIsTruncated() throws IOException {
+        // Arrange
+        Path file = tempDir.resolve("library.wal");
+        LibraryEngine engine = new LibraryEngine(1);
+        engine.openJournal(file);
+        engine.addBook(new Book("978-1", "Bible", "Lenny", 2025));
+        engine.addBook(new Book("978-2", "Émile", "Zola", 1880));
+        engine.closeJournal();
+        long validLength = Files.size(file);
+        Files.write(file, new byte[] {0, 0, 0, 40, 1, 2, 3}, StandardOpenOption.APPEND);
+
+        // Act
+        LibraryEngine restarted = new LibraryEngine(1);
+        restarted.openJournal(file);
+        int replayed = restarted.getBooks().size();
+        restarted.addBook(new Book("978-3", "Nana", "Zola", 1880));
+        restarted.closeJournal();
+        LibraryEngine again = new LibraryEngine(1);
+        again.openJournal(file);
+
+        // Assert
+        assertEquals(2, replayed, "La trame incomplète est ignorée");
+        assertTrue(Files.size(file) > validLength);
+        assertEquals(3, again.getBooks().size(), "Les écritures reprennent après la dernière trame valide");
+        again.closeJournal();
+    }
+
+    @Test
+    @DisplayName("Une trame corrompue arrête la relecture")
+    void testReplay_StopsAtChecksumMismatch() throws IOException {
+        // Arrange
+        Path file = tempDir.resolve("library.wal");
+        try (WriteAheadLog log = WriteAheadLog.open(file, new Counter())) {
+            log.append(WriteAheadLog.borrow("978-1", "Roland"));
+            log.append(WriteAheadLog.borrow("978-2", "Lenny"));
+            log.append(WriteAheadLog.returnBook("978-1"));
+            log.sync();
+        }
+        byte[] bytes = Files.readAllBytes(file);
+        int secondFrame = 8 + (bytes[3] & 0xFF);
+        bytes[secondFrame + 10] ^= 0x5A;
+        Files.write(file, bytes);
+
+        // Act
+        Counter counter = new Counter();
+        WriteAheadLog.open(file, counter).close();
+
+        // Assert
+        assertEquals(1, counter.borrows, "Seule la première trame est valide");
+        assertEquals(0, counter.returns);
+        assertEquals(secondFrame, Files.size(file));
+    }
+
+    @Test
+    @DisplayName("Une synchronisation valide toutes les trames en attente")
+    void testSync_GroupsPendingRecords() throws IOException {
+        // Arrange
+        Path file = tempDir.resolve("library.wal");
+        try (WriteAheadLog log = WriteAheadLog.open(file, new Counter())) {
+            // Act
+            for (int i = 0; i < 100; i++) {
+                log.append(WriteAheadLog.borrow("978-" + i, "Roland"));
+            }
+            log.sync();
+            log.sync();
+
+            // Assert
+            assertEquals(1, log.getSyncCount(), "Une seule écriture disque pour le lot");
+            assertEquals(100, log.getRecordCount());
+        }
+    }
+
+    @Test
+    @DisplayName("Les emprunts concurrents sont tous durables")
+    void testConcurrentBorrows_AllDurable() throws Exception {
+        // Arrange
+        Path file = tempDir.resolve("library.wal");
+        LibraryEngine engine = new LibraryEngine(4);
+        engine.openJournal(file);
+        int threads = 8;
+        int perThread = 200;
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < threads * perThread; i++) {
+            books.add(new Book("978-" + i, "Titre " + i, "Auteur", 2000));
+        }
+        engine.addBooks(books);
+
+        // Act
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int first = t * perThread;
+            futures.add(pool.submit(() -> {
+                for (int i = first; i < first + perThread; i++) {
+                    assertTrue(engine.borrowBook("978-" + i, "Lecteur " + i));
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        pool.shutdown();
+        engine.closeJournal();
+        Counter counter = new Counter();
+        WriteAheadLog.open(file, counter).close();
+
+        // Assert
+        assertEquals(threads * perThread, counter.books);
+        assertEquals(threads * perThread, counter.borrows);
+    }
+}
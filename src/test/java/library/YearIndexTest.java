@@ -0,0 +1,76 @@
+package library;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Index des années et recherche par intervalle")
+class YearIndexTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("L'intervalle retourne les positions triées par année puis par position")
+    void testRange_SortedByYearThenPosition() {
+        // Arrange
+        YearIndex index = new YearIndex();
+        int[] years = {2001, 1995, 1990, 1995, 2010, 1989, 2000};
+
+        // Act
+        for (int i = 0; i < 3; i++) {
+            index.add(i, years[i]);
+        }
+        index.addAll(3, new int[]{years[3], years[4], years[5], years[6]});
+
+        // Assert
+        assertArrayEquals(new int[]{2, 1, 3, 6}, index.range(1990, 2000));
+        assertArrayEquals(new int[]{5, 2, 1, 3, 6, 0, 4}, index.range(Integer.MIN_VALUE, Integer.MAX_VALUE));
+        assertArrayEquals(new int[]{1, 3}, index.range(1995, 1995));
+        assertArrayEquals(new int[0], index.range(1991, 1994));
+        assertArrayEquals(new int[0], index.range(2000, 1990));
+        assertEquals(6, index.distinctYears());
+    }
+
+    @Test
+    @DisplayName("Le moteur fusionne les shards, le fichier de base et les ajouts dans l'ordre des années")
+    void testEngine_FindByYearRangeMatchesScan() throws IOException {
+        // Arrange
+        List<Book> base = new ArrayList<>();
+        List<Book> added = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            base.add(new Book("978-B" + i, "Base " + i, "Auteur", 1950 + (i * 7) % 70));
+            added.add(new Book("978-A" + i, "Ajout " + i, "Auteur", 1950 + (i * 11) % 70));
+        }
+        Path file = tempDir.resolve("years.catalog");
+        MappedCatalog.write(file, base);
+        LibraryEngine engine = new LibraryEngine(4);
+        engine.openCatalog(file);
+
+        // Act
+        engine.addBooks(added.subList(0, 150));
+        for (Book book : added.subList(150, 300)) {
+            engine.addBook(book);
+        }
+        List<Book> found = engine.findByYearRange(1990, 2000);
+
+        // Assert
+        List<Book> expected = engine.getBooks().stream()
+                .filter(b -> b.getYear() >= 1990 && b.getYear() <= 2000)
+                .sorted(Comparator.comparingInt(Book::getYear))
+                .collect(Collectors.toList());
+        assertEquals(expected, found, "Même résultat que le parcours, tri stable par année");
+        assertEquals(engine.getBooks().size(), engine.findByYearRange(Integer.MIN_VALUE, Integer.MAX_VALUE).size());
+        assertTrue(engine.findByYearRange(2100, 2200).isEmpty());
+        assertTrue(engine.findByYearRange(2000, 1990).isEmpty());
+    }
+}